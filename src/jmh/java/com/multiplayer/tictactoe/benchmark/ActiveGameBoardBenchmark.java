@@ -0,0 +1,97 @@
+package com.multiplayer.tictactoe.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.multiplayer.tictactoe.entity.redis.ActiveGame;
+import com.multiplayer.tictactoe.utils.BitBoard;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ActiveGameBoardBenchmark {
+
+    @Param({"3", "15", "100"})
+    private int size;
+
+    @Param({"0.1", "0.5", "0.9"})
+    private double fill;
+
+    private ActiveGame game;
+
+    private String encodedBoard;
+
+    private String legacyJsonBoard;
+
+    private int row;
+
+    private int col;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        game = BenchmarkBoards.filledGame(size, fill);
+
+        int emptyCell = BenchmarkBoards.emptyCell(game);
+        row = emptyCell / size;
+        col = emptyCell % size;
+
+        encodedBoard = game.getBoard().encode();
+        legacyJsonBoard = new ObjectMapper().writeValueAsString(game.getBoardState());
+    }
+
+    @Benchmark
+    public Character getCell() {
+        return game.getCell(row, col);
+    }
+
+    /**
+     * Sets and clears the same cell, including the re-encoding of the stored field
+     */
+    @Benchmark
+    public Character setCell() {
+        game.setCell(row, col, 'X');
+        game.setCell(row, col, null);
+        return game.getCell(row, col);
+    }
+
+    /**
+     * Decodes the stored board field, as happens once per game loaded from Redis
+     */
+    @Benchmark
+    public BitBoard decodeBoard() {
+        return BitBoard.decode(encodedBoard, size, size);
+    }
+
+    /**
+     * Decodes a board still stored in the JSON format used before the binary codecs
+     */
+    @Benchmark
+    public BitBoard decodeLegacyJsonBoard() {
+        return BitBoard.decode(legacyJsonBoard, size, size);
+    }
+
+    @Benchmark
+    public String encodeBoard() {
+        return game.getBoard().encode();
+    }
+
+    /**
+     * Builds the map view sent to clients and written to history
+     */
+    @Benchmark
+    public Map<Character, Set<String>> boardStateView() {
+        return game.getBoardState();
+    }
+
+}
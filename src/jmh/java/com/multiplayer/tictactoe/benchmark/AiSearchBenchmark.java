@@ -0,0 +1,121 @@
+package com.multiplayer.tictactoe.benchmark;
+
+import com.multiplayer.tictactoe.ai.AiSearch;
+import com.multiplayer.tictactoe.ai.SearchResult;
+import com.multiplayer.tictactoe.ai.TablebaseEntry;
+import com.multiplayer.tictactoe.ai.TablebaseRegistry;
+import com.multiplayer.tictactoe.ai.TranspositionTable;
+import com.multiplayer.tictactoe.utils.BitBoard;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time for the AI to choose a move at a fixed depth, and the positions it searches per second,
+ * from an early middle game position, against a tablebase lookup of the same position
+ */
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class AiSearchBenchmark {
+
+    // rows x cols : win length
+    @Param({"3x3:3", "4x4:3", "15x15:5", "100x100:5"})
+    private String board;
+
+    @Param({"4", "6"})
+    private int depth;
+
+    private AiSearch search;
+
+    private TablebaseRegistry tablebases;
+
+    private BitBoard position;
+
+    private int winLength;
+
+    @Setup
+    public void setUp() throws IOException {
+        int separator = board.indexOf('x');
+        int colon = board.indexOf(':');
+        int rows = Integer.parseInt(board.substring(0, separator));
+        int cols = Integer.parseInt(board.substring(separator + 1, colon));
+        winLength = Integer.parseInt(board.substring(colon + 1));
+
+        search = new AiSearch(new TranspositionTable(16), 12);
+        tablebases = new TablebaseRegistry("");
+        position = openingPosition(rows, cols);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    public SearchResult timeToMove() {
+        return search.search(position, winLength, BitBoard.PLAYER_X, depth, Long.MAX_VALUE / 2);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    public SearchResult nodesPerSecond(NodeCounter counter) {
+        SearchResult result = search.search(position, winLength, BitBoard.PLAYER_X, depth, Long.MAX_VALUE / 2);
+        counter.nodes += result.nodes();
+        return result;
+    }
+
+    /**
+     * Null for boards without a tablebase, so those measure the cost of a miss
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public TablebaseEntry tablebaseLookup() {
+        return tablebases.lookup(position, winLength);
+    }
+
+    /**
+     * Positions visited, reported by JMH as a rate next to the searches per millisecond
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class NodeCounter {
+
+        public long nodes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            nodes = 0;
+        }
+    }
+
+    /**
+     * One stone per player on 3x3 boards and three each otherwise, placed around the centre
+     */
+    private static BitBoard openingPosition(int rows, int cols) {
+        BitBoard position = new BitBoard(rows, cols);
+        int stonesPerPlayer = rows * cols <= 9 ? 1 : 3;
+        int span = Math.min(Math.min(rows, cols), 5);
+        int top = (rows - span) / 2;
+        int left = (cols - span) / 2;
+
+        Random random = new Random(42);
+        for (int placed = 0; placed < 2 * stonesPerPlayer; ) {
+            int row = top + random.nextInt(span);
+            int col = left + random.nextInt(span);
+            if (!position.isOccupied(row, col)) {
+                position.set(row, col, placed % 2 == 0 ? BitBoard.PLAYER_X : BitBoard.PLAYER_O);
+                placed++;
+            }
+        }
+        return position;
+    }
+
+}
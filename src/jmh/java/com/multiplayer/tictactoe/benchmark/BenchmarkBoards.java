@@ -0,0 +1,63 @@
+package com.multiplayer.tictactoe.benchmark;
+
+import com.multiplayer.tictactoe.entity.redis.ActiveGame;
+import com.multiplayer.tictactoe.enums.GameStatus;
+
+import java.util.Random;
+
+/**
+ * Builds games with a given size and fill level for the benchmarks
+ */
+final class BenchmarkBoards {
+
+    static final String SESSION_X = "sess_x";
+    static final String SESSION_O = "sess_o";
+
+    private BenchmarkBoards() {
+    }
+
+    /**
+     * Creates an in-progress game with roughly fillRatio of its cells taken, alternating X and O,
+     * with X to move. The seed is fixed so every run measures the same boards.
+     */
+    static ActiveGame filledGame(int size, double fillRatio) {
+        ActiveGame game = new ActiveGame();
+        game.setGameId("bench-" + size);
+        game.setBoardVerticalSize(size);
+        game.setBoardHorizontalSize(size);
+        game.setWinLength(Math.min(size, 5));
+        game.setSessionIdX(SESSION_X);
+        game.setSessionIdO(SESSION_O);
+        game.setCurrentTurnSessionId(SESSION_X);
+        game.setStatus(GameStatus.IN_PROGRESS);
+
+        Random random = new Random(42);
+        int cells = size * size;
+        int moves = (int) (cells * fillRatio);
+        for (int move = 0; move < moves; move++) {
+            int cell = random.nextInt(cells);
+            while (game.isPositionOccupied(cell / size, cell % size)) {
+                cell = (cell + 1) % cells;
+            }
+            game.setCell(cell / size, cell % size, move % 2 == 0 ? 'X' : 'O');
+        }
+        game.setMoveCount(moves);
+        return game;
+    }
+
+    /**
+     * Finds an empty cell, scanning from the center so the probe sits among the other stones
+     */
+    static int emptyCell(ActiveGame game) {
+        int size = game.getBoardVerticalSize();
+        int cells = size * size;
+        for (int offset = 0; offset < cells; offset++) {
+            int cell = (cells / 2 + offset) % cells;
+            if (!game.isPositionOccupied(cell / size, cell % size)) {
+                return cell;
+            }
+        }
+        return -1;
+    }
+
+}
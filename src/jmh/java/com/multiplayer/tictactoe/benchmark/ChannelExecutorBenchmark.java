@@ -0,0 +1,90 @@
+package com.multiplayer.tictactoe.benchmark;
+
+import com.multiplayer.tictactoe.utils.BoundedVirtualThreadExecutor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Compares message throughput of a platform thread pool against virtual threads, for handlers that block on I/O
+ * the way Redis and PostgreSQL calls do. Both run with the same concurrency, either the default STOMP channel
+ * pool size of twice the cores or the default virtual thread limit, so the result shows the cost of the threads
+ * rather than of the concurrency limit.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ChannelExecutorBenchmark {
+
+    private static final int MESSAGES = 1000;
+
+    @Param({"platform", "virtual"})
+    private String executorType;
+
+    @Param({"100", "1000"})
+    private int blockingMicros;
+
+    /**
+     * Messages handled at once, cores for twice the available processors
+     */
+    @Param({"cores", "256"})
+    private String concurrency;
+
+    private Executor executor;
+
+    private ThreadPoolTaskExecutor platformPool;
+
+    @Setup
+    public void setUp() {
+        // Twice the cores is the sizing Spring uses for clientInboundChannelExecutor by default
+        int threads = "cores".equals(concurrency)
+                ? Runtime.getRuntime().availableProcessors() * 2
+                : Integer.parseInt(concurrency);
+
+        if ("platform".equals(executorType)) {
+            platformPool = new ThreadPoolTaskExecutor();
+            platformPool.setCorePoolSize(threads);
+            platformPool.setAllowCoreThreadTimeOut(true);
+            platformPool.initialize();
+            executor = platformPool;
+        } else {
+            executor = new BoundedVirtualThreadExecutor("bench-", threads);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (platformPool != null) {
+            platformPool.shutdown();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES)
+    public void handleBlockingMessages() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(MESSAGES);
+        long blockingNanos = TimeUnit.MICROSECONDS.toNanos(blockingMicros);
+
+        for (int i = 0; i < MESSAGES; i++) {
+            executor.execute(() -> {
+                LockSupport.parkNanos(blockingNanos);
+                done.countDown();
+            });
+        }
+        done.await();
+    }
+
+}
@@ -0,0 +1,72 @@
+package com.multiplayer.tictactoe.benchmark;
+
+import com.multiplayer.tictactoe.entity.redis.ActiveGame;
+import com.multiplayer.tictactoe.utils.GameEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class GameEngineBenchmark {
+
+    @Param({"3", "15", "100"})
+    private int size;
+
+    @Param({"0.1", "0.5", "0.9"})
+    private double fill;
+
+    private GameEngine gameEngine;
+
+    private ActiveGame game;
+
+    private int emptyRow;
+
+    private int emptyCol;
+
+    private int lastMoveRow;
+
+    private int lastMoveCol;
+
+    @Setup
+    public void setUp() {
+        gameEngine = new GameEngine(true);
+        game = BenchmarkBoards.filledGame(size, fill);
+
+        int emptyCell = BenchmarkBoards.emptyCell(game);
+        emptyRow = emptyCell / size;
+        emptyCol = emptyCell % size;
+
+        // Treat the occupied cell next to the probe as the last move
+        int occupiedCell = emptyCell;
+        while (!game.isPositionOccupied(occupiedCell / size, occupiedCell % size)) {
+            occupiedCell = (occupiedCell + 1) % (size * size);
+        }
+        lastMoveRow = occupiedCell / size;
+        lastMoveCol = occupiedCell % size;
+    }
+
+    @Benchmark
+    public boolean isIllegalMove() {
+        return gameEngine.isIllegalMove(game, BenchmarkBoards.SESSION_X, emptyRow, emptyCol);
+    }
+
+    @Benchmark
+    public Character checkWinCondition() {
+        return gameEngine.checkWinCondition(game, lastMoveRow, lastMoveCol);
+    }
+
+    @Benchmark
+    public boolean checkDrawCondition() {
+        return gameEngine.checkDrawCondition(game);
+    }
+
+}
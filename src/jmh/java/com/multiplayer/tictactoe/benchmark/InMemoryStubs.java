@@ -0,0 +1,105 @@
+package com.multiplayer.tictactoe.benchmark;
+
+import com.multiplayer.tictactoe.entity.jpa.GameHistory;
+import com.multiplayer.tictactoe.entity.redis.ActiveGame;
+import com.multiplayer.tictactoe.enums.MoveApplyResult;
+import com.multiplayer.tictactoe.history.GameHistoryWriter;
+import com.multiplayer.tictactoe.repository.ActiveGameMoveRepository;
+import com.multiplayer.tictactoe.repository.ActiveGameRepository;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * In-memory stand-ins for Redis, PostgreSQL and the STOMP broker,
+ * so the move pipeline can be measured without any infrastructure
+ */
+final class InMemoryStubs {
+
+    private InMemoryStubs() {
+    }
+
+    static ActiveGameRepository activeGameRepository(Map<String, ActiveGame> store) {
+        return (ActiveGameRepository) Proxy.newProxyInstance(
+                ActiveGameRepository.class.getClassLoader(),
+                new Class<?>[]{ActiveGameRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findById" -> Optional.ofNullable(store.get((String) args[0]));
+                    case "save" -> {
+                        ActiveGame game = (ActiveGame) args[0];
+                        if (game.getGameId() == null) {
+                            game.setGameId(UUID.randomUUID().toString());
+                        }
+                        store.put(game.getGameId(), game);
+                        yield game;
+                    }
+                    case "update" -> {
+                        ActiveGame game = (ActiveGame) args[0];
+                        store.put(game.getGameId(), game);
+                        yield null;
+                    }
+                    case "deleteById", "expireFinished" -> {
+                        store.remove((String) args[0]);
+                        yield null;
+                    }
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    /**
+     * Applies moves to the in-memory store, the game passed in already holds the new state
+     */
+    static ActiveGameMoveRepository activeGameMoveRepository(Map<String, ActiveGame> store) {
+        return new ActiveGameMoveRepository(null) {
+            @Override
+            public MoveApplyResult applyMove(ActiveGame game, String moverSessionId, int row, int col,
+                                             int expectedMoveCount, String channel, String message) {
+                if (!store.containsKey(game.getGameId())) {
+                    return MoveApplyResult.NOT_FOUND;
+                }
+                store.put(game.getGameId(), game);
+                return MoveApplyResult.APPLIED;
+            }
+
+            @Override
+            public int[] findMoves(String gameId) {
+                return new int[0];
+            }
+        };
+    }
+
+    /**
+     * Redis template whose pub/sub publishes go nowhere
+     */
+    static StringRedisTemplate stringRedisTemplate() {
+        return new StringRedisTemplate() {
+            @Override
+            public Long convertAndSend(String channel, Object message) {
+                return 0L;
+            }
+        };
+    }
+
+    /**
+     * History writer that drops finished games instead of queueing them for the database
+     */
+    static GameHistoryWriter gameHistoryWriter() {
+        return new GameHistoryWriter(null, null, null, null, null, 1, 1, 1, 0, 1, 0, "build/jmh-spool", Long.MAX_VALUE) {
+            @Override
+            public void submit(GameHistory gameHistory) {
+            }
+        };
+    }
+
+    /**
+     * Messaging template that serializes payloads like the real one but discards the messages
+     */
+    static SimpMessagingTemplate simpMessagingTemplate() {
+        return new SimpMessagingTemplate((message, timeout) -> true);
+    }
+
+}
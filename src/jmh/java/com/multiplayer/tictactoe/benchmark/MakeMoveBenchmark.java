@@ -0,0 +1,129 @@
+package com.multiplayer.tictactoe.benchmark;
+
+import com.multiplayer.tictactoe.ai.AiOpponent;
+import com.multiplayer.tictactoe.ai.TablebaseRegistry;
+import com.multiplayer.tictactoe.cache.ActiveGameCache;
+import com.multiplayer.tictactoe.dto.request.MakeMoveReq;
+import com.multiplayer.tictactoe.entity.redis.ActiveGame;
+import com.multiplayer.tictactoe.enums.GameStatus;
+import com.multiplayer.tictactoe.mapper.GameMapperImpl;
+import com.multiplayer.tictactoe.metrics.GameMetrics;
+import com.multiplayer.tictactoe.service.impl.GameServiceImpl;
+import com.multiplayer.tictactoe.spectate.SpectatorPublisher;
+import com.multiplayer.tictactoe.utils.GameEngine;
+import com.multiplayer.tictactoe.utils.NodeIdentity;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures GameServiceImpl.makeMove end to end (cache, validation, win and draw checks,
+ * mapping and message serialization) against in-memory stubs. Games are replayed from a
+ * shuffled move order and restarted as soon as one finishes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MakeMoveBenchmark {
+
+    private static final String GAME_ID = "bench-game";
+
+    @Param({"3", "15", "100"})
+    private int size;
+
+    @Param({"true", "false"})
+    private boolean deltaMoves;
+
+    private final Map<String, ActiveGame> store = new HashMap<>();
+
+    private GameServiceImpl gameService;
+
+    private GameEngine gameEngine;
+
+    private int[] moveOrder;
+
+    private int nextMove;
+
+    @Setup
+    public void setUp() throws IOException {
+        gameEngine = new GameEngine(false);
+        ActiveGameCache activeGameCache = new ActiveGameCache(
+                InMemoryStubs.activeGameRepository(store),
+                InMemoryStubs.activeGameMoveRepository(store),
+                InMemoryStubs.stringRedisTemplate(),
+                new NodeIdentity(),
+                1000,
+                300);
+
+        GameMetrics gameMetrics = new GameMetrics(new SimpleMeterRegistry());
+        TablebaseRegistry tablebases = new TablebaseRegistry("");
+        gameService = new GameServiceImpl(
+                InMemoryStubs.simpMessagingTemplate(),
+                InMemoryStubs.gameHistoryWriter(),
+                activeGameCache,
+                gameEngine,
+                new GameMapperImpl(),
+                gameMetrics,
+                // Benchmark games are between two players, the AI never gets a turn
+                new AiOpponent(null, gameEngine, gameMetrics, tablebases, 1, 1, 1, 1, 1, 4),
+                tablebases,
+                new SpectatorPublisher(InMemoryStubs.simpMessagingTemplate(), new GameMapperImpl(), gameMetrics, 1, 100),
+                deltaMoves,
+                size);
+
+        moveOrder = new int[size * size];
+        for (int i = 0; i < moveOrder.length; i++) {
+            moveOrder[i] = i;
+        }
+        Random random = new Random(42);
+        for (int i = moveOrder.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = moveOrder[i];
+            moveOrder[i] = moveOrder[j];
+            moveOrder[j] = swap;
+        }
+
+        startGame();
+    }
+
+    @Benchmark
+    public void makeMove() {
+        ActiveGame game = store.get(GAME_ID);
+        if (game == null) {
+            game = startGame();
+        }
+
+        int cell = moveOrder[nextMove++];
+        gameService.makeMove(new MakeMoveReq(GAME_ID, game.getCurrentTurnSessionId(), cell / size, cell % size));
+    }
+
+    private ActiveGame startGame() {
+        ActiveGame game = new ActiveGame();
+        game.setGameId(GAME_ID);
+        game.setBoardVerticalSize(size);
+        game.setBoardHorizontalSize(size);
+        game.setWinLength(Math.min(size, 5));
+        gameEngine.initializeCounters(game);
+        game.setSessionIdX(BenchmarkBoards.SESSION_X);
+        game.setSessionIdO(BenchmarkBoards.SESSION_O);
+        game.setCurrentTurnSessionId(BenchmarkBoards.SESSION_X);
+        game.setStatus(GameStatus.IN_PROGRESS);
+
+        store.put(GAME_ID, game);
+        nextMove = 0;
+        return game;
+    }
+
+}
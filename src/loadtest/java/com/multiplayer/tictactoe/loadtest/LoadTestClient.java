@@ -0,0 +1,108 @@
+package com.multiplayer.tictactoe.loadtest;
+
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import org.springframework.web.socket.sockjs.client.SockJsClient;
+import org.springframework.web.socket.sockjs.client.WebSocketTransport;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Simulates concurrent players against a running instance over SockJS/WebSocket STOMP.
+ * Players are paired host/guest, play random legal moves at a fixed rate and report throughput,
+ * move round-trip latency percentiles and error rates.
+ * <p>
+ * Run with {@code ./gradlew loadTest -Dloadtest.players=2000 -Dloadtest.movesPerSecond=1 -Dloadtest.durationSeconds=60}.
+ */
+public class LoadTestClient {
+
+    private static final int PROGRESS_INTERVAL_SECONDS = 5;
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.fromSystemProperties();
+        LoadTestStats stats = new LoadTestStats();
+        System.out.println("Starting load test: " + config);
+
+        WebSocketStompClient stompClient = new WebSocketStompClient(
+                new SockJsClient(List.of(new WebSocketTransport(new StandardWebSocketClient()))));
+        stompClient.setMessageConverter(new MappingJackson2MessageConverter());
+
+        ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(
+                Runtime.getRuntime().availableProcessors(), Thread.ofVirtual().name("loadtest-", 0).factory());
+
+        List<SimulatedPlayer> players = new ArrayList<>(config.players());
+        for (int i = 0; i < config.players(); i += 2) {
+            SimulatedPlayer host = new SimulatedPlayer(true, config, stats, scheduler);
+            SimulatedPlayer guest = new SimulatedPlayer(false, config, stats, scheduler);
+            host.pairWith(guest);
+            guest.pairWith(host);
+            players.add(host);
+            players.add(guest);
+        }
+
+        connectAll(stompClient, players, config, stats);
+
+        long startedAt = System.nanoTime();
+        for (int i = 0; i < players.size(); i += 2) {
+            // Pairs where either side failed to connect sit out the test
+            if (players.get(i).isConnected() && players.get(i + 1).isConnected()) {
+                players.get(i).startGame();
+            }
+        }
+
+        long previousAcknowledged = 0;
+        for (int elapsed = 0; elapsed < config.durationSeconds(); elapsed += PROGRESS_INTERVAL_SECONDS) {
+            TimeUnit.SECONDS.sleep(Math.min(PROGRESS_INTERVAL_SECONDS, config.durationSeconds() - elapsed));
+            System.out.println(stats.progressLine(previousAcknowledged, PROGRESS_INTERVAL_SECONDS));
+            previousAcknowledged = stats.getMovesAcknowledged();
+        }
+
+        double elapsedSeconds = (System.nanoTime() - startedAt) / 1_000_000_000.0;
+        players.forEach(SimulatedPlayer::stop);
+        scheduler.shutdownNow();
+        stompClient.stop();
+
+        System.out.println(stats.summary(elapsedSeconds));
+    }
+
+    /**
+     * Opens every session on virtual threads, limiting how many handshakes are in flight at once
+     */
+    private static void connectAll(WebSocketStompClient stompClient, List<SimulatedPlayer> players,
+                                   LoadTestConfig config, LoadTestStats stats) throws InterruptedException {
+        Semaphore handshakes = new Semaphore(config.connectConcurrency());
+        List<CompletableFuture<StompSession>> connections = new ArrayList<>(players.size());
+
+        for (SimulatedPlayer player : players) {
+            handshakes.acquire();
+            CompletableFuture<StompSession> connection = stompClient
+                    .connectAsync(config.url(), new StompSessionHandlerAdapter() {
+                    })
+                    .whenComplete((session, error) -> {
+                        handshakes.release();
+                        if (error != null) {
+                            stats.connectFailed();
+                        } else {
+                            player.connected(session);
+                        }
+                    });
+            connections.add(connection);
+        }
+
+        try {
+            CompletableFuture.allOf(connections.toArray(CompletableFuture[]::new)).get(2, TimeUnit.MINUTES);
+        } catch (Exception e) {
+            System.out.println("Some sessions failed to connect: " + e.getMessage());
+        }
+    }
+
+}
@@ -0,0 +1,21 @@
+package com.multiplayer.tictactoe.loadtest;
+
+/**
+ * Load test settings, read from system properties so they can be passed through Gradle
+ */
+record LoadTestConfig(String url, int players, long moveIntervalMillis, int durationSeconds,
+                      int boardSize, int winLength, int connectConcurrency) {
+
+    static LoadTestConfig fromSystemProperties() {
+        double movesPerSecond = Double.parseDouble(System.getProperty("loadtest.movesPerSecond", "1"));
+        return new LoadTestConfig(
+                System.getProperty("loadtest.url", "http://localhost:8080/socket/tic-tac-toe"),
+                Integer.parseInt(System.getProperty("loadtest.players", "1000")) / 2 * 2,
+                Math.max(1, (long) (1000 / movesPerSecond)),
+                Integer.parseInt(System.getProperty("loadtest.durationSeconds", "60")),
+                Integer.parseInt(System.getProperty("loadtest.boardSize", "15")),
+                Integer.parseInt(System.getProperty("loadtest.winLength", "5")),
+                Integer.parseInt(System.getProperty("loadtest.connectConcurrency", "200")));
+    }
+
+}
@@ -0,0 +1,98 @@
+package com.multiplayer.tictactoe.loadtest;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and move round-trip latencies collected by all simulated players
+ */
+class LoadTestStats {
+
+    private final LongAdder movesSent = new LongAdder();
+
+    private final LongAdder movesAcknowledged = new LongAdder();
+
+    private final LongAdder gamesFinished = new LongAdder();
+
+    private final LongAdder connectFailures = new LongAdder();
+
+    private final LongAdder moveGaps = new LongAdder();
+
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+    private long[] latenciesNanos = new long[1 << 16];
+
+    private int latencyCount;
+
+    void moveSent() {
+        movesSent.increment();
+    }
+
+    void gameFinished() {
+        gamesFinished.increment();
+    }
+
+    void connectFailed() {
+        connectFailures.increment();
+    }
+
+    void moveGap() {
+        moveGaps.increment();
+    }
+
+    void error(String errorCode) {
+        errors.computeIfAbsent(errorCode, code -> new LongAdder()).increment();
+    }
+
+    synchronized void moveAcknowledged(long roundTripNanos) {
+        movesAcknowledged.increment();
+        if (latencyCount == latenciesNanos.length) {
+            latenciesNanos = Arrays.copyOf(latenciesNanos, latencyCount * 2);
+        }
+        latenciesNanos[latencyCount++] = roundTripNanos;
+    }
+
+    long getMovesAcknowledged() {
+        return movesAcknowledged.sum();
+    }
+
+    String progressLine(long previousAcknowledged, double intervalSeconds) {
+        long acknowledged = movesAcknowledged.sum();
+        return String.format("moves/s=%.1f sent=%d acked=%d games=%d errors=%d gaps=%d",
+                (acknowledged - previousAcknowledged) / intervalSeconds,
+                movesSent.sum(), acknowledged, gamesFinished.sum(), totalErrors(), moveGaps.sum());
+    }
+
+    synchronized String summary(double elapsedSeconds) {
+        long[] sorted = Arrays.copyOf(latenciesNanos, latencyCount);
+        Arrays.sort(sorted);
+
+        StringBuilder summary = new StringBuilder();
+        summary.append(String.format("duration=%.1fs moves sent=%d acked=%d throughput=%.1f moves/s games finished=%d%n",
+                elapsedSeconds, movesSent.sum(), movesAcknowledged.sum(),
+                movesAcknowledged.sum() / elapsedSeconds, gamesFinished.sum()));
+        summary.append(String.format("move round trip ms: p50=%.2f p90=%.2f p99=%.2f p99.9=%.2f max=%.2f%n",
+                percentileMillis(sorted, 0.50), percentileMillis(sorted, 0.90), percentileMillis(sorted, 0.99),
+                percentileMillis(sorted, 0.999), percentileMillis(sorted, 1.0)));
+        summary.append(String.format("connect failures=%d move gaps=%d error rate=%.4f%% errors=%s",
+                connectFailures.sum(), moveGaps.sum(),
+                movesSent.sum() == 0 ? 0.0 : 100.0 * totalErrors() / movesSent.sum(),
+                errors));
+        return summary.toString();
+    }
+
+    private long totalErrors() {
+        return errors.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    private static double percentileMillis(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0.0;
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1_000_000.0;
+    }
+
+}
@@ -0,0 +1,275 @@
+package com.multiplayer.tictactoe.loadtest;
+
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+
+import java.lang.reflect.Type;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * One simulated browser. Hosts create games and hand the game id to their partner, who joins it.
+ * Both then play random legal moves at the configured rate, and the host starts a new game after each one ends.
+ * A move that skips a move number means a frame was missed, which is counted and repaired with a resync.
+ */
+class SimulatedPlayer {
+
+    private final String sessionId = "load_" + System.nanoTime() + "_" + ThreadLocalRandom.current().nextInt(1_000_000);
+
+    private final boolean host;
+
+    private final LoadTestConfig config;
+
+    private final LoadTestStats stats;
+
+    private final ScheduledExecutorService scheduler;
+
+    private final Random random = new Random();
+
+    private StompSession session;
+
+    private SimulatedPlayer partner;
+
+    private StompSession.Subscription gameSubscription;
+
+    private String gameId;
+
+    // X or O, the server names players by symbol and never sends session ids
+    private String symbol;
+
+    private boolean[] occupied;
+
+    private int moveNumber;
+
+    private long pendingMoveSentAt;
+
+    private volatile boolean running = true;
+
+    SimulatedPlayer(boolean host, LoadTestConfig config, LoadTestStats stats, ScheduledExecutorService scheduler) {
+        this.host = host;
+        this.config = config;
+        this.stats = stats;
+        this.scheduler = scheduler;
+    }
+
+    void pairWith(SimulatedPlayer partner) {
+        this.partner = partner;
+    }
+
+    void connected(StompSession session) {
+        this.session = session;
+        session.subscribe("/topic/session." + sessionId, new JsonFrameHandler(this::onMessage));
+    }
+
+    boolean isConnected() {
+        return session != null && session.isConnected();
+    }
+
+    void stop() {
+        running = false;
+        if (session != null && session.isConnected()) {
+            session.disconnect();
+        }
+    }
+
+    /**
+     * Hosts create a game, their partner joins once the game id is known
+     */
+    synchronized void startGame() {
+        if (!running) {
+            return;
+        }
+        Map<String, Object> request = new HashMap<>();
+        request.put("gameId", null);
+        request.put("boardVerticalSize", config.boardSize());
+        request.put("boardHorizontalSize", config.boardSize());
+        request.put("winLength", config.winLength());
+        request.put("sessionId", sessionId);
+        session.send("/app/game.createOrJoin", request);
+    }
+
+    synchronized void joinGame(String gameId) {
+        if (!running) {
+            return;
+        }
+        subscribeToGame(gameId);
+        session.send("/app/game.createOrJoin", Map.of(
+                "gameId", gameId,
+                "boardVerticalSize", 0,
+                "boardHorizontalSize", 0,
+                "sessionId", sessionId));
+    }
+
+    private synchronized void onMessage(Map<String, Object> data) {
+        if (data.containsKey("errorCode")) {
+            onError((String) data.get("errorCode"));
+        } else if (data.containsKey("nextTurn")) {
+            onMoveMade(data);
+        } else if (data.containsKey("boardState")) {
+            onSnapshot(data);
+        } else if (data.containsKey("boardVerticalSize")) {
+            onGameStarted(data);
+        }
+    }
+
+    private void onGameStarted(Map<String, Object> data) {
+        String status = (String) data.get("status");
+        gameId = (String) data.get("gameId");
+        symbol = (String) data.get("symbol");
+
+        if ("WAITING".equals(status)) {
+            // The simple broker sends no receipt for a subscription. Inbound frames are handled in order,
+            // so the sync reply is the sign that the game subscription is in place and the partner can join.
+            subscribeToGame(gameId);
+            requestSync();
+        } else if ("IN_PROGRESS".equals(status)) {
+            occupied = new boolean[config.boardSize() * config.boardSize()];
+            moveNumber = 0;
+            if (symbol.equals(data.get("currentTurn"))) {
+                scheduleMove();
+            }
+        }
+    }
+
+    private void onMoveMade(Map<String, Object> data) {
+        if (gameId == null || occupied == null) {
+            return;
+        }
+
+        int number = ((Number) data.get("moveNumber")).intValue();
+        if (number <= moveNumber) {
+            // Already covered by a snapshot
+            return;
+        }
+
+        int row = ((Number) data.get("row")).intValue();
+        int col = ((Number) data.get("col")).intValue();
+        occupied[row * config.boardSize() + col] = true;
+        boolean gap = number != moveNumber + 1;
+        moveNumber = number;
+
+        if (symbol.equals(data.get("symbol")) && pendingMoveSentAt != 0) {
+            stats.moveAcknowledged(System.nanoTime() - pendingMoveSentAt);
+            pendingMoveSentAt = 0;
+        }
+
+        String status = (String) data.get("status");
+        if (!"IN_PROGRESS".equals(status)) {
+            finishGame();
+        } else if (gap) {
+            // The board is missing a move, the snapshot replaces it and schedules the next move if it is ours
+            stats.moveGap();
+            requestSync();
+        } else if (symbol.equals(data.get("nextTurn"))) {
+            scheduleMove();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void onSnapshot(Map<String, Object> data) {
+        if (!((String) data.get("gameId")).equals(gameId)) {
+            return;
+        }
+        if ("WAITING".equals(data.get("status"))) {
+            partner.joinGame(gameId);
+            return;
+        }
+        if (!"IN_PROGRESS".equals(data.get("status"))) {
+            finishGame();
+            return;
+        }
+
+        occupied = new boolean[config.boardSize() * config.boardSize()];
+        moveNumber = ((Number) data.get("moveNumber")).intValue();
+        Map<String, List<String>> boardState = (Map<String, List<String>>) data.get("boardState");
+        boardState.values().forEach(positions -> positions.forEach(position -> {
+            String[] parts = position.split(",");
+            occupied[Integer.parseInt(parts[0]) * config.boardSize() + Integer.parseInt(parts[1])] = true;
+        }));
+
+        if (symbol.equals(data.get("currentTurn"))) {
+            scheduleMove();
+        }
+    }
+
+    private void onError(String errorCode) {
+        stats.error(errorCode);
+        pendingMoveSentAt = 0;
+
+        // The local board may be stale, resync before trying again
+        if (gameId != null && "ILLEGAL_MOVE".equals(errorCode)) {
+            requestSync();
+        } else if (host) {
+            scheduler.schedule(this::startGame, 1, TimeUnit.SECONDS);
+        }
+    }
+
+    private void finishGame() {
+        if (gameSubscription != null) {
+            gameSubscription.unsubscribe();
+            gameSubscription = null;
+        }
+        gameId = null;
+
+        if (host) {
+            stats.gameFinished();
+            scheduler.schedule(this::startGame, config.moveIntervalMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void requestSync() {
+        session.send("/app/game.sync", Map.of("gameId", gameId, "sessionId", sessionId));
+    }
+
+    private void scheduleMove() {
+        scheduler.schedule(this::sendMove, config.moveIntervalMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized void sendMove() {
+        if (!running || gameId == null) {
+            return;
+        }
+
+        int cells = occupied.length;
+        int cell = random.nextInt(cells);
+        for (int i = 0; i < cells && occupied[cell]; i++) {
+            cell = (cell + 1) % cells;
+        }
+
+        pendingMoveSentAt = System.nanoTime();
+        stats.moveSent();
+        session.send("/app/game.makeMove", Map.of(
+                "gameId", gameId,
+                "sessionId", sessionId,
+                "row", cell / config.boardSize(),
+                "col", cell % config.boardSize()));
+    }
+
+    private void subscribeToGame(String gameId) {
+        if (gameSubscription == null) {
+            gameSubscription = session.subscribe("/topic/game." + gameId, new JsonFrameHandler(this::onMessage));
+        }
+    }
+
+    private record JsonFrameHandler(Consumer<Map<String, Object>> consumer) implements StompFrameHandler {
+
+        @Override
+        public Type getPayloadType(StompHeaders headers) {
+            return Map.class;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void handleFrame(StompHeaders headers, Object payload) {
+            consumer.accept((Map<String, Object>) payload);
+        }
+    }
+
+}
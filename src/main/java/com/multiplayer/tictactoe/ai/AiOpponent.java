@@ -0,0 +1,178 @@
+package com.multiplayer.tictactoe.ai;
+
+import com.multiplayer.tictactoe.dispatch.GameLaneDispatcher;
+import com.multiplayer.tictactoe.dto.request.MakeMoveReq;
+import com.multiplayer.tictactoe.entity.redis.ActiveGame;
+import com.multiplayer.tictactoe.enums.GameStatus;
+import com.multiplayer.tictactoe.exception.GameException;
+import com.multiplayer.tictactoe.metrics.GameMetrics;
+import com.multiplayer.tictactoe.utils.BitBoard;
+import com.multiplayer.tictactoe.utils.GameEngine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Server-side player for single-player games, seated under {@link #AI_SESSION_ID}.
+ * Positions covered by a tablebase are answered by lookup; others are searched on a small dedicated pool
+ * with a bounded queue, never on the STOMP channels or game lanes.
+ * The chosen move is played through the normal move path on the game's lane.
+ */
+@Slf4j
+@Component
+public class AiOpponent implements DisposableBean {
+
+    public static final String AI_SESSION_ID = "AI";
+
+    // A move that cannot be queued for a search is picked without searching, on the game lane, in a table this small
+    private static final int QUICK_MOVE_TABLE_BITS = 1;
+
+    private final GameLaneDispatcher gameLaneDispatcher;
+
+    private final GameEngine gameEngine;
+
+    private final GameMetrics gameMetrics;
+
+    private final TablebaseRegistry tablebases;
+
+    private final ThreadPoolExecutor searchPool;
+
+    private final ThreadLocal<AiSearch> searches;
+
+    private final long moveBudgetNanos;
+
+    private final int maxDepth;
+
+    private final int maxCandidates;
+
+    // Games with a search queued or running, so a game never has two AI moves in flight
+    private final Set<String> pendingGames = ConcurrentHashMap.newKeySet();
+
+    public AiOpponent(GameLaneDispatcher gameLaneDispatcher,
+                      GameEngine gameEngine,
+                      GameMetrics gameMetrics,
+                      TablebaseRegistry tablebases,
+                      @Value("${tictactoe.ai.threads:2}") int threads,
+                      @Value("${tictactoe.ai.queue-capacity:64}") int queueCapacity,
+                      @Value("${tictactoe.ai.move-time-ms:500}") long moveTimeMillis,
+                      @Value("${tictactoe.ai.max-depth:20}") int maxDepth,
+                      @Value("${tictactoe.ai.max-candidates:12}") int maxCandidates,
+                      @Value("${tictactoe.ai.transposition-table-bits:16}") int tableBits) {
+        this.gameLaneDispatcher = gameLaneDispatcher;
+        this.gameEngine = gameEngine;
+        this.gameMetrics = gameMetrics;
+        this.tablebases = tablebases;
+        this.moveBudgetNanos = TimeUnit.MILLISECONDS.toNanos(moveTimeMillis);
+        this.maxDepth = maxDepth;
+        this.maxCandidates = maxCandidates;
+        this.searches = ThreadLocal.withInitial(() -> new AiSearch(new TranspositionTable(tableBits), maxCandidates));
+        AtomicInteger threadCount = new AtomicInteger();
+        this.searchPool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "ai-search-" + threadCount.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    public static boolean isAiGame(ActiveGame game) {
+        return AI_SESSION_ID.equals(game.getSessionIdX()) || AI_SESSION_ID.equals(game.getSessionIdO());
+    }
+
+    /**
+     * Starts a search if it is the AI's turn in the game, and hands the chosen move to makeMove on the game's lane.
+     * Must be called on the game's lane, since the board is copied here.
+     */
+    public void playIfOnTurn(ActiveGame game, Consumer<MakeMoveReq> makeMove) {
+        if (game.getStatus() != GameStatus.IN_PROGRESS
+                || !AI_SESSION_ID.equals(game.getCurrentTurnSessionId())
+                || !pendingGames.add(game.getGameId())) {
+            return;
+        }
+
+        String gameId = game.getGameId();
+        int winLength = gameEngine.getWinLength(game);
+        TablebaseEntry solved = tablebases.lookup(game.getBoard(), winLength);
+        if (solved != null) {
+            gameMetrics.recordTablebaseHit("ai");
+            submit(gameId, solved.row(), solved.col(), makeMove);
+            return;
+        }
+
+        BitBoard board = game.getBoard().copy();
+        char player = AI_SESSION_ID.equals(game.getSessionIdX()) ? BitBoard.PLAYER_X : BitBoard.PLAYER_O;
+
+        try {
+            searchPool.execute(() -> play(gameId, searches.get(), board, winLength, player, maxDepth,
+                    moveBudgetNanos, makeMove));
+        } catch (RejectedExecutionException e) {
+            log.warn("AI search pool is full, playing a quick move in game {}", gameId);
+            playQuickMove(gameId, board, winLength, player, makeMove);
+        }
+    }
+
+    /**
+     * Plays without searching, so an overloaded search pool never holds up the game lane
+     */
+    private void playQuickMove(String gameId, BitBoard board, int winLength, char player,
+                               Consumer<MakeMoveReq> makeMove) {
+        SearchResult result;
+        try {
+            result = new AiSearch(new TranspositionTable(QUICK_MOVE_TABLE_BITS), maxCandidates)
+                    .quickMove(board, winLength, player);
+        } catch (RuntimeException e) {
+            pendingGames.remove(gameId);
+            log.error("AI quick move failed in game {}", gameId, e);
+            return;
+        }
+
+        submit(gameId, result.row(), result.col(), makeMove);
+    }
+
+    private void play(String gameId, AiSearch search, BitBoard board, int winLength, char player,
+                      int depth, long budgetNanos, Consumer<MakeMoveReq> makeMove) {
+        SearchResult result;
+        try {
+            result = search.search(board, winLength, player, depth, budgetNanos);
+            gameMetrics.recordAiSearch(result);
+        } catch (RuntimeException e) {
+            pendingGames.remove(gameId);
+            log.error("AI search failed in game {}", gameId, e);
+            return;
+        }
+
+        submit(gameId, result.row(), result.col(), makeMove);
+    }
+
+    private void submit(String gameId, int row, int col, Consumer<MakeMoveReq> makeMove) {
+        MakeMoveReq move = new MakeMoveReq(gameId, AI_SESSION_ID, row, col);
+        try {
+            gameLaneDispatcher.dispatch(gameId, AI_SESSION_ID, () -> {
+                // Released before the move, which may start the next search on this game
+                pendingGames.remove(gameId);
+                makeMove.accept(move);
+            });
+        } catch (GameException e) {
+            pendingGames.remove(gameId);
+            log.warn("Could not queue the AI move in game {}: {}", gameId, e.getErrorType());
+        }
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        searchPool.shutdownNow();
+        searchPool.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+}
@@ -0,0 +1,455 @@
+package com.multiplayer.tictactoe.ai;
+
+import com.multiplayer.tictactoe.utils.BitBoard;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Iterative-deepening negamax with alpha-beta pruning for any board size and win length.
+ * <p>
+ * Positions are hashed with Zobrist keys into a {@link TranspositionTable}, whose best moves are tried first
+ * on the next iteration. Leaves are scored by counting, for every win-length window, the stones of a player
+ * that the opponent has not blocked yet; the score is kept up to date incrementally on every move.
+ * On boards larger than 6x6 only cells next to existing stones are searched, the best few by that score.
+ * Immediate wins are played and immediate threats blocked before any other move is considered.
+ * <p>
+ * Not thread-safe, each search thread keeps its own instance.
+ */
+public class AiSearch {
+
+    static final int WIN_SCORE = 1_000_000_000;
+
+    private static final int MAX_EVAL = 900_000_000;
+
+    private static final int MATE_MARGIN = 1_000_000;
+
+    private static final int SMALL_BOARD_CELLS = 36;
+
+    // Root moves may be up to two cells from a stone, deeper moves only one, which keeps inner nodes narrow
+    private static final int ROOT_NEIGHBOUR_RADIUS = 2;
+
+    private static final int NEIGHBOUR_RADIUS = 1;
+
+    private static final int TIME_CHECK_MASK = 1023;
+
+    private static final int MOVE_BITS = 24;
+
+    // Highest move ordering priority, it still leaves the move in the low MOVE_BITS of a positive long
+    private static final long MAX_PRIORITY = Long.MAX_VALUE >>> MOVE_BITS;
+
+    private static final long SIDE_TO_MOVE_KEY = 0x9E3779B97F4A7C15L;
+
+    private static final int[][] DIRECTIONS = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+
+    private final TranspositionTable table;
+
+    private final int maxCandidates;
+
+    // Cell contents: 0 empty, 1 X, 2 O
+    private byte[] grid = new byte[0];
+
+    private int rows;
+
+    private int cols;
+
+    private int cells;
+
+    private int winLength;
+
+    private long[] windowWeights;
+
+    private long[] zobristKeys = new long[0];
+
+    private long hash;
+
+    // Sum of all window scores, positive favours X
+    private long eval;
+
+    private int[] stones;
+
+    private int stoneCount;
+
+    private int[] stamps = new int[0];
+
+    private int stampGeneration;
+
+    private int[][] moveBuffers = new int[0][];
+
+    private long[][] orderBuffers = new long[0][];
+
+    private int[] line = new int[0];
+
+    private long nodes;
+
+    private long deadline;
+
+    private boolean aborted;
+
+    private int rootBestMove;
+
+    // Set by scanWindows: the scanned cell completes a line for X or for O
+    private boolean completesX;
+
+    private boolean completesO;
+
+    // Set by generateMoves: the only generated move wins on the spot
+    private boolean immediateWin;
+
+    public AiSearch(TranspositionTable table, int maxCandidates) {
+        this.table = table;
+        this.maxCandidates = maxCandidates;
+    }
+
+    /**
+     * Searches deeper and deeper until maxDepth or the time budget runs out,
+     * returning the best move of the deepest completed iteration
+     */
+    public SearchResult search(BitBoard position, int winLength, char player, int maxDepth, long budgetNanos) {
+        long startedAt = System.nanoTime();
+        setUp(position, winLength);
+        deadline = startedAt + budgetNanos;
+
+        if (stoneCount == cells) {
+            throw new IllegalArgumentException("No empty cell left to move to");
+        }
+
+        int bestMove = -1;
+        int bestScore = 0;
+        int completedDepth = 0;
+        int depthLimit = Math.min(Math.min(maxDepth, cells - stoneCount), Byte.MAX_VALUE - 1);
+
+        for (int depth = 1; depth <= depthLimit; depth++) {
+            rootBestMove = -1;
+            int score = negamax(depth, -WIN_SCORE - 1, WIN_SCORE + 1, player, 0);
+            if (aborted || rootBestMove < 0) {
+                break;
+            }
+
+            bestMove = rootBestMove;
+            bestScore = score;
+            completedDepth = depth;
+            if (Math.abs(score) >= WIN_SCORE - MATE_MARGIN) {
+                break;
+            }
+        }
+
+        // Out of time before even one iteration finished, fall back to the best ordered move
+        if (bestMove < 0) {
+            generateMoves(player, 0, -1);
+            bestMove = moveBuffers[0][0];
+        }
+
+        return new SearchResult(bestMove / cols, bestMove % cols, bestScore, completedDepth, nodes,
+                System.nanoTime() - startedAt);
+    }
+
+    /**
+     * Picks a move without searching: an immediate win, otherwise a block of an immediate threat,
+     * otherwise the move with the best window score. Cheap enough to run on a game lane.
+     */
+    public SearchResult quickMove(BitBoard position, int winLength, char player) {
+        long startedAt = System.nanoTime();
+        setUp(position, winLength);
+
+        if (stoneCount == cells) {
+            throw new IllegalArgumentException("No empty cell left to move to");
+        }
+
+        generateMoves(player, 0, -1);
+        int move = moveBuffers[0][0];
+        return new SearchResult(move / cols, move % cols, 0, 0, 0, System.nanoTime() - startedAt);
+    }
+
+    private int negamax(int depth, int alpha, int beta, char player, int ply) {
+        if ((++nodes & TIME_CHECK_MASK) == 0 && System.nanoTime() > deadline) {
+            aborted = true;
+        }
+        if (aborted) {
+            return 0;
+        }
+        if (stoneCount == cells) {
+            return 0;
+        }
+        if (depth == 0) {
+            int score = (int) Math.max(-MAX_EVAL, Math.min(MAX_EVAL, eval));
+            return player == BitBoard.PLAYER_X ? score : -score;
+        }
+
+        int originalAlpha = alpha;
+        long key = player == BitBoard.PLAYER_X ? hash : hash ^ SIDE_TO_MOVE_KEY;
+        int tableMove = -1;
+
+        int slot = table.find(key);
+        if (slot >= 0) {
+            tableMove = table.move(slot);
+            if (ply > 0 && table.depth(slot) >= depth) {
+                int score = fromTable(table.score(slot), ply);
+                int flag = table.flag(slot);
+                if (flag == TranspositionTable.EXACT
+                        || (flag == TranspositionTable.LOWER_BOUND && score >= beta)
+                        || (flag == TranspositionTable.UPPER_BOUND && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+
+        int count = generateMoves(player, ply, tableMove);
+        int[] moves = moveBuffers[ply];
+        if (immediateWin) {
+            if (ply == 0) {
+                rootBestMove = moves[0];
+            }
+            return WIN_SCORE - ply - 1;
+        }
+
+        char opponent = opponentOf(player);
+        int best = -WIN_SCORE - 1;
+        int bestMove = moves[0];
+
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            long delta = place(move, player);
+            int score = -negamax(depth - 1, -beta, -alpha, opponent, ply + 1);
+            remove(move, player, delta);
+            if (aborted) {
+                return 0;
+            }
+
+            if (score > best) {
+                best = score;
+                bestMove = move;
+            }
+            if (score > alpha) {
+                alpha = score;
+                if (ply == 0) {
+                    rootBestMove = move;
+                }
+            }
+            if (alpha >= beta) {
+                break;
+            }
+        }
+
+        int flag = best <= originalAlpha ? TranspositionTable.UPPER_BOUND
+                : best >= beta ? TranspositionTable.LOWER_BOUND
+                : TranspositionTable.EXACT;
+        table.store(key, depth, toTable(best, ply), flag, bestMove);
+        return best;
+    }
+
+    /**
+     * Fills the move buffer of the ply with the moves worth searching, best first, and returns how many there are
+     */
+    private int generateMoves(char player, int ply, int tableMove) {
+        int[] moves = moveBuffer(ply);
+        immediateWin = false;
+        if (stoneCount == 0) {
+            moves[0] = (rows / 2) * cols + cols / 2;
+            return 1;
+        }
+
+        int count = 0;
+        if (cells <= SMALL_BOARD_CELLS) {
+            for (int cell = 0; cell < cells; cell++) {
+                if (grid[cell] == 0) {
+                    moves[count++] = cell;
+                }
+            }
+        } else {
+            stampGeneration++;
+            int radius = ply == 0 ? ROOT_NEIGHBOUR_RADIUS : NEIGHBOUR_RADIUS;
+            for (int i = 0; i < stoneCount; i++) {
+                int row = stones[i] / cols;
+                int col = stones[i] % cols;
+                for (int r = Math.max(0, row - radius); r <= Math.min(rows - 1, row + radius); r++) {
+                    for (int c = Math.max(0, col - radius); c <= Math.min(cols - 1, col + radius); c++) {
+                        int cell = r * cols + c;
+                        if (stamps[cell] != stampGeneration && grid[cell] == 0) {
+                            stamps[cell] = stampGeneration;
+                            moves[count++] = cell;
+                        }
+                    }
+                }
+            }
+        }
+
+        // A winning move ends the game, and an open threat has to be blocked, otherwise moves are ranked by score
+        boolean playsX = player == BitBoard.PLAYER_X;
+        long[] order = orderBuffers[ply];
+        int blocks = 0;
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            long delta = scanWindows(move, player);
+            if (playsX ? completesX : completesO) {
+                moves[0] = move;
+                immediateWin = true;
+                return 1;
+            }
+            if (playsX ? completesO : completesX) {
+                moves[blocks++] = move;
+            }
+
+            long score = Math.min(Math.max(playsX ? delta : -delta, 0), MAX_PRIORITY - 1);
+            long priority = move == tableMove ? MAX_PRIORITY : score;
+            order[i] = (priority << MOVE_BITS) | move;
+        }
+        if (blocks > 0) {
+            return blocks;
+        }
+        Arrays.sort(order, 0, count);
+
+        int kept = cells <= SMALL_BOARD_CELLS ? count : Math.min(count, maxCandidates);
+        for (int i = 0; i < kept; i++) {
+            moves[i] = (int) (order[count - 1 - i] & ((1L << MOVE_BITS) - 1));
+        }
+        return kept;
+    }
+
+    private long place(int move, char player) {
+        long delta = scanWindows(move, player);
+        eval += delta;
+        grid[move] = player == BitBoard.PLAYER_X ? (byte) 1 : (byte) 2;
+        hash ^= zobristKeys[2 * move + (player == BitBoard.PLAYER_X ? 0 : 1)];
+        stones[stoneCount++] = move;
+        return delta;
+    }
+
+    private void remove(int move, char player, long delta) {
+        stoneCount--;
+        hash ^= zobristKeys[2 * move + (player == BitBoard.PLAYER_X ? 0 : 1)];
+        grid[move] = 0;
+        eval -= delta;
+    }
+
+    /**
+     * Change in the window score sum if player took the empty cell.
+     * Also records whether the cell would complete a line for either player.
+     */
+    private long scanWindows(int move, char player) {
+        int row = move / cols;
+        int col = move % cols;
+        int span = winLength - 1;
+        long total = 0;
+        completesX = false;
+        completesO = false;
+
+        for (int[] direction : DIRECTIONS) {
+            // Cells on the line through the move: -1 off the board, 0 empty, 1 X, 2 O
+            for (int t = -span; t <= span; t++) {
+                int r = row + t * direction[0];
+                int c = col + t * direction[1];
+                line[t + span] = r < 0 || r >= rows || c < 0 || c >= cols ? -1 : grid[r * cols + c];
+            }
+
+            int xCount = 0;
+            int oCount = 0;
+            int offBoard = 0;
+            for (int i = 0; i < winLength; i++) {
+                if (line[i] == 1) xCount++;
+                else if (line[i] == 2) oCount++;
+                else if (line[i] < 0) offBoard++;
+            }
+
+            for (int start = 0; start <= span; start++) {
+                if (start > 0) {
+                    int leaving = line[start - 1];
+                    int entering = line[start + span];
+                    if (leaving == 1) xCount--;
+                    else if (leaving == 2) oCount--;
+                    else if (leaving < 0) offBoard--;
+                    if (entering == 1) xCount++;
+                    else if (entering == 2) oCount++;
+                    else if (entering < 0) offBoard++;
+                }
+
+                if (offBoard == 0) {
+                    completesX |= oCount == 0 && xCount == span;
+                    completesO |= xCount == 0 && oCount == span;
+                    total += player == BitBoard.PLAYER_X
+                            ? windowScore(xCount + 1, oCount) - windowScore(xCount, oCount)
+                            : windowScore(xCount, oCount + 1) - windowScore(xCount, oCount);
+                }
+            }
+        }
+        return total;
+    }
+
+    private long windowScore(int xCount, int oCount) {
+        if (xCount > 0 && oCount > 0) return 0;
+        if (xCount > 0) return windowWeights[xCount];
+        if (oCount > 0) return -windowWeights[oCount];
+        return 0;
+    }
+
+    private void setUp(BitBoard position, int winLength) {
+        this.rows = position.getRows();
+        this.cols = position.getCols();
+        this.cells = rows * cols;
+        this.winLength = winLength;
+        this.hash = 0;
+        this.eval = 0;
+        this.stoneCount = 0;
+        this.nodes = 0;
+        this.aborted = false;
+
+        if (zobristKeys.length != 2 * cells) {
+            // Fixed seed, so a position hashes the same way in every search
+            SplittableRandom random = new SplittableRandom(cells);
+            zobristKeys = new long[2 * cells];
+            for (int i = 0; i < zobristKeys.length; i++) {
+                zobristKeys[i] = random.nextLong();
+            }
+            grid = new byte[cells];
+            stamps = new int[cells];
+            stones = new int[cells];
+            moveBuffers = new int[cells + 1][];
+            orderBuffers = new long[cells + 1][];
+        }
+        if (line.length != 2 * winLength - 1) {
+            line = new int[2 * winLength - 1];
+        }
+
+        windowWeights = new long[winLength + 1];
+        for (int n = 1; n <= winLength; n++) {
+            windowWeights[n] = 1L << Math.min(3 * (n - 1), 40);
+        }
+
+        Arrays.fill(grid, (byte) 0);
+        table.clear();
+        for (int cell = 0; cell < cells; cell++) {
+            Character player = position.get(cell / cols, cell % cols);
+            if (player != null) {
+                place(cell, player);
+            }
+        }
+    }
+
+    private int[] moveBuffer(int ply) {
+        if (moveBuffers[ply] == null) {
+            moveBuffers[ply] = new int[cells];
+            orderBuffers[ply] = new long[cells];
+        }
+        return moveBuffers[ply];
+    }
+
+    /**
+     * Win scores are stored relative to the position, so a stored win keeps its distance when found at another ply
+     */
+    private static int toTable(int score, int ply) {
+        if (score >= WIN_SCORE - MATE_MARGIN) return score + ply;
+        if (score <= -WIN_SCORE + MATE_MARGIN) return score - ply;
+        return score;
+    }
+
+    private static int fromTable(int score, int ply) {
+        if (score >= WIN_SCORE - MATE_MARGIN) return score - ply;
+        if (score <= -WIN_SCORE + MATE_MARGIN) return score + ply;
+        return score;
+    }
+
+    private static char opponentOf(char player) {
+        return player == BitBoard.PLAYER_X ? BitBoard.PLAYER_O : BitBoard.PLAYER_X;
+    }
+
+}
@@ -0,0 +1,108 @@
+package com.multiplayer.tictactoe.ai;
+
+/**
+ * The eight rotations and reflections of a square board, as cell permutations.
+ * Positions are keyed by their ternary index, sum of cell * 3^index with 0 empty, 1 X and 2 O,
+ * and the canonical key of a position is the smallest key over all eight symmetries.
+ */
+final class BoardSymmetry {
+
+    static final int COUNT = 8;
+
+    private final int cells;
+
+    // forward[s][cell] is where the cell lands under symmetry s, inverse[s] undoes it
+    private final int[][] forward;
+
+    private final int[][] inverse;
+
+    private final int[] powersOfThree;
+
+    BoardSymmetry(int size) {
+        this.cells = size * size;
+        this.forward = new int[COUNT][cells];
+        this.inverse = new int[COUNT][cells];
+        this.powersOfThree = new int[cells];
+
+        int power = 1;
+        for (int cell = 0; cell < cells; cell++) {
+            powersOfThree[cell] = power;
+            power *= 3;
+        }
+
+        int last = size - 1;
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                int[] targets = {
+                        row * size + col,
+                        col * size + (last - row),
+                        (last - row) * size + (last - col),
+                        (last - col) * size + row,
+                        row * size + (last - col),
+                        (last - row) * size + col,
+                        col * size + row,
+                        (last - col) * size + (last - row)
+                };
+                for (int symmetry = 0; symmetry < COUNT; symmetry++) {
+                    forward[symmetry][row * size + col] = targets[symmetry];
+                    inverse[symmetry][targets[symmetry]] = row * size + col;
+                }
+            }
+        }
+    }
+
+    int cells() {
+        return cells;
+    }
+
+    int powerOfThree(int cell) {
+        return powersOfThree[cell];
+    }
+
+    /**
+     * Key of the position with digits[cell] in 0..2
+     */
+    int key(byte[] digits) {
+        int key = 0;
+        for (int cell = 0; cell < cells; cell++) {
+            key += digits[cell] * powersOfThree[cell];
+        }
+        return key;
+    }
+
+    /**
+     * Key of the position after applying the symmetry
+     */
+    int key(byte[] digits, int symmetry) {
+        int[] targets = forward[symmetry];
+        int key = 0;
+        for (int cell = 0; cell < cells; cell++) {
+            key += digits[cell] * powersOfThree[targets[cell]];
+        }
+        return key;
+    }
+
+    /**
+     * Symmetry that maps the position onto its canonical key, the identity on ties
+     */
+    int canonicalSymmetry(byte[] digits) {
+        int best = 0;
+        int bestKey = key(digits, 0);
+        for (int symmetry = 1; symmetry < COUNT; symmetry++) {
+            int key = key(digits, symmetry);
+            if (key < bestKey) {
+                bestKey = key;
+                best = symmetry;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Maps a cell of the transformed board back to the original board
+     */
+    int untransform(int symmetry, int cell) {
+        return inverse[symmetry][cell];
+    }
+
+}
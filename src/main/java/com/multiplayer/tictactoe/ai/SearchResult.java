@@ -0,0 +1,7 @@
+package com.multiplayer.tictactoe.ai;
+
+/**
+ * Move chosen by a search, with the score from the mover's point of view and the deepest completed depth
+ */
+public record SearchResult(int row, int col, int score, int depth, long nodes, long elapsedNanos) {
+}
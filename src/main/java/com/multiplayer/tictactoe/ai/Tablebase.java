@@ -0,0 +1,143 @@
+package com.multiplayer.tictactoe.ai;
+
+import com.multiplayer.tictactoe.enums.PositionValue;
+import com.multiplayer.tictactoe.utils.BitBoard;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read-only view of a solved square board, written by {@link TablebaseGenerator} and memory-mapped from disk.
+ * Only canonical positions are stored (see {@link BoardSymmetry}), so a lookup canonicalizes the board,
+ * binary searches the sorted keys and maps the stored move back onto the board as it was given.
+ *
+ * @implNote
+ * <p>Layout, big-endian: int magic, byte version, byte rows, byte cols, byte winLength, int count,
+ * then count ascending int keys, then count short entries.</p>
+ * <p>Entry bits 0-1 hold the {@link PositionValue} ordinal, bits 2-7 the best move cell and bits 8-15 the plies to the end.</p>
+ * <p>Finished positions are not stored, a board that is already won or full is not found.</p>
+ */
+public class Tablebase {
+
+    static final int MAGIC = 0x54335442;
+
+    static final int VERSION = 1;
+
+    static final int HEADER_BYTES = 12;
+
+    private static final PositionValue[] VALUES = PositionValue.values();
+
+    private final ByteBuffer buffer;
+
+    private final int size;
+
+    private final int winLength;
+
+    private final int count;
+
+    private final BoardSymmetry symmetry;
+
+    private final ThreadLocal<byte[]> digits;
+
+    Tablebase(ByteBuffer buffer) {
+        if (buffer.getInt(0) != MAGIC || buffer.get(4) != VERSION) {
+            throw new IllegalArgumentException("Not a version " + VERSION + " tablebase");
+        }
+        int rows = buffer.get(5);
+        int cols = buffer.get(6);
+        if (rows != cols) {
+            throw new IllegalArgumentException("Tablebases are only built for square boards, got " + rows + "x" + cols);
+        }
+
+        this.buffer = buffer;
+        this.size = rows;
+        this.winLength = buffer.get(7);
+        this.count = buffer.getInt(8);
+        this.symmetry = new BoardSymmetry(size);
+        this.digits = ThreadLocal.withInitial(() -> new byte[size * size]);
+    }
+
+    /**
+     * Maps the file into memory, the mapping stays valid after the channel is closed
+     */
+    public static Tablebase map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new Tablebase(buffer);
+        }
+    }
+
+    public static String fileName(int rows, int cols, int winLength) {
+        return rows + "x" + cols + "-" + winLength + ".t3tb";
+    }
+
+    public int getRows() {
+        return size;
+    }
+
+    public int getCols() {
+        return size;
+    }
+
+    public int getWinLength() {
+        return winLength;
+    }
+
+    public int getPositionCount() {
+        return count;
+    }
+
+    /**
+     * Looks up the position for the player whose turn it is, X moving first.
+     * Returns null for boards of another size and for finished or unreachable positions.
+     */
+    public TablebaseEntry lookup(BitBoard board) {
+        if (board.getRows() != size || board.getCols() != size) {
+            return null;
+        }
+
+        byte[] cells = digits.get();
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                Character player = board.get(row, col);
+                cells[row * size + col] = player == null ? 0 : (byte) (player == BitBoard.PLAYER_X ? 1 : 2);
+            }
+        }
+
+        int canonical = symmetry.canonicalSymmetry(cells);
+        int index = find(symmetry.key(cells, canonical));
+        if (index < 0) {
+            return null;
+        }
+
+        int entry = buffer.getShort(HEADER_BYTES + count * 4 + index * 2) & 0xFFFF;
+        int move = symmetry.untransform(canonical, (entry >>> 2) & 0x3F);
+        return new TablebaseEntry(move / size, move % size, VALUES[entry & 0x3], entry >>> 8);
+    }
+
+    private int find(int key) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midKey = buffer.getInt(HEADER_BYTES + mid * 4);
+            if (midKey < key) {
+                low = mid + 1;
+            } else if (midKey > key) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    static short pack(PositionValue value, int move, int movesToEnd) {
+        return (short) (value.ordinal() | move << 2 | movesToEnd << 8);
+    }
+
+}
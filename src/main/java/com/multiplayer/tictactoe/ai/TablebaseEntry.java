@@ -0,0 +1,9 @@
+package com.multiplayer.tictactoe.ai;
+
+import com.multiplayer.tictactoe.enums.PositionValue;
+
+/**
+ * Best move of a solved position, its value for the player to move and the plies left until the game ends under perfect play
+ */
+public record TablebaseEntry(int row, int col, PositionValue value, int movesToEnd) {
+}
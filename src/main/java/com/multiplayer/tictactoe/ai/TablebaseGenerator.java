@@ -0,0 +1,212 @@
+package com.multiplayer.tictactoe.ai;
+
+import com.multiplayer.tictactoe.enums.PositionValue;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Solves the small square boards by exhaustive negamax and writes one {@link Tablebase} file per board.
+ * Run by the generateTablebase Gradle task: the first argument is the output directory.
+ *
+ * @implNote
+ * <p>Positions are memoized in an array indexed by ternary key, 3^16 entries for 4x4, so the solver needs about 100 MB of heap.</p>
+ * <p>Best moves prefer the fastest win, then a draw, then the slowest loss, and the lowest cell on ties.</p>
+ * <p>5x5 with four in a row is left out: its 3^25 keys cannot be indexed this way and it is left to {@link AiSearch}.</p>
+ */
+public final class TablebaseGenerator {
+
+    // rows (= cols) and win length of each generated table
+    private static final int[][] BOARDS = {{3, 3}, {4, 3}, {4, 4}};
+
+    private static final PositionValue[] VALUES = PositionValue.values();
+
+    private final int size;
+
+    private final BoardSymmetry symmetry;
+
+    // Bit masks of every winning line through each cell
+    private final int[][] linesThrough;
+
+    // Packed entry of each solved position, 0 while unsolved
+    private final short[] solved;
+
+    private TablebaseGenerator(int size, int winLength) {
+        this.size = size;
+        this.symmetry = new BoardSymmetry(size);
+        this.linesThrough = linesThrough(size, winLength);
+
+        int keys = 1;
+        for (int cell = 0; cell < size * size; cell++) {
+            keys *= 3;
+        }
+        this.solved = new short[keys];
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path directory = Path.of(args[0]);
+        Files.createDirectories(directory);
+
+        for (int[] board : BOARDS) {
+            long startedAt = System.nanoTime();
+            Path file = directory.resolve(Tablebase.fileName(board[0], board[0], board[1]));
+            int positions = generate(board[0], board[1], file);
+            System.out.printf("%s: %d positions in %d ms%n", file.getFileName(), positions,
+                    (System.nanoTime() - startedAt) / 1_000_000);
+        }
+    }
+
+    /**
+     * Solves one board and writes its tablebase to the file, returning the number of positions stored
+     */
+    static int generate(int size, int winLength, Path file) throws IOException {
+        return new TablebaseGenerator(size, winLength).write(file, winLength);
+    }
+
+    private int write(Path file, int winLength) throws IOException {
+        solve(0, 0, 0, true);
+
+        int cells = size * size;
+        byte[] digits = new byte[cells];
+        int[] keys = new int[1 << 16];
+        short[] entries = new short[keys.length];
+        int count = 0;
+
+        for (int key = 0; key < solved.length; key++) {
+            if (solved[key] == 0) {
+                continue;
+            }
+            for (int cell = 0, rest = key; cell < cells; cell++, rest /= 3) {
+                digits[cell] = (byte) (rest % 3);
+            }
+            // Keys are visited in ascending order, so the canonical ones come out sorted
+            if (symmetry.key(digits, symmetry.canonicalSymmetry(digits)) != key) {
+                continue;
+            }
+            if (count == keys.length) {
+                keys = Arrays.copyOf(keys, count * 2);
+                entries = Arrays.copyOf(entries, count * 2);
+            }
+            keys[count] = key;
+            entries[count] = solved[key];
+            count++;
+        }
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(Tablebase.MAGIC);
+            out.writeByte(Tablebase.VERSION);
+            out.writeByte(size);
+            out.writeByte(size);
+            out.writeByte(winLength);
+            out.writeInt(count);
+            for (int i = 0; i < count; i++) {
+                out.writeInt(keys[i]);
+            }
+            for (int i = 0; i < count; i++) {
+                out.writeShort(entries[i]);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Solves the position for the player to move, which has not been won and still has an empty cell
+     */
+    private short solve(int xMask, int oMask, int key, boolean xToMove) {
+        short known = solved[key];
+        if (known != 0) {
+            return known;
+        }
+
+        int cells = size * size;
+        int occupied = xMask | oMask;
+        boolean lastEmptyCell = Integer.bitCount(occupied) == cells - 1;
+
+        int bestScore = Integer.MIN_VALUE;
+        short best = 0;
+        for (int cell = 0; cell < cells; cell++) {
+            int bit = 1 << cell;
+            if ((occupied & bit) != 0) {
+                continue;
+            }
+
+            int mine = (xToMove ? xMask : oMask) | bit;
+            PositionValue value;
+            int movesToEnd;
+            if (completesLine(mine, cell)) {
+                value = PositionValue.WIN;
+                movesToEnd = 1;
+            } else if (lastEmptyCell) {
+                value = PositionValue.DRAW;
+                movesToEnd = 1;
+            } else {
+                int childKey = key + symmetry.powerOfThree(cell) * (xToMove ? 1 : 2);
+                short child = xToMove
+                        ? solve(mine, oMask, childKey, false)
+                        : solve(xMask, mine, childKey, true);
+                value = VALUES[child & 0x3].opposite();
+                movesToEnd = (child >>> 8 & 0xFF) + 1;
+            }
+
+            int score = switch (value) {
+                case WIN -> 1000 - movesToEnd;
+                case DRAW -> 0;
+                case LOSS -> -1000 + movesToEnd;
+            };
+            if (score > bestScore) {
+                bestScore = score;
+                best = Tablebase.pack(value, cell, movesToEnd);
+            }
+        }
+
+        solved[key] = best;
+        return best;
+    }
+
+    private boolean completesLine(int mask, int cell) {
+        for (int line : linesThrough[cell]) {
+            if ((mask & line) == line) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int[][] linesThrough(int size, int winLength) {
+        int cells = size * size;
+        int[] counts = new int[cells];
+        int[][] lines = new int[cells][4 * winLength];
+        int[][] directions = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                for (int[] direction : directions) {
+                    int lastRow = row + (winLength - 1) * direction[0];
+                    int lastCol = col + (winLength - 1) * direction[1];
+                    if (lastRow < 0 || lastRow >= size || lastCol < 0 || lastCol >= size) {
+                        continue;
+                    }
+
+                    int line = 0;
+                    for (int i = 0; i < winLength; i++) {
+                        line |= 1 << ((row + i * direction[0]) * size + col + i * direction[1]);
+                    }
+                    for (int i = 0; i < winLength; i++) {
+                        int cell = (row + i * direction[0]) * size + col + i * direction[1];
+                        lines[cell][counts[cell]++] = line;
+                    }
+                }
+            }
+        }
+
+        for (int cell = 0; cell < cells; cell++) {
+            lines[cell] = Arrays.copyOf(lines[cell], counts[cell]);
+        }
+        return lines;
+    }
+
+}
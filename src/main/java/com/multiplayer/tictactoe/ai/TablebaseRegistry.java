@@ -0,0 +1,85 @@
+package com.multiplayer.tictactoe.ai;
+
+import com.multiplayer.tictactoe.utils.BitBoard;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Tablebases available to this instance, keyed by board size and win length.
+ * Files are mapped from tictactoe.tablebase.directory when it is set, otherwise from the ones packaged under tablebase/,
+ * which are copied to a temporary file first since entries inside a jar cannot be mapped.
+ */
+@Slf4j
+@Component
+public class TablebaseRegistry {
+
+    private final Map<String, Tablebase> tablebases = new HashMap<>();
+
+    public TablebaseRegistry(@Value("${tictactoe.tablebase.directory:}") String directory) throws IOException {
+        if (directory.isBlank()) {
+            loadPackaged();
+        } else {
+            loadDirectory(Path.of(directory));
+        }
+    }
+
+    /**
+     * Looks up the position for the player to move, or returns null when no tablebase covers the board
+     */
+    public TablebaseEntry lookup(BitBoard board, int winLength) {
+        Tablebase tablebase = tablebases.get(key(board.getRows(), board.getCols(), winLength));
+        return tablebase == null ? null : tablebase.lookup(board);
+    }
+
+    private void loadDirectory(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.filter(path -> path.toString().endsWith(".t3tb")).toList()) {
+                register(Tablebase.map(file), file.toString());
+            }
+        }
+    }
+
+    private void loadPackaged() throws IOException {
+        Resource[] resources = new PathMatchingResourcePatternResolver().getResources("classpath*:tablebase/*.t3tb");
+        if (resources.length == 0) {
+            log.info("No tablebases packaged, the AI searches every move and hints are unavailable");
+        }
+
+        for (Resource resource : resources) {
+            if (resource.isFile()) {
+                register(Tablebase.map(resource.getFile().toPath()), resource.getDescription());
+                continue;
+            }
+
+            Path copy = Files.createTempFile("tictactoe-", ".t3tb");
+            copy.toFile().deleteOnExit();
+            try (InputStream in = resource.getInputStream()) {
+                Files.copy(in, copy, StandardCopyOption.REPLACE_EXISTING);
+            }
+            register(Tablebase.map(copy), resource.getDescription());
+        }
+    }
+
+    private void register(Tablebase tablebase, String source) {
+        tablebases.put(key(tablebase.getRows(), tablebase.getCols(), tablebase.getWinLength()), tablebase);
+        log.info("Mapped {}x{} tablebase with win length {}, {} positions from {}", tablebase.getRows(),
+                tablebase.getCols(), tablebase.getWinLength(), tablebase.getPositionCount(), source);
+    }
+
+    private static String key(int rows, int cols, int winLength) {
+        return rows + "x" + cols + ":" + winLength;
+    }
+
+}
@@ -0,0 +1,79 @@
+package com.multiplayer.tictactoe.ai;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size hash table of searched positions, indexed by the low bits of the Zobrist key.
+ * Entries are replaced on every store, the table is cleared before each search.
+ */
+public class TranspositionTable {
+
+    static final int EXACT = 0;
+    static final int LOWER_BOUND = 1;
+    static final int UPPER_BOUND = 2;
+
+    private final long[] keys;
+
+    private final int[] scores;
+
+    private final int[] moves;
+
+    // Depth + 1, so 0 marks an empty slot
+    private final byte[] depths;
+
+    private final byte[] flags;
+
+    private final int mask;
+
+    public TranspositionTable(int sizeBits) {
+        int size = 1 << sizeBits;
+        this.keys = new long[size];
+        this.scores = new int[size];
+        this.moves = new int[size];
+        this.depths = new byte[size];
+        this.flags = new byte[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * Gets the slot holding the position, or -1 if it is not stored
+     */
+    int find(long key) {
+        int slot = slotOf(key);
+        return depths[slot] != 0 && keys[slot] == key ? slot : -1;
+    }
+
+    void store(long key, int depth, int score, int flag, int move) {
+        int slot = slotOf(key);
+        keys[slot] = key;
+        scores[slot] = score;
+        moves[slot] = move;
+        depths[slot] = (byte) Math.min(depth + 1, Byte.MAX_VALUE);
+        flags[slot] = (byte) flag;
+    }
+
+    int depth(int slot) {
+        return depths[slot] - 1;
+    }
+
+    int score(int slot) {
+        return scores[slot];
+    }
+
+    int flag(int slot) {
+        return flags[slot];
+    }
+
+    int move(int slot) {
+        return moves[slot];
+    }
+
+    void clear() {
+        Arrays.fill(depths, (byte) 0);
+    }
+
+    private int slotOf(long key) {
+        return (int) (key ^ (key >>> 32)) & mask;
+    }
+
+}
@@ -0,0 +1,124 @@
+package com.multiplayer.tictactoe.broker;
+
+import com.multiplayer.tictactoe.utils.NodeIdentity;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Mirrors topic messages published on this instance to every other instance through Redis pub/sub,
+ * where they are handed to the local in-memory broker. Players connected to different instances
+ * then see each other's messages without sticky sessions or an external STOMP broker.
+ * <p>
+ * Each envelope is "nodeId\ndestination\ncontentType\n" followed by the already serialized payload,
+ * so a message is serialized once no matter how many instances receive it.
+ */
+@Component
+@ConditionalOnProperty(name = "tictactoe.broker.mode", havingValue = "REDIS")
+public class RedisBrokerBridge implements ChannelInterceptor, MessageListener {
+
+    public static final String BROADCAST_CHANNEL = "stomp:broadcast";
+
+    private static final String RELAYED_HEADER = "relayedFromNode";
+
+    private static final byte[] BROADCAST_CHANNEL_BYTES = BROADCAST_CHANNEL.getBytes(StandardCharsets.UTF_8);
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    // Resolved lazily, the messaging template depends on the broker channel this bridge intercepts
+    private final ObjectProvider<SimpMessagingTemplate> simpMessagingTemplate;
+
+    private final String nodeId;
+
+    public RedisBrokerBridge(StringRedisTemplate stringRedisTemplate,
+                             ObjectProvider<SimpMessagingTemplate> simpMessagingTemplate,
+                             NodeIdentity nodeIdentity) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.simpMessagingTemplate = simpMessagingTemplate;
+        this.nodeId = nodeIdentity.getNodeId();
+    }
+
+    /**
+     * Publishes topic messages sent by this instance, skipping the ones received from other instances
+     */
+    @Override
+    public org.springframework.messaging.Message<?> preSend(org.springframework.messaging.Message<?> message,
+                                                            MessageChannel channel) {
+        MessageHeaders headers = message.getHeaders();
+        String destination = SimpMessageHeaderAccessor.getDestination(headers);
+
+        if (SimpMessageHeaderAccessor.getMessageType(headers) == SimpMessageType.MESSAGE
+                && destination != null && destination.startsWith("/topic/")
+                && !headers.containsKey(RELAYED_HEADER)
+                && message.getPayload() instanceof byte[] payload) {
+            MimeType contentType = (MimeType) headers.get(MessageHeaders.CONTENT_TYPE);
+            byte[] envelope = encode(destination, contentType, payload);
+            stringRedisTemplate.execute((RedisCallback<Long>) connection ->
+                    connection.publish(BROADCAST_CHANNEL_BYTES, envelope));
+        }
+        return message;
+    }
+
+    /**
+     * Delivers a message published by another instance to the local subscribers
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        byte[] envelope = message.getBody();
+        int originEnd = indexOf(envelope, 0);
+        int destinationEnd = indexOf(envelope, originEnd + 1);
+        int contentTypeEnd = indexOf(envelope, destinationEnd + 1);
+        if (originEnd < 0 || destinationEnd < 0 || contentTypeEnd < 0) {
+            return;
+        }
+
+        String origin = new String(envelope, 0, originEnd, StandardCharsets.UTF_8);
+        if (nodeId.equals(origin)) {
+            return;
+        }
+
+        String destination = new String(envelope, originEnd + 1, destinationEnd - originEnd - 1, StandardCharsets.UTF_8);
+        String contentType = new String(envelope, destinationEnd + 1, contentTypeEnd - destinationEnd - 1, StandardCharsets.UTF_8);
+        byte[] payload = Arrays.copyOfRange(envelope, contentTypeEnd + 1, envelope.length);
+
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setHeader(RELAYED_HEADER, origin);
+        if (!contentType.isEmpty()) {
+            accessor.setContentType(MimeType.valueOf(contentType));
+        }
+        accessor.setLeaveMutable(true);
+
+        simpMessagingTemplate.getObject().send(destination,
+                MessageBuilder.createMessage(payload, accessor.getMessageHeaders()));
+    }
+
+    private byte[] encode(String destination, MimeType contentType, byte[] payload) {
+        byte[] header = (nodeId + '\n' + destination + '\n' + (contentType != null ? contentType : "") + '\n')
+                .getBytes(StandardCharsets.UTF_8);
+        return ByteBuffer.allocate(header.length + payload.length).put(header).put(payload).array();
+    }
+
+    private static int indexOf(byte[] bytes, int from) {
+        for (int i = from; i < bytes.length; i++) {
+            if (bytes[i] == '\n') return i;
+        }
+        return -1;
+    }
+
+}
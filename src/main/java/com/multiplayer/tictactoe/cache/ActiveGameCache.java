@@ -0,0 +1,216 @@
+package com.multiplayer.tictactoe.cache;
+
+import com.multiplayer.tictactoe.entity.redis.ActiveGame;
+import com.multiplayer.tictactoe.enums.MoveApplyResult;
+import com.multiplayer.tictactoe.repository.ActiveGameMoveRepository;
+import com.multiplayer.tictactoe.repository.ActiveGameRepository;
+import com.multiplayer.tictactoe.utils.NodeIdentity;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * In-process cache of active games in front of Redis.
+ * Writes go through to Redis first, and every write is announced on a pub/sub channel
+ * so other instances drop their copy of the game.
+ * Entries are evicted least recently used once the cache is full, or after their time to live.
+ * The cache keeps its own copy of every game and hands out copies, so a caller playing a move
+ * on the game it read changes nothing other readers see until the write succeeded.
+ * Alongside each copy it publishes an immutable {@link MoveSnapshot}, so moves can be checked
+ * off the game lane without copying the game.
+ */
+@Component
+public class ActiveGameCache implements MessageListener {
+
+    public static final String INVALIDATION_CHANNEL = "game:invalidate";
+
+    private static final char MESSAGE_SEPARATOR = '|';
+
+    private final ActiveGameRepository activeGameRepository;
+
+    private final ActiveGameMoveRepository activeGameMoveRepository;
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final String nodeId;
+
+    private final long timeToLiveNanos;
+
+    private final Map<String, CachedGame> games;
+
+    public ActiveGameCache(ActiveGameRepository activeGameRepository,
+                           ActiveGameMoveRepository activeGameMoveRepository,
+                           StringRedisTemplate stringRedisTemplate,
+                           NodeIdentity nodeIdentity,
+                           @Value("${tictactoe.cache.max-size:10000}") int maxSize,
+                           @Value("${tictactoe.cache.time-to-live-seconds:300}") long timeToLiveSeconds) {
+        this.activeGameRepository = activeGameRepository;
+        this.activeGameMoveRepository = activeGameMoveRepository;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.nodeId = nodeIdentity.getNodeId();
+        this.timeToLiveNanos = timeToLiveSeconds * 1_000_000_000L;
+        this.games = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedGame> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Gets a copy of a game from memory, loading it from Redis on a miss
+     */
+    public Optional<ActiveGame> findById(String gameId) {
+        ActiveGame cached = getIfPresent(gameId);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        Optional<ActiveGame> loaded = activeGameRepository.findById(gameId);
+        loaded.ifPresent(game -> put(gameId, game));
+        return loaded;
+    }
+
+    /**
+     * Gets the move snapshot of a game only if it is held in memory, without copying the game
+     */
+    public MoveSnapshot peekMoveSnapshot(String gameId) {
+        synchronized (games) {
+            CachedGame cached = games.get(gameId);
+            if (cached == null || System.nanoTime() - cached.cachedAt() > timeToLiveNanos) {
+                return null;
+            }
+            return cached.moveSnapshot();
+        }
+    }
+
+    /**
+     * Reads the move snapshot of a game from Redis without caching the game,
+     * the game lane may be writing a newer copy at the same time
+     */
+    public Optional<MoveSnapshot> loadMoveSnapshot(String gameId) {
+        return activeGameRepository.findById(gameId).map(MoveSnapshot::of);
+    }
+
+    public ActiveGame save(ActiveGame game) {
+        ActiveGame saved = activeGameRepository.save(game);
+        put(saved.getGameId(), saved);
+        publishInvalidation(saved.getGameId());
+        return saved;
+    }
+
+    /**
+     * Writes only the given hash fields of a game, see {@link ActiveGameRepository}
+     */
+    public void update(ActiveGame game, String... fields) {
+        activeGameRepository.update(game, fields);
+        put(game.getGameId(), game);
+        publishInvalidation(game.getGameId());
+    }
+
+    /**
+     * Applies a move through the atomic move script.
+     * On anything but success the local copy is dropped, so the next read comes from Redis.
+     */
+    public MoveApplyResult applyMove(ActiveGame game, String moverSessionId, int row, int col, int expectedMoveCount) {
+        MoveApplyResult result;
+        try {
+            result = activeGameMoveRepository.applyMove(game, moverSessionId, row, col, expectedMoveCount,
+                    INVALIDATION_CHANNEL, invalidationMessage(game.getGameId()));
+        } catch (RuntimeException e) {
+            evict(game.getGameId());
+            throw e;
+        }
+
+        if (result == MoveApplyResult.APPLIED) {
+            put(game.getGameId(), game);
+        } else {
+            evict(game.getGameId());
+        }
+        return result;
+    }
+
+    /**
+     * Cell indexes of the moves played in the game, read from its move log in Redis
+     */
+    public int[] findMoves(String gameId) {
+        return activeGameMoveRepository.findMoves(gameId);
+    }
+
+    public void deleteById(String gameId) {
+        activeGameRepository.deleteById(gameId);
+        evict(gameId);
+        publishInvalidation(gameId);
+    }
+
+    /**
+     * Keeps a finished game in Redis only briefly, for players syncing after its last move
+     */
+    public void expireFinished(String gameId) {
+        activeGameRepository.expireFinished(gameId);
+        evict(gameId);
+        publishInvalidation(gameId);
+    }
+
+    public void evict(String gameId) {
+        synchronized (games) {
+            games.remove(gameId);
+        }
+    }
+
+    /**
+     * Drops games changed by other instances
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.indexOf(MESSAGE_SEPARATOR);
+        if (separator < 0 || nodeId.equals(body.substring(0, separator))) {
+            return;
+        }
+
+        evict(body.substring(separator + 1));
+    }
+
+    private ActiveGame getIfPresent(String gameId) {
+        synchronized (games) {
+            CachedGame cached = games.get(gameId);
+            if (cached == null) {
+                return null;
+            }
+
+            if (System.nanoTime() - cached.cachedAt() > timeToLiveNanos) {
+                games.remove(gameId);
+                return null;
+            }
+            return cached.game().copy();
+        }
+    }
+
+    private void put(String gameId, ActiveGame game) {
+        ActiveGame copy = game.copy();
+        CachedGame cached = new CachedGame(copy, MoveSnapshot.of(copy), System.nanoTime());
+        synchronized (games) {
+            games.put(gameId, cached);
+        }
+    }
+
+    private void publishInvalidation(String gameId) {
+        stringRedisTemplate.convertAndSend(INVALIDATION_CHANNEL, invalidationMessage(gameId));
+    }
+
+    private String invalidationMessage(String gameId) {
+        return nodeId + MESSAGE_SEPARATOR + gameId;
+    }
+
+    private record CachedGame(ActiveGame game, MoveSnapshot moveSnapshot, long cachedAt) {
+    }
+
+}
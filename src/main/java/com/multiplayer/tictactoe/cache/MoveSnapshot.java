@@ -0,0 +1,32 @@
+package com.multiplayer.tictactoe.cache;
+
+import com.multiplayer.tictactoe.entity.redis.ActiveGame;
+
+/**
+ * What a move can be checked against off the game lane: the seats and the board size of a game.
+ * Turn, status and occupancy are left out on purpose, another instance may have changed them since
+ * the snapshot was taken, while a seat never changes once it is taken and the board never changes size.
+ */
+public record MoveSnapshot(String sessionIdX, String sessionIdO, int rows, int cols) {
+
+    static MoveSnapshot of(ActiveGame game) {
+        return new MoveSnapshot(game.getSessionIdX(), game.getSessionIdO(),
+                game.getBoardVerticalSize(), game.getBoardHorizontalSize());
+    }
+
+    public boolean isPlayer(String sessionId) {
+        return sessionId != null && (sessionId.equals(sessionIdX) || sessionId.equals(sessionIdO));
+    }
+
+    /**
+     * A game still waiting for its second player, someone not seated in the snapshot may have joined since
+     */
+    public boolean hasOpenSeat() {
+        return sessionIdX == null || sessionIdO == null;
+    }
+
+    public boolean isOffBoard(int row, int col) {
+        return row < 0 || row >= rows || col < 0 || col >= cols;
+    }
+
+}
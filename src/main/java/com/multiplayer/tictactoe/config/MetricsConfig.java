@@ -0,0 +1,43 @@
+package com.multiplayer.tictactoe.config;
+
+import com.multiplayer.tictactoe.utils.BoundedVirtualThreadExecutor;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.Executor;
+
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Exposes how many STOMP messages wait for a thread on the inbound and outbound channels
+     */
+    @Bean
+    public MeterBinder channelQueueMetrics(@Qualifier("clientInboundChannelExecutor") Executor inboundExecutor,
+                                           @Qualifier("clientOutboundChannelExecutor") Executor outboundExecutor) {
+        return registry -> {
+            registerQueueDepth(registry, "inbound", inboundExecutor);
+            registerQueueDepth(registry, "outbound", outboundExecutor);
+        };
+    }
+
+    private void registerQueueDepth(MeterRegistry registry, String channel, Executor executor) {
+        if (executor instanceof ThreadPoolTaskExecutor threadPool) {
+            Gauge.builder("game.socket.channel.queue.depth", threadPool, ThreadPoolTaskExecutor::getQueueSize)
+                    .description("STOMP messages waiting for a channel thread")
+                    .tag("channel", channel)
+                    .register(registry);
+        } else if (executor instanceof BoundedVirtualThreadExecutor virtualThreads) {
+            Gauge.builder("game.socket.channel.queue.depth", virtualThreads, BoundedVirtualThreadExecutor::getWaitingCount)
+                    .description("STOMP messages waiting for a channel thread")
+                    .tag("channel", channel)
+                    .register(registry);
+        }
+    }
+
+}
@@ -0,0 +1,27 @@
+package com.multiplayer.tictactoe.config;
+
+import com.multiplayer.tictactoe.service.RatingService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * POST /actuator/ratings rebuilds every rating leaderboard from game_history.
+ * Not exposed over HTTP unless added to management.endpoints.web.exposure.include.
+ */
+@Component
+@Endpoint(id = "ratings")
+@RequiredArgsConstructor
+public class RatingRecomputeEndpoint {
+
+    private final RatingService ratingService;
+
+    @WriteOperation
+    public Map<String, Long> recompute() {
+        return Map.of("games", ratingService.recompute());
+    }
+
+}
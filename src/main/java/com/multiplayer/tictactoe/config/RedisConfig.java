@@ -0,0 +1,27 @@
+package com.multiplayer.tictactoe.config;
+
+import com.multiplayer.tictactoe.broker.RedisBrokerBridge;
+import com.multiplayer.tictactoe.cache.ActiveGameCache;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+@Configuration
+public class RedisConfig {
+
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                       ActiveGameCache activeGameCache,
+                                                                       ObjectProvider<RedisBrokerBridge> redisBrokerBridge) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(activeGameCache, new ChannelTopic(ActiveGameCache.INVALIDATION_CHANNEL));
+        redisBrokerBridge.ifAvailable(bridge ->
+                container.addMessageListener(bridge, new ChannelTopic(RedisBrokerBridge.BROADCAST_CHANNEL)));
+        return container;
+    }
+
+}
@@ -1,8 +1,16 @@
 package com.multiplayer.tictactoe.config;
 
+import com.multiplayer.tictactoe.broker.RedisBrokerBridge;
+import com.multiplayer.tictactoe.enums.BrokerMode;
+import com.multiplayer.tictactoe.ratelimit.MoveRateLimitInterceptor;
+import com.multiplayer.tictactoe.utils.BoundedVirtualThreadExecutor;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.util.AntPathMatcher;
 
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
@@ -13,17 +21,86 @@ import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerCo
 @RequiredArgsConstructor
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    private final ObjectProvider<RedisBrokerBridge> redisBrokerBridge;
+
+    private final MoveRateLimitInterceptor moveRateLimitInterceptor;
+
+    @Value("${tictactoe.broker.mode:SIMPLE}")
+    private BrokerMode brokerMode;
+
+    @Value("${tictactoe.broker.relay.host:localhost}")
+    private String relayHost;
+
+    @Value("${tictactoe.broker.relay.port:61613}")
+    private int relayPort;
+
+    @Value("${tictactoe.broker.relay.login:guest}")
+    private String relayLogin;
+
+    @Value("${tictactoe.broker.relay.passcode:guest}")
+    private String relayPasscode;
+
+    @Value("${tictactoe.websocket.virtual-threads.enabled:false}")
+    private boolean virtualThreads;
+
+    @Value("${tictactoe.websocket.virtual-threads.max-concurrency:256}")
+    private int virtualThreadsMaxConcurrency;
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        config.enableSimpleBroker("/topic");
+        if (brokerMode == BrokerMode.RELAY) {
+            config.enableStompBrokerRelay("/topic")
+                    .setRelayHost(relayHost)
+                    .setRelayPort(relayPort)
+                    .setClientLogin(relayLogin)
+                    .setClientPasscode(relayPasscode)
+                    .setSystemLogin(relayLogin)
+                    .setSystemPasscode(relayPasscode);
+        } else {
+            config.enableSimpleBroker("/topic");
+        }
+
+        if (brokerMode == BrokerMode.REDIS) {
+            config.configureBrokerChannel().interceptors(redisBrokerBridge.getObject());
+        }
+
+        // Topics are /topic/game.{gameId} and the like, RabbitMQ's STOMP plugin takes a single
+        // dot separated routing key after /topic/ and rejects further slashes
+        config.setPathMatcher(new AntPathMatcher("."));
         config.setApplicationDestinationPrefixes("/app");
         config.setUserDestinationPrefix("/user");
+        // Frames to one session must leave in the order they were published, a client applying a move
+        // before the game start or two moves swapped would resync, whichever thread pool sends them
+        config.setPreservePublishOrder(true);
+    }
+
+    /**
+     * With virtual threads enabled, inbound messages run on virtual threads instead of the default
+     * bounded platform thread pool, so handlers blocked on Redis or PostgreSQL do not hold a pool thread.
+     * Move frames over the session rate are dropped before they are handed to any thread.
+     * Per-session order is kept by preserveReceiveOrder and preservePublishOrder, not by the executors.
+     */
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(moveRateLimitInterceptor);
+        if (virtualThreads) {
+            registration.executor(new BoundedVirtualThreadExecutor("ws-inbound-", virtualThreadsMaxConcurrency));
+        }
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        if (virtualThreads) {
+            registration.executor(new BoundedVirtualThreadExecutor("ws-outbound-", virtualThreadsMaxConcurrency));
+        }
     }
 
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
         registry.addEndpoint("/socket/tic-tac-toe")
                 .withSockJS();
+        // A client subscribes to /topic/game.{gameId} right before joining, the subscription must be registered first
+        registry.setPreserveReceiveOrder(true);
     }
 
 }
@@ -2,6 +2,7 @@ package com.multiplayer.tictactoe.config;
 
 import com.multiplayer.tictactoe.dto.response.ErrorResponse;
 import com.multiplayer.tictactoe.exception.GameException;
+import com.multiplayer.tictactoe.metrics.GameMetrics;
 import lombok.RequiredArgsConstructor;
 import org.springframework.messaging.handler.annotation.MessageExceptionHandler;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
@@ -13,9 +14,12 @@ public class WebSocketExceptionHandler {
 
     private final SimpMessagingTemplate messagingTemplate;
 
+    private final GameMetrics gameMetrics;
+
     @MessageExceptionHandler(GameException.class)
     public void handleGameException(GameException ex) {
+        gameMetrics.recordError(ex.getErrorType());
         ErrorResponse errorResponse = new ErrorResponse(ex.getErrorType(), ex.getMessage());
-        messagingTemplate.convertAndSend("/topic/session/" + ex.getSessionId(), errorResponse);
+        messagingTemplate.convertAndSend("/topic/session." + ex.getSessionId(), errorResponse);
     }
 }
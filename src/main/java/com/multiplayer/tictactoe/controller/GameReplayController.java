@@ -0,0 +1,29 @@
+package com.multiplayer.tictactoe.controller;
+
+import com.multiplayer.tictactoe.dto.response.GameReplayRes;
+import com.multiplayer.tictactoe.service.GameReplayService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/games")
+@RequiredArgsConstructor
+public class GameReplayController {
+
+    private final GameReplayService gameReplayService;
+
+    /**
+     * Moves of a finished or live game and the board after moveNumber of them, the last one by default
+     */
+    @GetMapping("/{gameId}/replay")
+    public ResponseEntity<GameReplayRes> replay(@PathVariable String gameId,
+                                                @RequestParam(required = false) Integer moveNumber) {
+        return ResponseEntity.of(gameReplayService.replay(gameId, moveNumber));
+    }
+
+}
@@ -1,10 +1,23 @@
 package com.multiplayer.tictactoe.controller;
 
+import com.multiplayer.tictactoe.ai.AiOpponent;
+import com.multiplayer.tictactoe.dispatch.GameLaneDispatcher;
 import com.multiplayer.tictactoe.dto.request.CreateOrJoinGameReq;
+import com.multiplayer.tictactoe.dto.request.HintReq;
 import com.multiplayer.tictactoe.dto.request.MakeMoveReq;
+import com.multiplayer.tictactoe.dto.request.QuickPlayReq;
+import com.multiplayer.tictactoe.dto.request.SpectateGameReq;
+import com.multiplayer.tictactoe.dto.request.SyncGameReq;
+import com.multiplayer.tictactoe.exception.GameErrorType;
+import com.multiplayer.tictactoe.exception.GameException;
+import com.multiplayer.tictactoe.metrics.GameMetrics;
+import com.multiplayer.tictactoe.ratelimit.MoveRateLimiter;
 import com.multiplayer.tictactoe.service.GameService;
+import com.multiplayer.tictactoe.service.MatchmakingService;
+import com.multiplayer.tictactoe.spectate.SpectatorPublisher;
 import lombok.RequiredArgsConstructor;
 import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.stereotype.Controller;
 
 @Controller
@@ -13,16 +26,117 @@ public class GameSocketController {
 
     private final GameService gameService;
 
+    private final GameLaneDispatcher gameLaneDispatcher;
+
+    private final GameMetrics gameMetrics;
+
+    private final MoveRateLimiter moveRateLimiter;
+
+    private final MatchmakingService matchmakingService;
+
+    private final SpectatorPublisher spectatorPublisher;
+
     /**
      * Single endpoint for both creating and joining games
      */
     @MessageMapping("/game.createOrJoin")
     public void createOrJoinGame(CreateOrJoinGameReq request) {
-        gameService.createOrJoinGame(request, request.getSessionId());
+        dispatch("createOrJoin", request.getGameId(), request.getSessionId(),
+                () -> gameService.createOrJoinGame(request, request.getSessionId()));
     }
 
+    /**
+     * Moves from outside the game, off its board or over the game's rate are rejected here,
+     * so they never occupy the game lane.
+     * Only moves from the two players are charged to the game's rate, so nobody else can use it up.
+     */
     @MessageMapping("/game.makeMove")
     public void makeMove(MakeMoveReq request) {
-        gameService.makeMove(request);
+        requireClientSessionId(request.getSessionId());
+        gameService.precheckMove(request);
+        if (!moveRateLimiter.tryAcquireGame(request.getGameId())) {
+            gameMetrics.recordRateLimited("game");
+            throw new GameException(GameErrorType.RATE_LIMITED, request.getSessionId());
+        }
+
+        dispatch("makeMove", request.getGameId(), request.getSessionId(),
+                () -> gameService.makeMove(request));
+    }
+
+    /**
+     * Queues the player for a game against the next player asking for the same board,
+     * the game start is sent to both players once they are paired
+     */
+    @MessageMapping("/game.quickPlay")
+    public void quickPlay(QuickPlayReq request, SimpMessageHeaderAccessor headerAccessor) {
+        dispatch("quickPlay", null, request.getSessionId(),
+                () -> matchmakingService.enqueue(request, headerAccessor.getSessionId()));
+    }
+
+    /**
+     * Leaves the queue the connection joined, whatever session id the request names
+     */
+    @MessageMapping("/game.leaveQueue")
+    public void leaveQueue(QuickPlayReq request, SimpMessageHeaderAccessor headerAccessor) {
+        dispatch("leaveQueue", null, request.getSessionId(),
+                () -> matchmakingService.leave(headerAccessor.getSessionId()));
+    }
+
+    /**
+     * Sends a full snapshot of the game to a client that missed moves
+     */
+    @MessageMapping("/game.sync")
+    public void syncGame(SyncGameReq request) {
+        dispatch("sync", request.getGameId(), request.getSessionId(),
+                () -> gameService.syncGame(request));
+    }
+
+    /**
+     * Sends a spectator the current snapshot of the game, after it subscribed to /topic/spectate.{gameId}.
+     * Games followed on this instance are answered from the cached snapshot without touching the game lane,
+     * so viewers joining in bulk never queue behind moves.
+     */
+    @MessageMapping("/game.spectate")
+    public void spectate(SpectateGameReq request) {
+        requireClientSessionId(request.getSessionId());
+        if (spectatorPublisher.sendSnapshot(request.getGameId(), request.getSessionId())) {
+            return;
+        }
+
+        dispatch("spectate", request.getGameId(), request.getSessionId(),
+                () -> gameService.spectateGame(request));
+    }
+
+    /**
+     * Answers with the best move from the tablebase of the game's board, only to the player on turn
+     */
+    @MessageMapping("/game.hint")
+    public void hint(HintReq request) {
+        dispatch("hint", request.getGameId(), request.getSessionId(),
+                () -> gameService.hint(request));
+    }
+
+    /**
+     * Runs the command on its game lane and times it from the moment the message was received
+     */
+    private void dispatch(String handler, String gameId, String sessionId, Runnable command) {
+        requireClientSessionId(sessionId);
+        long receivedAt = System.nanoTime();
+        gameLaneDispatcher.dispatch(gameId, sessionId, () -> {
+            try {
+                command.run();
+            } finally {
+                gameMetrics.recordHandler(handler, receivedAt);
+            }
+        });
+    }
+
+    /**
+     * The computer plays under a reserved session id, a client claiming it could move for the computer
+     */
+    private void requireClientSessionId(String sessionId) {
+        if (AiOpponent.AI_SESSION_ID.equals(sessionId)) {
+            throw new GameException(GameErrorType.RESERVED_SESSION_ID, sessionId);
+        }
     }
 }
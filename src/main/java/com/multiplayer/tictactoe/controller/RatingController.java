@@ -0,0 +1,43 @@
+package com.multiplayer.tictactoe.controller;
+
+import com.multiplayer.tictactoe.dto.response.RatingRes;
+import com.multiplayer.tictactoe.service.RatingService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/ratings")
+@RequiredArgsConstructor
+public class RatingController {
+
+    private final RatingService ratingService;
+
+    /**
+     * Highest rated players, globally or on one board size, e.g. ?board=3x3
+     */
+    @GetMapping
+    public List<RatingRes> getTopPlayers(@RequestParam(required = false) String board,
+                                         @RequestParam(defaultValue = "20") int limit) {
+        return ratingService.getTopPlayers(board, limit);
+    }
+
+    @GetMapping("/players/{playerId}")
+    public ResponseEntity<RatingRes> getPlayerRating(@PathVariable String playerId,
+                                                     @RequestParam(required = false) String board) {
+        return ResponseEntity.of(ratingService.getPlayerRating(playerId, board));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleBadRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+
+}
@@ -0,0 +1,49 @@
+package com.multiplayer.tictactoe.controller;
+
+import com.multiplayer.tictactoe.dto.response.CursorPageRes;
+import com.multiplayer.tictactoe.dto.response.GameSummaryRes;
+import com.multiplayer.tictactoe.dto.response.PlayerStatsRes;
+import com.multiplayer.tictactoe.service.StatsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api")
+@RequiredArgsConstructor
+public class StatsController {
+
+    private final StatsService statsService;
+
+    @GetMapping("/players/{playerId}/stats")
+    public ResponseEntity<PlayerStatsRes> getPlayerStats(@PathVariable String playerId) {
+        return ResponseEntity.of(statsService.getPlayerStats(playerId));
+    }
+
+    /**
+     * A player's finished games, newest first. Pass the returned nextCursor as cursor for the next page.
+     */
+    @GetMapping("/players/{playerId}/games")
+    public CursorPageRes<GameSummaryRes> getPlayerGames(@PathVariable String playerId,
+                                                        @RequestParam(required = false) String cursor,
+                                                        @RequestParam(defaultValue = "20") int limit) {
+        return statsService.getPlayerGames(playerId, cursor, limit);
+    }
+
+    @GetMapping("/leaderboard")
+    public CursorPageRes<PlayerStatsRes> getLeaderboard(@RequestParam(required = false) String cursor,
+                                                        @RequestParam(defaultValue = "20") int limit) {
+        return statsService.getLeaderboard(cursor, limit);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleBadRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+
+}
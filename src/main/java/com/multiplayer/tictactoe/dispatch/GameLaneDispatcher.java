@@ -0,0 +1,124 @@
+package com.multiplayer.tictactoe.dispatch;
+
+import com.multiplayer.tictactoe.config.WebSocketExceptionHandler;
+import com.multiplayer.tictactoe.exception.GameErrorType;
+import com.multiplayer.tictactoe.exception.GameException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs game commands on a fixed set of single-threaded lanes.
+ * A game always hashes to the same lane, so its commands are processed strictly in order,
+ * while different games spread across all lanes and run in parallel.
+ */
+@Slf4j
+@Component
+public class GameLaneDispatcher implements DisposableBean {
+
+    private final ThreadPoolExecutor[] lanes;
+
+    private final Timer[] waitTimers;
+
+    private final Timer[] executionTimers;
+
+    private final WebSocketExceptionHandler webSocketExceptionHandler;
+
+    public GameLaneDispatcher(@Value("${tictactoe.dispatch.lanes:0}") int laneCount,
+                              @Value("${tictactoe.dispatch.lane-queue-capacity:1024}") int queueCapacity,
+                              WebSocketExceptionHandler webSocketExceptionHandler,
+                              MeterRegistry meterRegistry) {
+        int resolvedLaneCount = laneCount > 0 ? laneCount : Runtime.getRuntime().availableProcessors();
+
+        this.webSocketExceptionHandler = webSocketExceptionHandler;
+        this.lanes = new ThreadPoolExecutor[resolvedLaneCount];
+        this.waitTimers = new Timer[resolvedLaneCount];
+        this.executionTimers = new Timer[resolvedLaneCount];
+
+        for (int i = 0; i < resolvedLaneCount; i++) {
+            String laneName = String.valueOf(i);
+            ThreadPoolExecutor lane = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<>(queueCapacity),
+                    runnable -> {
+                        Thread thread = new Thread(runnable, "game-lane-" + laneName);
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            lanes[i] = lane;
+
+            Gauge.builder("game.dispatch.lane.queue.depth", lane, executor -> executor.getQueue().size())
+                    .description("Commands waiting on a game lane")
+                    .tag("lane", laneName)
+                    .register(meterRegistry);
+            waitTimers[i] = Timer.builder("game.dispatch.lane.wait")
+                    .description("Time a command waits on its lane before running")
+                    .tag("lane", laneName)
+                    .register(meterRegistry);
+            executionTimers[i] = Timer.builder("game.dispatch.lane.execution")
+                    .description("Time a command takes to run on its lane")
+                    .tag("lane", laneName)
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Queues a command on the lane of the given game.
+     * Commands without a game (like creating one) have nothing to serialize against and run inline.
+     */
+    public void dispatch(String gameId, String sessionId, Runnable command) {
+        if (gameId == null || gameId.trim().isEmpty()) {
+            command.run();
+            return;
+        }
+
+        int laneIndex = laneOf(gameId);
+        long enqueuedAt = System.nanoTime();
+
+        try {
+            lanes[laneIndex].execute(() -> run(laneIndex, enqueuedAt, sessionId, command));
+        } catch (RejectedExecutionException e) {
+            throw new GameException(GameErrorType.SERVER_BUSY, sessionId);
+        }
+    }
+
+    private void run(int laneIndex, long enqueuedAt, String sessionId, Runnable command) {
+        long startedAt = System.nanoTime();
+        waitTimers[laneIndex].record(startedAt - enqueuedAt, TimeUnit.NANOSECONDS);
+
+        try {
+            command.run();
+        } catch (GameException e) {
+            // Commands no longer run on the inbound channel, so @MessageExceptionHandler does not see them
+            webSocketExceptionHandler.handleGameException(e);
+        } catch (RuntimeException e) {
+            log.error("Game command for session {} failed", sessionId, e);
+        } finally {
+            executionTimers[laneIndex].record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private int laneOf(String gameId) {
+        int hash = gameId.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), lanes.length);
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        for (ThreadPoolExecutor lane : lanes) {
+            lane.shutdown();
+        }
+        for (ThreadPoolExecutor lane : lanes) {
+            lane.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
+}
@@ -15,6 +15,11 @@ public class CreateOrJoinGameReq {
 
     private int boardHorizontalSize;
 
+    private int winLength;
+
+    // Only used when creating, the other seat is taken by the server-side AI
+    private boolean aiOpponent;
+
     private String sessionId;
 
 }
@@ -0,0 +1,20 @@
+package com.multiplayer.tictactoe.dto.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuickPlayReq {
+
+    private int boardVerticalSize;
+
+    private int boardHorizontalSize;
+
+    private int winLength;
+
+    private String sessionId;
+
+}
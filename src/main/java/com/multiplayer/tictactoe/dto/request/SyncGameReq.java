@@ -0,0 +1,16 @@
+package com.multiplayer.tictactoe.dto.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncGameReq {
+
+    private String gameId;
+
+    private String sessionId;
+
+}
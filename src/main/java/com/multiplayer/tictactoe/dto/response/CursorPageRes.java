@@ -0,0 +1,19 @@
+package com.multiplayer.tictactoe.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageRes<T> {
+
+    private List<T> items;
+
+    // Opaque position after the last item, passed back as cursor for the next page, null on the last page
+    private String nextCursor;
+
+}
@@ -22,4 +22,6 @@ public class GameCreatedRes {
 
     private int boardHorizontalSize;
 
+    private int winLength;
+
 }
\ No newline at end of file
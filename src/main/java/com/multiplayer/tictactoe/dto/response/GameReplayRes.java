@@ -0,0 +1,41 @@
+package com.multiplayer.tictactoe.dto.response;
+
+import com.multiplayer.tictactoe.enums.GameStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Moves of a game for anyone to replay. Seats are named by their symbol, the players' session ids are never sent.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GameReplayRes {
+
+    private String gameId;
+
+    private GameStatus status;
+
+    // Symbol of the winner, null unless the game was won
+    private Character winner;
+
+    private int boardVerticalSize;
+
+    private int boardHorizontalSize;
+
+    private Integer winLength;
+
+    // "row,col" of every move in the order played, X moves first
+    private List<String> moves;
+
+    // Number of moves replayed into boardState
+    private int moveNumber;
+
+    private Map<Character, Set<String>> boardState;
+
+}
@@ -0,0 +1,39 @@
+package com.multiplayer.tictactoe.dto.response;
+
+import com.multiplayer.tictactoe.enums.GameStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+import java.util.Set;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GameSnapshotRes {
+
+    private String gameId;
+
+    // Symbol of the player the snapshot is sent to, the players' session ids are never sent
+    private Character symbol;
+
+    // Symbol of the player on turn, null unless the game is in progress
+    private Character currentTurn;
+
+    // Symbol of the winner, null unless the game was won
+    private Character winner;
+
+    private GameStatus status;
+
+    private int boardVerticalSize;
+
+    private int boardHorizontalSize;
+
+    private int winLength;
+
+    private int moveNumber;
+
+    private Map<Character, Set<String>> boardState;
+
+}
@@ -12,15 +12,19 @@ public class GameStartedRes {
 
     private String gameId;
 
-    private String sessionIdX;
+    // Symbol of the player the message is sent to, the players' session ids are never sent
+    private Character symbol;
 
-    private String sessionIdO;
+    // Symbol of the player on turn, null unless the game is in progress
+    private Character currentTurn;
 
-    private String currentTurnSessionId;
+    private boolean aiOpponent;
 
     private GameStatus status;
 
     private int boardVerticalSize;
 
     private int boardHorizontalSize;
+
+    private int winLength;
 }
\ No newline at end of file
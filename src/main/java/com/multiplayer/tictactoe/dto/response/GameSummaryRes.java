@@ -0,0 +1,32 @@
+package com.multiplayer.tictactoe.dto.response;
+
+import com.multiplayer.tictactoe.enums.GameStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GameSummaryRes {
+
+    private String gameId;
+
+    // Players and winner are named by their handle, never by their session id
+    private String userIdX;
+
+    private String userIdO;
+
+    private GameStatus status;
+
+    private String winnerId;
+
+    private int boardVerticalSize;
+
+    private int boardHorizontalSize;
+
+    private LocalDateTime completedAt;
+
+}
@@ -0,0 +1,23 @@
+package com.multiplayer.tictactoe.dto.response;
+
+import com.multiplayer.tictactoe.enums.PositionValue;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HintRes {
+
+    private String gameId;
+
+    private int row;
+
+    private int col;
+
+    private PositionValue value;
+
+    private int movesToEnd;
+
+}
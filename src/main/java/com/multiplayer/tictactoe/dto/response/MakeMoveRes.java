@@ -1,5 +1,6 @@
 package com.multiplayer.tictactoe.dto.response;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.multiplayer.tictactoe.enums.GameStatus;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -15,18 +16,26 @@ public class MakeMoveRes {
 
     private String gameId;
 
-    private String playerId;
-
     private int row;
 
     private int col;
 
     private GameStatus status;
 
-    private String winnerId;
+    // Symbol of the player who moved, the players' session ids are never sent on the shared game topic
+    private Character symbol;
+
+    // Symbol of the player on turn next, null once the game is over
+    private Character nextTurn;
+
+    // Symbol of the winner, null unless the game was won
+    private Character winner;
 
-    private String nextPlayerId;
+    // Sequence number of this move, clients resync when they see a gap
+    private int moveNumber;
 
+    // Full board, only sent when delta moves are disabled
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private Map<Character, Set<String>> boardState;
 
 }
\ No newline at end of file
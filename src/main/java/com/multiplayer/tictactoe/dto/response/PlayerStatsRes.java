@@ -0,0 +1,27 @@
+package com.multiplayer.tictactoe.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PlayerStatsRes {
+
+    // Handle of the player, never their session id
+    private String playerId;
+
+    private int wins;
+
+    private int losses;
+
+    private int draws;
+
+    private int gamesPlayed;
+
+    private LocalDateTime lastPlayedAt;
+
+}
@@ -0,0 +1,22 @@
+package com.multiplayer.tictactoe.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Elo rating of a player on a leaderboard, rank 1 being the highest rated
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RatingRes {
+
+    // Handle of the player, never their session id
+    private String playerId;
+
+    private int rating;
+
+    private long rank;
+
+}
@@ -0,0 +1,35 @@
+package com.multiplayer.tictactoe.dto.response;
+
+import com.multiplayer.tictactoe.enums.GameStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A move as spectators see it, with seats named by their symbol instead of the players' session ids
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SpectatorMoveRes {
+
+    private String gameId;
+
+    private int row;
+
+    private int col;
+
+    private Character symbol;
+
+    private GameStatus status;
+
+    // Symbol of the player on turn next, null once the game is over
+    private Character nextTurn;
+
+    // Symbol of the winner, null unless the game was won
+    private Character winner;
+
+    // Sequence number of this move, spectators ask for a snapshot when they see a gap
+    private int moveNumber;
+
+}
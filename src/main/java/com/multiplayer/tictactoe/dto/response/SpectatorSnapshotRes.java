@@ -0,0 +1,39 @@
+package com.multiplayer.tictactoe.dto.response;
+
+import com.multiplayer.tictactoe.enums.GameStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Full game as spectators see it. Seats are named by their symbol, the players' session ids are never sent.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SpectatorSnapshotRes {
+
+    private String gameId;
+
+    private GameStatus status;
+
+    private int boardVerticalSize;
+
+    private int boardHorizontalSize;
+
+    private int winLength;
+
+    private int moveNumber;
+
+    // Symbol of the player on turn, null unless the game is in progress
+    private Character currentTurn;
+
+    // Symbol of the winner, null unless the game was won
+    private Character winner;
+
+    private Map<Character, Set<String>> boardState;
+
+}
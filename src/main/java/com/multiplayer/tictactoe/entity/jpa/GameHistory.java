@@ -22,11 +22,14 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class GameHistory implements Serializable {
 
+    // Pooled sequence so batched inserts do not need a round trip per generated id
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "game_history_id_seq")
+    @SequenceGenerator(name = "game_history_id_seq", sequenceName = "game_history_id_seq", allocationSize = 50)
     private Long id;
 
-    @Column(unique = true, nullable = false)
+    // Unique together with completedAt, the partition key, see the V6 migration
+    @Column(nullable = false)
     private String gameId;
 
     @Column(nullable = false)
@@ -45,9 +48,17 @@ public class GameHistory implements Serializable {
     @Column(nullable = false)
     private int boardHorizontalSize;
 
-    @Column(columnDefinition = "TEXT") // Store as JSON string
+    @Column
+    private Integer winLength;
+
+    // Final board of games stored before move lists, new games are rebuilt from moveList instead
+    @Column(columnDefinition = "TEXT")
     private String boardState;
 
+    // Moves in the order played, encoded by MoveListCodec
+    @Column
+    private byte[] moveList;
+
     @Column
     private String winnerId;
 
@@ -57,7 +68,8 @@ public class GameHistory implements Serializable {
     @UpdateTimestamp
     private LocalDateTime updatedAt;
 
-    @Column
+    // Partition key, game_history has one partition per month of completion
+    @Column(nullable = false)
     private LocalDateTime completedAt;
 
 }
\ No newline at end of file
@@ -0,0 +1,43 @@
+package com.multiplayer.tictactoe.entity.jpa;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Results of one player over all finished games.
+ * Read-only for JPA: rows are only changed by the incremental upsert in
+ * {@link com.multiplayer.tictactoe.repository.PlayerStatsRepository#recordGames}.
+ */
+@Entity
+@Immutable
+@Table(name = "player_stats")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PlayerStats implements Serializable {
+
+    @Id
+    private String playerId;
+
+    @Column(nullable = false)
+    private int wins;
+
+    @Column(nullable = false)
+    private int losses;
+
+    @Column(nullable = false)
+    private int draws;
+
+    @Column
+    private LocalDateTime lastPlayedAt;
+
+}
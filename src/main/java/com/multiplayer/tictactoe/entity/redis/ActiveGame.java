@@ -1,14 +1,8 @@
 package com.multiplayer.tictactoe.entity.redis;
 
-import com.fasterxml.jackson.databind.JavaType;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.type.TypeFactory;
 import com.multiplayer.tictactoe.enums.GameStatus;
+import com.multiplayer.tictactoe.utils.BitBoard;
 import lombok.*;
-import org.springframework.data.annotation.CreatedDate;
-import org.springframework.data.annotation.Id;
-import org.springframework.data.annotation.LastModifiedDate;
-import org.springframework.data.redis.core.RedisHash;
 
 import java.io.Serializable;
 import java.time.LocalDateTime;
@@ -16,16 +10,14 @@ import java.util.*;
 
 /**
  * Represents a configurable Tic-Tac-Toe game instance stored in Redis for real-time play.
- * It is annotated with @RedisHash to indicate it is a top-level domain object for Redis.
+ * It is stored as a hash under game:{gameId} by {@link com.multiplayer.tictactoe.repository.ActiveGameRepository}.
  */
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@RedisHash(value = "game", timeToLive = 3600L)
 public class ActiveGame implements Serializable {
 
     // Unique ID for the game instance, used as the key in Redis
-    @Id
     private String gameId;
 
     // Configuration for the board size
@@ -33,10 +25,30 @@ public class ActiveGame implements Serializable {
 
     private int boardHorizontalSize;
 
+    // Number of consecutive cells needed to win
+    private int winLength;
+
+    // Number of moves played so far, saved together with the board
+    private int moveCount;
+
+    // Win-length windows that contain no O (still winnable by X), null for games created without tracking
+    private Integer openLinesX;
+
+    // Win-length windows that contain no X (still winnable by O), null for games created without tracking
+    private Integer openLinesO;
+
+    // Board encoded by BoardCodecs: a version byte and a dense or sparse payload, base64 encoded
     @Getter(AccessLevel.NONE)
     @Setter(AccessLevel.NONE)
     private String boardState;
 
+    // Decoded board, kept in memory only
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private transient BitBoard board;
+
     private String currentTurnSessionId;
 
     private String sessionIdX;
@@ -45,10 +57,8 @@ public class ActiveGame implements Serializable {
 
     private GameStatus status;
 
-    @CreatedDate
     private LocalDateTime createdAt;
 
-    @LastModifiedDate
     private LocalDateTime updatedAt;
 
     // Flag to track if game history has been saved to prevent duplicate saving
@@ -58,117 +68,118 @@ public class ActiveGame implements Serializable {
         return historySaved != null && historySaved;
     }
 
-    private static final ObjectMapper objectMapper = new ObjectMapper();
-
     /**
-     * Gets the board state as Map<Character, Set<String>>
-     * where key is 'X' or 'O', value is set of "row,col" positions
+     * Symbol of the seat the session plays, null when it does not play in this game
      */
-    public Map<Character, Set<String>> getBoardState() {
-        if (this.boardState == null || this.boardState.trim().isEmpty()) {
-            return initializeEmptyBoardMap();
+    public Character symbolOf(String sessionId) {
+        if (sessionId == null) {
+            return null;
         }
-
-        try {
-            TypeFactory typeFactory = objectMapper.getTypeFactory();
-            JavaType mapType = typeFactory.constructMapType(
-                    Map.class,
-                    typeFactory.constructType(Character.class),
-                    typeFactory.constructCollectionType(Set.class, String.class)
-            );
-
-            return objectMapper.readValue(this.boardState, mapType);
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to deserialize board state", e);
+        if (sessionId.equals(sessionIdX)) {
+            return BitBoard.PLAYER_X;
         }
+        return sessionId.equals(sessionIdO) ? BitBoard.PLAYER_O : null;
     }
 
     /**
-     * Sets the board state from Map<Character, Set<String>>
+     * Symbol of the winner, null unless the game was won
      */
-    public void setBoardState(Map<Character, Set<String>> boardMap) {
-        try {
-            this.boardState = objectMapper.writeValueAsString(boardMap);
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to serialize board state", e);
+    public Character winnerSymbol() {
+        if (status == GameStatus.X_WON) {
+            return BitBoard.PLAYER_X;
         }
+        return status == GameStatus.O_WON ? BitBoard.PLAYER_O : null;
     }
 
     /**
-     * Initializes an empty board map
+     * Gets the board state as Map<Character, Set<String>>
+     * where key is 'X' or 'O', value is set of "row,col" positions.
+     * Only meant for the WebSocket and history boundary, game logic should use {@link #getBoard()}.
      */
-    private Map<Character, Set<String>> initializeEmptyBoardMap() {
-        Map<Character, Set<String>> emptyBoard = new HashMap<>();
-        emptyBoard.put('X', new HashSet<>());
-        emptyBoard.put('O', new HashSet<>());
-        return emptyBoard;
+    public Map<Character, Set<String>> getBoardState() {
+        return getBoard().toPositionMap();
     }
 
     /**
-     * Gets the character at specific board position
-     * Returns null if the position is empty
+     * Sets the board state from Map<Character, Set<String>>
      */
-    public Character getCell(int row, int col) {
-        String position = row + "," + col;
-        Map<Character, Set<String>> boardMap = getBoardState();
+    public void setBoardState(Map<Character, Set<String>> boardMap) {
+        this.board = BitBoard.fromPositionMap(boardMap, boardVerticalSize, boardHorizontalSize);
+        this.boardState = board.encode();
+    }
 
-        for (Map.Entry<Character, Set<String>> entry : boardMap.entrySet()) {
-            if (entry.getValue().contains(position)) {
-                return entry.getKey();
-            }
-        }
+    /**
+     * Gets the board in its stored form, as written to the boardState hash field
+     */
+    public String getStoredBoardState() {
+        return boardState;
+    }
 
-        return null; // Empty cell
+    /**
+     * Sets the board from its stored form, it is decoded on first use
+     */
+    public void setStoredBoardState(String storedBoardState) {
+        this.boardState = storedBoardState;
+        this.board = null;
     }
 
     /**
-     * Sets the character at specific board position
-     * If value is null, removes the position from the board
+     * Gets the packed board, decoding the stored state once per loaded instance
      */
-    public void setCell(int row, int col, Character value) {
-        String position = row + "," + col;
-        Map<Character, Set<String>> boardMap = getBoardState();
-
-        // Remove from any existing player
-        boardMap.get('X').remove(position);
-        boardMap.get('O').remove(position);
-
-        // Add to the specified player if not null
-        if (value != null) {
-            if (value == 'X' || value == 'O') {
-                boardMap.get(value).add(position);
-            } else {
-                throw new IllegalArgumentException("Invalid player character: " + value);
-            }
+    public BitBoard getBoard() {
+        if (board == null || board.getRows() != boardVerticalSize || board.getCols() != boardHorizontalSize) {
+            board = BitBoard.decode(boardState, boardVerticalSize, boardHorizontalSize);
         }
-
-        setBoardState(boardMap);
+        return board;
     }
 
     /**
-     * Gets all occupied positions for a specific player
+     * Gets the character at specific board position
+     * Returns null if the position is empty
      */
-    public Set<String> getPlayerPositions(Character player) {
-        Map<Character, Set<String>> boardMap = getBoardState();
-        return boardMap.getOrDefault(player, new HashSet<>());
+    public Character getCell(int row, int col) {
+        return getBoard().get(row, col);
     }
 
     /**
-     * Gets all occupied positions on the board
+     * Sets the character at specific board position
+     * If value is null, removes the position from the board
      */
-    public Set<String> getAllOccupiedPositions() {
-        Map<Character, Set<String>> boardMap = getBoardState();
-        Set<String> allPositions = new HashSet<>();
-        allPositions.addAll(boardMap.get('X'));
-        allPositions.addAll(boardMap.get('O'));
-        return allPositions;
+    public void setCell(int row, int col, Character value) {
+        BitBoard currentBoard = getBoard();
+        currentBoard.set(row, col, value);
+        this.boardState = currentBoard.encode();
     }
 
     /**
      * Checks if a position is occupied
      */
     public boolean isPositionOccupied(int row, int col) {
-        return getCell(row, col) != null;
+        return getBoard().isOccupied(row, col);
+    }
+
+    /**
+     * Copies the game with its own decoded board, so the copy can be changed without affecting this one
+     */
+    public ActiveGame copy() {
+        ActiveGame copy = new ActiveGame();
+        copy.gameId = gameId;
+        copy.boardVerticalSize = boardVerticalSize;
+        copy.boardHorizontalSize = boardHorizontalSize;
+        copy.winLength = winLength;
+        copy.moveCount = moveCount;
+        copy.openLinesX = openLinesX;
+        copy.openLinesO = openLinesO;
+        copy.boardState = boardState;
+        copy.board = getBoard().copy();
+        copy.currentTurnSessionId = currentTurnSessionId;
+        copy.sessionIdX = sessionIdX;
+        copy.sessionIdO = sessionIdO;
+        copy.status = status;
+        copy.createdAt = createdAt;
+        copy.updatedAt = updatedAt;
+        copy.historySaved = historySaved;
+        return copy;
     }
 
 }
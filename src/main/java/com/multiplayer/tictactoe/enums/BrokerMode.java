@@ -0,0 +1,16 @@
+package com.multiplayer.tictactoe.enums;
+
+/**
+ * <p>Defines how STOMP topics are brokered between clients.</p>
+ * <br>
+ *
+ * @implNote
+ * <p>SIMPLE -> In-memory broker, subscribers only see messages published on the same instance.</p>
+ * <p>RELAY -> Topics are relayed to an external STOMP broker (RabbitMQ, ActiveMQ) shared by all instances.</p>
+ * <p>REDIS -> In-memory broker per instance, with every topic message mirrored to the other instances via Redis pub/sub.</p>
+ */
+public enum BrokerMode {
+    SIMPLE,
+    RELAY,
+    REDIS
+}
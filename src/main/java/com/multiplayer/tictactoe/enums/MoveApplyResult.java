@@ -0,0 +1,21 @@
+package com.multiplayer.tictactoe.enums;
+
+/**
+ * <p>Outcome of atomically applying a move to an active game in Redis.</p>
+ * <br>
+ *
+ * @implNote
+ * <p>APPLIED -> The move, turn switch, move counter and status were written.</p>
+ * <p>CONFLICT -> The game is no longer in progress, it is not the mover's turn or another move landed first.</p>
+ * <p>NOT_FOUND -> The game does not exist (anymore).</p>
+ */
+public enum MoveApplyResult {
+    APPLIED,
+    CONFLICT,
+    NOT_FOUND;
+
+    public static MoveApplyResult fromScriptResult(Long result) {
+        if (result == null || result < 0) return NOT_FOUND;
+        return result == 1 ? APPLIED : CONFLICT;
+    }
+}
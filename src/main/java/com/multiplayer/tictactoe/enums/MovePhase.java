@@ -0,0 +1,22 @@
+package com.multiplayer.tictactoe.enums;
+
+/**
+ * <p>Phases of handling a move, timed separately to see where move latency goes.</p>
+ * <br>
+ *
+ * @implNote
+ * <p>LOAD -> Reading the game from the near-cache or Redis.</p>
+ * <p>VALIDATE -> Checking the move against the rules.</p>
+ * <p>APPLY -> Playing the move on the in-memory board.</p>
+ * <p>WIN_CHECK -> Checking for a win or a draw.</p>
+ * <p>SAVE -> Writing the move to Redis.</p>
+ * <p>BROADCAST -> Publishing the move and, for finished games, handing them to history.</p>
+ */
+public enum MovePhase {
+    LOAD,
+    VALIDATE,
+    APPLY,
+    WIN_CHECK,
+    SAVE,
+    BROADCAST
+}
@@ -0,0 +1,24 @@
+package com.multiplayer.tictactoe.enums;
+
+/**
+ * <p>Game-theoretic value of a position under perfect play, from the point of view of the player to move.</p>
+ * <br>
+ *
+ * @implNote
+ * <p>WIN -> The player to move can force a win.</p>
+ * <p>DRAW -> Both players can hold the game to a draw.</p>
+ * <p>LOSS -> The opponent can force a win whatever the player to move does.</p>
+ */
+public enum PositionValue {
+    WIN,
+    DRAW,
+    LOSS;
+
+    public PositionValue opposite() {
+        return switch (this) {
+            case WIN -> LOSS;
+            case LOSS -> WIN;
+            case DRAW -> DRAW;
+        };
+    }
+}
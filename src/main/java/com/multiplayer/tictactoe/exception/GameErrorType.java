@@ -12,7 +12,14 @@ public enum GameErrorType {
     GAME_NOT_WAITING("Game is not waiting for players"),
     ALREADY_IN_GAME_AS_X("You are already in this game as Player X"),
     ALREADY_IN_GAME_AS_O("You are already in this game as Player O"),
-    ILLEGAL_MOVE("Illegal move");
+    ILLEGAL_MOVE("Illegal move"),
+    SERVER_BUSY("Server is busy, please try again"),
+    RATE_LIMITED("Too many moves, please slow down"),
+    INVALID_BOARD_SIZE("Board size is not available"),
+    MATCHMAKING_TIMEOUT("No opponent found, please try again"),
+    ALREADY_QUEUED("You are already waiting for an opponent"),
+    HINT_UNAVAILABLE("No hint is available for this position"),
+    RESERVED_SESSION_ID("This session id is reserved");
 
     private final String message;
 
@@ -7,9 +7,12 @@ public class GameException extends RuntimeException {
 
     private final GameErrorType errorType;
     private final String sessionId;
-    
+
+    /**
+     * Game errors are expected client mistakes, so no stack trace is captured
+     */
     public GameException(GameErrorType errorType, String sessionId) {
-        super(errorType.getMessage());
+        super(errorType.getMessage(), null, false, false);
         this.errorType = errorType;
         this.sessionId = sessionId;
     }
@@ -0,0 +1,189 @@
+package com.multiplayer.tictactoe.history;
+
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps the monthly partitions of game_history (see V6 migration) in shape.
+ * Creates partitions ahead of time so inserts never hit a missing month. With a retention set, once a month
+ * falls out of the retention window, detaches its partition, copies it to a gzipped CSV file and drops it.
+ * The retention defaults to 0, which keeps every month.
+ * Runs on every instance, a PostgreSQL advisory lock lets only one of them work at a time.
+ */
+@Slf4j
+@Component
+public class GameHistoryPartitionMaintainer {
+
+    private static final String PARTITION_PREFIX = "game_history_p";
+
+    private static final Pattern PARTITION_NAME = Pattern.compile(PARTITION_PREFIX + "(\\d{6})");
+
+    private static final DateTimeFormatter PARTITION_MONTH = DateTimeFormatter.ofPattern("yyyyMM");
+
+    // Arbitrary key of the advisory lock, shared by every instance
+    private static final long LOCK_KEY = 0x7433_6768_7061_7274L;
+
+    private final DataSource dataSource;
+
+    private final int monthsAhead;
+
+    private final int retentionMonths;
+
+    private final Path archiveDirectory;
+
+    public GameHistoryPartitionMaintainer(DataSource dataSource,
+                                          @Value("${tictactoe.history.partitions.months-ahead:3}") int monthsAhead,
+                                          @Value("${tictactoe.history.partitions.retention-months:0}") int retentionMonths,
+                                          @Value("${tictactoe.history.partitions.archive-directory:data/game-history-archive}") String archiveDirectory) {
+        this.dataSource = dataSource;
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+        this.archiveDirectory = Path.of(archiveDirectory);
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${tictactoe.history.partitions.maintenance-interval-ms:3600000}")
+    public void maintain() {
+        // Autocommit connection, DETACH ... CONCURRENTLY cannot run inside a transaction
+        try (Connection connection = dataSource.getConnection()) {
+            if (!tryLock(connection)) {
+                return;
+            }
+            try {
+                YearMonth now = YearMonth.now();
+                createPartitions(connection, now);
+                if (retentionMonths > 0) {
+                    archiveExpiredPartitions(connection, now.minusMonths(retentionMonths));
+                }
+            } finally {
+                unlock(connection);
+            }
+        } catch (SQLException | IOException e) {
+            log.error("Game history partition maintenance failed", e);
+        }
+    }
+
+    private void createPartitions(Connection connection, YearMonth now) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            for (int ahead = 0; ahead <= monthsAhead; ahead++) {
+                YearMonth month = now.plusMonths(ahead);
+                statement.execute("CREATE TABLE IF NOT EXISTS " + partitionName(month)
+                        + " PARTITION OF game_history FOR VALUES FROM ('" + month.atDay(1)
+                        + "') TO ('" + month.plusMonths(1).atDay(1) + "')");
+            }
+        }
+    }
+
+    /**
+     * Archives every partition of a month before the cutoff. Work left over by an interrupted run,
+     * a pending detach or a detached table that was not archived yet, is finished first.
+     */
+    private void archiveExpiredPartitions(Connection connection, YearMonth cutoff) throws SQLException, IOException {
+        try (Statement statement = connection.createStatement()) {
+            for (String pending : partitions(connection, true)) {
+                statement.execute("ALTER TABLE game_history DETACH PARTITION " + pending + " FINALIZE");
+            }
+
+            for (String partition : partitions(connection, false)) {
+                if (partitionMonth(partition).isBefore(cutoff)) {
+                    statement.execute("ALTER TABLE game_history DETACH PARTITION " + partition + " CONCURRENTLY");
+                }
+            }
+
+            for (String detached : detachedTables(connection)) {
+                archive(connection, detached);
+                statement.execute("DROP TABLE " + detached);
+                log.info("Archived and dropped game history partition {}", detached);
+            }
+        }
+    }
+
+    /**
+     * Copies a detached partition to archive-directory/name.csv.gz. The file is written under a temporary
+     * name and moved into place once complete, so a present archive is always a whole one.
+     */
+    private void archive(Connection connection, String table) throws SQLException, IOException {
+        Files.createDirectories(archiveDirectory);
+        Path archive = archiveDirectory.resolve(table + ".csv.gz");
+        Path partial = archiveDirectory.resolve(table + ".csv.gz.partial");
+
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(partial), 64 * 1024)) {
+            connection.unwrap(PGConnection.class).getCopyAPI()
+                    .copyOut("COPY " + table + " TO STDOUT WITH (FORMAT csv, HEADER)", out);
+        }
+        Files.move(partial, archive, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private List<String> partitions(Connection connection, boolean detachPending) throws SQLException {
+        return partitionTables(connection, """
+                SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+                WHERE i.inhparent = 'game_history'::regclass AND i.inhdetachpending = %s
+                """.formatted(detachPending));
+    }
+
+    private List<String> detachedTables(Connection connection) throws SQLException {
+        return partitionTables(connection, """
+                SELECT relname FROM pg_class
+                WHERE relkind = 'r' AND NOT relispartition AND relnamespace = current_schema()::regnamespace
+                """);
+    }
+
+    private List<String> partitionTables(Connection connection, String query) throws SQLException {
+        List<String> tables = new ArrayList<>();
+        try (Statement statement = connection.createStatement(); ResultSet resultSet = statement.executeQuery(query)) {
+            while (resultSet.next()) {
+                String table = resultSet.getString(1);
+                if (PARTITION_NAME.matcher(table).matches()) {
+                    tables.add(table);
+                }
+            }
+        }
+        return tables;
+    }
+
+    private static String partitionName(YearMonth month) {
+        return PARTITION_PREFIX + month.format(PARTITION_MONTH);
+    }
+
+    private static YearMonth partitionMonth(String partition) {
+        Matcher matcher = PARTITION_NAME.matcher(partition);
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Not a game history partition: " + partition);
+        }
+        return YearMonth.parse(matcher.group(1), PARTITION_MONTH);
+    }
+
+    private static boolean tryLock(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT pg_try_advisory_lock(" + LOCK_KEY + ")")) {
+            return resultSet.next() && resultSet.getBoolean(1);
+        }
+    }
+
+    private static void unlock(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SELECT pg_advisory_unlock(" + LOCK_KEY + ")");
+        }
+    }
+
+}
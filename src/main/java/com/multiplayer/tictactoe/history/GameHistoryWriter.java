@@ -0,0 +1,313 @@
+package com.multiplayer.tictactoe.history;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.multiplayer.tictactoe.entity.jpa.GameHistory;
+import com.multiplayer.tictactoe.repository.GameHistoryRepository;
+import com.multiplayer.tictactoe.repository.PlayerStatsRepository;
+import com.multiplayer.tictactoe.service.RatingService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persists finished games off the WebSocket threads.
+ * Games are queued in a bounded queue and a background writer inserts them in JDBC batches.
+ * When the queue stays full or a batch keeps failing, games are appended to a local spool file,
+ * which is replayed into the database once it accepts writes again.
+ * Player stats are updated in the same transaction as the inserted games, so they never count a game twice,
+ * and ratings are updated once the transaction has committed.
+ */
+@Slf4j
+@Component
+public class GameHistoryWriter implements SmartLifecycle {
+
+    /**
+     * Stops after the STOMP handlers and the web server, which use the default phase and just below it,
+     * so games finished while the application shuts down are still queued or spooled
+     */
+    private static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 4096;
+
+    private final GameHistoryRepository gameHistoryRepository;
+
+    private final PlayerStatsRepository playerStatsRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final RatingService ratingService;
+
+    private final ObjectMapper objectMapper;
+
+    private final BlockingQueue<GameHistory> queue;
+
+    private final int batchSize;
+
+    private final long flushIntervalMillis;
+
+    private final long offerTimeoutMillis;
+
+    private final int maxAttempts;
+
+    private final long retryBackoffMillis;
+
+    private final Path spoolFile;
+
+    private final long spoolReplayIntervalMillis;
+
+    private long lastSpoolReplayAt;
+
+    private volatile boolean running;
+
+    private Thread writerThread;
+
+    public GameHistoryWriter(GameHistoryRepository gameHistoryRepository,
+                             PlayerStatsRepository playerStatsRepository,
+                             TransactionTemplate transactionTemplate,
+                             RatingService ratingService,
+                             ObjectMapper objectMapper,
+                             @Value("${tictactoe.history.queue-capacity:10000}") int queueCapacity,
+                             @Value("${tictactoe.history.batch-size:100}") int batchSize,
+                             @Value("${tictactoe.history.flush-interval-ms:500}") long flushIntervalMillis,
+                             @Value("${tictactoe.history.offer-timeout-ms:50}") long offerTimeoutMillis,
+                             @Value("${tictactoe.history.max-attempts:3}") int maxAttempts,
+                             @Value("${tictactoe.history.retry-backoff-ms:200}") long retryBackoffMillis,
+                             @Value("${tictactoe.history.spool-file:data/game-history.spool}") String spoolFile,
+                             @Value("${tictactoe.history.spool-replay-interval-ms:30000}") long spoolReplayIntervalMillis) {
+        this.gameHistoryRepository = gameHistoryRepository;
+        this.playerStatsRepository = playerStatsRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.ratingService = ratingService;
+        this.objectMapper = objectMapper;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.offerTimeoutMillis = offerTimeoutMillis;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoffMillis = retryBackoffMillis;
+        this.spoolFile = Path.of(spoolFile);
+        this.spoolReplayIntervalMillis = spoolReplayIntervalMillis;
+    }
+
+    /**
+     * Queues a finished game for persistence.
+     * Waits briefly when the queue is full, then spools the game to disk rather than blocking the caller.
+     * Once the writer is stopped nothing drains the queue any more, so games go straight to the spool.
+     */
+    public void submit(GameHistory gameHistory) {
+        if (!running) {
+            log.warn("Game history writer is stopped, spooling game {}", gameHistory.getGameId());
+            spool(List.of(gameHistory));
+            return;
+        }
+
+        try {
+            if (queue.offer(gameHistory, offerTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                // The writer may have stopped and made its last drain in the meantime, a game it did not take is spooled
+                if (!running && queue.remove(gameHistory)) {
+                    spool(List.of(gameHistory));
+                }
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        log.warn("Game history queue is full, spooling game {}", gameHistory.getGameId());
+        spool(List.of(gameHistory));
+    }
+
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        writerThread = new Thread(this::runWriter, "game-history-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (writerThread != null) {
+            writerThread.interrupt();
+            try {
+                writerThread.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    private void runWriter() {
+        replaySpool();
+
+        List<GameHistory> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                GameHistory first = queue.poll(flushIntervalMillis, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    replaySpool();
+                    continue;
+                }
+
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                persist(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                // Stopping, whatever is still queued is flushed below
+            }
+        }
+
+        queue.drainTo(batch);
+        for (int from = 0; from < batch.size(); from += batchSize) {
+            persist(batch.subList(from, Math.min(from + batchSize, batch.size())));
+        }
+    }
+
+    /**
+     * Inserts a batch, retrying with backoff. A batch that keeps failing is retried row by row,
+     * so a single bad row does not take the others down, and rows that still fail are spooled.
+     */
+    private void persist(List<GameHistory> batch) {
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            try {
+                save(batch);
+                ratingService.recordGames(batch);
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Saving {} finished games failed (attempt {}/{})", batch.size(), attempt, maxAttempts, e);
+                batch.forEach(gameHistory -> gameHistory.setId(null));
+                sleep(retryBackoffMillis * attempt);
+            }
+        }
+
+        List<GameHistory> saved = new ArrayList<>();
+        List<GameHistory> failed = new ArrayList<>();
+        for (GameHistory gameHistory : batch) {
+            try {
+                save(List.of(gameHistory));
+                saved.add(gameHistory);
+            } catch (DataIntegrityViolationException e) {
+                // Already saved, e.g. by an earlier attempt whose outcome was unknown
+                log.warn("Dropping finished game {} that violates a constraint", gameHistory.getGameId(), e);
+            } catch (RuntimeException e) {
+                gameHistory.setId(null);
+                failed.add(gameHistory);
+            }
+        }
+
+        ratingService.recordGames(saved);
+
+        if (!failed.isEmpty()) {
+            log.error("Spooling {} finished games that could not be saved", failed.size());
+            spool(failed);
+        }
+    }
+
+    private void save(List<GameHistory> gameHistories) {
+        transactionTemplate.executeWithoutResult(status -> {
+            gameHistoryRepository.saveAll(gameHistories);
+            playerStatsRepository.recordGames(gameHistories);
+        });
+    }
+
+    private synchronized void spool(List<GameHistory> gameHistories) {
+        try {
+            if (spoolFile.getParent() != null) {
+                Files.createDirectories(spoolFile.getParent());
+            }
+
+            try (BufferedWriter writer = Files.newBufferedWriter(spoolFile, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (GameHistory gameHistory : gameHistories) {
+                    writer.write(objectMapper.writeValueAsString(gameHistory));
+                    writer.newLine();
+                }
+            }
+        } catch (IOException e) {
+            log.error("Failed to spool {} finished games, they are lost", gameHistories.size(), e);
+        }
+    }
+
+    /**
+     * Moves spooled games back into the database. The spool is renamed first,
+     * so games spooled while replaying land in a fresh file.
+     */
+    private void replaySpool() {
+        long now = System.currentTimeMillis();
+        if (now - lastSpoolReplayAt < spoolReplayIntervalMillis) {
+            return;
+        }
+        lastSpoolReplayAt = now;
+
+        Path replayFile = spoolFile.resolveSibling(spoolFile.getFileName() + ".replay");
+
+        try {
+            synchronized (this) {
+                if (!Files.exists(replayFile)) {
+                    if (!Files.exists(spoolFile)) {
+                        return;
+                    }
+                    Files.move(spoolFile, replayFile, StandardCopyOption.ATOMIC_MOVE);
+                }
+            }
+
+            List<GameHistory> batch = new ArrayList<>(batchSize);
+            for (String line : Files.readAllLines(replayFile, StandardCharsets.UTF_8)) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                batch.add(objectMapper.readValue(line, GameHistory.class));
+                if (batch.size() == batchSize) {
+                    persist(batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                persist(batch);
+            }
+
+            Files.delete(replayFile);
+        } catch (IOException e) {
+            log.error("Failed to replay spooled finished games from {}", replayFile, e);
+        }
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
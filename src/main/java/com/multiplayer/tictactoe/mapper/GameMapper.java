@@ -1,41 +1,70 @@
 package com.multiplayer.tictactoe.mapper;
 
+import com.multiplayer.tictactoe.ai.AiOpponent;
 import com.multiplayer.tictactoe.dto.request.MakeMoveReq;
+import com.multiplayer.tictactoe.dto.response.GameSnapshotRes;
 import com.multiplayer.tictactoe.dto.response.GameStartedRes;
+import com.multiplayer.tictactoe.dto.response.GameSummaryRes;
 import com.multiplayer.tictactoe.dto.response.MakeMoveRes;
+import com.multiplayer.tictactoe.dto.response.PlayerStatsRes;
+import com.multiplayer.tictactoe.dto.response.SpectatorMoveRes;
+import com.multiplayer.tictactoe.dto.response.SpectatorSnapshotRes;
 import com.multiplayer.tictactoe.entity.jpa.GameHistory;
+import com.multiplayer.tictactoe.entity.jpa.PlayerStats;
 import com.multiplayer.tictactoe.entity.redis.ActiveGame;
+import com.multiplayer.tictactoe.enums.GameStatus;
+import com.multiplayer.tictactoe.repository.GameHistorySummary;
+import com.multiplayer.tictactoe.utils.PlayerHandles;
+import org.mapstruct.Context;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
-import org.mapstruct.Named;
 
-import java.util.Map;
-import java.util.Set;
-
-@Mapper(componentModel = "spring")
+@Mapper(componentModel = "spring", imports = {GameStatus.class, AiOpponent.class})
 public interface GameMapper {
 
-    GameStartedRes toGameStartedRes(ActiveGame activeGame);
+    /**
+     * The game start as sent to one of its players, who is told their own symbol
+     */
+    @Mapping(target = "symbol", expression = "java(activeGame.symbolOf(sessionId))")
+    @Mapping(target = "currentTurn", expression = "java(activeGame.getStatus() == GameStatus.IN_PROGRESS"
+            + " ? activeGame.symbolOf(activeGame.getCurrentTurnSessionId()) : null)")
+    @Mapping(target = "aiOpponent", expression = "java(AiOpponent.isAiGame(activeGame))")
+    GameStartedRes toGameStartedRes(ActiveGame activeGame, String sessionId);
+
+    /**
+     * A snapshot of the game as sent to one of its players, who is told their own symbol
+     */
+    @Mapping(target = "moveNumber", source = "activeGame.moveCount")
+    @Mapping(target = "symbol", expression = "java(activeGame.symbolOf(sessionId))")
+    @Mapping(target = "currentTurn", expression = "java(activeGame.getStatus() == GameStatus.IN_PROGRESS"
+            + " ? activeGame.symbolOf(activeGame.getCurrentTurnSessionId()) : null)")
+    @Mapping(target = "winner", expression = "java(activeGame.winnerSymbol())")
+    GameSnapshotRes toGameSnapshotRes(ActiveGame activeGame, String sessionId);
+
+    @Mapping(target = "moveNumber", source = "moveCount")
+    @Mapping(target = "currentTurn", expression = "java(activeGame.getStatus() == GameStatus.IN_PROGRESS"
+            + " ? activeGame.symbolOf(activeGame.getCurrentTurnSessionId()) : null)")
+    @Mapping(target = "winner", expression = "java(activeGame.winnerSymbol())")
+    SpectatorSnapshotRes toSpectatorSnapshotRes(ActiveGame activeGame);
+
+    @Mapping(target = "gameId", source = "move.gameId")
+    @Mapping(target = "status", source = "move.status")
+    @Mapping(target = "nextTurn", expression = "java(activeGame.getStatus() == GameStatus.IN_PROGRESS"
+            + " ? activeGame.symbolOf(activeGame.getCurrentTurnSessionId()) : null)")
+    @Mapping(target = "winner", expression = "java(activeGame.winnerSymbol())")
+    SpectatorMoveRes toSpectatorMoveRes(ActiveGame activeGame, MakeMoveRes move);
 
     @Mapping(target = "gameId", source = "activeGame.gameId")
-    @Mapping(target = "playerId", source = "request.sessionId")
-    @Mapping(target = "row", source = "request.row")
-    @Mapping(target = "col", source = "request.col") 
-    @Mapping(target = "status", source = "activeGame.status")
-    @Mapping(target = "winnerId", source = "winnerId")
-    @Mapping(target = "nextPlayerId", ignore = true)
-    @Mapping(target = "boardState", source = "activeGame.boardState")
-    MakeMoveRes toMakeMoveResNoNextPlayer(ActiveGame activeGame, MakeMoveReq request, String winnerId);
-    
-    @Mapping(target = "gameId", source = "activeGame.gameId")
-    @Mapping(target = "playerId", source = "request.sessionId")
     @Mapping(target = "row", source = "request.row")
     @Mapping(target = "col", source = "request.col")
     @Mapping(target = "status", source = "activeGame.status")
-    @Mapping(target = "winnerId", source = "winnerId")
-    @Mapping(target = "nextPlayerId", source = "activeGame.currentTurnSessionId")
-    @Mapping(target = "boardState", source = "activeGame.boardState")
-    MakeMoveRes toMakeMoveResWithNextPlayer(ActiveGame activeGame, MakeMoveReq request, String winnerId);
+    @Mapping(target = "symbol", expression = "java(activeGame.getCell(request.getRow(), request.getCol()))")
+    @Mapping(target = "nextTurn", expression = "java(activeGame.getStatus() == GameStatus.IN_PROGRESS"
+            + " ? activeGame.symbolOf(activeGame.getCurrentTurnSessionId()) : null)")
+    @Mapping(target = "winner", expression = "java(activeGame.winnerSymbol())")
+    @Mapping(target = "moveNumber", source = "activeGame.moveCount")
+    @Mapping(target = "boardState", ignore = true)
+    MakeMoveRes toMakeMoveRes(ActiveGame activeGame, MakeMoveReq request);
 
     @Mapping(target = "gameId", source = "activeGame.gameId")
     @Mapping(target = "userIdX", source = "activeGame.sessionIdX")
@@ -43,7 +72,9 @@ public interface GameMapper {
     @Mapping(target = "status", source = "activeGame.status")
     @Mapping(target = "boardVerticalSize", source = "activeGame.boardVerticalSize")
     @Mapping(target = "boardHorizontalSize", source = "activeGame.boardHorizontalSize")
-    @Mapping(target = "boardState", source = "activeGame.boardState", qualifiedByName = "boardStateToString")
+    @Mapping(target = "winLength", source = "activeGame.winLength")
+    @Mapping(target = "boardState", ignore = true)
+    @Mapping(target = "moveList", ignore = true)
     @Mapping(target = "winnerId", source = "winnerSessionId")
     @Mapping(target = "completedAt", expression = "java(java.time.LocalDateTime.now())")
     @Mapping(target = "id", ignore = true)
@@ -51,9 +82,16 @@ public interface GameMapper {
     @Mapping(target = "updatedAt", ignore = true)
     GameHistory toGameHistoryEntity(ActiveGame activeGame, String winnerSessionId);
 
-    @Named("boardStateToString")
-    default String boardStateToString(Map<Character, Set<String>> boardState) {
-        return boardState != null ? boardState.toString() : null;
-    }
+    /**
+     * A finished game as listed publicly, players named by their handle instead of their session id
+     */
+    @Mapping(target = "userIdX", expression = "java(playerHandles.toHandle(summary.getUserIdX()))")
+    @Mapping(target = "userIdO", expression = "java(playerHandles.toHandle(summary.getUserIdO()))")
+    @Mapping(target = "winnerId", expression = "java(playerHandles.toHandle(summary.getWinnerId()))")
+    GameSummaryRes toGameSummaryRes(GameHistorySummary summary, @Context PlayerHandles playerHandles);
+
+    @Mapping(target = "playerId", expression = "java(playerHandles.toHandle(playerStats.getPlayerId()))")
+    @Mapping(target = "gamesPlayed", expression = "java(playerStats.getWins() + playerStats.getLosses() + playerStats.getDraws())")
+    PlayerStatsRes toPlayerStatsRes(PlayerStats playerStats, @Context PlayerHandles playerHandles);
 
 }
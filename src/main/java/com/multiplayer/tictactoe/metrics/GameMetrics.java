@@ -0,0 +1,277 @@
+package com.multiplayer.tictactoe.metrics;
+
+import com.multiplayer.tictactoe.ai.SearchResult;
+import com.multiplayer.tictactoe.enums.GameStatus;
+import com.multiplayer.tictactoe.enums.MovePhase;
+import com.multiplayer.tictactoe.exception.GameErrorType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Meters for the WebSocket move path.
+ * Timers publish percentile histograms so move latency percentiles can be computed and alerted on in Prometheus.
+ * Meters are registered up front for every tag value the application uses, so recording one is a map lookup
+ * rather than a registry lookup per message.
+ */
+@Component
+public class GameMetrics {
+
+    private final MeterRegistry meterRegistry;
+
+    private final Timer moveTimer;
+
+    private final Map<MovePhase, Timer> movePhaseTimers = new EnumMap<>(MovePhase.class);
+
+    private final Map<GameStatus, AtomicInteger> activeGames = new EnumMap<>(GameStatus.class);
+
+    private final AtomicInteger connectedSessions = new AtomicInteger();
+
+    private final Timer matchmakingWaitTimer;
+
+    private final AtomicLong matchmakingWaiting = new AtomicLong();
+
+    private final Map<String, Timer> handlerTimers = new ConcurrentHashMap<>();
+
+    private final Map<String, Timer> sendTimers = new ConcurrentHashMap<>();
+
+    private final Map<GameErrorType, Counter> errorCounters = new EnumMap<>(GameErrorType.class);
+
+    private final Map<String, Counter> spectatorFrameCounters = new ConcurrentHashMap<>();
+
+    private final Map<String, Counter> tablebaseHitCounters = new ConcurrentHashMap<>();
+
+    private final Map<String, Counter> rateLimitedCounters = new ConcurrentHashMap<>();
+
+    private final Map<GameStatus, Counter> finishedGameCounters = new EnumMap<>(GameStatus.class);
+
+    private final Timer aiSearchTimer;
+
+    private final DistributionSummary aiSearchDepth;
+
+    private final Counter aiSearchNodes;
+
+    public GameMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+
+        this.moveTimer = Timer.builder("game.move")
+                .description("Time to handle a move, from loading the game to broadcasting it")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+
+        for (MovePhase phase : MovePhase.values()) {
+            movePhaseTimers.put(phase, Timer.builder("game.move.phase")
+                    .description("Time spent in one phase of handling a move")
+                    .tag("phase", phase.name().toLowerCase())
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+
+        // Only games that are still live are kept in Redis, finished games are counted instead
+        for (GameStatus status : new GameStatus[]{GameStatus.WAITING, GameStatus.IN_PROGRESS}) {
+            AtomicInteger count = new AtomicInteger();
+            activeGames.put(status, count);
+            Gauge.builder("game.active", count, AtomicInteger::get)
+                    .description("Games changed into this status on this instance and not yet moved out of it")
+                    .tag("status", status.name())
+                    .register(meterRegistry);
+        }
+
+        Gauge.builder("game.sessions.connected", connectedSessions, AtomicInteger::get)
+                .description("STOMP sessions connected to this instance")
+                .register(meterRegistry);
+
+        this.matchmakingWaitTimer = Timer.builder("game.matchmaking.wait")
+                .description("Time a player waited in the quick play queue before being paired")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("game.matchmaking.waiting", matchmakingWaiting, AtomicLong::get)
+                .description("Players left in the quick play queues after the last pairing pass")
+                .register(meterRegistry);
+
+        List.of("createOrJoin", "makeMove", "quickPlay", "leaveQueue", "sync", "spectate", "hint")
+                .forEach(handler -> handlerTimers.put(handler, handlerTimer(handler)));
+        List.of("session", "game", "spectate")
+                .forEach(destinationType -> sendTimers.put(destinationType, sendTimer(destinationType)));
+        for (GameErrorType errorType : GameErrorType.values()) {
+            errorCounters.put(errorType, Counter.builder("game.errors")
+                    .description("Errors sent back to clients")
+                    .tag("type", errorType.name())
+                    .register(meterRegistry));
+        }
+        List.of("delta", "snapshot")
+                .forEach(type -> spectatorFrameCounters.put(type, spectatorFrameCounter(type)));
+        List.of("ai", "hint")
+                .forEach(consumer -> tablebaseHitCounters.put(consumer, tablebaseHitCounter(consumer)));
+        List.of("session", "game")
+                .forEach(scope -> rateLimitedCounters.put(scope, rateLimitedCounter(scope)));
+        for (GameStatus status : GameStatus.values()) {
+            if (!activeGames.containsKey(status)) {
+                finishedGameCounters.put(status, Counter.builder("game.finished")
+                        .description("Games finished on this instance")
+                        .tag("status", status.name())
+                        .register(meterRegistry));
+            }
+        }
+
+        this.aiSearchTimer = Timer.builder("game.ai.search")
+                .description("Time the AI spent choosing a move")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.aiSearchDepth = DistributionSummary.builder("game.ai.search.depth")
+                .description("Deepest search iteration the AI completed for a move")
+                .register(meterRegistry);
+        this.aiSearchNodes = Counter.builder("game.ai.search.nodes")
+                .description("Positions visited by AI searches")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records a move phase that started at the given time and returns the current time,
+     * which is the start of the next phase
+     */
+    public long recordMovePhase(MovePhase phase, long startedAtNanos) {
+        long now = System.nanoTime();
+        movePhaseTimers.get(phase).record(now - startedAtNanos, TimeUnit.NANOSECONDS);
+        return now;
+    }
+
+    public void recordMove(long startedAtNanos) {
+        moveTimer.record(System.nanoTime() - startedAtNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records a STOMP handler, from receiving the message until its command finished on the game lane
+     */
+    public void recordHandler(String handler, long receivedAtNanos) {
+        handlerTimers.computeIfAbsent(handler, this::handlerTimer)
+                .record(System.nanoTime() - receivedAtNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records a message handed to the broker through SimpMessagingTemplate
+     */
+    public void recordSend(String destinationType, long startedAtNanos) {
+        sendTimers.computeIfAbsent(destinationType, this::sendTimer)
+                .record(System.nanoTime() - startedAtNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordError(GameErrorType errorType) {
+        errorCounters.get(errorType).increment();
+    }
+
+    public void recordMatchmakingWait(long waitedMillis) {
+        matchmakingWaitTimer.record(waitedMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void setMatchmakingWaiting(long waiting) {
+        matchmakingWaiting.set(waiting);
+    }
+
+    /**
+     * Counts a frame sent to the spectators of a game, a delta or a snapshot replacing conflated moves
+     */
+    public void recordSpectatorFrame(String type) {
+        spectatorFrameCounters.computeIfAbsent(type, this::spectatorFrameCounter).increment();
+    }
+
+    /**
+     * Counts positions answered from a tablebase, by the AI or for a hint
+     */
+    public void recordTablebaseHit(String consumer) {
+        tablebaseHitCounters.computeIfAbsent(consumer, this::tablebaseHitCounter).increment();
+    }
+
+    /**
+     * Records one AI move search: its duration, the depth it completed and the positions it visited
+     */
+    public void recordAiSearch(SearchResult result) {
+        aiSearchTimer.record(result.elapsedNanos(), TimeUnit.NANOSECONDS);
+        aiSearchDepth.record(result.depth());
+        aiSearchNodes.increment(result.nodes());
+    }
+
+    /**
+     * Counts a move rejected for exceeding its session or game rate
+     */
+    public void recordRateLimited(String scope) {
+        rateLimitedCounters.computeIfAbsent(scope, this::rateLimitedCounter).increment();
+    }
+
+    /**
+     * Tracks a game moving between statuses, from is null for new games.
+     * Finished statuses are counted rather than gauged, since finished games are removed right away.
+     */
+    public void gameStatusChanged(GameStatus from, GameStatus to) {
+        if (from != null && activeGames.containsKey(from)) {
+            activeGames.get(from).decrementAndGet();
+        }
+
+        if (activeGames.containsKey(to)) {
+            activeGames.get(to).incrementAndGet();
+        } else {
+            finishedGameCounters.get(to).increment();
+        }
+    }
+
+    private Timer handlerTimer(String handler) {
+        return Timer.builder("game.socket.handler")
+                .description("Time from receiving a STOMP message until its command finished")
+                .tag("handler", handler)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private Timer sendTimer(String destinationType) {
+        return Timer.builder("game.messaging.send")
+                .description("Time to serialize and hand a message to the broker")
+                .tag("destination", destinationType)
+                .register(meterRegistry);
+    }
+
+    private Counter spectatorFrameCounter(String type) {
+        return Counter.builder("game.spectate.frames")
+                .description("Frames published to spectators")
+                .tag("type", type)
+                .register(meterRegistry);
+    }
+
+    private Counter tablebaseHitCounter(String consumer) {
+        return Counter.builder("game.tablebase.hits")
+                .description("Positions answered by a tablebase lookup instead of a search")
+                .tag("consumer", consumer)
+                .register(meterRegistry);
+    }
+
+    private Counter rateLimitedCounter(String scope) {
+        return Counter.builder("game.ratelimit.rejected")
+                .description("Moves rejected by the session or game rate limit")
+                .tag("scope", scope)
+                .register(meterRegistry);
+    }
+
+    @EventListener
+    public void onSessionConnected(SessionConnectedEvent event) {
+        connectedSessions.incrementAndGet();
+    }
+
+    @EventListener
+    public void onSessionDisconnected(SessionDisconnectEvent event) {
+        connectedSessions.decrementAndGet();
+    }
+
+}
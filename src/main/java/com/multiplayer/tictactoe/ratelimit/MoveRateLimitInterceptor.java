@@ -0,0 +1,41 @@
+package com.multiplayer.tictactoe.ratelimit;
+
+import com.multiplayer.tictactoe.metrics.GameMetrics;
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Drops move frames from STOMP sessions that exceed their rate, on the inbound channel,
+ * before the payload is even deserialized or the move reaches a game lane
+ */
+@Component
+@RequiredArgsConstructor
+public class MoveRateLimitInterceptor implements ChannelInterceptor {
+
+    static final String MOVE_DESTINATION = "/app/game.makeMove";
+
+    private final MoveRateLimiter moveRateLimiter;
+
+    private final GameMetrics gameMetrics;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        if (SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) != SimpMessageType.MESSAGE
+                || !MOVE_DESTINATION.equals(SimpMessageHeaderAccessor.getDestination(message.getHeaders()))) {
+            return message;
+        }
+
+        if (moveRateLimiter.tryAcquireSession(SimpMessageHeaderAccessor.getSessionId(message.getHeaders()))) {
+            return message;
+        }
+
+        gameMetrics.recordRateLimited("session");
+        return null;
+    }
+
+}
@@ -0,0 +1,113 @@
+package com.multiplayer.tictactoe.ratelimit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token buckets limiting moves per STOMP session and per game.
+ * Session buckets are dropped on disconnect. Game buckets are swept once they have refilled,
+ * at most once per sweep interval and by whichever caller notices it is due.
+ */
+@Component
+public class MoveRateLimiter {
+
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private final LongSupplier nanoClock;
+
+    private final boolean enabled;
+
+    private final double sessionMovesPerSecond;
+
+    private final int sessionBurst;
+
+    private final double gameMovesPerSecond;
+
+    private final int gameBurst;
+
+    private final Map<String, TokenBucket> sessionBuckets = new ConcurrentHashMap<>();
+
+    private final Map<String, TokenBucket> gameBuckets = new ConcurrentHashMap<>();
+
+    private final AtomicLong lastSweep;
+
+    @Autowired
+    public MoveRateLimiter(@Value("${tictactoe.rate-limit.enabled:true}") boolean enabled,
+                           @Value("${tictactoe.rate-limit.session.moves-per-second:5}") double sessionMovesPerSecond,
+                           @Value("${tictactoe.rate-limit.session.burst:10}") int sessionBurst,
+                           @Value("${tictactoe.rate-limit.game.moves-per-second:10}") double gameMovesPerSecond,
+                           @Value("${tictactoe.rate-limit.game.burst:20}") int gameBurst) {
+        this(System::nanoTime, enabled, sessionMovesPerSecond, sessionBurst, gameMovesPerSecond, gameBurst);
+    }
+
+    /**
+     * Takes the time from the given nanosecond clock, so tests need not wait for buckets to refill
+     */
+    MoveRateLimiter(LongSupplier nanoClock, boolean enabled, double sessionMovesPerSecond, int sessionBurst,
+                    double gameMovesPerSecond, int gameBurst) {
+        this.nanoClock = nanoClock;
+        this.enabled = enabled;
+        this.sessionMovesPerSecond = sessionMovesPerSecond;
+        this.sessionBurst = sessionBurst;
+        this.gameMovesPerSecond = gameMovesPerSecond;
+        this.gameBurst = gameBurst;
+        this.lastSweep = new AtomicLong(nanoClock.getAsLong());
+    }
+
+    /**
+     * Takes a token for a move frame sent on the given STOMP session
+     */
+    public boolean tryAcquireSession(String stompSessionId) {
+        if (!enabled || stompSessionId == null) {
+            return true;
+        }
+        long now = nanoClock.getAsLong();
+        return sessionBuckets
+                .computeIfAbsent(stompSessionId, id -> new TokenBucket(sessionBurst, sessionMovesPerSecond, now))
+                .tryAcquire(now);
+    }
+
+    /**
+     * Takes a token for a move in the given game
+     */
+    public boolean tryAcquireGame(String gameId) {
+        if (!enabled || gameId == null) {
+            return true;
+        }
+        long now = nanoClock.getAsLong();
+        sweepIfDue(now);
+        return gameBuckets
+                .computeIfAbsent(gameId, id -> new TokenBucket(gameBurst, gameMovesPerSecond, now))
+                .tryAcquire(now);
+    }
+
+    /**
+     * Number of game buckets held, for tests of the sweep
+     */
+    int gameBucketCount() {
+        return gameBuckets.size();
+    }
+
+    @EventListener
+    public void onSessionDisconnected(SessionDisconnectEvent event) {
+        sessionBuckets.remove(event.getSessionId());
+    }
+
+    private void sweepIfDue(long now) {
+        long last = lastSweep.get();
+        if (now - last < SWEEP_INTERVAL_NANOS || !lastSweep.compareAndSet(last, now)) {
+            return;
+        }
+        gameBuckets.values().removeIf(bucket -> bucket.isFull(now));
+    }
+
+}
@@ -0,0 +1,78 @@
+package com.multiplayer.tictactoe.repository;
+
+import com.multiplayer.tictactoe.entity.redis.ActiveGame;
+import com.multiplayer.tictactoe.enums.MoveApplyResult;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Writes moves to the ActiveGame hash with a Lua script, so validation against the
+ * stored turn, cell and move count and the update itself happen in one atomic round trip.
+ * The same script appends each applied move to the game's move log stream.
+ * <p>
+ * The move is played in Java first, on the game as read through the near cache, since win detection
+ * and the open line counts need the decoded board. The script then only accepts it while the stored
+ * game is still at the move count it was played against.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ActiveGameMoveRepository {
+
+    private static final RedisScript<Long> APPLY_MOVE_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/apply_move.lua"), Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    /**
+     * Applies the in-memory state of a game after a move, as long as the stored game
+     * still expects the mover's turn at the given move count.
+     * When a channel is given, the script publishes the message on it after a successful write.
+     */
+    public MoveApplyResult applyMove(ActiveGame game, String moverSessionId, int row, int col, int expectedMoveCount,
+                                     String channel, String message) {
+        Long result = stringRedisTemplate.execute(
+                APPLY_MOVE_SCRIPT,
+                List.of(ActiveGameRepository.gameKey(game.getGameId()), ActiveGameRepository.moveLogKey(game.getGameId()),
+                        ActiveGameRepository.cellsKey(game.getGameId())),
+                moverSessionId,
+                String.valueOf(expectedMoveCount),
+                game.getStoredBoardState(),
+                game.getCurrentTurnSessionId(),
+                String.valueOf(game.getMoveCount()),
+                game.getStatus().name(),
+                game.getOpenLinesX() != null ? String.valueOf(game.getOpenLinesX()) : "",
+                game.getOpenLinesO() != null ? String.valueOf(game.getOpenLinesO()) : "",
+                String.valueOf(ActiveGameRepository.GAME_TIME_TO_LIVE_SECONDS),
+                channel != null ? channel : "",
+                message != null ? message : "",
+                String.valueOf(row * game.getBoardHorizontalSize() + col)
+        );
+
+        return MoveApplyResult.fromScriptResult(result);
+    }
+
+    /**
+     * Reads the cell index of every move of the game in the order played, empty once the game is gone
+     */
+    public int[] findMoves(String gameId) {
+        List<MapRecord<String, Object, Object>> records =
+                stringRedisTemplate.opsForStream().range(ActiveGameRepository.moveLogKey(gameId), Range.unbounded());
+        if (records == null) {
+            return new int[0];
+        }
+
+        int[] cells = new int[records.size()];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = Integer.parseInt((String) records.get(i).getValue().get("cell"));
+        }
+        return cells;
+    }
+
+}
@@ -1,9 +1,77 @@
 package com.multiplayer.tictactoe.repository;
 
 import com.multiplayer.tictactoe.entity.redis.ActiveGame;
-import org.springframework.data.repository.CrudRepository;
-import org.springframework.stereotype.Repository;
 
-@Repository
-public interface ActiveGameRepository extends CrudRepository<ActiveGame, String> {
+import java.util.Optional;
+
+/**
+ * Stores active games as one Redis hash per game under game:{gameId}.
+ * Field names are shared with the move script, see {@link ActiveGameMoveRepository},
+ * which also keeps the game's move log as a stream under game:{gameId}:moves
+ * and its occupied cells as a bitmap under game:{gameId}:cells.
+ * The braces are literal, a Redis Cluster hash tag that keeps the keys of a game in one slot for the move script.
+ */
+public interface ActiveGameRepository {
+
+    String GAME_KEY_PREFIX = "game:";
+
+    long GAME_TIME_TO_LIVE_SECONDS = 3600L;
+
+    // Finished games stay this long, so players who missed the last move can still sync the result
+    long FINISHED_GAME_TIME_TO_LIVE_SECONDS = 120L;
+
+    String MOVE_LOG_KEY_SUFFIX = ":moves";
+
+    String CELLS_KEY_SUFFIX = ":cells";
+
+    static String gameKey(String gameId) {
+        return GAME_KEY_PREFIX + "{" + gameId + "}";
+    }
+
+    static String moveLogKey(String gameId) {
+        return gameKey(gameId) + MOVE_LOG_KEY_SUFFIX;
+    }
+
+    static String cellsKey(String gameId) {
+        return gameKey(gameId) + CELLS_KEY_SUFFIX;
+    }
+
+    String FIELD_GAME_ID = "gameId";
+    String FIELD_BOARD_VERTICAL_SIZE = "boardVerticalSize";
+    String FIELD_BOARD_HORIZONTAL_SIZE = "boardHorizontalSize";
+    String FIELD_WIN_LENGTH = "winLength";
+    String FIELD_MOVE_COUNT = "moveCount";
+    String FIELD_OPEN_LINES_X = "openLinesX";
+    String FIELD_OPEN_LINES_O = "openLinesO";
+    String FIELD_BOARD_STATE = "boardState";
+    String FIELD_CURRENT_TURN_SESSION_ID = "currentTurnSessionId";
+    String FIELD_SESSION_ID_X = "sessionIdX";
+    String FIELD_SESSION_ID_O = "sessionIdO";
+    String FIELD_STATUS = "status";
+    String FIELD_CREATED_AT = "createdAt";
+    String FIELD_UPDATED_AT = "updatedAt";
+    String FIELD_HISTORY_SAVED = "historySaved";
+
+    Optional<ActiveGame> findById(String gameId);
+
+    /**
+     * Writes every field of the game and resets its time to live, assigning an id to new games
+     */
+    ActiveGame save(ActiveGame game);
+
+    /**
+     * Writes only the given fields of an existing game and resets its time to live
+     */
+    void update(ActiveGame game, String... fields);
+
+    /**
+     * Deletes the game together with its move log
+     */
+    void deleteById(String gameId);
+
+    /**
+     * Lets a finished game and its move log expire after {@link #FINISHED_GAME_TIME_TO_LIVE_SECONDS}
+     */
+    void expireFinished(String gameId);
+
 }
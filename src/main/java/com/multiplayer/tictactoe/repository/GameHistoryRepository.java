@@ -1,15 +1,49 @@
 package com.multiplayer.tictactoe.repository;
 
 import com.multiplayer.tictactoe.entity.jpa.GameHistory;
-import com.multiplayer.tictactoe.enums.GameStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface GameHistoryRepository extends JpaRepository<GameHistory, Long> {
-    List<GameHistory> findByUserIdXOrUserIdO(String userIdX, String userIdO);
-    List<GameHistory> findByStatus(GameStatus status);
-    List<GameHistory> findByUserIdXAndUserIdO(String userIdX, String userIdO);
+    /**
+     * Latest stored completion of a game. The game id alone does not name a partition, so this probes the
+     * (game_id, completed_at) index of every monthly partition, and since game_id is only unique together with
+     * completed_at, a game saved twice with different completion times has several rows.
+     */
+    Optional<GameHistory> findFirstByGameIdOrderByCompletedAtDesc(String gameId);
+
+    /**
+     * Page of a player's games completed before the given (completedAt, id), newest first.
+     * Each seat is read in order from its covering index and the two runs are merged, so a page costs
+     * at most 2 * limit index entries however many games the player has.
+     */
+    @Query(value = """
+            (SELECT id, game_id AS "gameId", user_id_x AS "userIdX", user_id_o AS "userIdO", status,
+                    winner_id AS "winnerId", board_vertical_size AS "boardVerticalSize",
+                    board_horizontal_size AS "boardHorizontalSize", completed_at AS "completedAt"
+             FROM game_history
+             WHERE user_id_x = :playerId AND (completed_at, id) < (:completedAt, :id)
+             ORDER BY completed_at DESC, id DESC
+             LIMIT :limit)
+            UNION ALL
+            (SELECT id, game_id, user_id_x, user_id_o, status, winner_id, board_vertical_size,
+                    board_horizontal_size, completed_at
+             FROM game_history
+             WHERE user_id_o = :playerId AND (completed_at, id) < (:completedAt, :id)
+             ORDER BY completed_at DESC, id DESC
+             LIMIT :limit)
+            ORDER BY "completedAt" DESC, id DESC
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<GameHistorySummary> findPlayerGamesBefore(@Param("playerId") String playerId,
+                                                   @Param("completedAt") LocalDateTime completedAt,
+                                                   @Param("id") long id,
+                                                   @Param("limit") int limit);
 }
\ No newline at end of file
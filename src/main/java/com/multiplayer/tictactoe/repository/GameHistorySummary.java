@@ -0,0 +1,30 @@
+package com.multiplayer.tictactoe.repository;
+
+import com.multiplayer.tictactoe.enums.GameStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Columns of a finished game held by the covering history indexes, so pages are read from the index alone
+ */
+public interface GameHistorySummary {
+
+    Long getId();
+
+    String getGameId();
+
+    String getUserIdX();
+
+    String getUserIdO();
+
+    GameStatus getStatus();
+
+    String getWinnerId();
+
+    int getBoardVerticalSize();
+
+    int getBoardHorizontalSize();
+
+    LocalDateTime getCompletedAt();
+
+}
@@ -0,0 +1,26 @@
+package com.multiplayer.tictactoe.repository;
+
+import com.multiplayer.tictactoe.entity.jpa.PlayerStats;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface PlayerStatsRepository extends JpaRepository<PlayerStats, String>, PlayerStatsRepositoryCustom {
+
+    /**
+     * Leaderboard page after the given entry, most wins first and ties by player id,
+     * read in order from idx_player_stats_leaderboard
+     */
+    @Query("""
+            select p from PlayerStats p
+            where p.wins < :wins or (p.wins = :wins and p.playerId > :playerId)
+            order by p.wins desc, p.playerId asc
+            """)
+    List<PlayerStats> findLeaderboardAfter(@Param("wins") int wins, @Param("playerId") String playerId, Limit limit);
+
+}
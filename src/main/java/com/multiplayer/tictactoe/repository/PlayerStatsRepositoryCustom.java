@@ -0,0 +1,15 @@
+package com.multiplayer.tictactoe.repository;
+
+import com.multiplayer.tictactoe.entity.jpa.GameHistory;
+
+import java.util.List;
+
+public interface PlayerStatsRepositoryCustom {
+
+    /**
+     * Adds the results of the finished games to both players' stats.
+     * Meant to run in the transaction that inserts the games, so each game is counted exactly once.
+     */
+    void recordGames(List<GameHistory> games);
+
+}
@@ -0,0 +1,77 @@
+package com.multiplayer.tictactoe.repository;
+
+import com.multiplayer.tictactoe.ai.AiOpponent;
+import com.multiplayer.tictactoe.entity.jpa.GameHistory;
+import com.multiplayer.tictactoe.enums.GameStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Upserts the stats of every player of a batch in one JDBC batch, one row per player.
+ * Players are written in id order, so writers on several instances lock rows in the same order.
+ */
+@RequiredArgsConstructor
+public class PlayerStatsRepositoryImpl implements PlayerStatsRepositoryCustom {
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO player_stats (player_id, wins, losses, draws, last_played_at)
+            VALUES (?, ?, ?, ?, ?)
+            ON CONFLICT (player_id) DO UPDATE SET
+                wins = player_stats.wins + EXCLUDED.wins,
+                losses = player_stats.losses + EXCLUDED.losses,
+                draws = player_stats.draws + EXCLUDED.draws,
+                last_played_at = GREATEST(player_stats.last_played_at, EXCLUDED.last_played_at)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void recordGames(List<GameHistory> games) {
+        Map<String, int[]> results = new TreeMap<>();
+        Map<String, LocalDateTime> lastPlayed = new TreeMap<>();
+
+        for (GameHistory game : games) {
+            record(results, lastPlayed, game.getUserIdX(), game, GameStatus.X_WON, GameStatus.O_WON);
+            record(results, lastPlayed, game.getUserIdO(), game, GameStatus.O_WON, GameStatus.X_WON);
+        }
+        if (results.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> rows = new ArrayList<>(results.size());
+        results.forEach((playerId, result) -> {
+            LocalDateTime playedAt = lastPlayed.get(playerId);
+            rows.add(new Object[]{playerId, result[0], result[1], result[2],
+                    playedAt != null ? Timestamp.valueOf(playedAt) : null});
+        });
+        jdbcTemplate.batchUpdate(UPSERT_SQL, rows);
+    }
+
+    private static void record(Map<String, int[]> results, Map<String, LocalDateTime> lastPlayed, String playerId,
+                               GameHistory game, GameStatus won, GameStatus lost) {
+        if (playerId == null || AiOpponent.AI_SESSION_ID.equals(playerId)) {
+            return;
+        }
+
+        int[] result = results.computeIfAbsent(playerId, id -> new int[3]);
+        if (game.getStatus() == won) {
+            result[0]++;
+        } else if (game.getStatus() == lost) {
+            result[1]++;
+        } else if (game.getStatus() == GameStatus.DRAW) {
+            result[2]++;
+        }
+
+        if (game.getCompletedAt() != null) {
+            lastPlayed.merge(playerId, game.getCompletedAt(), (a, b) -> a.isAfter(b) ? a : b);
+        }
+    }
+
+}
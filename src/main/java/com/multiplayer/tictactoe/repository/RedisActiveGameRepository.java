@@ -0,0 +1,175 @@
+package com.multiplayer.tictactoe.repository;
+
+import com.multiplayer.tictactoe.entity.redis.ActiveGame;
+import com.multiplayer.tictactoe.enums.GameStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Plain hash mapping of {@link ActiveGame}. Writes are a pipelined HSET and EXPIRE, reads a single HGETALL,
+ * without the index sets, phantom keys and keyspace events Spring Data repositories maintain.
+ */
+@Repository
+@RequiredArgsConstructor
+public class RedisActiveGameRepository implements ActiveGameRepository {
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    @Override
+    public Optional<ActiveGame> findById(String gameId) {
+        Map<String, String> hash = stringRedisTemplate.<String, String>opsForHash().entries(ActiveGameRepository.gameKey(gameId));
+
+        // A hash without its board size is a partial update that outlived the game, treat it as gone
+        if (hash.isEmpty() || !hash.containsKey(FIELD_BOARD_VERTICAL_SIZE)) {
+            return Optional.empty();
+        }
+        return Optional.of(fromHash(gameId, hash));
+    }
+
+    @Override
+    public ActiveGame save(ActiveGame game) {
+        if (game.getGameId() == null) {
+            game.setGameId(UUID.randomUUID().toString());
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        if (game.getCreatedAt() == null) {
+            game.setCreatedAt(now);
+        }
+        game.setUpdatedAt(now);
+
+        Map<String, String> hash = toHash(game);
+        List<String> cleared = new ArrayList<>();
+        for (Map.Entry<String, String> field : new ArrayList<>(hash.entrySet())) {
+            if (field.getValue() == null) {
+                cleared.add(field.getKey());
+                hash.remove(field.getKey());
+            }
+        }
+
+        write(game.getGameId(), hash, cleared);
+        return game;
+    }
+
+    @Override
+    public void update(ActiveGame game, String... fields) {
+        game.setUpdatedAt(LocalDateTime.now());
+
+        Map<String, String> hash = toHash(game);
+        Map<String, String> changed = new HashMap<>();
+        List<String> cleared = new ArrayList<>();
+        for (String field : fields) {
+            String value = hash.get(field);
+            if (value != null) {
+                changed.put(field, value);
+            } else {
+                cleared.add(field);
+            }
+        }
+        changed.put(FIELD_UPDATED_AT, hash.get(FIELD_UPDATED_AT));
+
+        write(game.getGameId(), changed, cleared);
+    }
+
+    @Override
+    public void deleteById(String gameId) {
+        stringRedisTemplate.delete(List.of(ActiveGameRepository.gameKey(gameId),
+                ActiveGameRepository.moveLogKey(gameId), ActiveGameRepository.cellsKey(gameId)));
+    }
+
+    @Override
+    public void expireFinished(String gameId) {
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection redis = (StringRedisConnection) connection;
+            redis.expire(ActiveGameRepository.gameKey(gameId), FINISHED_GAME_TIME_TO_LIVE_SECONDS);
+            redis.expire(ActiveGameRepository.moveLogKey(gameId), FINISHED_GAME_TIME_TO_LIVE_SECONDS);
+            redis.expire(ActiveGameRepository.cellsKey(gameId), FINISHED_GAME_TIME_TO_LIVE_SECONDS);
+            return null;
+        });
+    }
+
+    private void write(String gameId, Map<String, String> fields, List<String> cleared) {
+        String key = ActiveGameRepository.gameKey(gameId);
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection redis = (StringRedisConnection) connection;
+            redis.hMSet(key, fields);
+            if (!cleared.isEmpty()) {
+                redis.hDel(key, cleared.toArray(String[]::new));
+            }
+            redis.expire(key, GAME_TIME_TO_LIVE_SECONDS);
+            return null;
+        });
+    }
+
+    private Map<String, String> toHash(ActiveGame game) {
+        Map<String, String> hash = new HashMap<>();
+        hash.put(FIELD_GAME_ID, game.getGameId());
+        hash.put(FIELD_BOARD_VERTICAL_SIZE, String.valueOf(game.getBoardVerticalSize()));
+        hash.put(FIELD_BOARD_HORIZONTAL_SIZE, String.valueOf(game.getBoardHorizontalSize()));
+        hash.put(FIELD_WIN_LENGTH, String.valueOf(game.getWinLength()));
+        hash.put(FIELD_MOVE_COUNT, String.valueOf(game.getMoveCount()));
+        hash.put(FIELD_OPEN_LINES_X, toString(game.getOpenLinesX()));
+        hash.put(FIELD_OPEN_LINES_O, toString(game.getOpenLinesO()));
+        hash.put(FIELD_BOARD_STATE, game.getStoredBoardState());
+        hash.put(FIELD_CURRENT_TURN_SESSION_ID, game.getCurrentTurnSessionId());
+        hash.put(FIELD_SESSION_ID_X, game.getSessionIdX());
+        hash.put(FIELD_SESSION_ID_O, game.getSessionIdO());
+        hash.put(FIELD_STATUS, game.getStatus() != null ? game.getStatus().name() : null);
+        hash.put(FIELD_CREATED_AT, toString(game.getCreatedAt()));
+        hash.put(FIELD_UPDATED_AT, toString(game.getUpdatedAt()));
+        hash.put(FIELD_HISTORY_SAVED, game.isHistorySaved() ? "1" : "0");
+        return hash;
+    }
+
+    private ActiveGame fromHash(String gameId, Map<String, String> hash) {
+        ActiveGame game = new ActiveGame();
+        game.setGameId(gameId);
+        game.setBoardVerticalSize(toInt(hash.get(FIELD_BOARD_VERTICAL_SIZE)));
+        game.setBoardHorizontalSize(toInt(hash.get(FIELD_BOARD_HORIZONTAL_SIZE)));
+        game.setWinLength(toInt(hash.get(FIELD_WIN_LENGTH)));
+        game.setMoveCount(toInt(hash.get(FIELD_MOVE_COUNT)));
+        game.setOpenLinesX(toInteger(hash.get(FIELD_OPEN_LINES_X)));
+        game.setOpenLinesO(toInteger(hash.get(FIELD_OPEN_LINES_O)));
+        game.setStoredBoardState(hash.get(FIELD_BOARD_STATE));
+        game.setCurrentTurnSessionId(hash.get(FIELD_CURRENT_TURN_SESSION_ID));
+        game.setSessionIdX(hash.get(FIELD_SESSION_ID_X));
+        game.setSessionIdO(hash.get(FIELD_SESSION_ID_O));
+
+        String status = hash.get(FIELD_STATUS);
+        game.setStatus(status != null ? GameStatus.valueOf(status) : null);
+
+        String createdAt = hash.get(FIELD_CREATED_AT);
+        game.setCreatedAt(createdAt != null ? LocalDateTime.parse(createdAt) : null);
+        String updatedAt = hash.get(FIELD_UPDATED_AT);
+        game.setUpdatedAt(updatedAt != null ? LocalDateTime.parse(updatedAt) : null);
+
+        // Spring Data stored booleans as 1/0
+        String historySaved = hash.get(FIELD_HISTORY_SAVED);
+        game.setHistorySaved("1".equals(historySaved) || "true".equalsIgnoreCase(historySaved));
+        return game;
+    }
+
+    private static String toString(Object value) {
+        return value != null ? value.toString() : null;
+    }
+
+    private static int toInt(String value) {
+        return value != null ? Integer.parseInt(value) : 0;
+    }
+
+    private static Integer toInteger(String value) {
+        return value != null && !value.isEmpty() ? Integer.valueOf(value) : null;
+    }
+
+}
@@ -0,0 +1,16 @@
+package com.multiplayer.tictactoe.service;
+
+import com.multiplayer.tictactoe.dto.response.GameReplayRes;
+
+import java.util.Optional;
+
+public interface GameReplayService {
+
+    /**
+     * Replays a finished game from its stored move list, or a live game from its move log in Redis.
+     * The board is rebuilt after moveNumber moves, or after the last move when it is null.
+     * Empty when the game is unknown or was stored before move lists were kept.
+     */
+    Optional<GameReplayRes> replay(String gameId, Integer moveNumber);
+
+}
@@ -1,7 +1,10 @@
 package com.multiplayer.tictactoe.service;
 
 import com.multiplayer.tictactoe.dto.request.CreateOrJoinGameReq;
+import com.multiplayer.tictactoe.dto.request.HintReq;
 import com.multiplayer.tictactoe.dto.request.MakeMoveReq;
+import com.multiplayer.tictactoe.dto.request.SpectateGameReq;
+import com.multiplayer.tictactoe.dto.request.SyncGameReq;
 
 public interface GameService {
 
@@ -9,4 +12,29 @@ public interface GameService {
     
     void makeMove(MakeMoveReq request);
 
+    /**
+     * Rejects a move from someone not seated in the game, or off its board, before it is queued.
+     * Everything else is left to {@link #makeMove}.
+     */
+    void precheckMove(MakeMoveReq request);
+
+    void syncGame(SyncGameReq request);
+
+    /**
+     * Sends a snapshot of a game this instance does not follow to a spectator,
+     * later frames arrive on the game's spectate topic
+     */
+    void spectateGame(SpectateGameReq request);
+
+    /**
+     * Sends the perfect-play move and the value of the position to the player whose turn it is,
+     * in games against the computer on boards covered by a tablebase
+     */
+    void hint(HintReq request);
+
+    /**
+     * Starts a game between two players paired by matchmaking and notifies both of them
+     */
+    void startMatchedGame(String sessionIdA, String sessionIdB, int boardVerticalSize, int boardHorizontalSize, int winLength);
+
 }
@@ -0,0 +1,18 @@
+package com.multiplayer.tictactoe.service;
+
+import com.multiplayer.tictactoe.dto.request.QuickPlayReq;
+
+public interface MatchmakingService {
+
+    /**
+     * Queues a player for a game with the requested board, stompSessionId is used to drop them on disconnect.
+     * A player already waiting in any queue is rejected.
+     */
+    void enqueue(QuickPlayReq request, String stompSessionId);
+
+    /**
+     * Takes the player queued through the given STOMP session out of their queue
+     */
+    void leave(String stompSessionId);
+
+}
@@ -0,0 +1,32 @@
+package com.multiplayer.tictactoe.service;
+
+import com.multiplayer.tictactoe.dto.response.RatingRes;
+import com.multiplayer.tictactoe.entity.jpa.GameHistory;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Elo ratings kept in Redis sorted sets, one global leaderboard and one per board size.
+ * A board is given as "ROWSxCOLS", e.g. "3x3", or null for the global leaderboard.
+ * Players are named and looked up by their handle, see {@link com.multiplayer.tictactoe.utils.PlayerHandles}.
+ */
+public interface RatingService {
+
+    /**
+     * Rates finished games that were just saved, in the order given. Games against the computer are not rated.
+     */
+    void recordGames(List<GameHistory> games);
+
+    List<RatingRes> getTopPlayers(String board, int limit);
+
+    Optional<RatingRes> getPlayerRating(String playerId, String board);
+
+    /**
+     * Rebuilds every leaderboard from game_history and swaps it in for the live one
+     *
+     * @return the number of games rated
+     */
+    long recompute();
+
+}
@@ -0,0 +1,28 @@
+package com.multiplayer.tictactoe.service;
+
+import com.multiplayer.tictactoe.dto.response.CursorPageRes;
+import com.multiplayer.tictactoe.dto.response.GameSummaryRes;
+import com.multiplayer.tictactoe.dto.response.PlayerStatsRes;
+
+import java.util.Optional;
+
+/**
+ * Player stats and leaderboards, paged by keyset so every page costs the same however deep it is.
+ * Cursors are opaque, a malformed one is rejected with an IllegalArgumentException.
+ * Players are named and looked up by their handle, see {@link com.multiplayer.tictactoe.utils.PlayerHandles}.
+ */
+public interface StatsService {
+
+    Optional<PlayerStatsRes> getPlayerStats(String playerId);
+
+    /**
+     * A player's finished games, newest first
+     */
+    CursorPageRes<GameSummaryRes> getPlayerGames(String playerId, String cursor, int limit);
+
+    /**
+     * Players by wins, most first
+     */
+    CursorPageRes<PlayerStatsRes> getLeaderboard(String cursor, int limit);
+
+}
@@ -0,0 +1,77 @@
+package com.multiplayer.tictactoe.service.impl;
+
+import com.multiplayer.tictactoe.cache.ActiveGameCache;
+import com.multiplayer.tictactoe.dto.response.GameReplayRes;
+import com.multiplayer.tictactoe.entity.jpa.GameHistory;
+import com.multiplayer.tictactoe.enums.GameStatus;
+import com.multiplayer.tictactoe.repository.GameHistoryRepository;
+import com.multiplayer.tictactoe.service.GameReplayService;
+import com.multiplayer.tictactoe.utils.BitBoard;
+import com.multiplayer.tictactoe.utils.MoveListCodec;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+@Service
+@RequiredArgsConstructor
+public class GameReplayServiceImpl implements GameReplayService {
+
+    private final GameHistoryRepository gameHistoryRepository;
+
+    private final ActiveGameCache activeGameCache;
+
+    @Override
+    public Optional<GameReplayRes> replay(String gameId, Integer moveNumber) {
+        Optional<GameHistory> history = gameHistoryRepository.findFirstByGameIdOrderByCompletedAtDesc(gameId);
+        if (history.isPresent()) {
+            GameHistory game = history.get();
+            if (game.getMoveList() == null) {
+                return Optional.empty();
+            }
+
+            GameReplayRes replay = new GameReplayRes();
+            replay.setGameId(game.getGameId());
+            replay.setStatus(game.getStatus());
+            replay.setWinner(winnerOf(game.getStatus()));
+            replay.setWinLength(game.getWinLength());
+            return Optional.of(withMoves(replay, MoveListCodec.decode(game.getMoveList()),
+                    game.getBoardVerticalSize(), game.getBoardHorizontalSize(), moveNumber));
+        }
+
+        return activeGameCache.findById(gameId).map(game -> {
+            GameReplayRes replay = new GameReplayRes();
+            replay.setGameId(game.getGameId());
+            replay.setStatus(game.getStatus());
+            replay.setWinner(game.winnerSymbol());
+            replay.setWinLength(game.getWinLength());
+            return withMoves(replay, activeGameCache.findMoves(gameId),
+                    game.getBoardVerticalSize(), game.getBoardHorizontalSize(), moveNumber);
+        });
+    }
+
+    private static Character winnerOf(GameStatus status) {
+        if (status == GameStatus.X_WON) {
+            return BitBoard.PLAYER_X;
+        }
+        return status == GameStatus.O_WON ? BitBoard.PLAYER_O : null;
+    }
+
+    private GameReplayRes withMoves(GameReplayRes replay, int[] cells, int rows, int cols, Integer moveNumber) {
+        List<String> moves = new ArrayList<>(cells.length);
+        for (int cell : cells) {
+            moves.add((cell / cols) + "," + (cell % cols));
+        }
+
+        int replayed = moveNumber == null ? cells.length : Math.max(0, Math.min(moveNumber, cells.length));
+        replay.setBoardVerticalSize(rows);
+        replay.setBoardHorizontalSize(cols);
+        replay.setMoves(moves);
+        replay.setMoveNumber(replayed);
+        replay.setBoardState(MoveListCodec.replay(cells, replayed, rows, cols).toPositionMap());
+        return replay;
+    }
+
+}
@@ -1,88 +1,243 @@
 package com.multiplayer.tictactoe.service.impl;
 
+import com.multiplayer.tictactoe.ai.AiOpponent;
+import com.multiplayer.tictactoe.ai.TablebaseEntry;
+import com.multiplayer.tictactoe.ai.TablebaseRegistry;
+import com.multiplayer.tictactoe.cache.ActiveGameCache;
+import com.multiplayer.tictactoe.cache.MoveSnapshot;
 import com.multiplayer.tictactoe.dto.request.CreateOrJoinGameReq;
+import com.multiplayer.tictactoe.dto.request.HintReq;
 import com.multiplayer.tictactoe.dto.request.MakeMoveReq;
-import com.multiplayer.tictactoe.dto.response.GameStartedRes;
+import com.multiplayer.tictactoe.dto.request.SpectateGameReq;
+import com.multiplayer.tictactoe.dto.request.SyncGameReq;
+import com.multiplayer.tictactoe.dto.response.HintRes;
 import com.multiplayer.tictactoe.dto.response.MakeMoveRes;
 import com.multiplayer.tictactoe.entity.jpa.GameHistory;
 import com.multiplayer.tictactoe.entity.redis.ActiveGame;
 import com.multiplayer.tictactoe.enums.GameStatus;
+import com.multiplayer.tictactoe.enums.MovePhase;
+import com.multiplayer.tictactoe.enums.MoveApplyResult;
 import com.multiplayer.tictactoe.exception.GameErrorType;
 import com.multiplayer.tictactoe.exception.GameException;
+import com.multiplayer.tictactoe.history.GameHistoryWriter;
 import com.multiplayer.tictactoe.mapper.GameMapper;
+import com.multiplayer.tictactoe.metrics.GameMetrics;
 import com.multiplayer.tictactoe.repository.ActiveGameRepository;
-import com.multiplayer.tictactoe.repository.GameHistoryRepository;
 import com.multiplayer.tictactoe.service.GameService;
+import com.multiplayer.tictactoe.spectate.SpectatorPublisher;
 import com.multiplayer.tictactoe.utils.GameEngine;
-import lombok.RequiredArgsConstructor;
+import com.multiplayer.tictactoe.utils.MoveListCodec;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 
 import java.util.Random;
 
 @Service
-@RequiredArgsConstructor
 public class GameServiceImpl implements GameService {
 
+    private static final int MAX_MOVE_ATTEMPTS = 2;
+
     private final SimpMessagingTemplate simpMessagingTemplate;
 
-    private final GameHistoryRepository gameHistoryRepository;
-    private final ActiveGameRepository activeGameRepository;
+    private final GameHistoryWriter gameHistoryWriter;
+    private final ActiveGameCache activeGameCache;
 
     private final GameEngine gameEngine;
 
     private final GameMapper gameMapper;
 
+    private final GameMetrics gameMetrics;
+
+    private final AiOpponent aiOpponent;
+
+    private final TablebaseRegistry tablebaseRegistry;
+
+    private final SpectatorPublisher spectatorPublisher;
+
+    private final boolean deltaMoves;
+
+    private final int maxBoardSize;
+
+    public GameServiceImpl(SimpMessagingTemplate simpMessagingTemplate,
+                           GameHistoryWriter gameHistoryWriter,
+                           ActiveGameCache activeGameCache,
+                           GameEngine gameEngine,
+                           GameMapper gameMapper,
+                           GameMetrics gameMetrics,
+                           AiOpponent aiOpponent,
+                           TablebaseRegistry tablebaseRegistry,
+                           SpectatorPublisher spectatorPublisher,
+                           @Value("${tictactoe.protocol.delta-moves:true}") boolean deltaMoves,
+                           @Value("${tictactoe.game.max-board-size:100}") int maxBoardSize) {
+        this.simpMessagingTemplate = simpMessagingTemplate;
+        this.gameHistoryWriter = gameHistoryWriter;
+        this.activeGameCache = activeGameCache;
+        this.gameEngine = gameEngine;
+        this.gameMapper = gameMapper;
+        this.gameMetrics = gameMetrics;
+        this.aiOpponent = aiOpponent;
+        this.tablebaseRegistry = tablebaseRegistry;
+        this.spectatorPublisher = spectatorPublisher;
+        this.deltaMoves = deltaMoves;
+        this.maxBoardSize = maxBoardSize;
+    }
+
     public void createOrJoinGame(CreateOrJoinGameReq request, String userId) {
         if (request.getGameId() == null || request.getGameId().trim().isEmpty()) {
             ActiveGame game = createGame(request, request.getSessionId());
-            GameStartedRes gameStartedRes = gameMapper.toGameStartedRes(game);
 
-            sendWebSocketMessage(request.getSessionId(), gameStartedRes);
+            sendWebSocketMessage(request.getSessionId(), gameMapper.toGameStartedRes(game, request.getSessionId()));
+            spectatorPublisher.publishState(game);
+            aiOpponent.playIfOnTurn(game, this::makeMove);
         } else {
             ActiveGame game = joinGame(request, request.getSessionId());
 
             if (game.getStatus() == GameStatus.IN_PROGRESS) {
-                GameStartedRes gameStartedRes = gameMapper.toGameStartedRes(game);
-
-                sendWebSocketMessage(game.getSessionIdX(), gameStartedRes);
-                sendWebSocketMessage(game.getSessionIdO(), gameStartedRes);
+                // The creator may not be subscribed to the game topic yet, so the start goes to each player directly
+                sendGameStarted(game);
+                spectatorPublisher.publishState(game);
             }
         }
     }
 
     @Override
     public void makeMove(MakeMoveReq request) {
-        ActiveGame game = activeGameRepository.findById(request.getGameId())
-                .orElseThrow(() -> new GameException(GameErrorType.GAME_NOT_FOUND, request.getSessionId()));
+        long startedAt = System.nanoTime();
+        ActiveGame game = applyMove(request);
+
+        long broadcastStartedAt = System.nanoTime();
+        try {
+            publishMove(request, game);
+        } finally {
+            gameMetrics.recordMovePhase(MovePhase.BROADCAST, broadcastStartedAt);
+            gameMetrics.recordMove(startedAt);
+        }
 
-        if (gameEngine.isIllegalMove(game, request.getSessionId(), request.getRow(), request.getCol())) {
-            throw new GameException(GameErrorType.ILLEGAL_MOVE, request.getSessionId());
+        aiOpponent.playIfOnTurn(game, this::makeMove);
+    }
+
+    /**
+     * Runs on the inbound thread, next to the game lane that may be writing the same game,
+     * so it reads the immutable move snapshot the cache published with the last write.
+     * The snapshot may be older than the game in Redis, so only what can never become legal is rejected here,
+     * turn, status and occupancy are checked on the lane and by the move script.
+     */
+    @Override
+    public void precheckMove(MakeMoveReq request) {
+        MoveSnapshot snapshot = activeGameCache.peekMoveSnapshot(request.getGameId());
+        if (snapshot == null || (snapshot.hasOpenSeat() && !snapshot.isPlayer(request.getSessionId()))) {
+            // Not held here, or the seat may have been taken through another instance since
+            snapshot = activeGameCache.loadMoveSnapshot(request.getGameId())
+                    .orElseThrow(() -> new GameException(GameErrorType.GAME_NOT_FOUND, request.getSessionId()));
         }
 
-        gameEngine.makeMove(game, request.getSessionId(), request.getRow(), request.getCol());
+        if (!snapshot.isPlayer(request.getSessionId()) || snapshot.isOffBoard(request.getRow(), request.getCol())) {
+            throw new GameException(GameErrorType.ILLEGAL_MOVE, request.getSessionId());
+        }
+    }
 
-        Character winner = gameEngine.checkWinCondition(game, request.getRow(), request.getCol());
-        if (winner != null) {
-            handleWinCondition(request, winner, game);
+    private void publishMove(MakeMoveReq request, ActiveGame game) {
+        if (game.getStatus() == GameStatus.X_WON || game.getStatus() == GameStatus.O_WON) {
+            handleWinCondition(request, game.getStatus() == GameStatus.X_WON ? 'X' : 'O', game);
             return;
         }
 
-        if (gameEngine.checkDrawCondition(game)) {
+        if (game.getStatus() == GameStatus.DRAW) {
             handleDrawCondition(request, game);
             return;
         }
 
-        game = activeGameRepository.save(game);
-        MakeMoveRes moveRes = gameMapper.toMakeMoveResWithNextPlayer(game, request, null);
-        sendWebSocketMessage(game.getSessionIdX(), moveRes);
-        sendWebSocketMessage(game.getSessionIdO(), moveRes);
+        MakeMoveRes moveRes = toMoveRes(gameMapper.toMakeMoveRes(game, request), game);
+        sendGameMessage(game.getGameId(), moveRes);
+        spectatorPublisher.publishMove(game, moveRes);
+    }
+
+    /**
+     * Sends a snapshot of the game, finished games included while they are kept, see
+     * {@link ActiveGameRepository#FINISHED_GAME_TIME_TO_LIVE_SECONDS}
+     */
+    @Override
+    public void syncGame(SyncGameReq request) {
+        ActiveGame game = activeGameCache.findById(request.getGameId())
+                .orElseThrow(() -> new GameException(GameErrorType.GAME_NOT_FOUND, request.getSessionId()));
+
+        // Anyone else asking gets what spectators see, without the players' session ids
+        if (game.symbolOf(request.getSessionId()) == null) {
+            sendWebSocketMessage(request.getSessionId(), gameMapper.toSpectatorSnapshotRes(game));
+            return;
+        }
+        sendWebSocketMessage(request.getSessionId(), gameMapper.toGameSnapshotRes(game, request.getSessionId()));
+
+        // Picks up an AI game whose move was lost, pending searches are not started twice
+        aiOpponent.playIfOnTurn(game, this::makeMove);
+    }
+
+    @Override
+    public void spectateGame(SpectateGameReq request) {
+        ActiveGame game = activeGameCache.findById(request.getGameId())
+                .orElseThrow(() -> new GameException(GameErrorType.GAME_NOT_FOUND, request.getSessionId()));
+
+        sendWebSocketMessage(request.getSessionId(), gameMapper.toSpectatorSnapshotRes(game));
+    }
+
+    @Override
+    public void hint(HintReq request) {
+        ActiveGame game = activeGameCache.findById(request.getGameId())
+                .orElseThrow(() -> new GameException(GameErrorType.GAME_NOT_FOUND, request.getSessionId()));
+
+        // Perfect-play hints would decide games between two people, they are only given against the computer
+        if (game.getStatus() != GameStatus.IN_PROGRESS || !AiOpponent.isAiGame(game)
+                || !request.getSessionId().equals(game.getCurrentTurnSessionId())) {
+            throw new GameException(GameErrorType.HINT_UNAVAILABLE, request.getSessionId());
+        }
+
+        TablebaseEntry entry = tablebaseRegistry.lookup(game.getBoard(), gameEngine.getWinLength(game));
+        if (entry == null) {
+            throw new GameException(GameErrorType.HINT_UNAVAILABLE, request.getSessionId());
+        }
+
+        gameMetrics.recordTablebaseHit("hint");
+        sendWebSocketMessage(request.getSessionId(),
+                new HintRes(game.getGameId(), entry.row(), entry.col(), entry.value(), entry.movesToEnd()));
+    }
+
+    @Override
+    public void startMatchedGame(String sessionIdA, String sessionIdB,
+                                 int boardVerticalSize, int boardHorizontalSize, int winLength) {
+        ActiveGame game = new ActiveGame();
+        game.setBoardVerticalSize(boardVerticalSize);
+        game.setBoardHorizontalSize(boardHorizontalSize);
+        game.setWinLength(winLength);
+        gameEngine.initializeCounters(game);
+
+        boolean aPlaysX = new Random().nextBoolean();
+        game.setSessionIdX(aPlaysX ? sessionIdA : sessionIdB);
+        game.setSessionIdO(aPlaysX ? sessionIdB : sessionIdA);
+        game.setCurrentTurnSessionId(game.getSessionIdX());
+        game.setStatus(GameStatus.IN_PROGRESS);
+
+        game = activeGameCache.save(game);
+        gameMetrics.gameStatusChanged(null, GameStatus.IN_PROGRESS);
+
+        sendGameStarted(game);
+        spectatorPublisher.publishState(game);
     }
 
     private ActiveGame createGame(CreateOrJoinGameReq request, String sessionId) {
+        // Checked before anything is sized from the request, cells and line counts are ints
+        int rows = request.getBoardVerticalSize();
+        int cols = request.getBoardHorizontalSize();
+        if (rows < 3 || cols < 3 || rows > maxBoardSize || cols > maxBoardSize) {
+            throw new GameException(GameErrorType.INVALID_BOARD_SIZE, sessionId);
+        }
+
         ActiveGame game = new ActiveGame();
         game.setBoardVerticalSize(request.getBoardVerticalSize());
         game.setBoardHorizontalSize(request.getBoardHorizontalSize());
+        game.setWinLength(gameEngine.resolveWinLength(request.getWinLength(),
+                request.getBoardVerticalSize(), request.getBoardHorizontalSize()));
+        gameEngine.initializeCounters(game);
 
         Random random = new Random();
         int randomNumber = random.nextInt(2);
@@ -96,11 +251,24 @@ public class GameServiceImpl implements GameService {
 
         game.setStatus(GameStatus.WAITING);
 
-        return activeGameRepository.save(game);
+        // Against the AI the game starts right away, X moves first
+        if (request.isAiOpponent()) {
+            if (game.getSessionIdX() == null) {
+                game.setSessionIdX(AiOpponent.AI_SESSION_ID);
+            } else {
+                game.setSessionIdO(AiOpponent.AI_SESSION_ID);
+            }
+            game.setCurrentTurnSessionId(game.getSessionIdX());
+            game.setStatus(GameStatus.IN_PROGRESS);
+        }
+
+        game = activeGameCache.save(game);
+        gameMetrics.gameStatusChanged(null, game.getStatus());
+        return game;
     }
 
     private ActiveGame joinGame(CreateOrJoinGameReq request, String sessionId) {
-        ActiveGame game = activeGameRepository.findById(request.getGameId())
+        ActiveGame game = activeGameCache.findById(request.getGameId())
                 .orElseThrow(() -> new GameException(GameErrorType.GAME_NOT_FOUND, sessionId));
 
         // Validate game state
@@ -132,53 +300,128 @@ public class GameServiceImpl implements GameService {
         game.setStatus(GameStatus.IN_PROGRESS);
         game.setCurrentTurnSessionId(game.getSessionIdX());
 
-        return activeGameRepository.save(game);
+        activeGameCache.update(game, ActiveGameRepository.FIELD_SESSION_ID_X, ActiveGameRepository.FIELD_SESSION_ID_O,
+                ActiveGameRepository.FIELD_STATUS, ActiveGameRepository.FIELD_CURRENT_TURN_SESSION_ID);
+        gameMetrics.gameStatusChanged(GameStatus.WAITING, GameStatus.IN_PROGRESS);
+        return game;
     }
 
-    private void handleWinCondition(MakeMoveReq request, Character winner, ActiveGame game) {
-        if (winner == 'X') {
-            game.setStatus(GameStatus.X_WON);
-        } else {
-            game.setStatus(GameStatus.O_WON);
-        }
+    /**
+     * Validates and plays the move on the cached game, then writes it atomically.
+     * A conflict means the cached copy was stale, so the move is retried once against the game reloaded from Redis.
+     */
+    private ActiveGame applyMove(MakeMoveReq request) {
+        for (int attempt = 1; ; attempt++) {
+            long phaseStartedAt = System.nanoTime();
+            ActiveGame game = activeGameCache.findById(request.getGameId())
+                    .orElseThrow(() -> new GameException(GameErrorType.GAME_NOT_FOUND, request.getSessionId()));
+            phaseStartedAt = gameMetrics.recordMovePhase(MovePhase.LOAD, phaseStartedAt);
+
+            if (gameEngine.isIllegalMove(game, request.getSessionId(), request.getRow(), request.getCol())) {
+                throw new GameException(GameErrorType.ILLEGAL_MOVE, request.getSessionId());
+            }
+            phaseStartedAt = gameMetrics.recordMovePhase(MovePhase.VALIDATE, phaseStartedAt);
 
-        game = activeGameRepository.save(game);
+            int expectedMoveCount = game.getMoveCount();
+            gameEngine.makeMove(game, request.getSessionId(), request.getRow(), request.getCol());
+            phaseStartedAt = gameMetrics.recordMovePhase(MovePhase.APPLY, phaseStartedAt);
 
-        String winnerSessionId = winner == 'X' ? game.getSessionIdX() : game.getSessionIdO();
-        MakeMoveRes moveRes = gameMapper.toMakeMoveResNoNextPlayer(game, request, winnerSessionId);
+            Character winner = gameEngine.checkWinCondition(game, request.getRow(), request.getCol());
+            if (winner != null) {
+                game.setStatus(winner == 'X' ? GameStatus.X_WON : GameStatus.O_WON);
+            } else if (gameEngine.checkDrawCondition(game)) {
+                game.setStatus(GameStatus.DRAW);
+            }
+            phaseStartedAt = gameMetrics.recordMovePhase(MovePhase.WIN_CHECK, phaseStartedAt);
 
-        sendWebSocketMessage(game.getSessionIdX(), moveRes);
-        sendWebSocketMessage(game.getSessionIdO(), moveRes);
+            MoveApplyResult result = activeGameCache.applyMove(game, request.getSessionId(),
+                    request.getRow(), request.getCol(), expectedMoveCount);
+            gameMetrics.recordMovePhase(MovePhase.SAVE, phaseStartedAt);
+            if (result == MoveApplyResult.APPLIED) {
+                return game;
+            }
 
-        if (Boolean.FALSE.equals(game.isHistorySaved())) {
-            game.setHistorySaved(true);
-            GameHistory gameHistory = gameMapper.toGameHistoryEntity(game, winnerSessionId);
-            gameHistoryRepository.save(gameHistory);
+            if (result == MoveApplyResult.NOT_FOUND) {
+                throw new GameException(GameErrorType.GAME_NOT_FOUND, request.getSessionId());
+            }
+
+            if (attempt >= MAX_MOVE_ATTEMPTS) {
+                throw new GameException(GameErrorType.ILLEGAL_MOVE, request.getSessionId());
+            }
         }
+    }
+
+    private void handleWinCondition(MakeMoveReq request, Character winner, ActiveGame game) {
+        String winnerSessionId = winner == 'X' ? game.getSessionIdX() : game.getSessionIdO();
+        MakeMoveRes moveRes = toMoveRes(gameMapper.toMakeMoveRes(game, request), game);
+
+        sendGameMessage(game.getGameId(), moveRes);
+        spectatorPublisher.publishMove(game, moveRes);
+
+        saveHistory(game, winnerSessionId);
 
-        activeGameRepository.deleteById(game.getGameId());
+        activeGameCache.expireFinished(game.getGameId());
+        gameMetrics.gameStatusChanged(GameStatus.IN_PROGRESS, game.getStatus());
     }
 
     private void handleDrawCondition(MakeMoveReq request, ActiveGame game) {
-        game.setStatus(GameStatus.DRAW);
-        game = activeGameRepository.save(game);
+        MakeMoveRes moveRes = toMoveRes(gameMapper.toMakeMoveRes(game, request), game);
 
-        MakeMoveRes moveRes = gameMapper.toMakeMoveResNoNextPlayer(game, request, null);
+        sendGameMessage(game.getGameId(), moveRes);
+        spectatorPublisher.publishMove(game, moveRes);
 
-        sendWebSocketMessage(game.getSessionIdX(), moveRes);
-        sendWebSocketMessage(game.getSessionIdO(), moveRes);
+        saveHistory(game, null);
 
+        activeGameCache.expireFinished(game.getGameId());
+        gameMetrics.gameStatusChanged(GameStatus.IN_PROGRESS, game.getStatus());
+    }
+
+    /**
+     * Queues the finished game for persistence with its move log, read before the game is deleted from Redis
+     */
+    private void saveHistory(ActiveGame game, String winnerSessionId) {
         if (Boolean.FALSE.equals(game.isHistorySaved())) {
             game.setHistorySaved(true);
-            GameHistory gameHistory = gameMapper.toGameHistoryEntity(game, null);
-            gameHistoryRepository.save(gameHistory);
+            GameHistory gameHistory = gameMapper.toGameHistoryEntity(game, winnerSessionId);
+            gameHistory.setMoveList(MoveListCodec.encode(activeGameCache.findMoves(game.getGameId())));
+            gameHistoryWriter.submit(gameHistory);
         }
+    }
 
-        activeGameRepository.deleteById(game.getGameId());
+    /**
+     * Attaches the full board unless moves are broadcast as deltas only
+     */
+    private MakeMoveRes toMoveRes(MakeMoveRes moveRes, ActiveGame game) {
+        if (!deltaMoves) {
+            moveRes.setBoardState(game.getBoardState());
+        }
+        return moveRes;
     }
 
+    /**
+     * Sends the game start to each player, telling them their own symbol
+     */
+    private void sendGameStarted(ActiveGame game) {
+        sendWebSocketMessage(game.getSessionIdX(), gameMapper.toGameStartedRes(game, game.getSessionIdX()));
+        sendWebSocketMessage(game.getSessionIdO(), gameMapper.toGameStartedRes(game, game.getSessionIdO()));
+    }
+
+    /**
+     * Sends a private message, like a creation acknowledgement or a snapshot, to one session
+     */
     private void sendWebSocketMessage(String sessionId, Object payload) {
-        simpMessagingTemplate.convertAndSend("/topic/session/" + sessionId, payload);
+        long startedAt = System.nanoTime();
+        simpMessagingTemplate.convertAndSend("/topic/session." + sessionId, payload);
+        gameMetrics.recordSend("session", startedAt);
+    }
+
+    /**
+     * Sends a game event once to both players, spectators get theirs from {@link SpectatorPublisher}
+     */
+    private void sendGameMessage(String gameId, Object payload) {
+        long startedAt = System.nanoTime();
+        simpMessagingTemplate.convertAndSend("/topic/game." + gameId, payload);
+        gameMetrics.recordSend("game", startedAt);
     }
 
 }
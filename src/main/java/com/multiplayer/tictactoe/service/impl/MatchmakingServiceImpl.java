@@ -0,0 +1,203 @@
+package com.multiplayer.tictactoe.service.impl;
+
+import com.multiplayer.tictactoe.config.WebSocketExceptionHandler;
+import com.multiplayer.tictactoe.dto.request.QuickPlayReq;
+import com.multiplayer.tictactoe.exception.GameErrorType;
+import com.multiplayer.tictactoe.exception.GameException;
+import com.multiplayer.tictactoe.metrics.GameMetrics;
+import com.multiplayer.tictactoe.service.GameService;
+import com.multiplayer.tictactoe.service.MatchmakingService;
+import com.multiplayer.tictactoe.utils.GameEngine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Quick play queues in Redis, one sorted set per board size and win length scored by enqueue time.
+ * Every instance runs the pairing pass, popping the longest waiting players two at a time with a Lua script,
+ * so queues are shared across instances and no player is matched twice.
+ * A hash of waiting players keeps a session in at most one queue at a time.
+ */
+@Slf4j
+@Service
+public class MatchmakingServiceImpl implements MatchmakingService {
+
+    // Hash tagged so the pairing script's queue and queue set share a Redis Cluster slot
+    static final String QUEUE_KEY_PREFIX = "{matchmaking}:queue:";
+
+    static final String QUEUES_KEY = "{matchmaking}:queues";
+
+    static final String QUEUED_KEY = "{matchmaking}:queued";
+
+    static final RedisScript<Long> ENQUEUE_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/enqueue_player.lua"), Long.class);
+
+    static final RedisScript<Long> LEAVE_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/leave_queue.lua"), Long.class);
+
+    private static final RedisScript<List> POP_MATCHES_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/pop_matches.lua"), List.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final GameService gameService;
+
+    private final GameEngine gameEngine;
+
+    private final GameMetrics gameMetrics;
+
+    private final WebSocketExceptionHandler webSocketExceptionHandler;
+
+    private final int maxBoardSize;
+
+    private final int maxPairsPerPass;
+
+    private final long maxWaitMillis;
+
+    // Queue key and session id of players queued through this instance, by STOMP session
+    private final Map<String, QueuedPlayer> queuedPlayers = new ConcurrentHashMap<>();
+
+    public MatchmakingServiceImpl(StringRedisTemplate stringRedisTemplate,
+                                  GameService gameService,
+                                  GameEngine gameEngine,
+                                  GameMetrics gameMetrics,
+                                  WebSocketExceptionHandler webSocketExceptionHandler,
+                                  @Value("${tictactoe.matchmaking.max-board-size:10}") int maxBoardSize,
+                                  @Value("${tictactoe.matchmaking.max-pairs-per-pass:500}") int maxPairsPerPass,
+                                  @Value("${tictactoe.matchmaking.max-wait-seconds:300}") long maxWaitSeconds) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.gameService = gameService;
+        this.gameEngine = gameEngine;
+        this.gameMetrics = gameMetrics;
+        this.webSocketExceptionHandler = webSocketExceptionHandler;
+        this.maxBoardSize = maxBoardSize;
+        this.maxPairsPerPass = maxPairsPerPass;
+        this.maxWaitMillis = maxWaitSeconds * 1000;
+    }
+
+    @Override
+    public void enqueue(QuickPlayReq request, String stompSessionId) {
+        String queueKey = queueKey(request);
+        Long queued = stringRedisTemplate.execute(ENQUEUE_SCRIPT, List.of(queueKey, QUEUES_KEY, QUEUED_KEY),
+                request.getSessionId(), String.valueOf(System.currentTimeMillis()));
+        if (queued == null || queued == 0) {
+            throw new GameException(GameErrorType.ALREADY_QUEUED, request.getSessionId());
+        }
+
+        if (stompSessionId != null) {
+            QueuedPlayer previous = queuedPlayers.put(stompSessionId, new QueuedPlayer(queueKey, request.getSessionId()));
+            // A connection queueing under another session id gives up its earlier place
+            if (previous != null && !previous.sessionId().equals(request.getSessionId())) {
+                remove(previous);
+            }
+        }
+    }
+
+    @Override
+    public void leave(String stompSessionId) {
+        QueuedPlayer player = queuedPlayers.remove(stompSessionId);
+        if (player != null) {
+            remove(player);
+        }
+    }
+
+    @EventListener
+    public void onSessionDisconnected(SessionDisconnectEvent event) {
+        leave(event.getSessionId());
+    }
+
+    /**
+     * Pairs waiting players in every queue, a batch of up to max-pairs-per-pass per queue and pass
+     */
+    @Scheduled(fixedDelayString = "${tictactoe.matchmaking.pair-interval-ms:100}")
+    public void pairWaitingPlayers() {
+        Set<String> queueKeys = stringRedisTemplate.opsForSet().members(QUEUES_KEY);
+        if (queueKeys == null) {
+            return;
+        }
+
+        long waiting = 0;
+        for (String queueKey : queueKeys) {
+            try {
+                waiting += pairQueue(queueKey);
+            } catch (RuntimeException e) {
+                log.error("Failed to pair players in {}", queueKey, e);
+            }
+        }
+        gameMetrics.setMatchmakingWaiting(waiting);
+    }
+
+    private long pairQueue(String queueKey) {
+        long now = System.currentTimeMillis();
+        List<?> result = stringRedisTemplate.execute(
+                POP_MATCHES_SCRIPT,
+                List.of(queueKey, QUEUES_KEY, QUEUED_KEY),
+                String.valueOf(maxPairsPerPass),
+                String.valueOf(now - maxWaitMillis));
+        if (result == null || result.size() < 3) {
+            return 0;
+        }
+
+        for (Object sessionId : (List<?>) result.get(1)) {
+            webSocketExceptionHandler.handleGameException(
+                    new GameException(GameErrorType.MATCHMAKING_TIMEOUT, sessionId.toString()));
+        }
+
+        int[] board = parseQueueKey(queueKey);
+        List<?> popped = (List<?>) result.get(2);
+        for (int i = 0; i + 3 < popped.size(); i += 4) {
+            String first = popped.get(i).toString();
+            String second = popped.get(i + 2).toString();
+            gameMetrics.recordMatchmakingWait(now - (long) Double.parseDouble(popped.get(i + 1).toString()));
+            gameMetrics.recordMatchmakingWait(now - (long) Double.parseDouble(popped.get(i + 3).toString()));
+
+            try {
+                gameService.startMatchedGame(first, second, board[0], board[1], board[2]);
+            } catch (RuntimeException e) {
+                log.error("Failed to start a matched game for {} and {}", first, second, e);
+            }
+        }
+        return ((Number) result.get(0)).longValue();
+    }
+
+    private void remove(QueuedPlayer player) {
+        stringRedisTemplate.execute(LEAVE_SCRIPT, List.of(player.queueKey(), QUEUED_KEY), player.sessionId());
+    }
+
+    private String queueKey(QuickPlayReq request) {
+        int rows = request.getBoardVerticalSize();
+        int cols = request.getBoardHorizontalSize();
+        if (rows < 3 || cols < 3 || rows > maxBoardSize || cols > maxBoardSize) {
+            throw new GameException(GameErrorType.INVALID_BOARD_SIZE, request.getSessionId());
+        }
+
+        int winLength = gameEngine.resolveWinLength(request.getWinLength(), rows, cols);
+        return QUEUE_KEY_PREFIX + rows + "x" + cols + ":" + winLength;
+    }
+
+    private static int[] parseQueueKey(String queueKey) {
+        String board = queueKey.substring(QUEUE_KEY_PREFIX.length());
+        int separator = board.indexOf('x');
+        int colon = board.indexOf(':');
+        return new int[]{
+                Integer.parseInt(board.substring(0, separator)),
+                Integer.parseInt(board.substring(separator + 1, colon)),
+                Integer.parseInt(board.substring(colon + 1))
+        };
+    }
+
+    private record QueuedPlayer(String queueKey, String sessionId) {
+    }
+
+}
@@ -0,0 +1,470 @@
+package com.multiplayer.tictactoe.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.multiplayer.tictactoe.ai.AiOpponent;
+import com.multiplayer.tictactoe.dto.response.RatingRes;
+import com.multiplayer.tictactoe.entity.jpa.GameHistory;
+import com.multiplayer.tictactoe.enums.GameStatus;
+import com.multiplayer.tictactoe.service.RatingService;
+import com.multiplayer.tictactoe.utils.PlayerHandles;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Elo ratings in Redis sorted sets scored by rating, so top-N and rank queries are O(log N).
+ * Finished games are rated by the history writer once they are saved, far from the move path,
+ * with a Lua script that updates the global and board size leaderboards of a whole batch atomically.
+ * A recompute rebuilds the leaderboards from game_history, loading monthly partitions in parallel
+ * and rating them in completion order. It holds a lease in Redis while it runs, and the rating script of every
+ * instance appends live games to a held back list in Redis instead of rating them. Once the rebuilt
+ * leaderboards are swapped in, the held back games the rebuild did not load are rated on top.
+ */
+@Slf4j
+@Service
+public class RatingServiceImpl implements RatingService {
+
+    // Hash tagged so a batch update, and the rename of a rebuilt leaderboard, stay in one Redis Cluster slot
+    static final String GLOBAL_KEY = "{rating}:global";
+
+    static final String BOARD_KEY_PREFIX = "{rating}:board:";
+
+    private static final String REBUILD_KEY_SUFFIX = ":rebuild";
+
+    static final String RECOMPUTE_LEASE_KEY = "{rating}:recompute";
+
+    static final String HELD_BACK_KEY = "{rating}:held-back";
+
+    // Renewed after every month loaded, so it only runs out when the recompute died
+    private static final Duration RECOMPUTE_LEASE = Duration.ofMinutes(10);
+
+    static final RedisScript<Long> UPDATE_RATINGS_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/update_ratings.lua"), Long.class);
+
+    static final RedisScript<Long> RECOMPUTE_LEASE_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/rating_recompute_lease.lua"), Long.class);
+
+    private static final Pattern BOARD = Pattern.compile("(\\d{1,2})x(\\d{1,2})");
+
+    private static final int MAX_LEADERBOARD_SIZE = 100;
+
+    private static final int GAMES_PER_SCRIPT = 500;
+
+    private static final int RATINGS_PER_ZADD = 1000;
+
+    private static final String GAMES_SQL = """
+            SELECT id, user_id_x, user_id_o, status, board_vertical_size, board_horizontal_size, completed_at
+            FROM game_history
+            WHERE completed_at >= ? AND completed_at < ?
+              AND status IN ('X_WON', 'O_WON', 'DRAW') AND user_id_x <> ? AND user_id_o <> ?
+            ORDER BY completed_at, id
+            """;
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final PlayerHandles playerHandles;
+
+    private final ObjectMapper objectMapper;
+
+    private final double kFactor;
+
+    private final double initialRating;
+
+    private final int recomputeThreads;
+
+    public RatingServiceImpl(StringRedisTemplate stringRedisTemplate,
+                             JdbcTemplate jdbcTemplate,
+                             PlayerHandles playerHandles,
+                             ObjectMapper objectMapper,
+                             @Value("${tictactoe.rating.k-factor:32}") double kFactor,
+                             @Value("${tictactoe.rating.initial-rating:1500}") double initialRating,
+                             @Value("${tictactoe.rating.recompute-threads:4}") int recomputeThreads) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.jdbcTemplate = jdbcTemplate;
+        this.playerHandles = playerHandles;
+        this.objectMapper = objectMapper;
+        this.kFactor = kFactor;
+        this.initialRating = initialRating;
+        this.recomputeThreads = Math.max(1, recomputeThreads);
+    }
+
+    @Override
+    public void recordGames(List<GameHistory> games) {
+        List<RatedGame> rated = new ArrayList<>(games.size());
+        for (GameHistory game : games) {
+            RatedGame ratedGame = RatedGame.of(game);
+            if (ratedGame != null) {
+                rated.add(ratedGame);
+            }
+        }
+
+        try {
+            apply(rated);
+        } catch (RuntimeException e) {
+            // Ratings catch up on the next recompute
+            log.error("Failed to rate {} finished games", rated.size(), e);
+        }
+    }
+
+    @Override
+    public List<RatingRes> getTopPlayers(String board, int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_LEADERBOARD_SIZE));
+        Set<ZSetOperations.TypedTuple<String>> top =
+                stringRedisTemplate.opsForZSet().reverseRangeWithScores(leaderboardKey(board), 0, size - 1);
+        if (top == null) {
+            return List.of();
+        }
+
+        List<RatingRes> ratings = new ArrayList<>(top.size());
+        for (ZSetOperations.TypedTuple<String> entry : top) {
+            ratings.add(new RatingRes(playerHandles.toHandle(entry.getValue()), (int) Math.round(entry.getScore()),
+                    ratings.size() + 1));
+        }
+        return ratings;
+    }
+
+    @Override
+    public Optional<RatingRes> getPlayerRating(String playerId, String board) {
+        String key = leaderboardKey(board);
+        Optional<String> sessionId = playerHandles.toSessionId(playerId);
+        if (sessionId.isEmpty()) {
+            return Optional.empty();
+        }
+
+        List<Object> results = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection redis = (StringRedisConnection) connection;
+            redis.zScore(key, sessionId.get());
+            redis.zRevRank(key, sessionId.get());
+            return null;
+        });
+
+        if (results.size() < 2 || !(results.get(0) instanceof Double rating) || !(results.get(1) instanceof Long rank)) {
+            return Optional.empty();
+        }
+        return Optional.of(new RatingRes(playerId, (int) Math.round(rating), rank + 1));
+    }
+
+    @Override
+    public long recompute() {
+        String token = UUID.randomUUID().toString();
+        if (lease("acquire", token) != 1) {
+            throw new IllegalStateException("A rating recompute is already running");
+        }
+
+        Rebuilt rebuilt;
+        try {
+            rebuilt = rebuild(token);
+        } catch (RuntimeException e) {
+            // The rebuilt leaderboards were not swapped in, so the held back games go onto the live ones
+            try {
+                rateHeldBack(token, Map.of());
+            } catch (RuntimeException heldBackFailure) {
+                e.addSuppressed(heldBackFailure);
+            }
+            throw e;
+        }
+
+        long late = rateHeldBack(token, rebuilt.loadedIds());
+        log.info("Recomputed ratings of {} games on {} leaderboards", rebuilt.games() + late, rebuilt.leaderboards());
+        return rebuilt.games() + late;
+    }
+
+    private Rebuilt rebuild(String token) {
+        LocalDateTime startedAt = LocalDateTime.now();
+        LocalDateTime firstCompletedAt = jdbcTemplate.queryForObject(
+                "SELECT MIN(completed_at) FROM game_history", LocalDateTime.class);
+
+        Map<String, Map<String, Double>> leaderboards = new LinkedHashMap<>();
+        leaderboards.put(GLOBAL_KEY, new HashMap<>());
+        // Sorted ids of the rows each month's load returned, to tell which held back games the rebuild has rated
+        Map<YearMonth, long[]> loadedIds = new HashMap<>();
+        long games = 0;
+
+        if (firstCompletedAt != null) {
+            ExecutorService loaders = Executors.newFixedThreadPool(recomputeThreads);
+            try {
+                // Months load ahead in parallel, at most one per thread, and are rated strictly in order
+                Deque<Future<List<RatedGame>>> loading = new ArrayDeque<>();
+                Deque<YearMonth> loadingMonths = new ArrayDeque<>();
+                YearMonth next = YearMonth.from(firstCompletedAt);
+                YearMonth last = YearMonth.from(startedAt);
+
+                while (next != null || !loading.isEmpty()) {
+                    while (next != null && loading.size() < recomputeThreads) {
+                        YearMonth month = next;
+                        loading.add(loaders.submit(() -> loadGames(month.atDay(1).atStartOfDay(),
+                                month.plusMonths(1).atDay(1).atStartOfDay())));
+                        loadingMonths.add(month);
+                        next = month.equals(last) ? null : month.plusMonths(1);
+                    }
+
+                    List<RatedGame> monthGames = loading.poll().get();
+                    long[] ids = new long[monthGames.size()];
+                    for (int i = 0; i < ids.length; i++) {
+                        RatedGame game = monthGames.get(i);
+                        rate(leaderboards.get(GLOBAL_KEY), game);
+                        rate(leaderboards.computeIfAbsent(boardKey(game.rows(), game.cols()), key -> new HashMap<>()), game);
+                        ids[i] = game.id();
+                    }
+                    Arrays.sort(ids);
+                    loadedIds.put(loadingMonths.poll(), ids);
+                    games += ids.length;
+                    renewLease(token);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Rating recompute was interrupted", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Failed to load game history for the rating recompute", e.getCause());
+            } finally {
+                loaders.shutdownNow();
+            }
+        }
+
+        renewLease(token);
+        leaderboards.forEach(this::replaceLeaderboard);
+        return new Rebuilt(loadedIds, games, leaderboards.size());
+    }
+
+    /**
+     * Rates the games held back while the recompute ran, skipping those the rebuild loaded, then releases the lease.
+     * Held back games that their month's load missed, e.g. saved after it or replayed from the spool with an old
+     * completion time, are rated on top of the swapped in leaderboards. Live updates keep being held back until
+     * the list is empty, so none lands in between.
+     *
+     * @return the number of held back games rated
+     */
+    private long rateHeldBack(String token, Map<YearMonth, long[]> loadedIds) {
+        long rated = 0;
+        while (true) {
+            List<String> entries = stringRedisTemplate.opsForList().range(HELD_BACK_KEY, 0, GAMES_PER_SCRIPT - 1);
+            if (entries == null || entries.isEmpty()) {
+                long released = lease("release", token);
+                if (released == 0) {
+                    // Games were held back since the list was read
+                    continue;
+                }
+                if (released < 0) {
+                    log.warn("Rating recompute lost its lease before releasing it");
+                }
+                return rated;
+            }
+
+            List<RatedGame> late = new ArrayList<>(entries.size());
+            for (String entry : entries) {
+                RatedGame game = readHeldBack(entry);
+                if (game != null && !isLoaded(loadedIds, game)) {
+                    late.add(game);
+                }
+            }
+
+            Long applied = runUpdateScript(late, entries.size(), token);
+            if (applied == null || applied < 0) {
+                log.warn("Rating recompute lost its lease, held back games are left to the next one");
+                return rated;
+            }
+            rated += applied;
+        }
+    }
+
+    private static boolean isLoaded(Map<YearMonth, long[]> loadedIds, RatedGame game) {
+        long[] ids = loadedIds.get(YearMonth.from(game.completedAt()));
+        return game.id() != null && ids != null && Arrays.binarySearch(ids, game.id()) >= 0;
+    }
+
+    private void renewLease(String token) {
+        if (lease("renew", token) != 1) {
+            throw new IllegalStateException("Rating recompute lost its lease, the leaderboards were not replaced");
+        }
+    }
+
+    private long lease(String operation, String token) {
+        Long result = stringRedisTemplate.execute(RECOMPUTE_LEASE_SCRIPT, List.of(RECOMPUTE_LEASE_KEY, HELD_BACK_KEY),
+                token, operation, String.valueOf(RECOMPUTE_LEASE.toMillis()));
+        return result != null ? result : -1;
+    }
+
+    private List<RatedGame> loadGames(LocalDateTime from, LocalDateTime to) {
+        return jdbcTemplate.query(GAMES_SQL, (resultSet, rowNum) -> new RatedGame(
+                        resultSet.getLong("id"),
+                        resultSet.getString("user_id_x"),
+                        resultSet.getString("user_id_o"),
+                        GameStatus.valueOf(resultSet.getString("status")),
+                        resultSet.getInt("board_vertical_size"),
+                        resultSet.getInt("board_horizontal_size"),
+                        resultSet.getObject("completed_at", LocalDateTime.class)),
+                from, to, AiOpponent.AI_SESSION_ID, AiOpponent.AI_SESSION_ID);
+    }
+
+    /**
+     * Same update as update_ratings.lua
+     */
+    private void rate(Map<String, Double> ratings, RatedGame game) {
+        double ratingX = ratings.getOrDefault(game.userIdX(), initialRating);
+        double ratingO = ratings.getOrDefault(game.userIdO(), initialRating);
+        double expectedX = 1 / (1 + Math.pow(10, (ratingO - ratingX) / 400));
+        double delta = kFactor * (game.resultX() - expectedX);
+        ratings.put(game.userIdX(), ratingX + delta);
+        ratings.put(game.userIdO(), ratingO - delta);
+    }
+
+    /**
+     * Writes a rebuilt leaderboard under a side key and renames it over the live one, so readers never see it half built
+     */
+    private void replaceLeaderboard(String key, Map<String, Double> ratings) {
+        String rebuildKey = key + REBUILD_KEY_SUFFIX;
+        stringRedisTemplate.delete(rebuildKey);
+        if (ratings.isEmpty()) {
+            stringRedisTemplate.delete(key);
+            return;
+        }
+
+        Set<ZSetOperations.TypedTuple<String>> chunk = new HashSet<>();
+        for (Map.Entry<String, Double> rating : ratings.entrySet()) {
+            chunk.add(ZSetOperations.TypedTuple.of(rating.getKey(), rating.getValue()));
+            if (chunk.size() == RATINGS_PER_ZADD) {
+                stringRedisTemplate.opsForZSet().add(rebuildKey, chunk);
+                chunk = new HashSet<>();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            stringRedisTemplate.opsForZSet().add(rebuildKey, chunk);
+        }
+        stringRedisTemplate.rename(rebuildKey, key);
+    }
+
+    private void apply(List<RatedGame> games) {
+        for (int from = 0; from < games.size(); from += GAMES_PER_SCRIPT) {
+            runUpdateScript(games.subList(from, Math.min(from + GAMES_PER_SCRIPT, games.size())), 0, "");
+        }
+    }
+
+    /**
+     * Runs update_ratings.lua on up to GAMES_PER_SCRIPT games, live when heldBackEntries is 0,
+     * otherwise dropping that many entries from the held back list once the games are applied
+     */
+    private Long runUpdateScript(List<RatedGame> games, int heldBackEntries, String token) {
+        List<String> keys = new ArrayList<>();
+        keys.add(RECOMPUTE_LEASE_KEY);
+        keys.add(HELD_BACK_KEY);
+        keys.add(GLOBAL_KEY);
+        Map<String, Integer> boardKeyIndexes = new HashMap<>();
+        List<String> args = new ArrayList<>(4 + games.size() * 5);
+        args.add(String.valueOf(kFactor));
+        args.add(String.valueOf(initialRating));
+        args.add(String.valueOf(heldBackEntries));
+        args.add(token);
+
+        for (RatedGame game : games) {
+            int boardKeyIndex = boardKeyIndexes.computeIfAbsent(boardKey(game.rows(), game.cols()), key -> {
+                keys.add(key);
+                return keys.size();
+            });
+            args.add(game.userIdX());
+            args.add(game.userIdO());
+            args.add(String.valueOf(game.resultX()));
+            args.add(String.valueOf(boardKeyIndex));
+            // Only a live batch can be held back
+            args.add(heldBackEntries == 0 ? writeHeldBack(game) : "");
+        }
+
+        return stringRedisTemplate.execute(UPDATE_RATINGS_SCRIPT, keys, args.toArray());
+    }
+
+    private String writeHeldBack(RatedGame game) {
+        try {
+            return objectMapper.writeValueAsString(game);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to write a rated game", e);
+        }
+    }
+
+    private RatedGame readHeldBack(String entry) {
+        try {
+            return objectMapper.readValue(entry, RatedGame.class);
+        } catch (JsonProcessingException e) {
+            log.error("Skipping a held back game that cannot be read: {}", entry, e);
+            return null;
+        }
+    }
+
+    private static String leaderboardKey(String board) {
+        if (board == null || board.isBlank()) {
+            return GLOBAL_KEY;
+        }
+
+        Matcher matcher = BOARD.matcher(board);
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Board must look like 3x3: " + board);
+        }
+        return boardKey(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+    }
+
+    private static String boardKey(int rows, int cols) {
+        return BOARD_KEY_PREFIX + rows + "x" + cols;
+    }
+
+    private record Rebuilt(Map<YearMonth, long[]> loadedIds, long games, int leaderboards) {
+    }
+
+    private record RatedGame(Long id, String userIdX, String userIdO, GameStatus status,
+                             int rows, int cols, LocalDateTime completedAt) {
+
+        /**
+         * The rated view of a finished game, or null when the game is not rated
+         */
+        static RatedGame of(GameHistory game) {
+            GameStatus status = game.getStatus();
+            if (status != GameStatus.X_WON && status != GameStatus.O_WON && status != GameStatus.DRAW) {
+                return null;
+            }
+            if (AiOpponent.AI_SESSION_ID.equals(game.getUserIdX()) || AiOpponent.AI_SESSION_ID.equals(game.getUserIdO())) {
+                return null;
+            }
+            return new RatedGame(game.getId(), game.getUserIdX(), game.getUserIdO(), status,
+                    game.getBoardVerticalSize(), game.getBoardHorizontalSize(), game.getCompletedAt());
+        }
+
+        double resultX() {
+            return switch (status) {
+                case X_WON -> 1;
+                case O_WON -> 0;
+                default -> 0.5;
+            };
+        }
+
+    }
+
+}
@@ -0,0 +1,133 @@
+package com.multiplayer.tictactoe.service.impl;
+
+import com.multiplayer.tictactoe.dto.response.CursorPageRes;
+import com.multiplayer.tictactoe.dto.response.GameSummaryRes;
+import com.multiplayer.tictactoe.dto.response.PlayerStatsRes;
+import com.multiplayer.tictactoe.entity.jpa.PlayerStats;
+import com.multiplayer.tictactoe.mapper.GameMapper;
+import com.multiplayer.tictactoe.repository.GameHistoryRepository;
+import com.multiplayer.tictactoe.repository.GameHistorySummary;
+import com.multiplayer.tictactoe.repository.PlayerStatsRepository;
+import com.multiplayer.tictactoe.service.StatsService;
+import com.multiplayer.tictactoe.utils.PlayerHandles;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+
+@Service
+@RequiredArgsConstructor
+public class StatsServiceImpl implements StatsService {
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    // Position before every game, where the first page of history starts
+    private static final LocalDateTime END_OF_TIME = LocalDateTime.of(9999, 12, 31, 0, 0);
+
+    private final GameHistoryRepository gameHistoryRepository;
+
+    private final PlayerStatsRepository playerStatsRepository;
+
+    private final GameMapper gameMapper;
+
+    private final PlayerHandles playerHandles;
+
+    @Override
+    public Optional<PlayerStatsRes> getPlayerStats(String playerId) {
+        return playerHandles.toSessionId(playerId)
+                .flatMap(playerStatsRepository::findById)
+                .map(stats -> gameMapper.toPlayerStatsRes(stats, playerHandles));
+    }
+
+    @Override
+    public CursorPageRes<GameSummaryRes> getPlayerGames(String playerId, String cursor, int limit) {
+        Optional<String> sessionId = playerHandles.toSessionId(playerId);
+        if (sessionId.isEmpty()) {
+            return new CursorPageRes<>(List.of(), null);
+        }
+
+        LocalDateTime completedAt = END_OF_TIME;
+        long id = Long.MAX_VALUE;
+        if (cursor != null) {
+            String[] position = decodeCursor(cursor);
+            try {
+                completedAt = LocalDateTime.parse(position[0]);
+                id = Long.parseLong(position[1]);
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+        }
+
+        int pageSize = pageSize(limit);
+        List<GameHistorySummary> games = gameHistoryRepository.findPlayerGamesBefore(sessionId.get(), completedAt, id, pageSize);
+
+        String nextCursor = null;
+        if (games.size() == pageSize) {
+            GameHistorySummary last = games.get(games.size() - 1);
+            nextCursor = encodeCursor(last.getCompletedAt().toString(), String.valueOf(last.getId()));
+        }
+        return new CursorPageRes<>(games.stream()
+                .map(game -> gameMapper.toGameSummaryRes(game, playerHandles))
+                .toList(), nextCursor);
+    }
+
+    @Override
+    public CursorPageRes<PlayerStatsRes> getLeaderboard(String cursor, int limit) {
+        int wins = Integer.MAX_VALUE;
+        String playerId = "";
+        if (cursor != null) {
+            String[] position = decodeCursor(cursor);
+            try {
+                wins = Integer.parseInt(position[0]);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            playerId = playerHandles.toSessionId(position[1])
+                    .orElseThrow(() -> new IllegalArgumentException("Malformed cursor"));
+        }
+
+        int pageSize = pageSize(limit);
+        List<PlayerStats> players = playerStatsRepository.findLeaderboardAfter(wins, playerId, Limit.of(pageSize));
+
+        String nextCursor = null;
+        if (players.size() == pageSize) {
+            PlayerStats last = players.get(players.size() - 1);
+            // The cursor carries the handle, it is only base64 and must not reveal the session id
+            nextCursor = encodeCursor(String.valueOf(last.getWins()), playerHandles.toHandle(last.getPlayerId()));
+        }
+        return new CursorPageRes<>(players.stream()
+                .map(stats -> gameMapper.toPlayerStatsRes(stats, playerHandles))
+                .toList(), nextCursor);
+    }
+
+    private static int pageSize(int limit) {
+        return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    }
+
+    private static String encodeCursor(String first, String second) {
+        byte[] position = (first + "|" + second).getBytes(StandardCharsets.UTF_8);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position);
+    }
+
+    private static String[] decodeCursor(String cursor) {
+        String position;
+        try {
+            position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+
+        int separator = position.indexOf('|');
+        if (separator < 0) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        return new String[]{position.substring(0, separator), position.substring(separator + 1)};
+    }
+
+}
@@ -0,0 +1,222 @@
+package com.multiplayer.tictactoe.spectate;
+
+import com.multiplayer.tictactoe.dto.response.MakeMoveRes;
+import com.multiplayer.tictactoe.dto.response.SpectatorMoveRes;
+import com.multiplayer.tictactoe.dto.response.SpectatorSnapshotRes;
+import com.multiplayer.tictactoe.entity.redis.ActiveGame;
+import com.multiplayer.tictactoe.enums.GameStatus;
+import com.multiplayer.tictactoe.mapper.GameMapper;
+import com.multiplayer.tictactoe.metrics.GameMetrics;
+import com.multiplayer.tictactoe.repository.ActiveGameRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Read-only feed of games to spectators on /topic/spectate.{gameId}, kept off the players' path.
+ * The game lane only records the latest state of the game, a small pool of its own sends the frames.
+ * Frames of a game are sent at most once per min-interval: a single new move goes out as a delta,
+ * several moves in between are conflated into one snapshot, so spectators never fall further behind than one frame.
+ * Late joiners are answered with the snapshot cached for the latest move instead of reading the game.
+ * Spectator frames name the seats X and O and never carry the players' session ids.
+ */
+@Slf4j
+@Component
+public class SpectatorPublisher implements DisposableBean {
+
+    private final SimpMessagingTemplate simpMessagingTemplate;
+
+    private final GameMapper gameMapper;
+
+    private final GameMetrics gameMetrics;
+
+    private final ScheduledThreadPoolExecutor publisher;
+
+    private final long minIntervalNanos;
+
+    private final Map<String, Feed> feeds = new ConcurrentHashMap<>();
+
+    public SpectatorPublisher(SimpMessagingTemplate simpMessagingTemplate,
+                              GameMapper gameMapper,
+                              GameMetrics gameMetrics,
+                              @Value("${tictactoe.spectate.threads:2}") int threads,
+                              @Value("${tictactoe.spectate.min-interval-ms:100}") long minIntervalMillis) {
+        this.simpMessagingTemplate = simpMessagingTemplate;
+        this.gameMapper = gameMapper;
+        this.gameMetrics = gameMetrics;
+        this.minIntervalNanos = TimeUnit.MILLISECONDS.toNanos(minIntervalMillis);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.publisher = new ScheduledThreadPoolExecutor(threads, runnable -> {
+            Thread thread = new Thread(runnable, "spectator-publisher-" + threadCount.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.publisher.setRemoveOnCancelPolicy(true);
+
+        // Games abandoned without a last move would otherwise keep their feed
+        this.publisher.scheduleWithFixedDelay(this::evictIdleFeeds, 1, 1, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Publishes the whole game, for a game that was created or started.
+     * Must be called on the game's lane.
+     */
+    public void publishState(ActiveGame game) {
+        publish(game, null);
+    }
+
+    /**
+     * Publishes a move after it was sent to the players.
+     * Must be called on the game's lane.
+     */
+    public void publishMove(ActiveGame game, MakeMoveRes move) {
+        publish(game, gameMapper.toSpectatorMoveRes(game, move));
+    }
+
+    /**
+     * Sends the cached snapshot of the game to a spectator who just subscribed, from the publisher pool.
+     * Returns false when this instance does not follow the game, the caller then reads it from the cache.
+     */
+    public boolean sendSnapshot(String gameId, String sessionId) {
+        Feed feed = feeds.get(gameId);
+        if (feed == null) {
+            return false;
+        }
+
+        publisher.execute(() -> send("/topic/session." + sessionId, feed.snapshot(gameMapper), "session"));
+        return true;
+    }
+
+    /**
+     * Whether this instance keeps a feed of the game, for tests
+     */
+    boolean follows(String gameId) {
+        return feeds.containsKey(gameId);
+    }
+
+    private void publish(ActiveGame game, SpectatorMoveRes move) {
+        Frame frame = new Frame(detach(game), move);
+        Feed feed = feeds.compute(game.getGameId(), (gameId, existing) -> {
+            Feed updated = existing != null ? existing : new Feed();
+            updated.latest = frame;
+            updated.publishedAt = System.nanoTime();
+            return updated;
+        });
+
+        if (feed.flushScheduled.compareAndSet(false, true)) {
+            long delay = Math.max(0, feed.flushedAt + minIntervalNanos - System.nanoTime());
+            publisher.schedule(() -> flush(game.getGameId(), feed), delay, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Sends the latest frame of the game, a delta when it is the next move and a snapshot otherwise
+     */
+    private void flush(String gameId, Feed feed) {
+        // Cleared first, so a move recorded while sending schedules the next flush
+        feed.flushScheduled.set(false);
+        feed.flushedAt = System.nanoTime();
+
+        synchronized (feed) {
+            Frame frame = feed.latest;
+            int moveNumber = frame.game().getMoveCount();
+            try {
+                if (frame.move() != null && moveNumber == feed.sentMoveNumber + 1) {
+                    send("/topic/spectate." + gameId, frame.move(), "spectate");
+                    gameMetrics.recordSpectatorFrame("delta");
+                } else if (frame.move() == null || moveNumber > feed.sentMoveNumber) {
+                    send("/topic/spectate." + gameId, feed.snapshot(gameMapper), "spectate");
+                    gameMetrics.recordSpectatorFrame("snapshot");
+                }
+                feed.sentMoveNumber = moveNumber;
+            } catch (RuntimeException e) {
+                log.warn("Could not publish game {} to spectators", gameId, e);
+            }
+
+            GameStatus status = frame.game().getStatus();
+            if (status != GameStatus.WAITING && status != GameStatus.IN_PROGRESS) {
+                feeds.remove(gameId, feed);
+            }
+        }
+    }
+
+    private void send(String destination, Object payload, String destinationType) {
+        long startedAt = System.nanoTime();
+        simpMessagingTemplate.convertAndSend(destination, payload);
+        gameMetrics.recordSend(destinationType, startedAt);
+    }
+
+    private void evictIdleFeeds() {
+        long idleBefore = System.nanoTime() - TimeUnit.SECONDS.toNanos(ActiveGameRepository.GAME_TIME_TO_LIVE_SECONDS);
+        feeds.values().removeIf(feed -> feed.publishedAt - idleBefore < 0);
+    }
+
+    /**
+     * Copies what spectators see, the board stays encoded until a snapshot is built from it
+     */
+    private static ActiveGame detach(ActiveGame game) {
+        ActiveGame copy = new ActiveGame();
+        copy.setGameId(game.getGameId());
+        copy.setBoardVerticalSize(game.getBoardVerticalSize());
+        copy.setBoardHorizontalSize(game.getBoardHorizontalSize());
+        copy.setWinLength(game.getWinLength());
+        copy.setMoveCount(game.getMoveCount());
+        copy.setStoredBoardState(game.getStoredBoardState());
+        copy.setCurrentTurnSessionId(game.getCurrentTurnSessionId());
+        copy.setSessionIdX(game.getSessionIdX());
+        copy.setSessionIdO(game.getSessionIdO());
+        copy.setStatus(game.getStatus());
+        return copy;
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        publisher.shutdownNow();
+        publisher.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    private record Frame(ActiveGame game, SpectatorMoveRes move) {
+    }
+
+    private static final class Feed {
+
+        // Written on the game lane, read by the publisher and by late joiners
+        private volatile Frame latest;
+
+        private volatile long publishedAt;
+
+        private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+        private volatile long flushedAt = System.nanoTime() - TimeUnit.DAYS.toNanos(1);
+
+        // Guarded by the feed, like the cached snapshot
+        private int sentMoveNumber = -1;
+
+        private Frame snapshotFrame;
+
+        private SpectatorSnapshotRes snapshot;
+
+        /**
+         * Builds the snapshot once per frame, however many spectators ask for it
+         */
+        private synchronized SpectatorSnapshotRes snapshot(GameMapper gameMapper) {
+            Frame frame = latest;
+            if (snapshotFrame != frame) {
+                snapshot = gameMapper.toSpectatorSnapshotRes(frame.game());
+                snapshotFrame = frame;
+            }
+            return snapshot;
+        }
+    }
+
+}
@@ -0,0 +1,212 @@
+package com.multiplayer.tictactoe.utils;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Packed board representation with one bit array per player.
+ * Cell (row, col) maps to bit index row * cols + col, stored in 64-bit words.
+ * Boards up to 64 cells use a single word per player.
+ */
+public class BitBoard {
+
+    public static final char PLAYER_X = 'X';
+    public static final char PLAYER_O = 'O';
+
+    private final int rows;
+
+    private final int cols;
+
+    private final long[] xBits;
+
+    private final long[] oBits;
+
+    public BitBoard(int rows, int cols) {
+        this.rows = rows;
+        this.cols = cols;
+        int words = wordCount(rows, cols);
+        this.xBits = new long[words];
+        this.oBits = new long[words];
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    public int cellCount() {
+        return rows * cols;
+    }
+
+    /**
+     * Gets the player symbol at the given cell, or null if the cell is empty
+     */
+    public Character get(int row, int col) {
+        int index = index(row, col);
+        if (isSet(xBits, index)) return PLAYER_X;
+        if (isSet(oBits, index)) return PLAYER_O;
+        return null;
+    }
+
+    /**
+     * Checks whether the given player occupies the cell.
+     * Out-of-bounds cells are treated as not owned, so callers can walk past the edge.
+     */
+    public boolean isOwnedBy(char player, int row, int col) {
+        if (row < 0 || row >= rows || col < 0 || col >= cols) {
+            return false;
+        }
+        return isSet(bitsFor(player), index(row, col));
+    }
+
+    public boolean isOccupied(int row, int col) {
+        int index = index(row, col);
+        return isSet(xBits, index) || isSet(oBits, index);
+    }
+
+    /**
+     * Sets the cell to the given player, or clears it if player is null
+     */
+    public void set(int row, int col, Character player) {
+        int index = index(row, col);
+        int word = index >>> 6;
+        long mask = 1L << (index & 63);
+
+        xBits[word] &= ~mask;
+        oBits[word] &= ~mask;
+
+        if (player != null) {
+            bitsFor(player)[word] |= mask;
+        }
+    }
+
+    /**
+     * Counts the occupied cells for a player
+     */
+    public int count(char player) {
+        int total = 0;
+        for (long word : bitsFor(player)) {
+            total += Long.bitCount(word);
+        }
+        return total;
+    }
+
+    /**
+     * Copies the board, so it can be read on another thread while this one keeps changing
+     */
+    public BitBoard copy() {
+        BitBoard copy = new BitBoard(rows, cols);
+        System.arraycopy(xBits, 0, copy.xBits, 0, xBits.length);
+        System.arraycopy(oBits, 0, copy.oBits, 0, oBits.length);
+        return copy;
+    }
+
+    /**
+     * Empties every cell
+     */
+    public void clear() {
+        Arrays.fill(xBits, 0L);
+        Arrays.fill(oBits, 0L);
+    }
+
+    /**
+     * Encodes the board for storage, see {@link BoardCodecs}
+     */
+    public String encode() {
+        return BoardCodecs.encode(this);
+    }
+
+    /**
+     * Decodes a board produced by {@link #encode()} or stored in the legacy JSON format.
+     * A null or empty value yields an empty board.
+     */
+    public static BitBoard decode(String encoded, int rows, int cols) {
+        BitBoard board = new BitBoard(rows, cols);
+        BoardCodecs.decodeInto(encoded, board);
+        return board;
+    }
+
+    /**
+     * Builds the Map<Character, Set<String>> view used by the WebSocket and history payloads,
+     * where key is 'X' or 'O' and value is the set of "row,col" positions
+     */
+    public Map<Character, Set<String>> toPositionMap() {
+        Map<Character, Set<String>> boardMap = new HashMap<>();
+        boardMap.put(PLAYER_X, positionsOf(xBits));
+        boardMap.put(PLAYER_O, positionsOf(oBits));
+        return boardMap;
+    }
+
+    /**
+     * Builds a board from the Map<Character, Set<String>> view
+     */
+    public static BitBoard fromPositionMap(Map<Character, Set<String>> boardMap, int rows, int cols) {
+        BitBoard board = new BitBoard(rows, cols);
+        fillFromPositionMap(boardMap, board);
+        return board;
+    }
+
+    static void fillFromPositionMap(Map<Character, Set<String>> boardMap, BitBoard board) {
+        if (boardMap == null) {
+            return;
+        }
+
+        for (Map.Entry<Character, Set<String>> entry : boardMap.entrySet()) {
+            for (String position : entry.getValue()) {
+                int separator = position.indexOf(',');
+                int row = Integer.parseInt(position.substring(0, separator).trim());
+                int col = Integer.parseInt(position.substring(separator + 1).trim());
+                board.set(row, col, entry.getKey());
+            }
+        }
+    }
+
+    private Set<String> positionsOf(long[] bits) {
+        Set<String> positions = new HashSet<>();
+        for (int word = 0; word < bits.length; word++) {
+            long remaining = bits[word];
+            while (remaining != 0) {
+                int index = (word << 6) + Long.numberOfTrailingZeros(remaining);
+                positions.add((index / cols) + "," + (index % cols));
+                remaining &= remaining - 1;
+            }
+        }
+        return positions;
+    }
+
+    /**
+     * Backing words for a player, shared with the codecs in this package
+     */
+    long[] bits(char player) {
+        return bitsFor(player);
+    }
+
+    private long[] bitsFor(char player) {
+        if (player == PLAYER_X) return xBits;
+        if (player == PLAYER_O) return oBits;
+
+        throw new IllegalArgumentException("Invalid player character: " + player);
+    }
+
+    private int index(int row, int col) {
+        if (row < 0 || row >= rows || col < 0 || col >= cols) {
+            throw new IndexOutOfBoundsException("Cell " + row + "," + col + " is outside a " + rows + "x" + cols + " board");
+        }
+        return row * cols + col;
+    }
+
+    private static boolean isSet(long[] bits, int index) {
+        return (bits[index >>> 6] & (1L << (index & 63))) != 0;
+    }
+
+    private static int wordCount(int rows, int cols) {
+        return Math.max(1, (rows * cols + 63) >>> 6);
+    }
+
+}
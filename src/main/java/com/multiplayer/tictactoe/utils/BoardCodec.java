@@ -0,0 +1,29 @@
+package com.multiplayer.tictactoe.utils;
+
+/**
+ * Binary format for a {@link BitBoard}, identified by the version byte that prefixes every stored board.
+ * Board dimensions are not part of the payload, they come from the game itself.
+ */
+public interface BoardCodec {
+
+    /**
+     * Version byte written in front of the payload, unique per codec
+     */
+    byte version();
+
+    /**
+     * Number of payload bytes {@link #encode} will write for the board
+     */
+    int encodedLength(BitBoard board);
+
+    /**
+     * Writes the payload into out starting at offset, out must have room for {@link #encodedLength} bytes
+     */
+    void encode(BitBoard board, byte[] out, int offset);
+
+    /**
+     * Reads a payload into an empty target board
+     */
+    void decode(byte[] in, int offset, int length, BitBoard target);
+
+}
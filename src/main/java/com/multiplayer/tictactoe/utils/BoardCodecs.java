@@ -0,0 +1,207 @@
+package com.multiplayer.tictactoe.utils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Registry of board codecs and the text framing used for the boardState Redis field.
+ * A stored board is base64 of one version byte followed by the codec payload. Each encode picks
+ * the registered codec with the smallest payload. Encoding and decoding work in per-thread buffers,
+ * so the only allocation per call is the resulting String.
+ * Boards still stored as the JSON position map written by older versions are read as well.
+ */
+public final class BoardCodecs {
+
+    private static final BoardCodec[] CODECS = new BoardCodec[16];
+
+    private static final char[] BASE64_ALPHABET =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".toCharArray();
+
+    private static final int[] BASE64_VALUES = new int[128];
+
+    private static final ThreadLocal<Buffers> BUFFERS = ThreadLocal.withInitial(Buffers::new);
+
+    private static final ObjectMapper LEGACY_MAPPER = new ObjectMapper();
+
+    private static final JavaType LEGACY_TYPE = LEGACY_MAPPER.getTypeFactory().constructMapType(Map.class,
+            LEGACY_MAPPER.getTypeFactory().constructType(Character.class),
+            LEGACY_MAPPER.getTypeFactory().constructCollectionType(Set.class, String.class));
+
+    static {
+        Arrays.fill(BASE64_VALUES, -1);
+        for (int i = 0; i < BASE64_ALPHABET.length; i++) {
+            BASE64_VALUES[BASE64_ALPHABET[i]] = i;
+        }
+
+        register(new DenseBoardCodec());
+        register(new SparseBoardCodec());
+    }
+
+    private BoardCodecs() {
+    }
+
+    /**
+     * Adds a codec under its version byte, each version can only be registered once
+     */
+    public static synchronized void register(BoardCodec codec) {
+        int version = codec.version();
+        if (version <= 0 || version >= CODECS.length || CODECS[version] != null) {
+            throw new IllegalArgumentException("Board codec version " + version + " is invalid or already registered");
+        }
+        CODECS[version] = codec;
+    }
+
+    public static String encode(BitBoard board) {
+        BoardCodec codec = null;
+        int length = Integer.MAX_VALUE;
+        for (BoardCodec candidate : CODECS) {
+            if (candidate != null) {
+                int candidateLength = candidate.encodedLength(board);
+                if (candidateLength < length) {
+                    codec = candidate;
+                    length = candidateLength;
+                }
+            }
+        }
+
+        Buffers buffers = BUFFERS.get();
+        byte[] raw = buffers.raw(length + 1);
+        raw[0] = codec.version();
+        codec.encode(board, raw, 1);
+
+        byte[] text = buffers.text(4 * ((length + 3) / 3));
+        int textLength = base64Encode(raw, length + 1, text);
+        return new String(text, 0, textLength, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Decodes a stored board into target, which is cleared first.
+     * A null or empty value leaves the board empty.
+     */
+    public static void decodeInto(String encoded, BitBoard target) {
+        target.clear();
+        if (encoded == null || encoded.isEmpty()) {
+            return;
+        }
+        if (encoded.charAt(0) == '{') {
+            readLegacyJson(encoded, target);
+            return;
+        }
+
+        Buffers buffers = BUFFERS.get();
+        byte[] raw = buffers.raw(encoded.length() / 4 * 3);
+        int length = base64Decode(encoded, raw);
+        if (length == 0) {
+            throw new IllegalArgumentException("Board state is empty after decoding");
+        }
+
+        int version = raw[0];
+        BoardCodec codec = version > 0 && version < CODECS.length ? CODECS[version] : null;
+        if (codec == null) {
+            throw new IllegalArgumentException("Unknown board codec version: " + version);
+        }
+        codec.decode(raw, 1, length - 1, target);
+    }
+
+    /**
+     * Reads the {"X":["row,col",...],"O":[...]} format written before the binary codecs
+     */
+    private static void readLegacyJson(String encoded, BitBoard target) {
+        Map<Character, Set<String>> boardMap;
+        try {
+            boardMap = LEGACY_MAPPER.readValue(encoded, LEGACY_TYPE);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Failed to read legacy board state", e);
+        }
+        BitBoard.fillFromPositionMap(boardMap, target);
+    }
+
+    private static int base64Encode(byte[] src, int length, byte[] dst) {
+        int out = 0;
+        int i = 0;
+        for (; i + 2 < length; i += 3) {
+            int bits = (src[i] & 0xFF) << 16 | (src[i + 1] & 0xFF) << 8 | (src[i + 2] & 0xFF);
+            dst[out++] = (byte) BASE64_ALPHABET[bits >>> 18];
+            dst[out++] = (byte) BASE64_ALPHABET[(bits >>> 12) & 0x3F];
+            dst[out++] = (byte) BASE64_ALPHABET[(bits >>> 6) & 0x3F];
+            dst[out++] = (byte) BASE64_ALPHABET[bits & 0x3F];
+        }
+
+        int left = length - i;
+        if (left > 0) {
+            int bits = (src[i] & 0xFF) << 16 | (left == 2 ? (src[i + 1] & 0xFF) << 8 : 0);
+            dst[out++] = (byte) BASE64_ALPHABET[bits >>> 18];
+            dst[out++] = (byte) BASE64_ALPHABET[(bits >>> 12) & 0x3F];
+            dst[out++] = left == 2 ? (byte) BASE64_ALPHABET[(bits >>> 6) & 0x3F] : (byte) '=';
+            dst[out++] = '=';
+        }
+        return out;
+    }
+
+    private static int base64Decode(String src, byte[] dst) {
+        int length = src.length();
+        if ((length & 3) != 0) {
+            throw new IllegalArgumentException("Board state is not valid base64");
+        }
+
+        int out = 0;
+        for (int i = 0; i < length; i += 4) {
+            int c0 = base64Value(src.charAt(i));
+            int c1 = base64Value(src.charAt(i + 1));
+            dst[out++] = (byte) (c0 << 2 | c1 >>> 4);
+
+            char third = src.charAt(i + 2);
+            char fourth = src.charAt(i + 3);
+            if (third == '=') {
+                break;
+            }
+            int c2 = base64Value(third);
+            dst[out++] = (byte) (c1 << 4 | c2 >>> 2);
+
+            if (fourth == '=') {
+                break;
+            }
+            dst[out++] = (byte) (c2 << 6 | base64Value(fourth));
+        }
+        return out;
+    }
+
+    private static int base64Value(char c) {
+        int value = c < 128 ? BASE64_VALUES[c] : -1;
+        if (value < 0) {
+            throw new IllegalArgumentException("Board state is not valid base64");
+        }
+        return value;
+    }
+
+    /**
+     * Scratch arrays reused across calls on the same thread, grown on demand
+     */
+    private static final class Buffers {
+
+        private byte[] raw = new byte[64];
+
+        private byte[] text = new byte[96];
+
+        byte[] raw(int length) {
+            if (raw.length < length) {
+                raw = new byte[Math.max(length, raw.length * 2)];
+            }
+            return raw;
+        }
+
+        byte[] text(int length) {
+            if (text.length < length) {
+                text = new byte[Math.max(length, text.length * 2)];
+            }
+            return text;
+        }
+    }
+
+}
@@ -0,0 +1,60 @@
+package com.multiplayer.tictactoe.utils;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Runs every task on its own virtual thread, with at most maxConcurrency tasks running at once.
+ * Submitting blocks while the limit is reached, so a burst of messages backs up into the caller
+ * instead of into Redis and PostgreSQL.
+ */
+public class BoundedVirtualThreadExecutor implements Executor {
+
+    private final Semaphore permits;
+
+    private final int maxConcurrency;
+
+    private final ThreadFactory threadFactory;
+
+    public BoundedVirtualThreadExecutor(String threadNamePrefix, int maxConcurrency) {
+        this.permits = new Semaphore(maxConcurrency);
+        this.maxConcurrency = maxConcurrency;
+        this.threadFactory = Thread.ofVirtual().name(threadNamePrefix, 0).factory();
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting for a free slot", e);
+        }
+
+        Thread thread = threadFactory.newThread(() -> {
+            try {
+                task.run();
+            } finally {
+                permits.release();
+            }
+        });
+        thread.start();
+    }
+
+    /**
+     * Tasks currently running
+     */
+    public int getActiveCount() {
+        return maxConcurrency - permits.availablePermits();
+    }
+
+    /**
+     * Callers blocked waiting for a free slot
+     */
+    public int getWaitingCount() {
+        return permits.getQueueLength();
+    }
+
+}
@@ -0,0 +1,59 @@
+package com.multiplayer.tictactoe.utils;
+
+/**
+ * One bit per cell and player, trimmed to whole bytes: X bits followed by O bits.
+ * Smallest format for small or crowded boards, a 3x3 board takes 4 bytes.
+ */
+public class DenseBoardCodec implements BoardCodec {
+
+    public static final byte VERSION = 1;
+
+    @Override
+    public byte version() {
+        return VERSION;
+    }
+
+    @Override
+    public int encodedLength(BitBoard board) {
+        return 2 * bytesPerPlayer(board);
+    }
+
+    @Override
+    public void encode(BitBoard board, byte[] out, int offset) {
+        int bytes = bytesPerPlayer(board);
+        writeBits(board.bits(BitBoard.PLAYER_X), out, offset, bytes);
+        writeBits(board.bits(BitBoard.PLAYER_O), out, offset + bytes, bytes);
+    }
+
+    @Override
+    public void decode(byte[] in, int offset, int length, BitBoard target) {
+        int bytes = bytesPerPlayer(target);
+        if (length != 2 * bytes) {
+            throw new IllegalArgumentException("Board state does not match a "
+                    + target.getRows() + "x" + target.getCols() + " board");
+        }
+        readBits(in, offset, bytes, target.bits(BitBoard.PLAYER_X), target.cellCount());
+        readBits(in, offset + bytes, bytes, target.bits(BitBoard.PLAYER_O), target.cellCount());
+    }
+
+    private static int bytesPerPlayer(BitBoard board) {
+        return (board.cellCount() + 7) >>> 3;
+    }
+
+    private static void writeBits(long[] bits, byte[] out, int offset, int bytes) {
+        for (int i = 0; i < bytes; i++) {
+            out[offset + i] = (byte) (bits[i >>> 3] >>> ((i & 7) << 3));
+        }
+    }
+
+    private static void readBits(byte[] in, int offset, int bytes, long[] bits, int cells) {
+        for (int i = 0; i < bytes; i++) {
+            bits[i >>> 3] |= (in[offset + i] & 0xFFL) << ((i & 7) << 3);
+        }
+        // Drop padding bits past the last cell so counts stay exact
+        if ((cells & 63) != 0) {
+            bits[cells >>> 6] &= (1L << (cells & 63)) - 1;
+        }
+    }
+
+}
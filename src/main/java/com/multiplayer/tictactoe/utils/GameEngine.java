@@ -2,14 +2,54 @@ package com.multiplayer.tictactoe.utils;
 
 import com.multiplayer.tictactoe.entity.redis.ActiveGame;
 import com.multiplayer.tictactoe.enums.GameStatus;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.util.Set;
-
 @Component
 public class GameEngine {
 
-    private static final Integer CONSECUTIVE_COUNT = 3;
+    public static final int DEFAULT_WIN_LENGTH = 3;
+
+    private static final int[][] DIRECTIONS = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+
+    private final boolean earlyDrawDetection;
+
+    public GameEngine(@Value("${tictactoe.game.early-draw-detection:false}") boolean earlyDrawDetection) {
+        this.earlyDrawDetection = earlyDrawDetection;
+    }
+
+    /**
+     * Resolves the win length for a new game.
+     * Falls back to the default when none is requested and never exceeds the longest board side.
+     */
+    public int resolveWinLength(int requestedWinLength, int rows, int cols) {
+        int winLength = requestedWinLength > 0 ? requestedWinLength : DEFAULT_WIN_LENGTH;
+        return Math.min(winLength, Math.max(rows, cols));
+    }
+
+    /**
+     * Gets the win length of a game, defaulting for games stored before it was configurable
+     */
+    public int getWinLength(ActiveGame game) {
+        return game.getWinLength() > 0 ? game.getWinLength() : DEFAULT_WIN_LENGTH;
+    }
+
+    /**
+     * Initializes the move counter and open line counts of a new game
+     */
+    public void initializeCounters(ActiveGame game) {
+        int rows = game.getBoardVerticalSize();
+        int cols = game.getBoardHorizontalSize();
+        int winLength = getWinLength(game);
+
+        int rowStarts = Math.max(0, rows - winLength + 1);
+        int colStarts = Math.max(0, cols - winLength + 1);
+        int totalLines = rows * colStarts + cols * rowStarts + 2 * rowStarts * colStarts;
+
+        game.setMoveCount(0);
+        game.setOpenLinesX(totalLines);
+        game.setOpenLinesO(totalLines);
+    }
 
     /**
      * Checks if a move is illegal
@@ -44,7 +84,9 @@ public class GameEngine {
      */
     public void makeMove(ActiveGame game, String playerName, int row, int col) {
         Character playerSymbol = getPlayerSymbol(game, playerName);
+        closeOpponentLines(game, playerSymbol, row, col);
         game.setCell(row, col, playerSymbol);
+        game.setMoveCount(game.getMoveCount() + 1);
 
         // Switch turn to the other player
         switchTurn(game);
@@ -58,10 +100,15 @@ public class GameEngine {
         Character lastMovePlayer = game.getCell(lastMoveRow, lastMoveCol);
         if (lastMovePlayer == null) return null;
 
-        // Check all possible win conditions
-        if (checkRowWin(game, lastMoveRow, lastMovePlayer) ||
-                checkColumnWin(game, lastMoveCol, lastMovePlayer) ||
-                checkDiagonalWin(game, lastMovePlayer)) {
+        BitBoard board = game.getBoard();
+        char player = lastMovePlayer;
+        int winLength = getWinLength(game);
+
+        // Only lines through the last move can have been completed by it
+        if (countLine(board, player, lastMoveRow, lastMoveCol, 0, 1, winLength) >= winLength ||
+                countLine(board, player, lastMoveRow, lastMoveCol, 1, 0, winLength) >= winLength ||
+                countLine(board, player, lastMoveRow, lastMoveCol, 1, 1, winLength) >= winLength ||
+                countLine(board, player, lastMoveRow, lastMoveCol, 1, -1, winLength) >= winLength) {
             return lastMovePlayer;
         }
 
@@ -69,13 +116,18 @@ public class GameEngine {
     }
 
     /**
-     * Checks if the game is a draw
+     * Checks if the game is a draw.
+     * With early draw detection enabled, a game is also drawn once no line can be completed by either player.
      */
     public boolean checkDrawCondition(ActiveGame game) {
         int totalCells = game.getBoardVerticalSize() * game.getBoardHorizontalSize();
-        int occupiedCells = game.getAllOccupiedPositions().size();
+        if (game.getMoveCount() >= totalCells) {
+            return true;
+        }
 
-        return occupiedCells == totalCells;
+        return earlyDrawDetection
+                && game.getOpenLinesX() != null && game.getOpenLinesO() != null
+                && game.getOpenLinesX() == 0 && game.getOpenLinesO() == 0;
     }
 
     private boolean isPlayersTurn(ActiveGame game, String playerName) {
@@ -107,72 +159,64 @@ public class GameEngine {
         }
     }
 
-    private boolean checkRowWin(ActiveGame game, int row, Character player) {
-        Set<String> playerPositions = game.getPlayerPositions(player);
-        int consecutiveCount = 0;
+    /**
+     * Decrements the opponent's open line count for every window through (row, col)
+     * that the player had not entered yet. Must run before the cell is set.
+     */
+    private void closeOpponentLines(ActiveGame game, char player, int row, int col) {
+        if (game.getOpenLinesX() == null || game.getOpenLinesO() == null) {
+            return;
+        }
 
-        for (int col = 0; col < game.getBoardHorizontalSize(); col++) {
-            if (playerPositions.contains(row + "," + col)) {
-                consecutiveCount++;
-                if (consecutiveCount == CONSECUTIVE_COUNT) return true;
-            } else {
-                consecutiveCount = 0;
+        BitBoard board = game.getBoard();
+        int winLength = getWinLength(game);
+        int closed = 0;
+
+        for (int[] direction : DIRECTIONS) {
+            int rowStep = direction[0];
+            int colStep = direction[1];
+
+            for (int start = -(winLength - 1); start <= 0; start++) {
+                int firstRow = row + start * rowStep;
+                int firstCol = col + start * colStep;
+                int lastRow = firstRow + (winLength - 1) * rowStep;
+                int lastCol = firstCol + (winLength - 1) * colStep;
+                if (!isValidPosition(game, firstRow, firstCol) || !isValidPosition(game, lastRow, lastCol)) {
+                    continue;
+                }
+
+                boolean playerAlreadyInLine = false;
+                for (int i = 0; i < winLength && !playerAlreadyInLine; i++) {
+                    playerAlreadyInLine = board.isOwnedBy(player, firstRow + i * rowStep, firstCol + i * colStep);
+                }
+                if (!playerAlreadyInLine) {
+                    closed++;
+                }
             }
         }
-        return false;
-    }
 
-    private boolean checkColumnWin(ActiveGame game, int col, Character player) {
-        Set<String> playerPositions = game.getPlayerPositions(player);
-        int consecutiveCount = 0;
-
-        for (int row = 0; row < game.getBoardVerticalSize(); row++) {
-            if (playerPositions.contains(row + "," + col)) {
-                consecutiveCount++;
-                if (consecutiveCount == CONSECUTIVE_COUNT) return true;
-            } else {
-                consecutiveCount = 0;
-            }
+        if (player == BitBoard.PLAYER_X) {
+            game.setOpenLinesO(game.getOpenLinesO() - closed);
+        } else {
+            game.setOpenLinesX(game.getOpenLinesX() - closed);
         }
-        return false;
     }
 
-    private boolean checkDiagonalWin(ActiveGame game, Character player) {
-        return checkMainDiagonalWin(game, player) || checkAntiDiagonalWin(game, player);
-    }
+    /**
+     * Counts the player's consecutive cells through (row, col) along one direction,
+     * walking at most winLength - 1 cells each way
+     */
+    private int countLine(BitBoard board, char player, int row, int col, int rowStep, int colStep, int winLength) {
+        int count = 1;
 
-    private boolean checkMainDiagonalWin(ActiveGame game, Character player) {
-        Set<String> playerPositions = game.getPlayerPositions(player);
-        int consecutiveCount = 0;
-        int size = Math.min(game.getBoardVerticalSize(), game.getBoardHorizontalSize());
-
-        for (int i = 0; i < size; i++) {
-            if (playerPositions.contains(i + "," + i)) {
-                consecutiveCount++;
-                if (consecutiveCount == CONSECUTIVE_COUNT) return true;
-            } else {
-                consecutiveCount = 0;
-            }
+        for (int i = 1; i < winLength && board.isOwnedBy(player, row + i * rowStep, col + i * colStep); i++) {
+            count++;
         }
-        return false;
-    }
 
-    private boolean checkAntiDiagonalWin(ActiveGame game, Character player) {
-        Set<String> playerPositions = game.getPlayerPositions(player);
-        int consecutiveCount = 0;
-        int rows = game.getBoardVerticalSize();
-        int cols = game.getBoardHorizontalSize();
-        int size = Math.min(rows, cols);
-
-        for (int i = 0; i < size; i++) {
-            if (playerPositions.contains(i + "," + (cols - 1 - i))) {
-                consecutiveCount++;
-                if (consecutiveCount == CONSECUTIVE_COUNT) return true;
-            } else {
-                consecutiveCount = 0;
-            }
+        for (int i = 1; i < winLength && board.isOwnedBy(player, row - i * rowStep, col - i * colStep); i++) {
+            count++;
         }
 
-        return false;
+        return count;
     }
 }
@@ -0,0 +1,72 @@
+package com.multiplayer.tictactoe.utils;
+
+import java.util.Arrays;
+
+/**
+ * Compact binary move list, as stored in game_history.move_list.
+ * A version byte, then the cell index (row * cols + col) of every move as an unsigned varint, in the order played.
+ * Players alternate starting with X, so the mover of each move is implied by its position in the list.
+ * A 3x3 game takes at most 10 bytes and a game on a board of up to 128 cells one byte per move.
+ */
+public final class MoveListCodec {
+
+    public static final byte VERSION = 1;
+
+    private MoveListCodec() {
+    }
+
+    public static byte[] encode(int[] cells) {
+        byte[] out = new byte[1 + cells.length * 5];
+        out[0] = VERSION;
+        int position = 1;
+        for (int cell : cells) {
+            while ((cell & ~0x7F) != 0) {
+                out[position++] = (byte) ((cell & 0x7F) | 0x80);
+                cell >>>= 7;
+            }
+            out[position++] = (byte) cell;
+        }
+        return Arrays.copyOf(out, position);
+    }
+
+    public static int[] decode(byte[] encoded) {
+        if (encoded == null || encoded.length == 0) {
+            return new int[0];
+        }
+        if (encoded[0] != VERSION) {
+            throw new IllegalArgumentException("Unknown move list version " + encoded[0]);
+        }
+
+        int[] cells = new int[encoded.length - 1];
+        int count = 0;
+        int value = 0;
+        int shift = 0;
+        for (int position = 1; position < encoded.length; position++) {
+            byte b = encoded[position];
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                cells[count++] = value;
+                value = 0;
+                shift = 0;
+            } else if ((shift += 7) > 28) {
+                throw new IllegalArgumentException("Malformed varint in move list");
+            }
+        }
+        if (shift != 0) {
+            throw new IllegalArgumentException("Truncated move list");
+        }
+        return Arrays.copyOf(cells, count);
+    }
+
+    /**
+     * Rebuilds the board after the first moves of the list, X playing the even moves
+     */
+    public static BitBoard replay(int[] cells, int moves, int rows, int cols) {
+        BitBoard board = new BitBoard(rows, cols);
+        for (int i = 0; i < Math.min(moves, cells.length); i++) {
+            board.set(cells[i] / cols, cells[i] % cols, i % 2 == 0 ? BitBoard.PLAYER_X : BitBoard.PLAYER_O);
+        }
+        return board;
+    }
+
+}
@@ -0,0 +1,20 @@
+package com.multiplayer.tictactoe.utils;
+
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Identifies this application instance in messages shared between instances,
+ * so an instance can ignore its own broadcasts
+ */
+@Component
+public class NodeIdentity {
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+}
@@ -0,0 +1,119 @@
+package com.multiplayer.tictactoe.utils;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Opaque handles published for players in place of their session ids, which double as their credentials.
+ * A handle is the session id encrypted deterministically under a server secret: the IV is an HMAC of the session id
+ * and the session id is encrypted with AES-CTR under that IV. A player therefore always gets the same handle,
+ * a handle can be turned back into the session id to look the player up, and neither works without the secret.
+ * Every instance must share the secret, otherwise a handle from one instance is unknown to another.
+ */
+@Slf4j
+@Component
+public class PlayerHandles {
+
+    private static final int IV_LENGTH = 16;
+
+    private static final int KEY_LENGTH = 32;
+
+    private final SecretKeySpec macKey;
+
+    private final SecretKeySpec encryptionKey;
+
+    public PlayerHandles(@Value("${tictactoe.player-handle.secret:}") String secret) {
+        byte[] keys;
+        if (secret.isBlank()) {
+            log.warn("tictactoe.player-handle.secret is not set, player handles change on restart and differ between instances");
+            keys = new byte[2 * KEY_LENGTH];
+            new SecureRandom().nextBytes(keys);
+        } else {
+            keys = sha512(secret.getBytes(StandardCharsets.UTF_8));
+        }
+        this.macKey = new SecretKeySpec(keys, 0, KEY_LENGTH, "HmacSHA256");
+        this.encryptionKey = new SecretKeySpec(keys, KEY_LENGTH, KEY_LENGTH, "AES");
+    }
+
+    /**
+     * The handle of the player with the given session id, null for null
+     */
+    public String toHandle(String sessionId) {
+        if (sessionId == null) {
+            return null;
+        }
+
+        byte[] plain = sessionId.getBytes(StandardCharsets.UTF_8);
+        byte[] iv = syntheticIv(plain);
+        byte[] handle = Arrays.copyOf(iv, IV_LENGTH + plain.length);
+        System.arraycopy(crypt(iv, plain), 0, handle, IV_LENGTH, plain.length);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(handle);
+    }
+
+    /**
+     * The session id behind a handle, empty for anything that is not a handle issued under this secret
+     */
+    public Optional<String> toSessionId(String handle) {
+        byte[] decoded;
+        try {
+            decoded = Base64.getUrlDecoder().decode(handle);
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+        if (decoded.length <= IV_LENGTH) {
+            return Optional.empty();
+        }
+
+        byte[] iv = Arrays.copyOf(decoded, IV_LENGTH);
+        byte[] plain = crypt(iv, Arrays.copyOfRange(decoded, IV_LENGTH, decoded.length));
+        if (!MessageDigest.isEqual(iv, syntheticIv(plain))) {
+            return Optional.empty();
+        }
+        return Optional.of(new String(plain, StandardCharsets.UTF_8));
+    }
+
+    private byte[] syntheticIv(byte[] plain) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(macKey);
+            return Arrays.copyOf(mac.doFinal(plain), IV_LENGTH);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+
+    /**
+     * Encrypts or decrypts, CTR mode being its own inverse
+     */
+    private byte[] crypt(byte[] iv, byte[] input) {
+        try {
+            Cipher cipher = Cipher.getInstance("AES/CTR/NoPadding");
+            cipher.init(Cipher.ENCRYPT_MODE, encryptionKey, new IvParameterSpec(iv));
+            return cipher.doFinal(input);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("AES/CTR is not available", e);
+        }
+    }
+
+    private static byte[] sha512(byte[] input) {
+        try {
+            return MessageDigest.getInstance("SHA-512").digest(input);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-512 is not available", e);
+        }
+    }
+
+}
@@ -0,0 +1,127 @@
+package com.multiplayer.tictactoe.utils;
+
+/**
+ * Move-list format for large, mostly empty boards. For X and then O it writes the number of
+ * occupied cells followed by the gaps between their cell indexes, all as unsigned varints.
+ */
+public class SparseBoardCodec implements BoardCodec {
+
+    public static final byte VERSION = 2;
+
+    @Override
+    public byte version() {
+        return VERSION;
+    }
+
+    @Override
+    public int encodedLength(BitBoard board) {
+        return listLength(board.bits(BitBoard.PLAYER_X)) + listLength(board.bits(BitBoard.PLAYER_O));
+    }
+
+    @Override
+    public void encode(BitBoard board, byte[] out, int offset) {
+        int position = writeList(board.bits(BitBoard.PLAYER_X), out, offset);
+        writeList(board.bits(BitBoard.PLAYER_O), out, position);
+    }
+
+    @Override
+    public void decode(byte[] in, int offset, int length, BitBoard target) {
+        int end = offset + length;
+        int position = readList(in, offset, end, target.bits(BitBoard.PLAYER_X), target.cellCount());
+        position = readList(in, position, end, target.bits(BitBoard.PLAYER_O), target.cellCount());
+        if (position != end) {
+            throw new IllegalArgumentException("Trailing bytes after sparse board state");
+        }
+    }
+
+    private static int listLength(long[] bits) {
+        int count = 0;
+        int length = 0;
+        int previous = -1;
+        for (int word = 0; word < bits.length; word++) {
+            long remaining = bits[word];
+            while (remaining != 0) {
+                int index = (word << 6) + Long.numberOfTrailingZeros(remaining);
+                length += varintLength(index - previous - 1);
+                previous = index;
+                count++;
+                remaining &= remaining - 1;
+            }
+        }
+        return varintLength(count) + length;
+    }
+
+    private static int writeList(long[] bits, byte[] out, int position) {
+        int count = 0;
+        for (long word : bits) {
+            count += Long.bitCount(word);
+        }
+        position = writeVarint(count, out, position);
+
+        int previous = -1;
+        for (int word = 0; word < bits.length; word++) {
+            long remaining = bits[word];
+            while (remaining != 0) {
+                int index = (word << 6) + Long.numberOfTrailingZeros(remaining);
+                position = writeVarint(index - previous - 1, out, position);
+                previous = index;
+                remaining &= remaining - 1;
+            }
+        }
+        return position;
+    }
+
+    private static int readList(byte[] in, int position, int end, long[] bits, int cells) {
+        long read = readVarint(in, position, end);
+        int count = (int) (read >>> 32);
+        position = (int) read;
+        if (count > cells) {
+            throw new IllegalArgumentException("Sparse board state lists more cells than the board has");
+        }
+
+        int previous = -1;
+        for (int i = 0; i < count; i++) {
+            read = readVarint(in, position, end);
+            int index = previous + (int) (read >>> 32) + 1;
+            position = (int) read;
+            if (index < 0 || index >= cells) {
+                throw new IllegalArgumentException("Cell index " + index + " is outside the board");
+            }
+            bits[index >>> 6] |= 1L << (index & 63);
+            previous = index;
+        }
+        return position;
+    }
+
+    /**
+     * Reads one varint of at most 28 bits, returning the value in the high half and the next position in the low half
+     */
+    private static long readVarint(byte[] in, int position, int end) {
+        int value = 0;
+        for (int shift = 0; shift < 28; shift += 7) {
+            if (position >= end) {
+                throw new IllegalArgumentException("Truncated sparse board state");
+            }
+            byte b = in[position++];
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return ((long) value << 32) | position;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint in sparse board state");
+    }
+
+    private static int writeVarint(int value, byte[] out, int position) {
+        while ((value & ~0x7F) != 0) {
+            out[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out[position++] = (byte) value;
+        return position;
+    }
+
+    private static int varintLength(int value) {
+        return value == 0 ? 1 : (38 - Integer.numberOfLeadingZeros(value)) / 7;
+    }
+
+}
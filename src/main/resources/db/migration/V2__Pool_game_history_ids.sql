@@ -0,0 +1,3 @@
+-- Hibernate allocates game_history ids in blocks of 50 (pooled optimizer), so batched inserts
+-- fetch one sequence value per block instead of one per row
+ALTER SEQUENCE game_history_id_seq INCREMENT BY 50;
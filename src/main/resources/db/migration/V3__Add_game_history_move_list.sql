@@ -0,0 +1,4 @@
+-- Finished games keep their moves in play order (see MoveListCodec) instead of the final board,
+-- so they can be replayed. board_state is left for rows written before this column existed.
+ALTER TABLE game_history ADD COLUMN move_list BYTEA;
+ALTER TABLE game_history ADD COLUMN win_length INTEGER;
@@ -0,0 +1,16 @@
+-- Keyset pages of game history, newest first, without sorting or visiting the heap.
+-- A player's games are found through either seat, so each seat has its own covering index.
+-- Built concurrently so writes to game_history are not blocked while the indexes are built.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_game_history_user_id_x_completed
+    ON game_history (user_id_x, completed_at DESC, id DESC)
+    INCLUDE (game_id, user_id_o, status, winner_id, board_vertical_size, board_horizontal_size);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_game_history_user_id_o_completed
+    ON game_history (user_id_o, completed_at DESC, id DESC)
+    INCLUDE (game_id, user_id_x, status, winner_id, board_vertical_size, board_horizontal_size);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_game_history_status_completed
+    ON game_history (status, completed_at DESC, id DESC);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_game_history_completed
+    ON game_history (completed_at DESC, id DESC);
@@ -0,0 +1,31 @@
+-- Per-player results, kept up to date by the history writer in the same transaction as the games
+-- it inserts, so stats and leaderboards never scan game_history. The computer player is not ranked.
+CREATE TABLE player_stats (
+    player_id VARCHAR(255) PRIMARY KEY,
+    wins INTEGER NOT NULL DEFAULT 0,
+    losses INTEGER NOT NULL DEFAULT 0,
+    draws INTEGER NOT NULL DEFAULT 0,
+    last_played_at TIMESTAMP
+);
+
+CREATE INDEX idx_player_stats_leaderboard ON player_stats (wins DESC, player_id);
+
+INSERT INTO player_stats (player_id, wins, losses, draws, last_played_at)
+SELECT player_id, SUM(win), SUM(loss), SUM(draw), MAX(completed_at)
+FROM (
+    SELECT user_id_x AS player_id,
+           CASE WHEN status = 'X_WON' THEN 1 ELSE 0 END AS win,
+           CASE WHEN status = 'O_WON' THEN 1 ELSE 0 END AS loss,
+           CASE WHEN status = 'DRAW' THEN 1 ELSE 0 END AS draw,
+           completed_at
+    FROM game_history
+    UNION ALL
+    SELECT user_id_o,
+           CASE WHEN status = 'O_WON' THEN 1 ELSE 0 END,
+           CASE WHEN status = 'X_WON' THEN 1 ELSE 0 END,
+           CASE WHEN status = 'DRAW' THEN 1 ELSE 0 END,
+           completed_at
+    FROM game_history
+) results
+WHERE player_id <> 'AI'
+GROUP BY player_id;
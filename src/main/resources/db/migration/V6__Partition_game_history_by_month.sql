@@ -0,0 +1,81 @@
+-- game_history becomes a table range-partitioned by completed_at, one partition per month
+-- (game_history_pYYYYMM), so inserts and index maintenance only ever touch the current month
+-- and old months can be detached and archived whole by GameHistoryPartitionMaintainer.
+--
+-- Keys of a partitioned table must include the partition key, so the primary key becomes
+-- (id, completed_at) and game_id is unique per completion time rather than globally.
+-- The history writer retries a batch with the same rows, so repeated inserts still collide.
+ALTER TABLE game_history RENAME TO game_history_unpartitioned;
+ALTER TABLE game_history_unpartitioned RENAME CONSTRAINT game_history_pkey TO game_history_unpartitioned_pkey;
+ALTER TABLE game_history_unpartitioned RENAME CONSTRAINT game_history_game_id_key TO game_history_unpartitioned_game_id_key;
+-- Keep the id sequence when the old table is dropped
+ALTER SEQUENCE game_history_id_seq OWNED BY NONE;
+
+CREATE TABLE game_history (
+    id BIGINT NOT NULL DEFAULT nextval('game_history_id_seq'),
+    game_id VARCHAR(255) NOT NULL,
+    user_id_x VARCHAR(255) NOT NULL,
+    user_id_o VARCHAR(255) NOT NULL,
+    status VARCHAR(50) NOT NULL,
+    board_vertical_size INTEGER NOT NULL,
+    board_horizontal_size INTEGER NOT NULL,
+    board_state TEXT,
+    winner_id VARCHAR(255),
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    completed_at TIMESTAMP NOT NULL,
+    move_list BYTEA,
+    win_length INTEGER,
+    CONSTRAINT game_history_pkey PRIMARY KEY (id, completed_at),
+    CONSTRAINT game_history_game_id_key UNIQUE (game_id, completed_at)
+) PARTITION BY RANGE (completed_at);
+
+ALTER SEQUENCE game_history_id_seq OWNED BY game_history.id;
+
+-- One partition for every month with history, and for the next three months so inserts
+-- never wait on the maintainer right after deploying
+DO $$
+DECLARE
+    month_start DATE;
+    last_month DATE;
+BEGIN
+    SELECT date_trunc('month', LEAST(MIN(COALESCE(completed_at, updated_at, created_at)), LOCALTIMESTAMP))::DATE
+    INTO month_start
+    FROM game_history_unpartitioned;
+    month_start := COALESCE(month_start, date_trunc('month', LOCALTIMESTAMP)::DATE);
+    last_month := (date_trunc('month', LOCALTIMESTAMP) + INTERVAL '3 months')::DATE;
+
+    WHILE month_start <= last_month LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF game_history FOR VALUES FROM (%L) TO (%L)',
+                       'game_history_p' || to_char(month_start, 'YYYYMM'),
+                       month_start,
+                       (month_start + INTERVAL '1 month')::DATE);
+        month_start := (month_start + INTERVAL '1 month')::DATE;
+    END LOOP;
+END $$;
+
+-- completed_at was nullable before, such rows are filed under their last update
+INSERT INTO game_history (id, game_id, user_id_x, user_id_o, status, board_vertical_size, board_horizontal_size,
+                          board_state, winner_id, created_at, updated_at, completed_at, move_list, win_length)
+SELECT id, game_id, user_id_x, user_id_o, status, board_vertical_size, board_horizontal_size,
+       board_state, winner_id, created_at, updated_at, COALESCE(completed_at, updated_at, created_at, LOCALTIMESTAMP),
+       move_list, win_length
+FROM game_history_unpartitioned;
+
+DROP TABLE game_history_unpartitioned;
+
+-- The V4 indexes went with the old table. Declared on the parent, they are created on every
+-- partition, including the ones the maintainer adds later.
+CREATE INDEX idx_game_history_user_id_x_completed
+    ON game_history (user_id_x, completed_at DESC, id DESC)
+    INCLUDE (game_id, user_id_o, status, winner_id, board_vertical_size, board_horizontal_size);
+
+CREATE INDEX idx_game_history_user_id_o_completed
+    ON game_history (user_id_o, completed_at DESC, id DESC)
+    INCLUDE (game_id, user_id_x, status, winner_id, board_vertical_size, board_horizontal_size);
+
+CREATE INDEX idx_game_history_status_completed
+    ON game_history (status, completed_at DESC, id DESC);
+
+CREATE INDEX idx_game_history_completed
+    ON game_history (completed_at DESC, id DESC);
@@ -0,0 +1,60 @@
+-- Applies a validated move to an ActiveGame hash in a single round trip.
+-- The move is only written if the game is still in progress, it is still the
+-- mover's turn, the cell is free and no other move landed since the game was read (moveCount).
+-- Occupied cells are tracked in a bitmap next to the hash, so the cell is checked
+-- without decoding the board. Cells played before the bitmap existed are not in it,
+-- the moveCount check still rejects moves validated against a stale board.
+--
+-- The move is appended to the game's move log stream in the same step, so the log
+-- holds exactly the moves that were applied, in order.
+--
+-- KEYS[1] game hash key, KEYS[2] move log stream key, KEYS[3] occupied cells bitmap key,
+-- all tagged with the game id so they hash to one Redis Cluster slot
+-- ARGV[1] mover session id, ARGV[2] expected move count
+-- ARGV[3] board state, ARGV[4] next turn session id, ARGV[5] move count, ARGV[6] status
+-- ARGV[7] open lines for X, ARGV[8] open lines for O (empty when not tracked)
+-- ARGV[9] time to live in seconds
+-- ARGV[10] channel to announce the change on, ARGV[11] announcement (skipped when the channel is empty)
+-- ARGV[12] cell index of the move (row * cols + col)
+--
+-- Returns 1 when applied, 0 on a turn, cell or version conflict, -1 when the game does not exist.
+
+if redis.call('EXISTS', KEYS[1]) == 0 then
+    return -1
+end
+
+local current = redis.call('HMGET', KEYS[1], 'currentTurnSessionId', 'moveCount', 'status')
+if current[3] ~= 'IN_PROGRESS'
+        or current[1] ~= ARGV[1]
+        or tonumber(current[2] or '0') ~= tonumber(ARGV[2]) then
+    return 0
+end
+
+local cell = tonumber(ARGV[12])
+if redis.call('GETBIT', KEYS[3], cell) == 1 then
+    return 0
+end
+
+redis.call('HSET', KEYS[1],
+        'boardState', ARGV[3],
+        'currentTurnSessionId', ARGV[4],
+        'moveCount', ARGV[5],
+        'status', ARGV[6])
+
+if ARGV[7] ~= '' then
+    redis.call('HSET', KEYS[1], 'openLinesX', ARGV[7], 'openLinesO', ARGV[8])
+end
+
+redis.call('EXPIRE', KEYS[1], ARGV[9])
+
+redis.call('XADD', KEYS[2], '*', 'move', ARGV[5], 'cell', ARGV[12])
+redis.call('EXPIRE', KEYS[2], ARGV[9])
+
+redis.call('SETBIT', KEYS[3], cell, 1)
+redis.call('EXPIRE', KEYS[3], ARGV[9])
+
+if ARGV[10] ~= '' then
+    redis.call('PUBLISH', ARGV[10], ARGV[11])
+end
+
+return 1
@@ -0,0 +1,17 @@
+-- Adds a player to a matchmaking queue unless they are already waiting in one,
+-- so a session can never be paired into two games, whichever instance it was queued through.
+--
+-- KEYS[1] queue sorted set (member = session id, score = enqueue time in ms)
+-- KEYS[2] set of queue keys that may hold players
+-- KEYS[3] hash of waiting session ids to their queue key, all three tagged to hash to one Redis Cluster slot
+-- ARGV[1] session id, ARGV[2] enqueue time in ms
+--
+-- Returns 1 when the player was queued, 0 when they are already waiting.
+
+if redis.call('HSETNX', KEYS[3], ARGV[1], KEYS[1]) == 0 then
+    return 0
+end
+
+redis.call('ZADD', KEYS[1], ARGV[2], ARGV[1])
+redis.call('SADD', KEYS[2], KEYS[1])
+return 1
@@ -0,0 +1,12 @@
+-- Takes a player out of a matchmaking queue and forgets where they were waiting.
+--
+-- KEYS[1] queue sorted set, KEYS[2] hash of waiting session ids to their queue key, see enqueue_player.lua
+-- ARGV[1] session id
+--
+-- A player who was already paired or queued again elsewhere keeps their entry in KEYS[2].
+
+redis.call('ZREM', KEYS[1], ARGV[1])
+if redis.call('HGET', KEYS[2], ARGV[1]) == KEYS[1] then
+    redis.call('HDEL', KEYS[2], ARGV[1])
+end
+return 1
@@ -0,0 +1,34 @@
+-- Pops pairs of waiting players from a matchmaking queue in one atomic step,
+-- so several instances can pair from the same queue without matching a player twice.
+--
+-- KEYS[1] queue sorted set (member = session id, score = enqueue time in ms)
+-- KEYS[2] set of queue keys that may hold players, tagged like the queues so both hash to one Redis Cluster slot
+-- KEYS[3] hash of waiting session ids to their queue key, see enqueue_player.lua
+-- ARGV[1] maximum pairs to pop, ARGV[2] enqueue time before which players have waited too long
+--
+-- Returns {players left waiting, timed out session ids, popped session id and score pairs}.
+-- The queue key is dropped from KEYS[2] once it is empty; enqueueing adds it back.
+
+local expired = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', '(' .. ARGV[2], 'LIMIT', 0, 1000)
+if #expired > 0 then
+    redis.call('ZREMRANGEBYRANK', KEYS[1], 0, #expired - 1)
+    redis.call('HDEL', KEYS[3], unpack(expired))
+end
+
+local waiting = redis.call('ZCARD', KEYS[1])
+local pairs = math.min(math.floor(waiting / 2), tonumber(ARGV[1]))
+
+local popped = {}
+if pairs > 0 then
+    popped = redis.call('ZPOPMIN', KEYS[1], pairs * 2)
+    for i = 1, #popped, 2 do
+        redis.call('HDEL', KEYS[3], popped[i])
+    end
+end
+
+local remaining = waiting - pairs * 2
+if remaining == 0 then
+    redis.call('SREM', KEYS[2], KEYS[1])
+end
+
+return {remaining, expired, popped}
@@ -0,0 +1,35 @@
+-- Lease of the one recompute rebuilding the leaderboards, shared by all instances.
+-- While it is held update_ratings.lua appends live games to the held back list instead of rating them,
+-- so no update lands on a live leaderboard the recompute is about to replace.
+--
+-- KEYS[1] lease (value = token of the recompute holding it), KEYS[2] list of held back games,
+-- both tagged {rating} so they hash to one Redis Cluster slot
+-- ARGV[1] token, ARGV[2] 'acquire', 'renew' or 'release', ARGV[3] lease time in ms
+--
+-- acquire: 1 when the lease was taken, 0 when another recompute holds it.
+-- The held back list is cleared, games left from a recompute that died are rated from game_history again.
+-- renew: 1 when the lease was extended, -1 when it is no longer held by the token.
+-- release: 1 when released, 0 when games are still held back, -1 when it is no longer held by the token.
+
+if ARGV[2] == 'acquire' then
+    if not redis.call('SET', KEYS[1], ARGV[1], 'NX', 'PX', ARGV[3]) then
+        return 0
+    end
+    redis.call('DEL', KEYS[2])
+    return 1
+end
+
+if redis.call('GET', KEYS[1]) ~= ARGV[1] then
+    return -1
+end
+
+if ARGV[2] == 'renew' then
+    redis.call('PEXPIRE', KEYS[1], ARGV[3])
+    return 1
+end
+
+if redis.call('LLEN', KEYS[2]) > 0 then
+    return 0
+end
+redis.call('DEL', KEYS[1])
+return 1
@@ -0,0 +1,52 @@
+-- Applies the Elo updates of a batch of finished games in one atomic step, in the order given,
+-- so writers on several instances never read a rating another one is about to replace.
+-- While a recompute holds its lease, live batches are appended to the held back list instead,
+-- and the recompute applies them once its rebuilt leaderboards are swapped in.
+--
+-- KEYS[1] recompute lease, KEYS[2] list of held back games, see rating_recompute_lease.lua
+-- KEYS[3] global rating sorted set, KEYS[4..n] per board size rating sorted sets (member = player id, score = rating),
+-- all tagged {rating} so they hash to one Redis Cluster slot
+-- ARGV[1] K factor, ARGV[2] rating of a player's first game
+-- ARGV[3] held back games to drop from the head of KEYS[2] once applied, 0 for a live batch
+-- ARGV[4] lease token of the recompute applying held back games, empty for a live batch
+-- ARGV[5..] one group of five per game: player X, player O, X's result (1 won, 0.5 draw, 0 lost),
+-- index into KEYS of the game's board size sorted set, the game as held back while a recompute runs
+--
+-- Returns the number of games applied, -1 when a live batch was held back,
+-- -2 when the recompute applying held back games no longer holds the lease.
+
+local drop = tonumber(ARGV[3])
+if drop == 0 then
+    if redis.call('EXISTS', KEYS[1]) == 1 then
+        for i = 9, #ARGV, 5 do
+            redis.call('RPUSH', KEYS[2], ARGV[i])
+        end
+        return -1
+    end
+elseif redis.call('GET', KEYS[1]) ~= ARGV[4] then
+    return -2
+end
+
+local k = tonumber(ARGV[1])
+local initial = tonumber(ARGV[2])
+
+local function apply(key, x, o, resultX)
+    local ratingX = tonumber(redis.call('ZSCORE', key, x)) or initial
+    local ratingO = tonumber(redis.call('ZSCORE', key, o)) or initial
+    local expectedX = 1 / (1 + 10 ^ ((ratingO - ratingX) / 400))
+    local delta = k * (resultX - expectedX)
+    redis.call('ZADD', key, ratingX + delta, x, ratingO - delta, o)
+end
+
+local games = 0
+for i = 5, #ARGV, 5 do
+    local resultX = tonumber(ARGV[i + 2])
+    apply(KEYS[3], ARGV[i], ARGV[i + 1], resultX)
+    apply(KEYS[tonumber(ARGV[i + 3])], ARGV[i], ARGV[i + 1], resultX)
+    games = games + 1
+end
+
+if drop > 0 then
+    redis.call('LTRIM', KEYS[2], drop, -1)
+end
+return games
@@ -8,8 +8,11 @@ class TicTacToeGame {
         this.gameBoard = null;
         this.boardVerticalSize = 3;
         this.boardHorizontalSize = 3;
-        this.sessionIdX = null;
-        this.sessionIdO = null;
+        this.winLength = 3;
+        this.moveNumber = 0;
+        this.gameSubscription = null;
+        this.hint = null;
+        this.spectating = false;
         
         this.initializeElements();
         this.setupEventListeners();
@@ -25,6 +28,10 @@ class TicTacToeGame {
         this.joinGameForm = document.getElementById('joinGameForm');
         this.quitGameBtn = document.getElementById('quitGameBtn');
         this.playAgainBtn = document.getElementById('playAgainBtn');
+        this.quickPlayBtn = document.getElementById('quickPlayBtn');
+        this.spectateBtn = document.getElementById('spectateBtn');
+        this.hintBtn = document.getElementById('hintBtn');
+        this.hintMessage = document.getElementById('hintMessage');
         
         this.gameIdDisplay = document.getElementById('currentGameId');
         this.gameStatus = document.getElementById('gameStatus');
@@ -35,6 +42,8 @@ class TicTacToeGame {
         
         this.boardVerticalSizeInput = document.getElementById('boardVerticalSize');
         this.boardHorizontalSizeInput = document.getElementById('boardHorizontalSize');
+        this.winLengthInput = document.getElementById('winLength');
+        this.aiOpponentInput = document.getElementById('aiOpponent');
         this.joinBoardVerticalSizeInput = document.getElementById('joinBoardVerticalSize');
         this.joinBoardHorizontalSizeInput = document.getElementById('joinBoardHorizontalSize');
     }
@@ -44,15 +53,34 @@ class TicTacToeGame {
             e.preventDefault();
             this.boardVerticalSize = parseInt(this.boardVerticalSizeInput.value);
             this.boardHorizontalSize = parseInt(this.boardHorizontalSizeInput.value);
+            this.winLength = parseInt(this.winLengthInput.value);
             this.createGame();
         });
         
+        this.quickPlayBtn.addEventListener('click', () => {
+            this.boardVerticalSize = parseInt(this.boardVerticalSizeInput.value);
+            this.boardHorizontalSize = parseInt(this.boardHorizontalSizeInput.value);
+            this.winLength = parseInt(this.winLengthInput.value);
+            this.quickPlay();
+        });
+        
         this.joinGameForm.addEventListener('submit', (e) => {
             e.preventDefault();
             const gameId = document.getElementById('gameId').value;
             this.joinGame(gameId);
         });
         
+        this.spectateBtn.addEventListener('click', () => {
+            const gameId = document.getElementById('gameId').value;
+            if (gameId) {
+                this.spectateGame(gameId);
+            }
+        });
+        
+        this.hintBtn.addEventListener('click', () => {
+            this.requestHint();
+        });
+        
         this.quitGameBtn.addEventListener('click', () => {
             this.quitGame();
         });
@@ -75,34 +103,63 @@ class TicTacToeGame {
         this.stompClient.connect({}, (frame) => {
             console.log('Connected: ' + frame);
             
-            // Subscribe to session-specific topics for game notifications
-            this.stompClient.subscribe('/topic/session/' + this.sessionId, (message) => {
+            // Subscribe to the session-specific topic for private notifications and errors
+            this.stompClient.subscribe('/topic/session.' + this.sessionId, (message) => {
                 console.log('Received game notification:', message.body);
-                const data = JSON.parse(message.body);
-
-                // Check message type based on properties
-                if (data.hasOwnProperty('errorCode')) {
-                    // This is an error notification
-                    this.handleErrorNotification(data);
-                } else if (data.hasOwnProperty('currentTurnSessionId') && data.hasOwnProperty('boardVerticalSize')) {
-                    // This is a game start notification
-                    this.handleGameNotification(data);
-                } else if (data.hasOwnProperty('nextPlayerId')) {
-                    // This is a move notification
-                    this.handleMoveMade(data);
-                } else {
-                    // Handle other types of messages if needed
-                    console.log('Unknown message type received:', data);
-                }
+                this.handleMessage(JSON.parse(message.body));
             });
         });
     }
     
+    subscribeToGame(gameId, topic = 'game') {
+        if (this.gameSubscription) {
+            return;
+        }
+        
+        // Game events are published once per game and shared by both players, spectators have their own topic
+        this.gameSubscription = this.stompClient.subscribe('/topic/' + topic + '.' + gameId, (message) => {
+            console.log('Received game event:', message.body);
+            this.handleMessage(JSON.parse(message.body));
+        });
+    }
+    
+    unsubscribeFromGame() {
+        if (this.gameSubscription) {
+            this.gameSubscription.unsubscribe();
+            this.gameSubscription = null;
+        }
+    }
+    
+    handleMessage(data) {
+        // Check message type based on properties
+        if (data.hasOwnProperty('errorCode')) {
+            // This is an error notification
+            this.handleErrorNotification(data);
+        } else if (data.hasOwnProperty('nextTurn')) {
+            // This is a move notification, for players or for spectators
+            this.handleMoveMade(data);
+        } else if (data.hasOwnProperty('boardState')) {
+            // This is a full game snapshot, sent after a resync request or to a spectator
+            this.handleGameSnapshot(data);
+        } else if (data.hasOwnProperty('boardVerticalSize')) {
+            // This is a game start notification
+            this.handleGameNotification(data);
+        } else if (data.hasOwnProperty('movesToEnd')) {
+            // This is a hint from the tablebase
+            this.handleHint(data);
+        } else {
+            // Handle other types of messages if needed
+            console.log('Unknown message type received:', data);
+        }
+    }
+    
     createGame() {
         const gameData = {
             gameId: null, // null means create new game
             boardVerticalSize: this.boardVerticalSize,
             boardHorizontalSize: this.boardHorizontalSize,
+            winLength: this.winLength,
+            aiOpponent: this.aiOpponentInput.checked,
             sessionId: this.sessionId
         };
         
@@ -110,6 +167,27 @@ class TicTacToeGame {
         this.stompClient.send("/app/game.createOrJoin", {}, JSON.stringify(gameData));
     }
     
+    quickPlay() {
+        const queueData = {
+            boardVerticalSize: this.boardVerticalSize,
+            boardHorizontalSize: this.boardHorizontalSize,
+            winLength: this.winLength,
+            sessionId: this.sessionId
+        };
+        
+        // The game start arrives on the session topic once an opponent is found
+        this.quickPlayBtn.disabled = true;
+        this.quickPlayBtn.textContent = 'Searching for opponent...';
+        
+        console.log('Sending quick play request:', queueData);
+        this.stompClient.send("/app/game.quickPlay", {}, JSON.stringify(queueData));
+    }
+    
+    resetQuickPlay() {
+        this.quickPlayBtn.disabled = false;
+        this.quickPlayBtn.textContent = 'Quick Play';
+    }
+    
     joinGame(gameId) {
         const gameData = {
             gameId: gameId,
@@ -118,10 +196,31 @@ class TicTacToeGame {
             sessionId: this.sessionId
         };
         
+        // Subscribe before joining so the game start event is not missed
+        this.subscribeToGame(gameId);
+        
         console.log('Sending join game request:', gameData);
         this.stompClient.send("/app/game.createOrJoin", {}, JSON.stringify(gameData));
     }
     
+    spectateGame(gameId) {
+        this.spectating = true;
+        this.gameId = gameId;
+        
+        // Subscribe before asking for the snapshot so no frame falls in between
+        this.subscribeToGame(gameId, 'spectate');
+        this.requestSpectatorSnapshot();
+    }
+    
+    requestSpectatorSnapshot() {
+        const spectateData = {
+            gameId: this.gameId,
+            sessionId: this.sessionId
+        };
+        
+        this.stompClient.send("/app/game.spectate", {}, JSON.stringify(spectateData));
+    }
+    
     makeMove(row, col) {
         if (this.playerRole !== this.currentTurn) {
             // Not the player's turn
@@ -140,29 +239,63 @@ class TicTacToeGame {
         this.stompClient.send("/app/game.makeMove", {}, JSON.stringify(moveData));
     }
     
+    requestSync() {
+        const syncData = {
+            gameId: this.gameId,
+            sessionId: this.sessionId
+        };
+        
+        console.log('Requesting game snapshot:', syncData);
+        this.stompClient.send("/app/game.sync", {}, JSON.stringify(syncData));
+    }
+    
+    requestHint() {
+        const hintData = {
+            gameId: this.gameId,
+            sessionId: this.sessionId
+        };
+        
+        this.stompClient.send("/app/game.hint", {}, JSON.stringify(hintData));
+    }
+    
+    handleHint(data) {
+        if (data.gameId !== this.gameId) return;
+        
+        const outcome = {
+            WIN: `you can force a win in ${data.movesToEnd} moves`,
+            DRAW: 'the game is a draw with best play',
+            LOSS: `your opponent can force a win in ${data.movesToEnd} moves`
+        }[data.value];
+        this.hint = { row: data.row, col: data.col };
+        this.hintMessage.textContent = `Best move: row ${data.row + 1}, column ${data.col + 1} (${outcome})`;
+        this.renderBoard();
+    }
+    
+    clearHint() {
+        this.hint = null;
+        this.hintMessage.textContent = '';
+    }
+    
     handleGameNotification(data) {
         this.gameId = data.gameId;
         
-        // Determine player role based on session ID
-        if (data.sessionIdX === this.sessionId) {
-            this.playerRole = 'X';
-        } else if (data.sessionIdO === this.sessionId) {
-            this.playerRole = 'O';
-        } else {
+        // The server tells each player their own symbol, session ids are never sent
+        if (data.symbol !== 'X' && data.symbol !== 'O') {
             // This should not happen in a valid game - log an error
-            console.error('Player session ID does not match either player in the game:', {
-                mySessionId: this.sessionId,
-                sessionIdX: data.sessionIdX,
-                sessionIdO: data.sessionIdO,
-                gameId: data.gameId
-            });
+            console.error('Game start without a symbol for this player:', data);
             return; // Don't proceed if player isn't properly assigned
         }
+        this.playerRole = data.symbol;
         
-        this.sessionIdX = data.sessionIdX;
-        this.sessionIdO = data.sessionIdO;
         this.boardVerticalSize = data.boardVerticalSize;
         this.boardHorizontalSize = data.boardHorizontalSize;
+        this.winLength = data.winLength;
+        this.resetQuickPlay();
+        
+        // Hints are only given in games against the computer
+        this.hintBtn.style.display = data.aiOpponent ? '' : 'none';
+        
+        this.subscribeToGame(this.gameId);
         
         if (data.status === 'WAITING') {
             // Game waiting for opponent
@@ -182,8 +315,7 @@ class TicTacToeGame {
             this.renderBoard();
         } else if (data.status === 'IN_PROGRESS') {
             // Game started
-            // Determine the current turn based on the session ID from the backend
-            this.currentTurn = data.currentTurnSessionId === this.sessionIdX ? 'X' : 'O';
+            this.currentTurn = data.currentTurn;
             this.gameStatus.textContent = 'Game in progress';
             this.currentTurnDisplay.textContent = this.currentTurn;
             
@@ -197,17 +329,67 @@ class TicTacToeGame {
             this.gameBoard = Array(this.boardVerticalSize).fill().map(() => 
                 Array(this.boardHorizontalSize).fill('')
             );
+            this.moveNumber = 0;
             
             this.renderBoard();
+            
+            // Moves may have been played before the game subscription was in place. Frames from one
+            // connection are handled in order, so the snapshot covers every move the subscription misses.
+            this.requestSync();
+        }
+    }
+    
+    handleGameSnapshot(data) {
+        if (this.spectating) {
+            this.showSpectatorSnapshot(data);
+        }
+        
+        this.boardVerticalSize = data.boardVerticalSize;
+        this.boardHorizontalSize = data.boardHorizontalSize;
+        this.moveNumber = data.moveNumber;
+        // Seats are named by symbol only, the players' session ids are never sent
+        if (data.currentTurn) {
+            this.currentTurn = data.currentTurn;
+        }
+        this.currentTurnDisplay.textContent = this.currentTurn;
+        
+        // Rebuild the board from the "row,col" positions of each player
+        this.gameBoard = Array(this.boardVerticalSize).fill().map(() => 
+            Array(this.boardHorizontalSize).fill('')
+        );
+        Object.entries(data.boardState).forEach(([symbol, positions]) => {
+            positions.forEach((position) => {
+                const [row, col] = position.split(',').map(Number);
+                this.gameBoard[row][col] = symbol;
+            });
+        });
+        
+        this.renderBoard();
+        
+        // Conflated frames and syncs after a missed last move carry the end of the game
+        if (data.status === 'DRAW') {
+            this.showGameOver("It's a draw!");
+        } else if (data.status === 'X_WON' || data.status === 'O_WON') {
+            this.showGameOver(`${data.status.charAt(0)} wins!`);
+        }
+    }
+    
+    showSpectatorSnapshot(data) {
+        this.showGameScreen();
+        this.gameIdDisplay.textContent = data.gameId;
+        this.playerSymbol.textContent = 'Spectator';
+        this.hintBtn.style.display = 'none';
+        
+        if (data.status === 'WAITING') {
+            this.gameStatus.textContent = 'Waiting for players...';
+        } else if (data.status === 'IN_PROGRESS') {
+            this.gameStatus.textContent = 'Game in progress';
         }
     }
     
     handleGameStarted(data) {
         this.gameId = data.gameId;
-        // Determine the current turn based on the session ID from the backend
-        this.currentTurn = data.currentTurnSessionId === this.sessionIdX ? 'X' : 'O';
-        this.sessionIdX = data.sessionIdX;
-        this.sessionIdO = data.sessionIdO;
+        this.currentTurn = data.currentTurn;
         this.boardVerticalSize = data.boardVerticalSize;
         this.boardHorizontalSize = data.boardHorizontalSize;
         
@@ -226,15 +408,31 @@ class TicTacToeGame {
     }
     
     handleMoveMade(data) {
+        const isGameOver = data.status === 'X_WON' || data.status === 'O_WON' || data.status === 'DRAW';
+        
+        if (data.moveNumber !== this.moveNumber + 1) {
+            // Missed a move, ask for a full snapshot instead of applying this one
+            if (this.spectating) {
+                this.requestSpectatorSnapshot();
+            } else {
+                this.requestSync();
+            }
+            
+            // The result is final, show it now, the snapshot fills in the missed moves
+            if (!isGameOver) {
+                return;
+            }
+        }
+        this.moveNumber = data.moveNumber;
+        this.clearHint();
+        
         if (this.gameBoard) {
-            // Update game board with move - determine player symbol based on session ID
-            const playerSymbol = data.playerId === this.sessionIdX ? 'X' : 'O';
-            this.gameBoard[data.row][data.col] = playerSymbol;
+            this.gameBoard[data.row][data.col] = data.symbol;
         }
         
-        // Update current turn based on the stored session IDs
-        if (data.nextPlayerId) {
-            this.currentTurn = data.nextPlayerId === this.sessionIdX ? 'X' : 'O';
+        // Players and spectators alike are sent the symbol on turn
+        if (data.nextTurn) {
+            this.currentTurn = data.nextTurn;
         }
         this.currentTurnDisplay.textContent = this.currentTurn;
         
@@ -242,8 +440,7 @@ class TicTacToeGame {
         
         if (data.status === 'X_WON' || data.status === 'O_WON') {
             // Game won
-            const winnerSymbol = data.winnerId === this.sessionIdX ? 'X' : 'O';
-            this.showGameOver(`${winnerSymbol} wins!`);
+            this.showGameOver(`${data.winner} wins!`);
         } else if (data.status === 'DRAW') {
             // Game ended in draw
             this.showGameOver("It's a draw!");
@@ -269,6 +466,8 @@ class TicTacToeGame {
                 if (cellValue) {
                     cell.textContent = cellValue;
                     cell.classList.add(cellValue.toLowerCase());
+                } else if (this.hint && this.hint.row === row && this.hint.col === col) {
+                    cell.classList.add('hint');
                 }
                 
                 // Make cell clickable if it's the player's turn and cell is empty
@@ -302,11 +501,21 @@ class TicTacToeGame {
         this.playerRole = null;
         this.currentTurn = null;
         this.gameBoard = null;
+        this.moveNumber = 0;
+        this.clearHint();
+        this.unsubscribeFromGame();
     }
     
     handleErrorNotification(data) {
         console.error('Error received from server:', data);
         
+        // A failed join leaves a subscription to a game we are not part of
+        if (!this.playerRole) {
+            this.unsubscribeFromGame();
+        }
+        
+        this.resetQuickPlay();
+        
         // Show an alert based on the error code
         switch(data.errorCode) {
             case 'GAME_FULL':
@@ -325,6 +534,9 @@ class TicTacToeGame {
             case 'ILLEGAL_MOVE':
                 alert('Error: Illegal move. Please try a different position.');
                 break;
+            case 'HINT_UNAVAILABLE':
+                this.hintMessage.textContent = 'Hints are only available on your turn against the computer on 3x3 and 4x4 boards.';
+                break;
             default:
                 alert('Error: ' + data.message);
                 break;
@@ -341,10 +553,15 @@ class TicTacToeGame {
         this.playerRole = null;
         this.currentTurn = null;
         this.gameBoard = null;
-        this.sessionIdX = null;
-        this.sessionIdO = null;
+        this.spectating = false;
+        this.hintBtn.style.display = '';
         this.boardVerticalSize = 3;
         this.boardHorizontalSize = 3;
+        this.winLength = 3;
+        this.moveNumber = 0;
+        this.clearHint();
+        this.unsubscribeFromGame();
+        this.resetQuickPlay();
         
         this.initialScreen.style.display = 'block';
         this.gameScreen.style.display = 'none';
@@ -353,6 +570,8 @@ class TicTacToeGame {
         // Reset form values
         this.boardVerticalSizeInput.value = 3;
         this.boardHorizontalSizeInput.value = 3;
+        this.winLengthInput.value = 3;
+        this.aiOpponentInput.checked = false;
         document.getElementById('gameId').value = '';
     }
 }
@@ -0,0 +1,145 @@
+package com.multiplayer.tictactoe.ai;
+
+import com.multiplayer.tictactoe.utils.BitBoard;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AiSearchTest {
+
+    private static final long BUDGET_NANOS = TimeUnit.MILLISECONDS.toNanos(200);
+
+    private final AiSearch search = new AiSearch(new TranspositionTable(12), 12);
+
+    @Test
+    void takesAnImmediateWin() {
+        // X can win at 0,2 and has to, even though O threatens 1,2
+        BitBoard board = board(3, 3,
+                "XX.",
+                "OO.",
+                "...");
+
+        assertMove(search.search(board, 3, BitBoard.PLAYER_X, 6, BUDGET_NANOS), 0, 2);
+        assertMove(search.quickMove(board, 3, BitBoard.PLAYER_X), 0, 2);
+    }
+
+    @Test
+    void blocksAnImmediateLoss() {
+        BitBoard board = board(3, 3,
+                "XX.",
+                ".O.",
+                "...");
+
+        assertMove(search.search(board, 3, BitBoard.PLAYER_O, 6, BUDGET_NANOS), 0, 2);
+        assertMove(search.quickMove(board, 3, BitBoard.PLAYER_O), 0, 2);
+    }
+
+    @Test
+    void takesAWinOnANonSquareBoardWithAShorterWinLength() {
+        BitBoard board = board(5, 7,
+                ".......",
+                "..XXX..",
+                ".O.O...",
+                "....O..",
+                ".......");
+
+        SearchResult result = search.search(board, 4, BitBoard.PLAYER_X, 6, BUDGET_NANOS);
+
+        assertThat(result.row()).isEqualTo(1);
+        assertThat(result.col()).isIn(1, 5);
+    }
+
+    @Test
+    void blocksOnANonSquareBoardWithAShorterWinLength() {
+        // O threatens to complete the column at 3,1, X has nothing of its own
+        BitBoard board = board(4, 6,
+                "XO...X",
+                ".O....",
+                "......",
+                "......");
+
+        assertMove(search.search(board, 3, BitBoard.PLAYER_X, 6, BUDGET_NANOS), 2, 1);
+        assertMove(search.quickMove(board, 3, BitBoard.PLAYER_X), 2, 1);
+    }
+
+    @Test
+    void takesAWinOnALargeBoard() {
+        BitBoard board = new BitBoard(15, 15);
+        for (int col = 5; col < 9; col++) {
+            board.set(7, col, BitBoard.PLAYER_X);
+            board.set(9, col + 1, BitBoard.PLAYER_O);
+        }
+
+        SearchResult result = search.search(board, 5, BitBoard.PLAYER_X, 4, BUDGET_NANOS);
+
+        assertThat(result.row()).isEqualTo(7);
+        assertThat(result.col()).isIn(4, 9);
+    }
+
+    @Test
+    void neverReturnsAnOccupiedCell() {
+        Random random = new Random(42);
+        int[][] boards = {{3, 3, 3}, {4, 4, 3}, {4, 6, 4}, {5, 7, 4}, {7, 7, 5}, {10, 10, 5}};
+
+        for (int[] size : boards) {
+            for (int round = 0; round < 20; round++) {
+                BitBoard board = new BitBoard(size[0], size[1]);
+                int stones = random.nextInt(size[0] * size[1]);
+                char player = BitBoard.PLAYER_X;
+                for (int i = 0; i < stones; i++) {
+                    int row = random.nextInt(size[0]);
+                    int col = random.nextInt(size[1]);
+                    if (!board.isOccupied(row, col)) {
+                        board.set(row, col, player);
+                        player = player == BitBoard.PLAYER_X ? BitBoard.PLAYER_O : BitBoard.PLAYER_X;
+                    }
+                }
+
+                SearchResult searched = search.search(board, size[2], player, 3, TimeUnit.MILLISECONDS.toNanos(20));
+                SearchResult quick = search.quickMove(board, size[2], player);
+
+                for (SearchResult result : new SearchResult[]{searched, quick}) {
+                    assertThat(result.row()).isBetween(0, size[0] - 1);
+                    assertThat(result.col()).isBetween(0, size[1] - 1);
+                    assertThat(board.isOccupied(result.row(), result.col()))
+                            .as("%dx%d K=%d move %d,%d", size[0], size[1], size[2], result.row(), result.col())
+                            .isFalse();
+                }
+            }
+        }
+    }
+
+    @Test
+    void returnsAMoveWhenOutOfTimeBeforeTheFirstIteration() {
+        BitBoard board = board(3, 3,
+                "X..",
+                ".O.",
+                "...");
+
+        SearchResult result = search.search(board, 3, BitBoard.PLAYER_X, 6, 0);
+
+        assertThat(board.isOccupied(result.row(), result.col())).isFalse();
+    }
+
+    private static void assertMove(SearchResult result, int row, int col) {
+        assertThat(result.row()).isEqualTo(row);
+        assertThat(result.col()).isEqualTo(col);
+    }
+
+    private static BitBoard board(int rows, int cols, String... lines) {
+        BitBoard board = new BitBoard(rows, cols);
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                char cell = lines[row].charAt(col);
+                if (cell != '.') {
+                    board.set(row, col, cell);
+                }
+            }
+        }
+        return board;
+    }
+
+}
@@ -0,0 +1,121 @@
+package com.multiplayer.tictactoe.ai;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BoardSymmetryTest {
+
+    @Test
+    void mapsEveryCellBackUnderEachSymmetry() {
+        for (int size = 1; size <= 5; size++) {
+            BoardSymmetry symmetry = new BoardSymmetry(size);
+            int cells = size * size;
+
+            for (int s = 0; s < BoardSymmetry.COUNT; s++) {
+                Set<Integer> targets = new HashSet<>();
+                for (int cell = 0; cell < cells; cell++) {
+                    int target = targetOf(symmetry, s, cell);
+                    targets.add(target);
+                    assertThat(symmetry.untransform(s, target)).as("size %d symmetry %d cell %d", size, s, cell)
+                            .isEqualTo(cell);
+                }
+                // Every symmetry is a permutation of the cells
+                assertThat(targets).hasSize(cells);
+            }
+        }
+    }
+
+    @Test
+    void coversTheRotationsAndReflectionsOfTheSquare() {
+        int size = 4;
+        BoardSymmetry symmetry = new BoardSymmetry(size);
+        byte[] digits = asymmetricPosition(size);
+
+        Set<Integer> expected = new HashSet<>();
+        byte[] image = digits;
+        for (int rotation = 0; rotation < 4; rotation++) {
+            expected.add(symmetry.key(image));
+            expected.add(symmetry.key(mirror(image, size)));
+            image = rotate(image, size);
+        }
+
+        Set<Integer> actual = new HashSet<>();
+        for (int s = 0; s < BoardSymmetry.COUNT; s++) {
+            actual.add(symmetry.key(digits, s));
+        }
+
+        assertThat(expected).hasSize(BoardSymmetry.COUNT);
+        assertThat(actual).isEqualTo(expected);
+        assertThat(symmetry.key(digits, 0)).isEqualTo(symmetry.key(digits));
+    }
+
+    @Test
+    void givesSymmetricPositionsTheSameCanonicalKey() {
+        Random random = new Random(42);
+        int size = 3;
+        BoardSymmetry symmetry = new BoardSymmetry(size);
+
+        for (int round = 0; round < 200; round++) {
+            byte[] digits = new byte[size * size];
+            for (int cell = 0; cell < digits.length; cell++) {
+                digits[cell] = (byte) random.nextInt(3);
+            }
+
+            int canonical = symmetry.key(digits, symmetry.canonicalSymmetry(digits));
+            byte[] image = digits;
+            for (int rotation = 0; rotation < 4; rotation++) {
+                for (byte[] variant : new byte[][]{image, mirror(image, size)}) {
+                    assertThat(symmetry.key(variant, symmetry.canonicalSymmetry(variant))).isEqualTo(canonical);
+                    assertThat(symmetry.key(variant)).isGreaterThanOrEqualTo(canonical);
+                }
+                image = rotate(image, size);
+            }
+        }
+    }
+
+    private static int targetOf(BoardSymmetry symmetry, int s, int cell) {
+        byte[] digits = new byte[symmetry.cells()];
+        digits[cell] = 1;
+        int key = symmetry.key(digits, s);
+        for (int target = 0; target < digits.length; target++) {
+            if (symmetry.powerOfThree(target) == key) {
+                return target;
+            }
+        }
+        throw new AssertionError("Cell " + cell + " has no target under symmetry " + s);
+    }
+
+    private static byte[] asymmetricPosition(int size) {
+        byte[] digits = new byte[size * size];
+        digits[0] = 1;
+        digits[1] = 2;
+        digits[size + 3] = 1;
+        return digits;
+    }
+
+    private static byte[] rotate(byte[] digits, int size) {
+        byte[] rotated = new byte[digits.length];
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                rotated[col * size + (size - 1 - row)] = digits[row * size + col];
+            }
+        }
+        return rotated;
+    }
+
+    private static byte[] mirror(byte[] digits, int size) {
+        byte[] mirrored = new byte[digits.length];
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                mirrored[row * size + (size - 1 - col)] = digits[row * size + col];
+            }
+        }
+        return mirrored;
+    }
+
+}
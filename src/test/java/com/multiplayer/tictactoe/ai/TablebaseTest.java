@@ -0,0 +1,212 @@
+package com.multiplayer.tictactoe.ai;
+
+import com.multiplayer.tictactoe.enums.PositionValue;
+import com.multiplayer.tictactoe.utils.BitBoard;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TablebaseTest {
+
+    private static final int SIZE = 3;
+
+    private static final int WIN_LENGTH = 3;
+
+    private Tablebase tablebase;
+
+    @BeforeEach
+    void generateTablebase() throws IOException {
+        Path file = Files.createTempFile("tablebase-test-", ".t3tb");
+        file.toFile().deleteOnExit();
+        int positions = TablebaseGenerator.generate(SIZE, WIN_LENGTH, file);
+
+        tablebase = Tablebase.map(file);
+        assertThat(tablebase.getPositionCount()).isEqualTo(positions);
+        assertThat(tablebase.getWinLength()).isEqualTo(WIN_LENGTH);
+    }
+
+    @Test
+    void solvesTheEmptyBoardAsADraw() {
+        TablebaseEntry entry = tablebase.lookup(new BitBoard(SIZE, SIZE));
+
+        assertThat(entry.value()).isEqualTo(PositionValue.DRAW);
+        assertThat(entry.movesToEnd()).isEqualTo(9);
+    }
+
+    @Test
+    void findsTheWinningAndBlockingMoves() {
+        TablebaseEntry win = tablebase.lookup(board(
+                "XX.",
+                "OO.",
+                "..."));
+        assertThat(win.value()).isEqualTo(PositionValue.WIN);
+        assertThat(win.movesToEnd()).isEqualTo(1);
+        assertThat(List.of(win.row(), win.col())).containsExactly(0, 2);
+
+        // O to move must block at 0,2, after which X still draws
+        TablebaseEntry block = tablebase.lookup(board(
+                "XX.",
+                ".O.",
+                "..."));
+        assertThat(List.of(block.row(), block.col())).containsExactly(0, 2);
+    }
+
+    @Test
+    void skipsFinishedBoardsAndOtherSizes() {
+        assertThat(tablebase.lookup(board(
+                "XXX",
+                "OO.",
+                "..."))).isNull();
+        assertThat(tablebase.lookup(board(
+                "XOX",
+                "XOO",
+                "OXX"))).isNull();
+        assertThat(tablebase.lookup(new BitBoard(4, 4))).isNull();
+    }
+
+    @Test
+    void mapsMovesBackUnderAllEightSymmetries() {
+        Random random = new Random(42);
+
+        for (int round = 0; round < 200; round++) {
+            BitBoard board = randomPosition(random);
+            if (tablebase.lookup(board) == null) {
+                continue;
+            }
+
+            List<BitBoard> images = symmetricImages(board);
+            for (BitBoard image : images) {
+                TablebaseEntry entry = tablebase.lookup(image);
+                TablebaseEntry original = tablebase.lookup(board);
+                assertThat(entry.value()).isEqualTo(original.value());
+                assertThat(entry.movesToEnd()).isEqualTo(original.movesToEnd());
+                assertPlaysTo(image, entry);
+            }
+        }
+    }
+
+    @Test
+    void mapsMovesOfAnAsymmetricPositionOntoTheImageOfTheMove() {
+        BitBoard board = board(
+                "XO.",
+                ".O.",
+                "..X");
+        TablebaseEntry original = tablebase.lookup(board);
+
+        List<BitBoard> images = symmetricImages(board);
+        for (int s = 0; s < images.size(); s++) {
+            TablebaseEntry entry = tablebase.lookup(images.get(s));
+            int[] expected = transformCell(s, original.row(), original.col());
+            assertThat(List.of(entry.row(), entry.col())).as("symmetry %d", s)
+                    .containsExactly(expected[0], expected[1]);
+        }
+    }
+
+    /**
+     * The move must be legal and lead to a position whose value follows from the entry
+     */
+    private void assertPlaysTo(BitBoard board, TablebaseEntry entry) {
+        assertThat(board.isOccupied(entry.row(), entry.col())).isFalse();
+
+        BitBoard next = board.copy();
+        next.set(entry.row(), entry.col(), toMove(board));
+        if (completesLine(next, entry.row(), entry.col())) {
+            assertThat(entry.value()).isEqualTo(PositionValue.WIN);
+            assertThat(entry.movesToEnd()).isEqualTo(1);
+        } else if (next.count(BitBoard.PLAYER_X) + next.count(BitBoard.PLAYER_O) == SIZE * SIZE) {
+            assertThat(entry.value()).isEqualTo(PositionValue.DRAW);
+            assertThat(entry.movesToEnd()).isEqualTo(1);
+        } else {
+            TablebaseEntry child = tablebase.lookup(next);
+            assertThat(child.value()).isEqualTo(entry.value().opposite());
+            assertThat(child.movesToEnd()).isEqualTo(entry.movesToEnd() - 1);
+        }
+    }
+
+    private static BitBoard randomPosition(Random random) {
+        BitBoard board = new BitBoard(SIZE, SIZE);
+        int stones = random.nextInt(SIZE * SIZE - 1);
+        for (int i = 0; i < stones; i++) {
+            int row = random.nextInt(SIZE);
+            int col = random.nextInt(SIZE);
+            if (!board.isOccupied(row, col)) {
+                board.set(row, col, toMove(board));
+            }
+        }
+        return board;
+    }
+
+    private static List<BitBoard> symmetricImages(BitBoard board) {
+        List<BitBoard> images = new ArrayList<>();
+        for (int s = 0; s < BoardSymmetry.COUNT; s++) {
+            BitBoard image = new BitBoard(SIZE, SIZE);
+            for (int row = 0; row < SIZE; row++) {
+                for (int col = 0; col < SIZE; col++) {
+                    int[] target = transformCell(s, row, col);
+                    image.set(target[0], target[1], board.get(row, col));
+                }
+            }
+            images.add(image);
+        }
+        return images;
+    }
+
+    /**
+     * Four rotations, each optionally mirrored
+     */
+    private static int[] transformCell(int symmetry, int row, int col) {
+        for (int rotation = 0; rotation < symmetry / 2; rotation++) {
+            int rotated = col;
+            col = SIZE - 1 - row;
+            row = rotated;
+        }
+        return symmetry % 2 == 1 ? new int[]{row, SIZE - 1 - col} : new int[]{row, col};
+    }
+
+    private static char toMove(BitBoard board) {
+        return board.count(BitBoard.PLAYER_X) == board.count(BitBoard.PLAYER_O) ? BitBoard.PLAYER_X : BitBoard.PLAYER_O;
+    }
+
+    private static boolean completesLine(BitBoard board, int row, int col) {
+        char player = board.get(row, col);
+        int[][] directions = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+        for (int[] direction : directions) {
+            int count = 1;
+            for (int sign = -1; sign <= 1; sign += 2) {
+                int r = row + sign * direction[0];
+                int c = col + sign * direction[1];
+                while (r >= 0 && r < SIZE && c >= 0 && c < SIZE && board.isOwnedBy(player, r, c)) {
+                    count++;
+                    r += sign * direction[0];
+                    c += sign * direction[1];
+                }
+            }
+            if (count >= WIN_LENGTH) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static BitBoard board(String... lines) {
+        BitBoard board = new BitBoard(SIZE, SIZE);
+        for (int row = 0; row < SIZE; row++) {
+            for (int col = 0; col < SIZE; col++) {
+                char cell = lines[row].charAt(col);
+                if (cell != '.') {
+                    board.set(row, col, cell);
+                }
+            }
+        }
+        return board;
+    }
+
+}
@@ -0,0 +1,195 @@
+package com.multiplayer.tictactoe.cache;
+
+import com.multiplayer.tictactoe.entity.redis.ActiveGame;
+import com.multiplayer.tictactoe.enums.GameStatus;
+import com.multiplayer.tictactoe.enums.MoveApplyResult;
+import com.multiplayer.tictactoe.repository.ActiveGameMoveRepository;
+import com.multiplayer.tictactoe.repository.ActiveGameRepository;
+import com.multiplayer.tictactoe.utils.NodeIdentity;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ActiveGameCacheTest {
+
+    private static final long ONE_HOUR = 3600;
+
+    private final ActiveGameRepository repository = mock(ActiveGameRepository.class);
+
+    private final ActiveGameMoveRepository moveRepository = mock(ActiveGameMoveRepository.class);
+
+    private final NodeIdentity nodeIdentity = new NodeIdentity();
+
+    @Test
+    void servesRepeatedReadsFromMemory() {
+        ActiveGameCache cache = newCache(10, ONE_HOUR);
+        stored("game");
+
+        assertThat(cache.findById("game")).isPresent();
+        assertThat(cache.findById("game")).isPresent();
+
+        verify(repository, times(1)).findById("game");
+    }
+
+    @Test
+    void handsOutCopiesThatDoNotChangeTheCachedGame() {
+        ActiveGameCache cache = newCache(10, ONE_HOUR);
+        stored("game");
+
+        ActiveGame read = cache.findById("game").orElseThrow();
+        read.setCell(0, 0, 'X');
+        read.setStatus(GameStatus.X_WON);
+
+        ActiveGame again = cache.findById("game").orElseThrow();
+        assertThat(again).isNotSameAs(read);
+        assertThat(again.getCell(0, 0)).isNull();
+        assertThat(again.getStatus()).isEqualTo(GameStatus.IN_PROGRESS);
+    }
+
+    @Test
+    void keepsItsOwnCopyOfSavedGames() {
+        ActiveGameCache cache = newCache(10, ONE_HOUR);
+        ActiveGame game = newGame("game");
+        when(repository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        cache.save(game);
+        game.setCell(1, 1, 'O');
+
+        assertThat(cache.findById("game").orElseThrow().getCell(1, 1)).isNull();
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedGameOnceFull() {
+        ActiveGameCache cache = newCache(2, ONE_HOUR);
+        stored("a");
+        stored("b");
+        stored("c");
+
+        cache.findById("a");
+        cache.findById("b");
+        cache.findById("a");
+        cache.findById("c");
+
+        assertThat(cache.peekMoveSnapshot("a")).isNotNull();
+        assertThat(cache.peekMoveSnapshot("b")).isNull();
+        assertThat(cache.peekMoveSnapshot("c")).isNotNull();
+
+        cache.findById("b");
+        verify(repository, times(2)).findById("b");
+        verify(repository, times(1)).findById("a");
+    }
+
+    @Test
+    void reloadsGamesOlderThanTheTimeToLive() throws InterruptedException {
+        ActiveGameCache cache = newCache(10, 0);
+        stored("game");
+
+        cache.findById("game");
+        Thread.sleep(1);
+
+        assertThat(cache.peekMoveSnapshot("game")).isNull();
+        assertThat(cache.findById("game")).isPresent();
+        verify(repository, times(2)).findById("game");
+    }
+
+    @Test
+    void ignoresItsOwnInvalidations() {
+        ActiveGameCache cache = newCache(10, ONE_HOUR);
+        stored("game");
+        cache.findById("game");
+
+        cache.onMessage(message(nodeIdentity.getNodeId() + "|game"), null);
+
+        assertThat(cache.peekMoveSnapshot("game")).isNotNull();
+    }
+
+    @Test
+    void dropsGamesChangedByOtherInstances() {
+        ActiveGameCache cache = newCache(10, ONE_HOUR);
+        stored("game");
+        cache.findById("game");
+
+        cache.onMessage(message("other-node|game"), null);
+
+        assertThat(cache.peekMoveSnapshot("game")).isNull();
+        cache.findById("game");
+        verify(repository, times(2)).findById("game");
+    }
+
+    @Test
+    void ignoresMalformedInvalidations() {
+        ActiveGameCache cache = newCache(10, ONE_HOUR);
+        stored("game");
+        cache.findById("game");
+
+        cache.onMessage(message("game"), null);
+
+        assertThat(cache.peekMoveSnapshot("game")).isNotNull();
+    }
+
+    @Test
+    void dropsTheGameWhenAMoveIsNotApplied() {
+        ActiveGameCache cache = newCache(10, ONE_HOUR);
+        stored("game");
+        ActiveGame game = cache.findById("game").orElseThrow();
+        when(moveRepository.applyMove(any(), anyString(), anyInt(), anyInt(), anyInt(), anyString(), anyString()))
+                .thenReturn(MoveApplyResult.CONFLICT);
+
+        cache.applyMove(game, "session-x", 0, 0, 0);
+
+        assertThat(cache.peekMoveSnapshot("game")).isNull();
+    }
+
+    @Test
+    void loadsMoveSnapshotsWithoutCachingTheGame() {
+        ActiveGameCache cache = newCache(10, ONE_HOUR);
+        stored("game");
+
+        MoveSnapshot snapshot = cache.loadMoveSnapshot("game").orElseThrow();
+
+        assertThat(snapshot.isPlayer("session-o")).isTrue();
+        assertThat(cache.peekMoveSnapshot("game")).isNull();
+        assertThat(cache.loadMoveSnapshot("missing")).isEmpty();
+    }
+
+    private ActiveGameCache newCache(int maxSize, long timeToLiveSeconds) {
+        return new ActiveGameCache(repository, moveRepository, mock(StringRedisTemplate.class), nodeIdentity,
+                maxSize, timeToLiveSeconds);
+    }
+
+    private void stored(String gameId) {
+        // A fresh copy per read, like a load from Redis
+        when(repository.findById(gameId)).thenAnswer(invocation -> Optional.of(newGame(gameId)));
+    }
+
+    private static DefaultMessage message(String body) {
+        return new DefaultMessage(ActiveGameCache.INVALIDATION_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static ActiveGame newGame(String gameId) {
+        ActiveGame game = new ActiveGame();
+        game.setGameId(gameId);
+        game.setBoardVerticalSize(3);
+        game.setBoardHorizontalSize(3);
+        game.setWinLength(3);
+        game.setSessionIdX("session-x");
+        game.setSessionIdO("session-o");
+        game.setCurrentTurnSessionId("session-x");
+        game.setStatus(GameStatus.IN_PROGRESS);
+        return game;
+    }
+
+}
@@ -0,0 +1,40 @@
+package com.multiplayer.tictactoe.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MoveSnapshotTest {
+
+    @Test
+    void knowsTheSeatedPlayers() {
+        MoveSnapshot snapshot = new MoveSnapshot("session-x", "session-o", 3, 4);
+
+        assertThat(snapshot.isPlayer("session-x")).isTrue();
+        assertThat(snapshot.isPlayer("session-o")).isTrue();
+        assertThat(snapshot.isPlayer("spectator")).isFalse();
+        assertThat(snapshot.isPlayer(null)).isFalse();
+        assertThat(snapshot.hasOpenSeat()).isFalse();
+    }
+
+    @Test
+    void hasAnOpenSeatUntilTheSecondPlayerJoins() {
+        MoveSnapshot snapshot = new MoveSnapshot("session-x", null, 3, 3);
+
+        assertThat(snapshot.hasOpenSeat()).isTrue();
+        assertThat(snapshot.isPlayer(null)).isFalse();
+    }
+
+    @Test
+    void rejectsOnlyCellsOffTheBoard() {
+        MoveSnapshot snapshot = new MoveSnapshot("session-x", "session-o", 3, 4);
+
+        assertThat(snapshot.isOffBoard(0, 0)).isFalse();
+        assertThat(snapshot.isOffBoard(2, 3)).isFalse();
+        assertThat(snapshot.isOffBoard(3, 0)).isTrue();
+        assertThat(snapshot.isOffBoard(0, 4)).isTrue();
+        assertThat(snapshot.isOffBoard(-1, 0)).isTrue();
+        assertThat(snapshot.isOffBoard(0, -1)).isTrue();
+    }
+
+}
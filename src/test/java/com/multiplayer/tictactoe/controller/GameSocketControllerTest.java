@@ -0,0 +1,69 @@
+package com.multiplayer.tictactoe.controller;
+
+import com.multiplayer.tictactoe.dispatch.GameLaneDispatcher;
+import com.multiplayer.tictactoe.dto.request.MakeMoveReq;
+import com.multiplayer.tictactoe.exception.GameErrorType;
+import com.multiplayer.tictactoe.exception.GameException;
+import com.multiplayer.tictactoe.metrics.GameMetrics;
+import com.multiplayer.tictactoe.ratelimit.MoveRateLimiter;
+import com.multiplayer.tictactoe.service.GameService;
+import com.multiplayer.tictactoe.service.MatchmakingService;
+import com.multiplayer.tictactoe.spectate.SpectatorPublisher;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class GameSocketControllerTest {
+
+    private final GameService gameService = mock(GameService.class);
+
+    private final GameLaneDispatcher gameLaneDispatcher = mock(GameLaneDispatcher.class);
+
+    private final MoveRateLimiter moveRateLimiter = mock(MoveRateLimiter.class);
+
+    private final GameSocketController controller = new GameSocketController(gameService, gameLaneDispatcher,
+            mock(GameMetrics.class), moveRateLimiter, mock(MatchmakingService.class), mock(SpectatorPublisher.class));
+
+    @Test
+    void doesNotChargeTheGameForMovesFromOutsideIt() {
+        MakeMoveReq request = new MakeMoveReq("game", "spectator", 0, 0);
+        doThrow(new GameException(GameErrorType.ILLEGAL_MOVE, "spectator")).when(gameService).precheckMove(request);
+
+        assertThatThrownBy(() -> controller.makeMove(request)).isInstanceOf(GameException.class);
+
+        verify(moveRateLimiter, never()).tryAcquireGame(anyString());
+        verify(gameLaneDispatcher, never()).dispatch(any(), any(), any());
+    }
+
+    @Test
+    void chargesTheGameForMovesFromItsPlayers() {
+        MakeMoveReq request = new MakeMoveReq("game", "session-x", 0, 0);
+        when(moveRateLimiter.tryAcquireGame("game")).thenReturn(true);
+
+        controller.makeMove(request);
+
+        verify(moveRateLimiter).tryAcquireGame("game");
+        verify(gameLaneDispatcher).dispatch(any(), any(), any());
+    }
+
+    @Test
+    void rejectsPlayersOverTheGameRate() {
+        MakeMoveReq request = new MakeMoveReq("game", "session-x", 0, 0);
+        when(moveRateLimiter.tryAcquireGame("game")).thenReturn(false);
+
+        assertThatThrownBy(() -> controller.makeMove(request))
+                .isInstanceOfSatisfying(GameException.class,
+                        e -> assertThat(e.getErrorType()).isEqualTo(GameErrorType.RATE_LIMITED));
+
+        verify(gameLaneDispatcher, never()).dispatch(any(), any(), any());
+    }
+
+}
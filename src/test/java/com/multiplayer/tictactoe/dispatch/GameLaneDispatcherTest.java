@@ -0,0 +1,141 @@
+package com.multiplayer.tictactoe.dispatch;
+
+import com.multiplayer.tictactoe.config.WebSocketExceptionHandler;
+import com.multiplayer.tictactoe.exception.GameErrorType;
+import com.multiplayer.tictactoe.exception.GameException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class GameLaneDispatcherTest {
+
+    private final WebSocketExceptionHandler exceptionHandler = mock(WebSocketExceptionHandler.class);
+
+    private GameLaneDispatcher dispatcher;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (dispatcher != null) {
+            dispatcher.destroy();
+        }
+    }
+
+    @Test
+    void runsTheCommandsOfAGameInOrder() throws InterruptedException {
+        dispatcher = newDispatcher(4, 10_000);
+        int games = 8;
+        int commandsPerGame = 500;
+        Map<String, List<Integer>> ran = new HashMap<>();
+        for (int game = 0; game < games; game++) {
+            ran.put("game-" + game, Collections.synchronizedList(new ArrayList<>()));
+        }
+        CountDownLatch done = new CountDownLatch(games * commandsPerGame);
+
+        // Interleaved across games, so games share lanes with each other
+        for (int i = 0; i < commandsPerGame; i++) {
+            for (int game = 0; game < games; game++) {
+                String gameId = "game-" + game;
+                int command = i;
+                dispatcher.dispatch(gameId, "session", () -> {
+                    ran.get(gameId).add(command);
+                    done.countDown();
+                });
+            }
+        }
+
+        assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+        for (List<Integer> commands : ran.values()) {
+            assertThat(commands).hasSize(commandsPerGame).isSorted();
+        }
+    }
+
+    @Test
+    void rejectsCommandsWithServerBusyWhenTheLaneIsFull() throws InterruptedException {
+        dispatcher = newDispatcher(1, 1);
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        dispatcher.dispatch("game", "session-a", () -> {
+            running.countDown();
+            await(release);
+        });
+        assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+        dispatcher.dispatch("game", "session-a", () -> { });
+
+        assertThatThrownBy(() -> dispatcher.dispatch("game", "session-b", () -> { }))
+                .isInstanceOfSatisfying(GameException.class, e -> {
+                    assertThat(e.getErrorType()).isEqualTo(GameErrorType.SERVER_BUSY);
+                    assertThat(e.getSessionId()).isEqualTo("session-b");
+                });
+        release.countDown();
+    }
+
+    @Test
+    void routesGameExceptionsToTheExceptionHandler() throws InterruptedException {
+        dispatcher = newDispatcher(1, 16);
+        GameException error = new GameException(GameErrorType.ILLEGAL_MOVE, "session");
+        CountDownLatch done = new CountDownLatch(1);
+
+        dispatcher.dispatch("game", "session", () -> {
+            throw error;
+        });
+        dispatcher.dispatch("game", "session", done::countDown);
+
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        verify(exceptionHandler).handleGameException(error);
+    }
+
+    @Test
+    void keepsTheLaneRunningAfterAnUnexpectedException() throws InterruptedException {
+        dispatcher = newDispatcher(1, 16);
+        CountDownLatch done = new CountDownLatch(1);
+
+        dispatcher.dispatch("game", "session", () -> {
+            throw new IllegalStateException("boom");
+        });
+        dispatcher.dispatch("game", "session", done::countDown);
+
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        verify(exceptionHandler, never()).handleGameException(any());
+    }
+
+    @Test
+    void runsCommandsWithoutAGameInline() {
+        dispatcher = newDispatcher(1, 1);
+        Thread caller = Thread.currentThread();
+        List<Thread> ranOn = new ArrayList<>();
+
+        dispatcher.dispatch(null, "session", () -> ranOn.add(Thread.currentThread()));
+        dispatcher.dispatch(" ", "session", () -> ranOn.add(Thread.currentThread()));
+
+        assertThat(ranOn).containsExactly(caller, caller);
+    }
+
+    private GameLaneDispatcher newDispatcher(int lanes, int queueCapacity) {
+        return new GameLaneDispatcher(lanes, queueCapacity, exceptionHandler, new SimpleMeterRegistry());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
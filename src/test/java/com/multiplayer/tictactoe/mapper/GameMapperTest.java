@@ -0,0 +1,110 @@
+package com.multiplayer.tictactoe.mapper;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.multiplayer.tictactoe.ai.AiOpponent;
+import com.multiplayer.tictactoe.dto.request.MakeMoveReq;
+import com.multiplayer.tictactoe.dto.response.GameSnapshotRes;
+import com.multiplayer.tictactoe.dto.response.GameStartedRes;
+import com.multiplayer.tictactoe.dto.response.MakeMoveRes;
+import com.multiplayer.tictactoe.entity.redis.ActiveGame;
+import com.multiplayer.tictactoe.enums.GameStatus;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GameMapperTest {
+
+    private static final String PLAYER_X = "session-x";
+
+    private static final String PLAYER_O = "session-o";
+
+    private final GameMapper gameMapper = new GameMapperImpl();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void tellsEachPlayerTheirOwnSymbolOnStart() throws Exception {
+        ActiveGame game = newGame();
+
+        GameStartedRes forX = gameMapper.toGameStartedRes(game, PLAYER_X);
+        GameStartedRes forO = gameMapper.toGameStartedRes(game, PLAYER_O);
+
+        assertThat(forX.getSymbol()).isEqualTo('X');
+        assertThat(forO.getSymbol()).isEqualTo('O');
+        assertThat(forX.getCurrentTurn()).isEqualTo('X');
+        assertThat(forX.isAiOpponent()).isFalse();
+        assertNoSessionIds(forX);
+        assertNoSessionIds(forO);
+    }
+
+    @Test
+    void flagsGamesAgainstTheComputer() {
+        ActiveGame game = newGame();
+        game.setSessionIdO(AiOpponent.AI_SESSION_ID);
+
+        assertThat(gameMapper.toGameStartedRes(game, PLAYER_X).isAiOpponent()).isTrue();
+    }
+
+    @Test
+    void namesMovesBySymbol() throws Exception {
+        ActiveGame game = newGame();
+        game.setCell(1, 1, 'X');
+        game.setMoveCount(1);
+        game.setCurrentTurnSessionId(PLAYER_O);
+
+        MakeMoveRes move = gameMapper.toMakeMoveRes(game, new MakeMoveReq("game", PLAYER_X, 1, 1));
+
+        assertThat(move.getSymbol()).isEqualTo('X');
+        assertThat(move.getNextTurn()).isEqualTo('O');
+        assertThat(move.getWinner()).isNull();
+        assertThat(move.getMoveNumber()).isEqualTo(1);
+        assertNoSessionIds(move);
+    }
+
+    @Test
+    void namesTheWinnerBySymbolOnceTheGameIsOver() throws Exception {
+        ActiveGame game = newGame();
+        game.setCell(0, 0, 'O');
+        game.setStatus(GameStatus.O_WON);
+
+        MakeMoveRes move = gameMapper.toMakeMoveRes(game, new MakeMoveReq("game", PLAYER_O, 0, 0));
+
+        assertThat(move.getNextTurn()).isNull();
+        assertThat(move.getWinner()).isEqualTo('O');
+        assertNoSessionIds(move);
+    }
+
+    @Test
+    void sendsSnapshotsWithoutSessionIds() throws Exception {
+        ActiveGame game = newGame();
+        game.setCell(2, 0, 'X');
+        game.setMoveCount(1);
+        game.setCurrentTurnSessionId(PLAYER_O);
+
+        GameSnapshotRes snapshot = gameMapper.toGameSnapshotRes(game, PLAYER_O);
+
+        assertThat(snapshot.getSymbol()).isEqualTo('O');
+        assertThat(snapshot.getCurrentTurn()).isEqualTo('O');
+        assertThat(snapshot.getMoveNumber()).isEqualTo(1);
+        assertThat(snapshot.getBoardState().get('X')).containsExactly("2,0");
+        assertNoSessionIds(snapshot);
+    }
+
+    private void assertNoSessionIds(Object payload) throws Exception {
+        assertThat(objectMapper.writeValueAsString(payload)).doesNotContain(PLAYER_X, PLAYER_O);
+    }
+
+    private static ActiveGame newGame() {
+        ActiveGame game = new ActiveGame();
+        game.setGameId("game");
+        game.setBoardVerticalSize(3);
+        game.setBoardHorizontalSize(3);
+        game.setWinLength(3);
+        game.setSessionIdX(PLAYER_X);
+        game.setSessionIdO(PLAYER_O);
+        game.setCurrentTurnSessionId(PLAYER_X);
+        game.setStatus(GameStatus.IN_PROGRESS);
+        return game;
+    }
+
+}
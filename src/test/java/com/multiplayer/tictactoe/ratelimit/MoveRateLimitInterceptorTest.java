@@ -0,0 +1,64 @@
+package com.multiplayer.tictactoe.ratelimit;
+
+import com.multiplayer.tictactoe.metrics.GameMetrics;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class MoveRateLimitInterceptorTest {
+
+    private final GameMetrics gameMetrics = mock(GameMetrics.class);
+
+    // Frozen clock, bursts of 2 per session and nothing refills
+    private final MoveRateLimiter moveRateLimiter = new MoveRateLimiter(() -> 0L, true, 1, 2, 1, 100);
+
+    private final MoveRateLimitInterceptor interceptor = new MoveRateLimitInterceptor(moveRateLimiter, gameMetrics);
+
+    @Test
+    void dropsMoveFramesOverTheSessionRate() {
+        Message<?> move = message(SimpMessageType.MESSAGE, MoveRateLimitInterceptor.MOVE_DESTINATION, "a");
+
+        assertThat(interceptor.preSend(move, null)).isSameAs(move);
+        assertThat(interceptor.preSend(move, null)).isSameAs(move);
+        assertThat(interceptor.preSend(move, null)).isNull();
+
+        verify(gameMetrics, times(1)).recordRateLimited("session");
+    }
+
+    @Test
+    void countsEachSessionSeparately() {
+        Message<?> fromA = message(SimpMessageType.MESSAGE, MoveRateLimitInterceptor.MOVE_DESTINATION, "a");
+        Message<?> fromB = message(SimpMessageType.MESSAGE, MoveRateLimitInterceptor.MOVE_DESTINATION, "b");
+        interceptor.preSend(fromA, null);
+        interceptor.preSend(fromA, null);
+
+        assertThat(interceptor.preSend(fromB, null)).isSameAs(fromB);
+    }
+
+    @Test
+    void letsOtherFramesThroughWithoutTakingTokens() {
+        Message<?> sync = message(SimpMessageType.MESSAGE, "/app/game.sync", "a");
+        Message<?> subscribe = message(SimpMessageType.SUBSCRIBE, MoveRateLimitInterceptor.MOVE_DESTINATION, "a");
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(interceptor.preSend(sync, null)).isSameAs(sync);
+            assertThat(interceptor.preSend(subscribe, null)).isSameAs(subscribe);
+        }
+        assertThat(moveRateLimiter.tryAcquireSession("a")).isTrue();
+    }
+
+    private static Message<?> message(SimpMessageType type, String destination, String stompSessionId) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(type);
+        accessor.setDestination(destination);
+        accessor.setSessionId(stompSessionId);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+}
@@ -0,0 +1,100 @@
+package com.multiplayer.tictactoe.ratelimit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MoveRateLimiterTest {
+
+    private static final long ONE_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private long now = 1_000 * ONE_SECOND;
+
+    @Test
+    void limitsEachSessionToItsBurstThenItsRate() {
+        MoveRateLimiter limiter = newLimiter(true);
+
+        assertThat(acquireSession(limiter, "a", 3)).isEqualTo(2);
+        assertThat(limiter.tryAcquireSession("b")).isTrue();
+
+        now += ONE_SECOND;
+        assertThat(acquireSession(limiter, "a", 3)).isEqualTo(1);
+    }
+
+    @Test
+    void limitsEachGameToItsBurstThenItsRate() {
+        MoveRateLimiter limiter = newLimiter(true);
+
+        assertThat(acquireGame(limiter, "game", 5)).isEqualTo(4);
+        assertThat(limiter.tryAcquireGame("other")).isTrue();
+
+        now += ONE_SECOND / 2;
+        assertThat(acquireGame(limiter, "game", 5)).isEqualTo(1);
+    }
+
+    @Test
+    void givesADisconnectedSessionAFreshBucket() {
+        MoveRateLimiter limiter = newLimiter(true);
+        acquireSession(limiter, "a", 2);
+        assertThat(limiter.tryAcquireSession("a")).isFalse();
+
+        limiter.onSessionDisconnected(new SessionDisconnectEvent(this,
+                MessageBuilder.withPayload(new byte[0]).build(), "a", CloseStatus.NORMAL));
+
+        assertThat(limiter.tryAcquireSession("a")).isTrue();
+    }
+
+    @Test
+    void sweepsRefilledGameBucketsOnceTheSweepIsDue() {
+        MoveRateLimiter limiter = newLimiter(true);
+        limiter.tryAcquireGame("idle");
+
+        // The idle bucket has long refilled, but the sweep is not due yet
+        now += TimeUnit.SECONDS.toNanos(30) - ONE_SECOND / 10;
+        assertThat(acquireGame(limiter, "busy", 4)).isEqualTo(4);
+        assertThat(limiter.gameBucketCount()).isEqualTo(2);
+
+        now += ONE_SECOND / 10;
+        assertThat(limiter.tryAcquireGame("busy")).isFalse();
+        assertThat(limiter.gameBucketCount()).isEqualTo(1);
+    }
+
+    @Test
+    void allowsEverythingWhenDisabled() {
+        MoveRateLimiter limiter = newLimiter(false);
+
+        assertThat(acquireSession(limiter, "a", 100)).isEqualTo(100);
+        assertThat(acquireGame(limiter, "game", 100)).isEqualTo(100);
+    }
+
+    private MoveRateLimiter newLimiter(boolean enabled) {
+        // Sessions: 1 move per second, bursts of 2. Games: 2 moves per second, bursts of 4
+        return new MoveRateLimiter(() -> now, enabled, 1, 2, 2, 4);
+    }
+
+    private static int acquireSession(MoveRateLimiter limiter, String stompSessionId, int attempts) {
+        int acquired = 0;
+        for (int i = 0; i < attempts; i++) {
+            if (limiter.tryAcquireSession(stompSessionId)) {
+                acquired++;
+            }
+        }
+        return acquired;
+    }
+
+    private static int acquireGame(MoveRateLimiter limiter, String gameId, int attempts) {
+        int acquired = 0;
+        for (int i = 0; i < attempts; i++) {
+            if (limiter.tryAcquireGame(gameId)) {
+                acquired++;
+            }
+        }
+        return acquired;
+    }
+
+}
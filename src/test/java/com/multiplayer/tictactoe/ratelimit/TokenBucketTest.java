@@ -0,0 +1,54 @@
+package com.multiplayer.tictactoe.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTest {
+
+    private static final long ONE_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void startsFullAndAllowsABurstOfItsCapacity() {
+        TokenBucket bucket = new TokenBucket(3, 1, 0);
+
+        assertThat(bucket.tryAcquire(0)).isTrue();
+        assertThat(bucket.tryAcquire(0)).isTrue();
+        assertThat(bucket.tryAcquire(0)).isTrue();
+        assertThat(bucket.tryAcquire(0)).isFalse();
+    }
+
+    @Test
+    void refillsAtItsRate() {
+        TokenBucket bucket = new TokenBucket(2, 4, 0);
+        bucket.tryAcquire(0);
+        bucket.tryAcquire(0);
+
+        assertThat(bucket.tryAcquire(ONE_SECOND / 8)).isFalse();
+        assertThat(bucket.tryAcquire(ONE_SECOND / 4)).isTrue();
+        assertThat(bucket.tryAcquire(ONE_SECOND / 4)).isFalse();
+    }
+
+    @Test
+    void neverHoldsMoreThanItsCapacity() {
+        TokenBucket bucket = new TokenBucket(2, 10, 0);
+
+        long later = 60 * ONE_SECOND;
+        assertThat(bucket.tryAcquire(later)).isTrue();
+        assertThat(bucket.tryAcquire(later)).isTrue();
+        assertThat(bucket.tryAcquire(later)).isFalse();
+    }
+
+    @Test
+    void isFullOnlyOnceEveryTakenTokenCameBack() {
+        TokenBucket bucket = new TokenBucket(2, 1, 0);
+        assertThat(bucket.isFull(0)).isTrue();
+
+        bucket.tryAcquire(0);
+        assertThat(bucket.isFull(ONE_SECOND / 2)).isFalse();
+        assertThat(bucket.isFull(ONE_SECOND)).isTrue();
+    }
+
+}
@@ -0,0 +1,186 @@
+package com.multiplayer.tictactoe.repository;
+
+import com.multiplayer.tictactoe.entity.redis.ActiveGame;
+import com.multiplayer.tictactoe.enums.GameStatus;
+import com.multiplayer.tictactoe.utils.GameEngine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.invocation.Invocation;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.when;
+
+class RedisActiveGameRepositoryTest {
+
+    private final StringRedisTemplate stringRedisTemplate = mock(StringRedisTemplate.class);
+
+    private final StringRedisConnection connection = mock(StringRedisConnection.class);
+
+    @SuppressWarnings("unchecked")
+    private final HashOperations<String, String, String> hashOperations = mock(HashOperations.class);
+
+    private final RedisActiveGameRepository repository = new RedisActiveGameRepository(stringRedisTemplate);
+
+    // The hash as Redis would hold it after the pipelined writes
+    private final Map<String, String> stored = new HashMap<>();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        when(stringRedisTemplate.executePipelined(any(RedisCallback.class))).thenAnswer(invocation -> {
+            invocation.<RedisCallback<Object>>getArgument(0).doInRedis(connection);
+            return List.of();
+        });
+        when(stringRedisTemplate.<String, String>opsForHash()).thenAnswer(invocation -> hashOperations);
+        when(hashOperations.entries(ActiveGameRepository.gameKey("game"))).thenReturn(stored);
+    }
+
+    @Test
+    void readsBackEveryFieldItWrote() {
+        ActiveGame game = newGame();
+        game.setCell(0, 0, 'X');
+        game.setCell(2, 1, 'O');
+        game.setMoveCount(2);
+        game.setOpenLinesX(6);
+        game.setOpenLinesO(5);
+        game.setHistorySaved(true);
+
+        repository.save(game);
+        applyWrites();
+        ActiveGame loaded = repository.findById("game").orElseThrow();
+
+        assertThat(loaded).usingRecursiveComparison().ignoringFields("board", "boardState").isEqualTo(game);
+        assertThat(loaded.getStoredBoardState()).isEqualTo(game.getStoredBoardState());
+        assertThat(loaded.getCell(0, 0)).isEqualTo('X');
+        assertThat(loaded.getCell(2, 1)).isEqualTo('O');
+        assertThat(loaded.getCell(1, 1)).isNull();
+    }
+
+    @Test
+    void writesUnderTheHashTaggedGameKey() {
+        repository.save(newGame());
+
+        assertThat(calls("hMSet")).allSatisfy(arguments -> assertThat(arguments[0]).isEqualTo("game:{game}"));
+        assertThat(calls("expire")).allSatisfy(arguments -> assertThat(arguments[0]).isEqualTo("game:{game}"));
+    }
+
+    @Test
+    void clearsFieldsThatBecameNull() {
+        ActiveGame game = newGame();
+        game.setOpenLinesX(null);
+        game.setOpenLinesO(null);
+        stored.put(ActiveGameRepository.FIELD_OPEN_LINES_X, "8");
+        stored.put(ActiveGameRepository.FIELD_OPEN_LINES_O, "8");
+
+        repository.save(game);
+        applyWrites();
+
+        assertThat(stored).doesNotContainKeys(ActiveGameRepository.FIELD_OPEN_LINES_X,
+                ActiveGameRepository.FIELD_OPEN_LINES_O);
+        ActiveGame loaded = repository.findById("game").orElseThrow();
+        assertThat(loaded.getOpenLinesX()).isNull();
+        assertThat(loaded.getOpenLinesO()).isNull();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void updatesOnlyTheGivenFields() {
+        ActiveGame game = newGame();
+        game.setStatus(GameStatus.DRAW);
+
+        repository.update(game, ActiveGameRepository.FIELD_STATUS);
+
+        assertThat(calls("hMSet")).singleElement().satisfies(arguments ->
+                assertThat(((Map<String, String>) arguments[1]).keySet()).containsOnly(ActiveGameRepository.FIELD_STATUS,
+                        ActiveGameRepository.FIELD_UPDATED_AT));
+    }
+
+    @Test
+    void readsLegacyHashesWithoutTheNewerFields() {
+        // Written before win length, open line counts and the history flag were stored, booleans as true/false
+        stored.put(ActiveGameRepository.FIELD_BOARD_VERTICAL_SIZE, "3");
+        stored.put(ActiveGameRepository.FIELD_BOARD_HORIZONTAL_SIZE, "3");
+        stored.put(ActiveGameRepository.FIELD_CURRENT_TURN_SESSION_ID, "session-x");
+        stored.put(ActiveGameRepository.FIELD_SESSION_ID_X, "session-x");
+        stored.put(ActiveGameRepository.FIELD_SESSION_ID_O, "session-o");
+        stored.put(ActiveGameRepository.FIELD_STATUS, "IN_PROGRESS");
+        stored.put(ActiveGameRepository.FIELD_OPEN_LINES_X, "");
+
+        ActiveGame loaded = repository.findById("game").orElseThrow();
+
+        assertThat(loaded.getGameId()).isEqualTo("game");
+        assertThat(loaded.getWinLength()).isZero();
+        assertThat(new GameEngine(false).getWinLength(loaded)).isEqualTo(GameEngine.DEFAULT_WIN_LENGTH);
+        assertThat(loaded.getMoveCount()).isZero();
+        assertThat(loaded.getOpenLinesX()).isNull();
+        assertThat(loaded.getOpenLinesO()).isNull();
+        assertThat(loaded.isHistorySaved()).isFalse();
+        assertThat(loaded.getCreatedAt()).isNull();
+        assertThat(loaded.getCell(0, 0)).isNull();
+
+        stored.put(ActiveGameRepository.FIELD_HISTORY_SAVED, "true");
+        assertThat(repository.findById("game").orElseThrow().isHistorySaved()).isTrue();
+    }
+
+    @Test
+    void treatsAHashWithoutABoardSizeAsGone() {
+        stored.put(ActiveGameRepository.FIELD_STATUS, "IN_PROGRESS");
+
+        assertThat(repository.findById("game")).isEmpty();
+        when(hashOperations.entries(ActiveGameRepository.gameKey("missing"))).thenReturn(Map.of());
+        assertThat(repository.findById("missing")).isEqualTo(Optional.empty());
+    }
+
+    /**
+     * Replays the pipelined HSET and HDEL calls onto the stored hash
+     */
+    @SuppressWarnings("unchecked")
+    private void applyWrites() {
+        for (Object[] arguments : calls("hMSet")) {
+            stored.putAll((Map<String, String>) arguments[1]);
+        }
+        for (Object[] arguments : calls("hDel")) {
+            Arrays.stream(arguments).skip(1).forEach(stored::remove);
+        }
+    }
+
+    private List<Object[]> calls(String method) {
+        List<Object[]> calls = new ArrayList<>();
+        for (Invocation invocation : mockingDetails(connection).getInvocations()) {
+            if (invocation.getMethod().getName().equals(method)) {
+                calls.add(invocation.getArguments());
+            }
+        }
+        return calls;
+    }
+
+    private static ActiveGame newGame() {
+        ActiveGame game = new ActiveGame();
+        game.setGameId("game");
+        game.setBoardVerticalSize(3);
+        game.setBoardHorizontalSize(3);
+        game.setWinLength(3);
+        game.setSessionIdX("session-x");
+        game.setSessionIdO("session-o");
+        game.setCurrentTurnSessionId("session-x");
+        game.setStatus(GameStatus.IN_PROGRESS);
+        game.setCreatedAt(LocalDateTime.of(2026, 1, 2, 3, 4, 5, 6000));
+        return game;
+    }
+
+}
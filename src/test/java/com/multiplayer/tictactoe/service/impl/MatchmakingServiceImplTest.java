@@ -0,0 +1,111 @@
+package com.multiplayer.tictactoe.service.impl;
+
+import com.multiplayer.tictactoe.config.WebSocketExceptionHandler;
+import com.multiplayer.tictactoe.dto.request.QuickPlayReq;
+import com.multiplayer.tictactoe.exception.GameErrorType;
+import com.multiplayer.tictactoe.exception.GameException;
+import com.multiplayer.tictactoe.metrics.GameMetrics;
+import com.multiplayer.tictactoe.service.GameService;
+import com.multiplayer.tictactoe.utils.GameEngine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MatchmakingServiceImplTest {
+
+    private static final String QUEUE_3X3 = MatchmakingServiceImpl.QUEUE_KEY_PREFIX + "3x3:3";
+
+    private final StringRedisTemplate stringRedisTemplate = mock(StringRedisTemplate.class);
+
+    private final MatchmakingServiceImpl matchmakingService = new MatchmakingServiceImpl(stringRedisTemplate,
+            mock(GameService.class), new GameEngine(false), mock(GameMetrics.class),
+            mock(WebSocketExceptionHandler.class), 10, 500, 300);
+
+    // Waiting session ids and their queue key, as the queued hash in Redis would hold them
+    private final Map<String, String> queued = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        when(stringRedisTemplate.execute(eq(MatchmakingServiceImpl.ENQUEUE_SCRIPT), anyList(), any(Object[].class)))
+                .thenAnswer(invocation -> {
+                    List<String> keys = invocation.getArgument(1);
+                    return queued.putIfAbsent(invocation.getArgument(2), keys.get(0)) == null ? 1L : 0L;
+                });
+        when(stringRedisTemplate.execute(eq(MatchmakingServiceImpl.LEAVE_SCRIPT), anyList(), any(Object[].class)))
+                .thenAnswer(invocation -> {
+                    List<String> keys = invocation.getArgument(1);
+                    queued.remove((String) invocation.getArgument(2), keys.get(0));
+                    return 1L;
+                });
+    }
+
+    @Test
+    void rejectsAPlayerAlreadyWaitingInAnotherQueue() {
+        matchmakingService.enqueue(request(3, "player"), "stomp-1");
+
+        assertThatThrownBy(() -> matchmakingService.enqueue(request(4, "player"), "stomp-2"))
+                .isInstanceOfSatisfying(GameException.class, e -> {
+                    assertThat(e.getErrorType()).isEqualTo(GameErrorType.ALREADY_QUEUED);
+                    assertThat(e.getSessionId()).isEqualTo("player");
+                });
+        assertThat(queued).containsOnly(Map.entry("player", QUEUE_3X3));
+    }
+
+    @Test
+    void leavesWithThePlayerQueuedThroughTheConnection() {
+        matchmakingService.enqueue(request(3, "victim"), "stomp-victim");
+        matchmakingService.enqueue(request(3, "player"), "stomp-player");
+
+        // The payload no longer names who leaves, a connection can only take out its own player
+        matchmakingService.leave("stomp-player");
+        matchmakingService.leave("stomp-stranger");
+
+        assertThat(queued).containsOnlyKeys("victim");
+    }
+
+    @Test
+    void dropsThePlayerOfADisconnectedConnection() {
+        matchmakingService.enqueue(request(3, "player"), "stomp-1");
+
+        matchmakingService.onSessionDisconnected(new SessionDisconnectEvent(this,
+                MessageBuilder.withPayload(new byte[0]).build(), "stomp-1", CloseStatus.NORMAL));
+
+        assertThat(queued).isEmpty();
+    }
+
+    @Test
+    void givesUpTheEarlierPlaceWhenAConnectionQueuesUnderAnotherSessionId() {
+        matchmakingService.enqueue(request(3, "first"), "stomp-1");
+        matchmakingService.enqueue(request(3, "second"), "stomp-1");
+
+        assertThat(queued).containsOnlyKeys("second");
+    }
+
+    @Test
+    void rejectsBoardsOutsideTheQueues() {
+        assertThatThrownBy(() -> matchmakingService.enqueue(request(11, "player"), "stomp-1"))
+                .isInstanceOfSatisfying(GameException.class,
+                        e -> assertThat(e.getErrorType()).isEqualTo(GameErrorType.INVALID_BOARD_SIZE));
+        assertThat(queued).isEmpty();
+    }
+
+    private static QuickPlayReq request(int size, String sessionId) {
+        return new QuickPlayReq(size, size, 0, sessionId);
+    }
+
+}
@@ -0,0 +1,360 @@
+package com.multiplayer.tictactoe.service.impl;
+
+import com.multiplayer.tictactoe.dto.response.RatingRes;
+import com.multiplayer.tictactoe.utils.PlayerHandles;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.multiplayer.tictactoe.entity.jpa.GameHistory;
+import com.multiplayer.tictactoe.enums.GameStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.ListOperations;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RatingServiceImplTest {
+
+    private static final YearMonth LAST_MONTH = YearMonth.now().minusMonths(1);
+
+    private static final String BOARD_3X3 = RatingServiceImpl.BOARD_KEY_PREFIX + "3x3";
+
+    private final StringRedisTemplate stringRedisTemplate = mock(StringRedisTemplate.class);
+
+    @SuppressWarnings("unchecked")
+    private final ZSetOperations<String, String> zSetOperations = mock(ZSetOperations.class);
+
+    private final PlayerHandles playerHandles = new PlayerHandles("secret");
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+    private final FakeRatingRedis redis = new FakeRatingRedis();
+
+    private final RatingServiceImpl ratingService = newRatingService();
+
+    // Another instance sharing Redis and the database
+    private final RatingServiceImpl otherInstance = newRatingService();
+
+    // Rows of game_history
+    private final List<GameHistory> history = new ArrayList<>();
+
+    // Runs while the rebuild loads its first month
+    private Runnable duringLoad = () -> { };
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws SQLException {
+        when(stringRedisTemplate.execute(eq(RatingServiceImpl.UPDATE_RATINGS_SCRIPT), anyList(), any(Object[].class)))
+                .thenAnswer(invocation -> redis.updateRatings(invocation.getArgument(1), arguments(invocation)));
+        when(stringRedisTemplate.execute(eq(RatingServiceImpl.RECOMPUTE_LEASE_SCRIPT), anyList(), any(Object[].class)))
+                .thenAnswer(invocation -> redis.lease(arguments(invocation)));
+
+        ListOperations<String, String> listOperations = mock(ListOperations.class);
+        when(stringRedisTemplate.opsForList()).thenReturn(listOperations);
+        when(listOperations.range(eq(RatingServiceImpl.HELD_BACK_KEY), anyLong(), anyLong()))
+                .thenAnswer(invocation -> redis.heldBack(invocation.getArgument(2)));
+
+        when(stringRedisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(zSetOperations.add(anyString(), any(Set.class))).thenAnswer(invocation -> {
+            redis.add(invocation.getArgument(0), invocation.getArgument(1));
+            return 1L;
+        });
+        when(stringRedisTemplate.delete(anyString())).thenAnswer(invocation -> redis.delete(invocation.getArgument(0)));
+        doAnswer(invocation -> {
+            redis.rename(invocation.getArgument(0), invocation.getArgument(1));
+            return null;
+        }).when(stringRedisTemplate).rename(anyString(), anyString());
+
+        when(jdbcTemplate.queryForObject(anyString(), eq(LocalDateTime.class))).thenAnswer(invocation ->
+                history.stream().map(GameHistory::getCompletedAt).min(LocalDateTime::compareTo).orElse(null));
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(Object[].class))).thenAnswer(invocation -> {
+            Runnable during = duringLoad;
+            duringLoad = () -> { };
+            during.run();
+            return load(invocation.getArgument(1), invocation.getArgument(2), invocation.getArgument(3));
+        });
+    }
+
+    @Test
+    void namesTopPlayersByHandle() {
+        Set<ZSetOperations.TypedTuple<String>> top = new LinkedHashSet<>();
+        top.add(new DefaultTypedTuple<>("session-x", 1516.4));
+        top.add(new DefaultTypedTuple<>("session-o", 1483.6));
+        when(stringRedisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(zSetOperations.reverseRangeWithScores(RatingServiceImpl.GLOBAL_KEY, 0, 9)).thenReturn(top);
+
+        List<RatingRes> ratings = ratingService.getTopPlayers(null, 10);
+
+        assertThat(ratings).containsExactly(
+                new RatingRes(playerHandles.toHandle("session-x"), 1516, 1),
+                new RatingRes(playerHandles.toHandle("session-o"), 1484, 2));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void looksPlayersUpByHandle() {
+        StringRedisConnection connection = mock(StringRedisConnection.class);
+        when(stringRedisTemplate.executePipelined(any(RedisCallback.class))).thenAnswer(invocation -> {
+            invocation.<RedisCallback<Object>>getArgument(0).doInRedis(connection);
+            return List.of(1516.4, 0L);
+        });
+
+        assertThat(ratingService.getPlayerRating(playerHandles.toHandle("session-x"), "3x3"))
+                .contains(new RatingRes(playerHandles.toHandle("session-x"), 1516, 1));
+        verify(connection).zScore(RatingServiceImpl.BOARD_KEY_PREFIX + "3x3", "session-x");
+    }
+
+    @Test
+    void knowsNobodyByTheirSessionId() {
+        assertThat(ratingService.getPlayerRating("session-x", null)).isEmpty();
+
+        verify(stringRedisTemplate, never()).executePipelined(any(RedisCallback.class));
+    }
+
+    @Test
+    void ratesLiveGamesWhenNoRecomputeRuns() {
+        ratingService.recordGames(List.of(game(1L, "a", "b", GameStatus.X_WON, LAST_MONTH.atDay(2).atStartOfDay())));
+
+        assertThat(redis.rating(RatingServiceImpl.GLOBAL_KEY, "a")).isCloseTo(1516, within(0.001));
+        assertThat(redis.rating(BOARD_3X3, "b")).isCloseTo(1484, within(0.001));
+    }
+
+    @Test
+    void keepsGamesEveryInstanceRatedWhileTheRebuildRan() {
+        GameHistory loaded = saved(1L, "a", "b", GameStatus.X_WON, LAST_MONTH.atDay(2).atStartOfDay());
+        duringLoad = () -> {
+            // Saved after the load read its month, on another instance
+            otherInstance.recordGames(List.of(game(2L, "c", "d", GameStatus.O_WON, LAST_MONTH.atDay(3).atStartOfDay())));
+            // Already in the loaded rows, rated once by the rebuild
+            otherInstance.recordGames(List.of(loaded));
+            assertThat(redis.heldBackCount()).isEqualTo(2);
+        };
+
+        long games = ratingService.recompute();
+
+        assertThat(games).isEqualTo(2);
+        assertThat(redis.rating(RatingServiceImpl.GLOBAL_KEY, "a")).isCloseTo(1516, within(0.001));
+        assertThat(redis.rating(RatingServiceImpl.GLOBAL_KEY, "c")).isCloseTo(1484, within(0.001));
+        assertThat(redis.rating(BOARD_3X3, "d")).isCloseTo(1516, within(0.001));
+        assertThat(redis.heldBackCount()).isZero();
+        assertThat(redis.lease).isNull();
+
+        // Live again once the lease is released
+        ratingService.recordGames(List.of(game(3L, "a", "c", GameStatus.DRAW, LAST_MONTH.atDay(4).atStartOfDay())));
+        assertThat(redis.rating(RatingServiceImpl.GLOBAL_KEY, "a")).isLessThan(1516);
+    }
+
+    @Test
+    void rejectsARecomputeWhileAnotherInstanceRunsOne() {
+        redis.lease = "other-instance";
+        redis.heldBack.add("held by the other recompute");
+
+        assertThatThrownBy(ratingService::recompute).isInstanceOf(IllegalStateException.class);
+
+        assertThat(redis.lease).isEqualTo("other-instance");
+        assertThat(redis.heldBackCount()).isEqualTo(1);
+    }
+
+    @Test
+    void ratesHeldBackGamesOnTheOldLeaderboardsWhenTheRebuildFails() {
+        ratingService.recordGames(List.of(game(1L, "a", "b", GameStatus.X_WON, LAST_MONTH.atDay(2).atStartOfDay())));
+        saved(1L, "a", "b", GameStatus.X_WON, LAST_MONTH.atDay(2).atStartOfDay());
+        duringLoad = () -> {
+            otherInstance.recordGames(List.of(game(2L, "a", "b", GameStatus.X_WON, LAST_MONTH.atDay(3).atStartOfDay())));
+            throw new DataAccessResourceFailureException("database is down");
+        };
+
+        assertThatThrownBy(ratingService::recompute).isInstanceOf(IllegalStateException.class);
+
+        assertThat(redis.rating(RatingServiceImpl.GLOBAL_KEY, "a")).isGreaterThan(1516);
+        assertThat(redis.heldBackCount()).isZero();
+        assertThat(redis.lease).isNull();
+    }
+
+    @Test
+    void replacesNothingOnceTheLeaseWasLost() {
+        ratingService.recordGames(List.of(game(1L, "a", "b", GameStatus.X_WON, LAST_MONTH.atDay(2).atStartOfDay())));
+        saved(1L, "a", "b", GameStatus.O_WON, LAST_MONTH.atDay(2).atStartOfDay());
+        duringLoad = () -> redis.lease = "other-instance";
+
+        assertThatThrownBy(ratingService::recompute).isInstanceOf(IllegalStateException.class);
+
+        assertThat(redis.rating(RatingServiceImpl.GLOBAL_KEY, "a")).isCloseTo(1516, within(0.001));
+        assertThat(redis.lease).isEqualTo("other-instance");
+    }
+
+    private RatingServiceImpl newRatingService() {
+        return new RatingServiceImpl(stringRedisTemplate, jdbcTemplate, playerHandles,
+                new ObjectMapper().findAndRegisterModules(), 32, 1500, 2);
+    }
+
+    private GameHistory saved(Long id, String userIdX, String userIdO, GameStatus status, LocalDateTime completedAt) {
+        GameHistory game = game(id, userIdX, userIdO, status, completedAt);
+        history.add(game);
+        return game;
+    }
+
+    /**
+     * Runs the row mapper of the rebuild over the saved games completed in [from, to), like the month query
+     */
+    private List<Object> load(RowMapper<?> rowMapper, LocalDateTime from, LocalDateTime to) throws SQLException {
+        List<Object> rows = new ArrayList<>();
+        for (GameHistory game : history) {
+            if (game.getCompletedAt().isBefore(from) || !game.getCompletedAt().isBefore(to)) {
+                continue;
+            }
+            ResultSet row = mock(ResultSet.class);
+            when(row.getLong("id")).thenReturn(game.getId());
+            when(row.getString("user_id_x")).thenReturn(game.getUserIdX());
+            when(row.getString("user_id_o")).thenReturn(game.getUserIdO());
+            when(row.getString("status")).thenReturn(game.getStatus().name());
+            when(row.getInt("board_vertical_size")).thenReturn(game.getBoardVerticalSize());
+            when(row.getInt("board_horizontal_size")).thenReturn(game.getBoardHorizontalSize());
+            when(row.getObject("completed_at", LocalDateTime.class)).thenReturn(game.getCompletedAt());
+            rows.add(rowMapper.mapRow(row, rows.size()));
+        }
+        return rows;
+    }
+
+    private static GameHistory game(Long id, String userIdX, String userIdO, GameStatus status, LocalDateTime completedAt) {
+        GameHistory game = new GameHistory();
+        game.setId(id);
+        game.setGameId("game-" + id);
+        game.setUserIdX(userIdX);
+        game.setUserIdO(userIdO);
+        game.setStatus(status);
+        game.setBoardVerticalSize(3);
+        game.setBoardHorizontalSize(3);
+        game.setCompletedAt(completedAt);
+        return game;
+    }
+
+    private static String[] arguments(InvocationOnMock invocation) {
+        Object[] arguments = invocation.getArguments();
+        return Arrays.stream(arguments, 2, arguments.length).map(String::valueOf).toArray(String[]::new);
+    }
+
+    /**
+     * The rating keys in Redis, changed the way update_ratings.lua and rating_recompute_lease.lua change them
+     */
+    private static final class FakeRatingRedis {
+
+        private final Map<String, Map<String, Double>> leaderboards = new HashMap<>();
+
+        private final List<String> heldBack = new ArrayList<>();
+
+        private volatile String lease;
+
+        synchronized long updateRatings(List<String> keys, String[] arguments) {
+            int drop = Integer.parseInt(arguments[2]);
+            if (drop == 0) {
+                if (lease != null) {
+                    for (int i = 8; i < arguments.length; i += 5) {
+                        heldBack.add(arguments[i]);
+                    }
+                    return -1;
+                }
+            } else if (!arguments[3].equals(lease)) {
+                return -2;
+            }
+
+            double k = Double.parseDouble(arguments[0]);
+            double initial = Double.parseDouble(arguments[1]);
+            long games = 0;
+            for (int i = 4; i < arguments.length; i += 5) {
+                double resultX = Double.parseDouble(arguments[i + 2]);
+                for (String key : List.of(keys.get(2), keys.get(Integer.parseInt(arguments[i + 3]) - 1))) {
+                    Map<String, Double> ratings = leaderboards.computeIfAbsent(key, ignored -> new HashMap<>());
+                    double ratingX = ratings.getOrDefault(arguments[i], initial);
+                    double ratingO = ratings.getOrDefault(arguments[i + 1], initial);
+                    double delta = k * (resultX - 1 / (1 + Math.pow(10, (ratingO - ratingX) / 400)));
+                    ratings.put(arguments[i], ratingX + delta);
+                    ratings.put(arguments[i + 1], ratingO - delta);
+                }
+                games++;
+            }
+            heldBack.subList(0, drop).clear();
+            return games;
+        }
+
+        synchronized long lease(String[] arguments) {
+            String token = arguments[0];
+            if (arguments[1].equals("acquire")) {
+                if (lease != null) {
+                    return 0;
+                }
+                lease = token;
+                heldBack.clear();
+                return 1;
+            }
+            if (!token.equals(lease)) {
+                return -1;
+            }
+            if (arguments[1].equals("renew")) {
+                return 1;
+            }
+            if (!heldBack.isEmpty()) {
+                return 0;
+            }
+            lease = null;
+            return 1;
+        }
+
+        synchronized List<String> heldBack(long end) {
+            return new ArrayList<>(heldBack.subList(0, (int) Math.min(end + 1, heldBack.size())));
+        }
+
+        synchronized int heldBackCount() {
+            return heldBack.size();
+        }
+
+        synchronized void add(String key, Set<ZSetOperations.TypedTuple<String>> ratings) {
+            Map<String, Double> leaderboard = leaderboards.computeIfAbsent(key, ignored -> new HashMap<>());
+            ratings.forEach(rating -> leaderboard.put(rating.getValue(), rating.getScore()));
+        }
+
+        synchronized boolean delete(String key) {
+            return leaderboards.remove(key) != null;
+        }
+
+        synchronized void rename(String from, String to) {
+            leaderboards.put(to, leaderboards.remove(from));
+        }
+
+        synchronized double rating(String key, String player) {
+            return leaderboards.getOrDefault(key, Map.of()).getOrDefault(player, Double.NaN);
+        }
+    }
+
+}
@@ -0,0 +1,124 @@
+package com.multiplayer.tictactoe.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.multiplayer.tictactoe.dto.response.CursorPageRes;
+import com.multiplayer.tictactoe.dto.response.GameSummaryRes;
+import com.multiplayer.tictactoe.dto.response.PlayerStatsRes;
+import com.multiplayer.tictactoe.entity.jpa.PlayerStats;
+import com.multiplayer.tictactoe.enums.GameStatus;
+import com.multiplayer.tictactoe.mapper.GameMapperImpl;
+import com.multiplayer.tictactoe.repository.GameHistoryRepository;
+import com.multiplayer.tictactoe.repository.GameHistorySummary;
+import com.multiplayer.tictactoe.repository.PlayerStatsRepository;
+import com.multiplayer.tictactoe.utils.PlayerHandles;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class StatsServiceImplTest {
+
+    private static final LocalDateTime COMPLETED_AT = LocalDateTime.of(2026, 5, 6, 7, 8);
+
+    private final GameHistoryRepository gameHistoryRepository = mock(GameHistoryRepository.class);
+
+    private final PlayerStatsRepository playerStatsRepository = mock(PlayerStatsRepository.class);
+
+    private final PlayerHandles playerHandles = new PlayerHandles("secret");
+
+    private final StatsServiceImpl statsService = new StatsServiceImpl(gameHistoryRepository, playerStatsRepository,
+            new GameMapperImpl(), playerHandles);
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @Test
+    void looksPlayersUpByTheirHandle() throws Exception {
+        when(playerStatsRepository.findById("session-x"))
+                .thenReturn(Optional.of(new PlayerStats("session-x", 3, 1, 2, COMPLETED_AT)));
+
+        PlayerStatsRes stats = statsService.getPlayerStats(playerHandles.toHandle("session-x")).orElseThrow();
+
+        assertThat(stats.getPlayerId()).isEqualTo(playerHandles.toHandle("session-x"));
+        assertThat(stats.getGamesPlayed()).isEqualTo(6);
+        assertThat(objectMapper.writeValueAsString(stats)).doesNotContain("session-x");
+    }
+
+    @Test
+    void knowsNobodyByTheirSessionId() {
+        assertThat(statsService.getPlayerStats("session-x")).isEmpty();
+        assertThat(statsService.getPlayerGames("session-x", null, 20).getItems()).isEmpty();
+
+        verify(playerStatsRepository, never()).findById(anyString());
+        verify(gameHistoryRepository, never()).findPlayerGamesBefore(anyString(), any(), anyLong(), anyInt());
+    }
+
+    @Test
+    void namesThePlayersOfListedGamesByHandle() throws Exception {
+        GameHistorySummary summary = summary();
+        when(gameHistoryRepository.findPlayerGamesBefore(eq("session-x"), any(), anyLong(), anyInt()))
+                .thenReturn(List.of(summary));
+
+        CursorPageRes<GameSummaryRes> page = statsService.getPlayerGames(playerHandles.toHandle("session-x"), null, 1);
+
+        GameSummaryRes game = page.getItems().get(0);
+        assertThat(game.getUserIdX()).isEqualTo(playerHandles.toHandle("session-x"));
+        assertThat(game.getUserIdO()).isEqualTo(playerHandles.toHandle("session-o"));
+        assertThat(game.getWinnerId()).isEqualTo(game.getUserIdO());
+        assertThat(objectMapper.writeValueAsString(page)).doesNotContain("session-x", "session-o");
+    }
+
+    @Test
+    void pagesTheLeaderboardWithCursorsThatHideSessionIds() {
+        when(playerStatsRepository.findLeaderboardAfter(eq(Integer.MAX_VALUE), eq(""), any(Limit.class)))
+                .thenReturn(List.of(new PlayerStats("session-x", 5, 0, 0, COMPLETED_AT)));
+        when(playerStatsRepository.findLeaderboardAfter(eq(5), eq("session-x"), any(Limit.class)))
+                .thenReturn(List.of(new PlayerStats("session-o", 4, 0, 0, COMPLETED_AT)));
+
+        String cursor = statsService.getLeaderboard(null, 1).getNextCursor();
+
+        assertThat(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)).doesNotContain("session-x");
+        assertThat(statsService.getLeaderboard(cursor, 1).getItems())
+                .extracting(PlayerStatsRes::getPlayerId)
+                .containsExactly(playerHandles.toHandle("session-o"));
+    }
+
+    @Test
+    void rejectsLeaderboardCursorsNamingASessionId() {
+        String cursor = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("5|session-x".getBytes(StandardCharsets.UTF_8));
+
+        assertThatThrownBy(() -> statsService.getLeaderboard(cursor, 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static GameHistorySummary summary() {
+        GameHistorySummary summary = mock(GameHistorySummary.class);
+        when(summary.getId()).thenReturn(1L);
+        when(summary.getGameId()).thenReturn("game");
+        when(summary.getUserIdX()).thenReturn("session-x");
+        when(summary.getUserIdO()).thenReturn("session-o");
+        when(summary.getStatus()).thenReturn(GameStatus.O_WON);
+        when(summary.getWinnerId()).thenReturn("session-o");
+        when(summary.getBoardVerticalSize()).thenReturn(3);
+        when(summary.getBoardHorizontalSize()).thenReturn(3);
+        when(summary.getCompletedAt()).thenReturn(COMPLETED_AT);
+        return summary;
+    }
+
+}
@@ -0,0 +1,222 @@
+package com.multiplayer.tictactoe.spectate;
+
+import com.multiplayer.tictactoe.dto.request.MakeMoveReq;
+import com.multiplayer.tictactoe.dto.response.SpectatorMoveRes;
+import com.multiplayer.tictactoe.dto.response.SpectatorSnapshotRes;
+import com.multiplayer.tictactoe.entity.redis.ActiveGame;
+import com.multiplayer.tictactoe.enums.GameStatus;
+import com.multiplayer.tictactoe.mapper.GameMapper;
+import com.multiplayer.tictactoe.mapper.GameMapperImpl;
+import com.multiplayer.tictactoe.metrics.GameMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SpectatorPublisherTest {
+
+    private static final String TOPIC = "/topic/spectate.game";
+
+    private final FakeMessagingTemplate template = new FakeMessagingTemplate();
+
+    private final GameMapper gameMapper = new GameMapperImpl();
+
+    // One publisher thread and no min-interval, so every flush runs as soon as the previous one is done
+    private final SpectatorPublisher publisher = new SpectatorPublisher(template, gameMapper,
+            new GameMetrics(new SimpleMeterRegistry()), 1, 0);
+
+    private final ActiveGame game = newGame();
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        template.release();
+        publisher.destroy();
+    }
+
+    @Test
+    void sendsTheNextMoveAsADelta() throws InterruptedException {
+        publisher.publishState(game);
+        assertThat(template.next(TOPIC)).isInstanceOf(SpectatorSnapshotRes.class);
+
+        publishMove(0, 0);
+
+        SpectatorMoveRes move = (SpectatorMoveRes) template.next(TOPIC);
+        assertThat(move.getMoveNumber()).isEqualTo(1);
+        assertThat(move.getSymbol()).isEqualTo('X');
+        assertThat(move.getNextTurn()).isEqualTo('O');
+    }
+
+    @Test
+    void sendsNothingForAMoveAlreadySent() throws InterruptedException {
+        publisher.publishState(game);
+        template.next(TOPIC);
+        publishMove(0, 0);
+        template.next(TOPIC);
+
+        publisher.publishMove(game, gameMapper.toMakeMoveRes(game, new MakeMoveReq("game", "session-x", 0, 0)));
+
+        assertThat(template.poll(TOPIC)).isNull();
+
+        // A state without a move always goes out, even one from before the last move sent
+        publisher.publishState(newGame());
+        assertThat(((SpectatorSnapshotRes) template.next(TOPIC)).getMoveNumber()).isZero();
+    }
+
+    @Test
+    void conflatesSkippedMovesIntoOneSnapshot() throws InterruptedException {
+        publisher.publishState(game);
+        template.next(TOPIC);
+
+        // Hold the publisher in the send of the first move while two more are played
+        template.block();
+        publishMove(0, 0);
+        template.awaitBlocked();
+        publishMove(1, 1);
+        publishMove(2, 2);
+        template.release();
+
+        assertThat(template.next(TOPIC)).isInstanceOf(SpectatorMoveRes.class);
+        SpectatorSnapshotRes snapshot = (SpectatorSnapshotRes) template.next(TOPIC);
+        assertThat(snapshot.getMoveNumber()).isEqualTo(3);
+        assertThat(snapshot.getCurrentTurn()).isEqualTo('O');
+        assertThat(snapshot.getBoardState().get('X')).containsExactlyInAnyOrder("0,0", "2,2");
+        assertThat(snapshot.getBoardState().get('O')).containsExactly("1,1");
+        assertThat(template.poll(TOPIC)).isNull();
+    }
+
+    @Test
+    void answersLateJoinersFromTheFeed() throws InterruptedException {
+        publisher.publishState(game);
+        template.next(TOPIC);
+        publishMove(0, 0);
+        template.next(TOPIC);
+
+        assertThat(publisher.sendSnapshot("game", "late")).isTrue();
+        SpectatorSnapshotRes snapshot = (SpectatorSnapshotRes) template.next("/topic/session.late");
+        assertThat(snapshot.getMoveNumber()).isEqualTo(1);
+        assertThat(publisher.sendSnapshot("other", "late")).isFalse();
+    }
+
+    @Test
+    void dropsTheFeedOnceTheGameIsFinished() throws InterruptedException {
+        publisher.publishState(game);
+        template.next(TOPIC);
+        assertThat(publisher.follows("game")).isTrue();
+
+        game.setCell(0, 0, 'X');
+        game.setMoveCount(1);
+        game.setStatus(GameStatus.X_WON);
+        publisher.publishMove(game, gameMapper.toMakeMoveRes(game, new MakeMoveReq("game", "session-x", 0, 0)));
+
+        SpectatorMoveRes move = (SpectatorMoveRes) template.next(TOPIC);
+        assertThat(move.getWinner()).isEqualTo('X');
+        awaitUnfollowed("game");
+        assertThat(publisher.sendSnapshot("game", "late")).isFalse();
+    }
+
+    /**
+     * Plays the next move for the player on turn and publishes it
+     */
+    private void publishMove(int row, int col) {
+        char symbol = game.getMoveCount() % 2 == 0 ? 'X' : 'O';
+        String mover = game.getCurrentTurnSessionId();
+        game.setCell(row, col, symbol);
+        game.setMoveCount(game.getMoveCount() + 1);
+        game.setCurrentTurnSessionId(symbol == 'X' ? game.getSessionIdO() : game.getSessionIdX());
+        publisher.publishMove(game, gameMapper.toMakeMoveRes(game, new MakeMoveReq("game", mover, row, col)));
+    }
+
+    private void awaitUnfollowed(String gameId) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (publisher.follows(gameId) && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertThat(publisher.follows(gameId)).isFalse();
+    }
+
+    private static ActiveGame newGame() {
+        ActiveGame game = new ActiveGame();
+        game.setGameId("game");
+        game.setBoardVerticalSize(3);
+        game.setBoardHorizontalSize(3);
+        game.setWinLength(3);
+        game.setSessionIdX("session-x");
+        game.setSessionIdO("session-o");
+        game.setCurrentTurnSessionId("session-x");
+        game.setStatus(GameStatus.IN_PROGRESS);
+        return game;
+    }
+
+    /**
+     * Records sent frames by destination instead of sending them, and can hold the sender in a send
+     */
+    private static final class FakeMessagingTemplate extends SimpMessagingTemplate {
+
+        private final BlockingQueue<Sent> sent = new LinkedBlockingQueue<>();
+
+        private volatile CountDownLatch blocked;
+
+        private volatile CountDownLatch released = new CountDownLatch(0);
+
+        FakeMessagingTemplate() {
+            super((message, timeout) -> true);
+        }
+
+        @Override
+        public void convertAndSend(String destination, Object payload) {
+            // Taken before the frame is seen, so blocking after a frame arrived only holds later sends
+            CountDownLatch holding = released;
+            CountDownLatch signal = blocked;
+            sent.add(new Sent(destination, payload));
+            if (signal != null) {
+                signal.countDown();
+            }
+            try {
+                holding.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        void block() {
+            blocked = new CountDownLatch(1);
+            released = new CountDownLatch(1);
+        }
+
+        void awaitBlocked() throws InterruptedException {
+            assertThat(blocked.await(5, TimeUnit.SECONDS)).isTrue();
+        }
+
+        void release() {
+            blocked = null;
+            released.countDown();
+        }
+
+        Object next(String destination) throws InterruptedException {
+            Sent next = sent.poll(5, TimeUnit.SECONDS);
+            assertThat(next).isNotNull();
+            assertThat(next.destination()).isEqualTo(destination);
+            return next.payload();
+        }
+
+        Object poll(String destination) throws InterruptedException {
+            Sent next = sent.poll(100, TimeUnit.MILLISECONDS);
+            if (next == null) {
+                return null;
+            }
+            assertThat(next.destination()).isEqualTo(destination);
+            return next.payload();
+        }
+
+        private record Sent(String destination, Object payload) {
+        }
+    }
+
+}
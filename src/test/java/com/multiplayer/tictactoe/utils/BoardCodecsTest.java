@@ -0,0 +1,172 @@
+package com.multiplayer.tictactoe.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BoardCodecsTest {
+
+    private final Random random = new Random(42);
+
+    @Test
+    void roundTripsBoardsOfEverySizeAndFill() {
+        int[][] sizes = {{1, 1}, {3, 3}, {4, 4}, {5, 7}, {8, 8}, {9, 9}, {15, 15}, {100, 100}};
+        double[] fills = {0.0, 0.01, 0.2, 0.5, 1.0};
+
+        for (int[] size : sizes) {
+            for (double fill : fills) {
+                BitBoard board = randomBoard(size[0], size[1], fill);
+
+                BitBoard decoded = BitBoard.decode(board.encode(), size[0], size[1]);
+
+                assertThat(decoded.toPositionMap())
+                        .as("%dx%d filled %.2f", size[0], size[1], fill)
+                        .isEqualTo(board.toPositionMap());
+                assertThat(decoded.count(BitBoard.PLAYER_X)).isEqualTo(board.count(BitBoard.PLAYER_X));
+                assertThat(decoded.count(BitBoard.PLAYER_O)).isEqualTo(board.count(BitBoard.PLAYER_O));
+            }
+        }
+    }
+
+    @Test
+    void roundTripsThroughEachCodec() {
+        BoardCodec[] codecs = {new DenseBoardCodec(), new SparseBoardCodec()};
+        int[][] sizes = {{3, 3}, {7, 9}, {8, 8}, {30, 30}};
+
+        for (BoardCodec codec : codecs) {
+            for (int[] size : sizes) {
+                BitBoard board = randomBoard(size[0], size[1], 0.3);
+                byte[] out = new byte[codec.encodedLength(board) + 2];
+                codec.encode(board, out, 2);
+
+                BitBoard decoded = new BitBoard(size[0], size[1]);
+                codec.decode(out, 2, out.length - 2, decoded);
+
+                assertThat(decoded.toPositionMap())
+                        .as("%s on %dx%d", codec.getClass().getSimpleName(), size[0], size[1])
+                        .isEqualTo(board.toPositionMap());
+            }
+        }
+    }
+
+    @Test
+    void picksTheSmallerCodec() {
+        BitBoard crowded = randomBoard(3, 3, 0.8);
+        BitBoard sparse = new BitBoard(100, 100);
+        sparse.set(50, 50, BitBoard.PLAYER_X);
+        sparse.set(50, 51, BitBoard.PLAYER_O);
+
+        assertThat(versionOf(crowded.encode())).isEqualTo(DenseBoardCodec.VERSION);
+        assertThat(versionOf(sparse.encode())).isEqualTo(SparseBoardCodec.VERSION);
+        // Version byte plus 2 bytes per player
+        assertThat(Base64.getDecoder().decode(crowded.encode())).hasSize(5);
+    }
+
+    @Test
+    void writesStandardBase64() {
+        // Boards whose framed length leaves 0, 1 and 2 bytes in the last base64 group
+        int[][] sizes = {{3, 3}, {4, 4}, {5, 5}, {6, 6}, {7, 7}};
+
+        for (int[] size : sizes) {
+            BitBoard board = randomBoard(size[0], size[1], 0.5);
+            String encoded = board.encode();
+            byte[] raw = Base64.getDecoder().decode(encoded);
+
+            assertThat(Base64.getEncoder().encodeToString(raw)).isEqualTo(encoded);
+            assertThat(BitBoard.decode(Base64.getEncoder().encodeToString(raw), size[0], size[1]).toPositionMap())
+                    .isEqualTo(board.toPositionMap());
+        }
+    }
+
+    @Test
+    void readsLegacyJsonBoards() {
+        String legacy = "{\"X\":[\"0,0\",\"1,1\",\"2,2\"],\"O\":[\"0,2\",\"2,0\"]}";
+
+        BitBoard board = BitBoard.decode(legacy, 3, 3);
+
+        assertThat(board.toPositionMap()).isEqualTo(Map.of(
+                'X', Set.of("0,0", "1,1", "2,2"),
+                'O', Set.of("0,2", "2,0")));
+        assertThat(BitBoard.decode(board.encode(), 3, 3).toPositionMap()).isEqualTo(board.toPositionMap());
+    }
+
+    @Test
+    void readsMissingBoardsAsEmpty() {
+        assertThat(BitBoard.decode(null, 3, 3).count(BitBoard.PLAYER_X)).isZero();
+        assertThat(BitBoard.decode("", 3, 3).count(BitBoard.PLAYER_O)).isZero();
+    }
+
+    @Test
+    void rejectsMalformedBoards() {
+        assertThatThrownBy(() -> BitBoard.decode("{not json", 3, 3))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> BitBoard.decode("AQID", 3, 3).count(BitBoard.PLAYER_X))
+                .as("dense payload of the wrong length")
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> BitBoard.decode("ABC", 3, 3))
+                .as("length not a multiple of 4")
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> BitBoard.decode("AB*D", 3, 3))
+                .as("character outside the alphabet")
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> BitBoard.decode(frame(15, 0, 0, 0, 0), 3, 3))
+                .as("unregistered version")
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rejectsMalformedSparseBoards() {
+        byte sparse = SparseBoardCodec.VERSION;
+
+        assertThatThrownBy(() -> BitBoard.decode(frame(sparse, 1), 3, 3))
+                .as("truncated cell list")
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> BitBoard.decode(frame(sparse, 0, 0, 0), 3, 3))
+                .as("trailing bytes")
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> BitBoard.decode(frame(sparse, 1, 9, 0), 3, 3))
+                .as("cell outside the board")
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> BitBoard.decode(frame(sparse, 10, 0, 0), 3, 3))
+                .as("more cells than the board")
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> BitBoard.decode(frame(sparse, 0x80, 0x80), 3, 3))
+                .as("varint running past the end")
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> BitBoard.decode(frame(sparse, 0x80, 0x80, 0x80, 0x80, 0x01, 0), 3, 3))
+                .as("varint longer than 28 bits")
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private BitBoard randomBoard(int rows, int cols, double fill) {
+        BitBoard board = new BitBoard(rows, cols);
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                if (random.nextDouble() < fill) {
+                    board.set(row, col, random.nextBoolean() ? BitBoard.PLAYER_X : BitBoard.PLAYER_O);
+                }
+            }
+        }
+        return board;
+    }
+
+    private static byte versionOf(String encoded) {
+        return Base64.getDecoder().decode(encoded)[0];
+    }
+
+    private static String frame(int... bytes) {
+        byte[] raw = new byte[bytes.length];
+        for (int i = 0; i < bytes.length; i++) {
+            raw[i] = (byte) bytes[i];
+        }
+        return new String(Base64.getEncoder().encode(raw), StandardCharsets.ISO_8859_1);
+    }
+
+}
@@ -0,0 +1,285 @@
+package com.multiplayer.tictactoe.utils;
+
+import com.multiplayer.tictactoe.entity.redis.ActiveGame;
+import com.multiplayer.tictactoe.enums.GameStatus;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GameEngineTest {
+
+    private static final String PLAYER_X = "session-x";
+
+    private static final String PLAYER_O = "session-o";
+
+    private static final int[][] DIRECTIONS = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+
+    private final GameEngine gameEngine = new GameEngine(false);
+
+    @Test
+    void detectsWinsInEveryDirectionAndPosition() {
+        // Square, wide and tall boards, with the win length equal to and shorter than the board sides
+        int[][] boards = {{3, 3, 3}, {4, 4, 4}, {5, 7, 4}, {6, 4, 3}, {7, 7, 5}};
+
+        for (int[] board : boards) {
+            int rows = board[0];
+            int cols = board[1];
+            int winLength = board[2];
+
+            for (int[] direction : DIRECTIONS) {
+                for (int row = 0; row < rows; row++) {
+                    for (int col = 0; col < cols; col++) {
+                        int lastRow = row + (winLength - 1) * direction[0];
+                        int lastCol = col + (winLength - 1) * direction[1];
+                        if (lastRow < 0 || lastRow >= rows || lastCol < 0 || lastCol >= cols) {
+                            continue;
+                        }
+
+                        ActiveGame game = newGame(rows, cols, winLength);
+                        for (int i = 0; i < winLength; i++) {
+                            game.setCell(row + i * direction[0], col + i * direction[1], 'X');
+                        }
+
+                        // Whichever cell of the line was played last, the win is found through it
+                        for (int i = 0; i < winLength; i++) {
+                            assertThat(gameEngine.checkWinCondition(game, row + i * direction[0], col + i * direction[1]))
+                                    .as("%dx%d K=%d line from %d,%d along %d,%d", rows, cols, winLength,
+                                            row, col, direction[0], direction[1])
+                                    .isEqualTo('X');
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void doesNotWinWithOneCellShort() {
+        ActiveGame game = newGame(5, 5, 4);
+        game.setCell(2, 0, 'X');
+        game.setCell(2, 1, 'X');
+        game.setCell(2, 2, 'X');
+
+        assertThat(gameEngine.checkWinCondition(game, 2, 2)).isNull();
+    }
+
+    @Test
+    void doesNotWinAcrossAnOpponentCell() {
+        ActiveGame game = newGame(1, 5, 3);
+        game.setCell(0, 0, 'X');
+        game.setCell(0, 1, 'X');
+        game.setCell(0, 2, 'O');
+        game.setCell(0, 3, 'X');
+        game.setCell(0, 4, 'X');
+
+        assertThat(gameEngine.checkWinCondition(game, 0, 3)).isNull();
+        assertThat(gameEngine.checkWinCondition(game, 0, 2)).isNull();
+    }
+
+    @Test
+    void doesNotWrapAroundTheRowEnd() {
+        // Cells 0,3 and 1,0 are adjacent bit indexes on a 4 wide board
+        ActiveGame game = newGame(4, 4, 3);
+        game.setCell(0, 2, 'X');
+        game.setCell(0, 3, 'X');
+        game.setCell(1, 0, 'X');
+
+        assertThat(gameEngine.checkWinCondition(game, 1, 0)).isNull();
+        assertThat(gameEngine.checkWinCondition(game, 0, 3)).isNull();
+    }
+
+    @Test
+    void checksOnlyTheLastMovedPlayer() {
+        ActiveGame game = newGame(3, 3, 3);
+        game.setCell(0, 0, 'O');
+        game.setCell(0, 1, 'O');
+        game.setCell(0, 2, 'O');
+        game.setCell(1, 1, 'X');
+
+        assertThat(gameEngine.checkWinCondition(game, 1, 1)).isNull();
+        assertThat(gameEngine.checkWinCondition(game, 0, 2)).isEqualTo('O');
+        assertThat(gameEngine.checkWinCondition(game, 2, 2)).isNull();
+    }
+
+    @Test
+    void countsLongerRunsAsWins() {
+        ActiveGame game = newGame(1, 7, 3);
+        for (int col = 0; col < 7; col++) {
+            game.setCell(0, col, 'O');
+        }
+
+        assertThat(gameEngine.checkWinCondition(game, 0, 3)).isEqualTo('O');
+    }
+
+    @Test
+    void resolvesWinLength() {
+        assertThat(gameEngine.resolveWinLength(0, 3, 3)).isEqualTo(GameEngine.DEFAULT_WIN_LENGTH);
+        assertThat(gameEngine.resolveWinLength(4, 5, 5)).isEqualTo(4);
+        assertThat(gameEngine.resolveWinLength(6, 3, 5)).isEqualTo(5);
+    }
+
+    @Test
+    void playsAGameThroughMakeMove() {
+        ActiveGame game = newGame(3, 3, 3);
+        int[][] moves = {{0, 0}, {1, 0}, {0, 1}, {1, 1}, {0, 2}};
+
+        for (int i = 0; i < moves.length; i++) {
+            String player = i % 2 == 0 ? PLAYER_X : PLAYER_O;
+            assertThat(gameEngine.isIllegalMove(game, player, moves[i][0], moves[i][1])).isFalse();
+            gameEngine.makeMove(game, player, moves[i][0], moves[i][1]);
+        }
+
+        assertThat(gameEngine.checkWinCondition(game, 0, 2)).isEqualTo('X');
+        assertThat(game.getMoveCount()).isEqualTo(5);
+        assertThat(game.getCurrentTurnSessionId()).isEqualTo(PLAYER_O);
+    }
+
+    @Test
+    void rejectsIllegalMoves() {
+        ActiveGame game = newGame(3, 3, 3);
+        gameEngine.makeMove(game, PLAYER_X, 1, 1);
+
+        assertThat(gameEngine.isIllegalMove(game, PLAYER_X, 0, 0)).as("out of turn").isTrue();
+        assertThat(gameEngine.isIllegalMove(game, PLAYER_O, 1, 1)).as("occupied").isTrue();
+        assertThat(gameEngine.isIllegalMove(game, PLAYER_O, 3, 0)).as("off the board").isTrue();
+        assertThat(gameEngine.isIllegalMove(game, "someone-else", 0, 0)).as("not a player").isTrue();
+
+        game.setStatus(GameStatus.DRAW);
+        assertThat(gameEngine.isIllegalMove(game, PLAYER_O, 0, 0)).as("finished").isTrue();
+    }
+
+    @Test
+    void countsEveryWindowAsOpenOnAnEmptyBoard() {
+        int[][] boards = {{3, 3, 3}, {4, 4, 3}, {5, 7, 4}, {6, 4, 3}, {3, 5, 5}, {10, 10, 5}};
+
+        for (int[] board : boards) {
+            ActiveGame game = newGame(board[0], board[1], board[2]);
+            gameEngine.initializeCounters(game);
+
+            assertThat(game.getOpenLinesX()).isEqualTo(countOpenLines(game, 'O'));
+            assertThat(game.getOpenLinesO()).isEqualTo(countOpenLines(game, 'X'));
+        }
+    }
+
+    @Test
+    void keepsOpenLineCountsInStepWithAFullRecount() {
+        Random random = new Random(42);
+        int[][] boards = {{3, 3, 3}, {4, 4, 3}, {5, 7, 4}, {6, 4, 3}, {7, 7, 5}};
+
+        for (int[] board : boards) {
+            for (int round = 0; round < 50; round++) {
+                ActiveGame game = newGame(board[0], board[1], board[2]);
+                gameEngine.initializeCounters(game);
+
+                for (int[] move : shuffledCells(board[0], board[1], random)) {
+                    gameEngine.makeMove(game, game.getCurrentTurnSessionId(), move[0], move[1]);
+
+                    assertThat(game.getOpenLinesX()).isEqualTo(countOpenLines(game, 'O'));
+                    assertThat(game.getOpenLinesO()).isEqualTo(countOpenLines(game, 'X'));
+                }
+            }
+        }
+    }
+
+    @Test
+    void detectsEarlyDrawExactlyWhenTheFullScanFindsNoOpenLine() {
+        GameEngine earlyDrawEngine = new GameEngine(true);
+        Random random = new Random(7);
+        int[][] boards = {{3, 3, 3}, {4, 4, 3}, {5, 5, 4}, {4, 6, 4}};
+
+        for (int[] board : boards) {
+            for (int round = 0; round < 50; round++) {
+                ActiveGame game = newGame(board[0], board[1], board[2]);
+                earlyDrawEngine.initializeCounters(game);
+
+                for (int[] move : shuffledCells(board[0], board[1], random)) {
+                    earlyDrawEngine.makeMove(game, game.getCurrentTurnSessionId(), move[0], move[1]);
+
+                    boolean full = game.getMoveCount() == board[0] * board[1];
+                    boolean blocked = countOpenLines(game, 'O') == 0 && countOpenLines(game, 'X') == 0;
+                    assertThat(earlyDrawEngine.checkDrawCondition(game)).isEqualTo(full || blocked);
+                    assertThat(gameEngine.checkDrawCondition(game)).isEqualTo(full);
+                }
+            }
+        }
+    }
+
+    @Test
+    void fallsBackToTheFullBoardForGamesWithoutCounters() {
+        GameEngine earlyDrawEngine = new GameEngine(true);
+        ActiveGame game = newGame(3, 3, 3);
+        int[][] moves = {{0, 0}, {0, 1}, {0, 2}, {1, 1}, {1, 0}, {1, 2}, {2, 1}, {2, 0}};
+        for (int[] move : moves) {
+            earlyDrawEngine.makeMove(game, game.getCurrentTurnSessionId(), move[0], move[1]);
+        }
+
+        // Blocked for both players, but without counters only a full board is a draw
+        assertThat(game.getOpenLinesX()).isNull();
+        assertThat(earlyDrawEngine.checkDrawCondition(game)).isFalse();
+
+        earlyDrawEngine.makeMove(game, game.getCurrentTurnSessionId(), 2, 2);
+        assertThat(earlyDrawEngine.checkDrawCondition(game)).isTrue();
+    }
+
+    /**
+     * Counts the win-length windows without a cell of the given player, by scanning the whole board
+     */
+    private static int countOpenLines(ActiveGame game, char blocker) {
+        int rows = game.getBoardVerticalSize();
+        int cols = game.getBoardHorizontalSize();
+        int winLength = game.getWinLength();
+        int open = 0;
+
+        for (int[] direction : DIRECTIONS) {
+            for (int row = 0; row < rows; row++) {
+                for (int col = 0; col < cols; col++) {
+                    int lastRow = row + (winLength - 1) * direction[0];
+                    int lastCol = col + (winLength - 1) * direction[1];
+                    if (lastRow < 0 || lastRow >= rows || lastCol < 0 || lastCol >= cols) {
+                        continue;
+                    }
+
+                    boolean blocked = false;
+                    for (int i = 0; i < winLength && !blocked; i++) {
+                        Character cell = game.getCell(row + i * direction[0], col + i * direction[1]);
+                        blocked = cell != null && cell == blocker;
+                    }
+                    if (!blocked) {
+                        open++;
+                    }
+                }
+            }
+        }
+        return open;
+    }
+
+    private static List<int[]> shuffledCells(int rows, int cols, Random random) {
+        List<int[]> cells = new ArrayList<>();
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                cells.add(new int[]{row, col});
+            }
+        }
+        Collections.shuffle(cells, random);
+        return cells;
+    }
+
+    static ActiveGame newGame(int rows, int cols, int winLength) {
+        ActiveGame game = new ActiveGame();
+        game.setGameId("game");
+        game.setBoardVerticalSize(rows);
+        game.setBoardHorizontalSize(cols);
+        game.setWinLength(winLength);
+        game.setSessionIdX(PLAYER_X);
+        game.setSessionIdO(PLAYER_O);
+        game.setCurrentTurnSessionId(PLAYER_X);
+        game.setStatus(GameStatus.IN_PROGRESS);
+        return game;
+    }
+
+}
@@ -0,0 +1,102 @@
+package com.multiplayer.tictactoe.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MoveListCodecTest {
+
+    @Test
+    void roundTripsMoveLists() {
+        Random random = new Random(42);
+        int[] boardCells = {9, 16, 128, 129, 10_000, 1 << 21, 1 << 28};
+
+        for (int cells : boardCells) {
+            for (int round = 0; round < 20; round++) {
+                int[] moves = new int[random.nextInt(50)];
+                for (int i = 0; i < moves.length; i++) {
+                    moves[i] = random.nextInt(cells);
+                }
+
+                assertThat(MoveListCodec.decode(MoveListCodec.encode(moves))).containsExactly(moves);
+            }
+        }
+    }
+
+    @Test
+    void roundTripsVarintBoundaries() {
+        int[] moves = {0, 127, 128, 16_383, 16_384, 2_097_151, 2_097_152, 268_435_455};
+
+        byte[] encoded = MoveListCodec.encode(moves);
+
+        assertThat(encoded).hasSize(1 + 1 + 1 + 2 + 2 + 3 + 3 + 4 + 4);
+        assertThat(MoveListCodec.decode(encoded)).containsExactly(moves);
+    }
+
+    @Test
+    void storesASmallGameInOneBytePerMove() {
+        byte[] encoded = MoveListCodec.encode(new int[]{4, 0, 8, 2, 6, 1, 3, 5, 7});
+
+        assertThat(encoded).hasSize(10);
+        assertThat(encoded[0]).isEqualTo(MoveListCodec.VERSION);
+    }
+
+    @Test
+    void decodesMissingListsAsEmpty() {
+        assertThat(MoveListCodec.decode(null)).isEmpty();
+        assertThat(MoveListCodec.decode(new byte[0])).isEmpty();
+        assertThat(MoveListCodec.decode(MoveListCodec.encode(new int[0]))).isEmpty();
+    }
+
+    @Test
+    void rejectsTruncatedVarints() {
+        assertThatThrownBy(() -> MoveListCodec.decode(bytes(MoveListCodec.VERSION, 0x80)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Truncated");
+        assertThatThrownBy(() -> MoveListCodec.decode(bytes(MoveListCodec.VERSION, 4, 0x81, 0x80)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Truncated");
+
+        // Dropping the last byte of a multi-byte move leaves a truncated list
+        byte[] encoded = MoveListCodec.encode(new int[]{3, 300});
+        byte[] cut = new byte[encoded.length - 1];
+        System.arraycopy(encoded, 0, cut, 0, cut.length);
+        assertThatThrownBy(() -> MoveListCodec.decode(cut))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rejectsMalformedVarints() {
+        assertThatThrownBy(() -> MoveListCodec.decode(bytes(MoveListCodec.VERSION, 0x80, 0x80, 0x80, 0x80, 0x80, 0x01)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Malformed");
+        assertThatThrownBy(() -> MoveListCodec.decode(bytes(2, 1, 2, 3)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("version");
+    }
+
+    @Test
+    void replaysTheFirstMovesWithXMovingFirst() {
+        int[] moves = {4, 0, 8, 2};
+
+        BitBoard board = MoveListCodec.replay(moves, 3, 3, 3);
+
+        assertThat(board.get(1, 1)).isEqualTo(BitBoard.PLAYER_X);
+        assertThat(board.get(0, 0)).isEqualTo(BitBoard.PLAYER_O);
+        assertThat(board.get(2, 2)).isEqualTo(BitBoard.PLAYER_X);
+        assertThat(board.get(0, 2)).isNull();
+        assertThat(MoveListCodec.replay(moves, 10, 3, 3).count(BitBoard.PLAYER_O)).isEqualTo(2);
+    }
+
+    private static byte[] bytes(int... values) {
+        byte[] bytes = new byte[values.length];
+        for (int i = 0; i < values.length; i++) {
+            bytes[i] = (byte) values[i];
+        }
+        return bytes;
+    }
+
+}
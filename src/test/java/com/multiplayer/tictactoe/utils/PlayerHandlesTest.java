@@ -0,0 +1,51 @@
+package com.multiplayer.tictactoe.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PlayerHandlesTest {
+
+    private final PlayerHandles playerHandles = new PlayerHandles("secret");
+
+    @Test
+    void turnsHandlesBackIntoSessionIds() {
+        String handle = playerHandles.toHandle("session-x");
+
+        assertThat(handle).doesNotContain("session");
+        assertThat(playerHandles.toSessionId(handle)).contains("session-x");
+    }
+
+    @Test
+    void givesAPlayerTheSameHandleEveryTime() {
+        assertThat(playerHandles.toHandle("session-x")).isEqualTo(new PlayerHandles("secret").toHandle("session-x"));
+        assertThat(playerHandles.toHandle("session-x")).isNotEqualTo(playerHandles.toHandle("session-o"));
+    }
+
+    @Test
+    void knowsOnlyHandlesIssuedUnderItsSecret() {
+        String handle = new PlayerHandles("other").toHandle("session-x");
+
+        assertThat(new PlayerHandles("other").toSessionId(handle)).contains("session-x");
+        assertThat(playerHandles.toSessionId(handle)).isEmpty();
+        assertThat(new PlayerHandles("").toSessionId(playerHandles.toHandle("session-x"))).isEmpty();
+    }
+
+    @Test
+    void rejectsTamperedAndMalformedHandles() {
+        String handle = playerHandles.toHandle("session-x");
+        char last = handle.charAt(handle.length() - 1);
+        String tampered = handle.substring(0, handle.length() - 1) + (last == 'A' ? 'B' : 'A');
+
+        assertThat(playerHandles.toSessionId(tampered)).isEmpty();
+        assertThat(playerHandles.toSessionId("session-x")).isEmpty();
+        assertThat(playerHandles.toSessionId("not base64!")).isEmpty();
+        assertThat(playerHandles.toSessionId("")).isEmpty();
+    }
+
+    @Test
+    void keepsNullAsNull() {
+        assertThat(playerHandles.toHandle(null)).isNull();
+    }
+
+}